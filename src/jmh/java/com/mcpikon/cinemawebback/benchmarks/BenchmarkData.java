@@ -0,0 +1,79 @@
+package com.mcpikon.cinemawebback.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mcpikon.cinemawebback.dtos.MovieDTO;
+import com.mcpikon.cinemawebback.dtos.ReviewDTO;
+import com.mcpikon.cinemawebback.dtos.SeriesDTO;
+import com.mcpikon.cinemawebback.models.*;
+import com.mcpikon.cinemawebback.utils.DTOMapper;
+import org.bson.types.ObjectId;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Documents shaped like the ones stored in production, built once per benchmark trial
+public class BenchmarkData {
+    private static final int EPISODES_PER_SEASON = 20;
+    private static final int LATEST_REVIEWS = 5;
+
+    private BenchmarkData() {}
+
+    // Same setup as the mapper Spring Boot configures for the controllers
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    public static MovieDTO movieDTO() {
+        return new MovieDTO("tt0111161", "The Shawshank Redemption", "Two imprisoned men bond over a number of years.", "142 min",
+                "Frank Darabont", "1994-09-23", "https://www.youtube.com/watch?v=PLl99DlL6b4", List.of("Drama", "Crime"),
+                "https://image.tmdb.org/t/p/original/poster.jpg", "https://image.tmdb.org/t/p/original/backdrop.jpg");
+    }
+
+    public static Movie movie() {
+        Movie movie = DTOMapper.dtoToMovie(movieDTO());
+        movie.setId(new ObjectId());
+        movie.setLatestReviews(latestReviews());
+        movie.setRatingStats(new RatingStats(1250, 5012, Map.of("1", 20L, "2", 45L, "3", 180L, "4", 420L, "5", 585L)));
+        return movie;
+    }
+
+    public static SeriesDTO seriesDTO(int seasons) {
+        List<Series.Season> seasonList = new ArrayList<>(seasons);
+        for (int season = 1; season <= seasons; season++) {
+            List<Series.Season.Episode> episodes = new ArrayList<>(EPISODES_PER_SEASON);
+            for (int episode = 1; episode <= EPISODES_PER_SEASON; episode++)
+                episodes.add(new Series.Season.Episode("Episode " + episode, "2008-01-20", "47 min", "Season " + season + " episode " + episode + " of the series."));
+            seasonList.add(new Series.Season("Season " + season + " overview.", episodes, "https://image.tmdb.org/t/p/original/season.jpg"));
+        }
+        return new SeriesDTO("tt0903747", "Breaking Bad", "A chemistry teacher turns to manufacturing methamphetamine.", seasons,
+                "Vince Gilligan", "2008-01-20", "https://www.youtube.com/watch?v=HhesaQXLuRY", List.of("Drama", "Crime", "Thriller"),
+                seasonList, "https://image.tmdb.org/t/p/original/poster.jpg", "https://image.tmdb.org/t/p/original/backdrop.jpg");
+    }
+
+    public static Series series(int seasons) {
+        Series series = DTOMapper.dtoToSeries(seriesDTO(seasons));
+        series.setId(new ObjectId());
+        series.setLatestReviews(latestReviews());
+        series.setRatingStats(new RatingStats(830, 3901, Map.of("1", 4L, "2", 11L, "3", 60L, "4", 200L, "5", 555L)));
+        return series;
+    }
+
+    public static ReviewDTO reviewDTO() {
+        return new ReviewDTO("Still holds up", 5, "A patient film that earns every minute of its ending.");
+    }
+
+    public static Review review() {
+        return Review.builder().id(new ObjectId()).version(3L).imdbId("tt0111161").title("Holds up").rating(4)
+                .body("A patient film.").createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
+    }
+
+    private static List<ReviewPreview> latestReviews() {
+        List<ReviewPreview> previews = new ArrayList<>(LATEST_REVIEWS);
+        for (int i = 0; i < LATEST_REVIEWS; i++) previews.add(DTOMapper.reviewToPreview(review()));
+        return previews;
+    }
+}
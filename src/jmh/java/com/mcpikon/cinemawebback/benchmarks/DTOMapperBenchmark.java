@@ -0,0 +1,59 @@
+package com.mcpikon.cinemawebback.benchmarks;
+
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
+import com.mcpikon.cinemawebback.dtos.ReviewDTO;
+import com.mcpikon.cinemawebback.dtos.SeriesDTO;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.utils.DTOMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DTOMapperBenchmark {
+    private Movie movie;
+    private Review review;
+    private ReviewDTO reviewDTO;
+
+    @State(Scope.Thread)
+    public static class SeriesState {
+        @Param({"1", "20"})
+        private int seasons;
+
+        private SeriesDTO seriesDTO;
+
+        @Setup
+        public void setup() {
+            seriesDTO = BenchmarkData.seriesDTO(seasons);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        movie = BenchmarkData.movie();
+        review = BenchmarkData.review();
+        reviewDTO = BenchmarkData.reviewDTO();
+    }
+
+    @Benchmark
+    public MovieResponseDTO movieToResponseDTO() {
+        return DTOMapper.movieToResponseDTO(movie);
+    }
+
+    @Benchmark
+    public Series dtoToSeries(SeriesState state) {
+        return DTOMapper.dtoToSeries(state.seriesDTO);
+    }
+
+    @Benchmark
+    public Review dtoToReviewUpdate() {
+        return DTOMapper.dtoToReviewUpdate(review, reviewDTO);
+    }
+}
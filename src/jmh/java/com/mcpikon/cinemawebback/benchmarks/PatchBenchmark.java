@@ -0,0 +1,79 @@
+package com.mcpikon.cinemawebback.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.utils.PatchUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both patch paths of the services: the field level update most patches are translated to, and the
+ * convert, apply and treeToValue round trip over the whole document the rest of them fall back to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatchBenchmark {
+    private static final String PATCH = "[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"patched title\"}, {\"op\": \"add\", \"path\": \"/genres/-\", \"value\": \"Thriller\"}]";
+
+    private ObjectMapper objectMapper;
+    private JsonPatch jsonPatch;
+    private Movie movie;
+    private MongoPersistentEntity<?> movieEntity;
+
+    @State(Scope.Thread)
+    public static class SeriesState {
+        @Param({"1", "20"})
+        private int seasons;
+
+        private Series series;
+
+        @Setup
+        public void setup() {
+            series = BenchmarkData.series(seasons);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = BenchmarkData.objectMapper();
+        jsonPatch = objectMapper.readValue(PATCH, JsonPatch.class);
+        movie = BenchmarkData.movie();
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        movieEntity = mappingContext.getRequiredPersistentEntity(Movie.class);
+    }
+
+    @Benchmark
+    public Optional<Update> movieToUpdate() {
+        return PatchUtils.toUpdate(objectMapper.convertValue(jsonPatch, JsonNode.class), movieEntity, objectMapper);
+    }
+
+    @Benchmark
+    public Movie movieRoundTrip() throws JsonPatchException, IOException {
+        JsonNode patched = jsonPatch.apply(objectMapper.convertValue(movie, JsonNode.class));
+        return objectMapper.treeToValue(patched, Movie.class);
+    }
+
+    @Benchmark
+    public Series seriesRoundTrip(SeriesState state) throws JsonPatchException, IOException {
+        JsonNode patched = jsonPatch.apply(objectMapper.convertValue(state.series, JsonNode.class));
+        return objectMapper.treeToValue(patched, Series.class);
+    }
+}
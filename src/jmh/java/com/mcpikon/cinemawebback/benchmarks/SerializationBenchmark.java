@@ -0,0 +1,51 @@
+package com.mcpikon.cinemawebback.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Response bodies of findById and findByImdbId, series are measured with the largest season lists served
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private Movie movie;
+
+    // Only the series benchmarks are repeated for every season list size
+    @State(Scope.Thread)
+    public static class SeriesState {
+        @Param({"1", "20", "100"})
+        private int seasons;
+
+        private Series series;
+
+        @Setup
+        public void setup() {
+            series = BenchmarkData.series(seasons);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        objectMapper = BenchmarkData.objectMapper();
+        movie = BenchmarkData.movie();
+    }
+
+    @Benchmark
+    public byte[] movie() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public byte[] series(SeriesState state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.series);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mcpikon.cinemawebback.load;
+
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ids of the seeded catalog. Movie and series imdbIds are derived from their position, reviews are too many to keep
+ * so only a uniform sample of their ids is.
+ */
+public record Catalog(List<ObjectId> movieIds, List<ObjectId> seriesIds, List<ObjectId> reviewIds) {
+    public static final String[] TITLE_WORDS = {"night", "river", "shadow", "empire", "summer", "ghost", "city", "storm",
+            "silent", "golden", "last", "lost", "broken", "wild", "secret", "dark", "blue", "iron", "winter", "star"};
+    public static final String[] GENRES = {"Drama", "Comedy", "Action", "Thriller", "Horror", "Romance", "Documentary", "Animation"};
+    public static final int FIRST_YEAR = 1950;
+    public static final int YEARS = 75;
+
+    public static String movieImdbId(int index) {
+        return String.format("tt0%07d", index);
+    }
+
+    public static String seriesImdbId(int index) {
+        return String.format("tt1%07d", index);
+    }
+
+    public static String titleOf(int index) {
+        return TITLE_WORDS[index % TITLE_WORDS.length] + " " + TITLE_WORDS[(index / TITLE_WORDS.length) % TITLE_WORDS.length] + " " + index;
+    }
+
+    public int randomMovie(Random random) {
+        return random.nextInt(movieIds.size());
+    }
+
+    public int randomSeries(Random random) {
+        return random.nextInt(seriesIds.size());
+    }
+
+    public ObjectId randomReviewId(Random random) {
+        return reviewIds.get(random.nextInt(reviewIds.size()));
+    }
+
+    public String randomParentImdbId(Random random) {
+        int index = random.nextInt(movieIds.size() + seriesIds.size());
+        return index < movieIds.size() ? movieImdbId(index) : seriesImdbId(index - movieIds.size());
+    }
+}
@@ -0,0 +1,151 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.mcpikon.cinemawebback.models.*;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import com.mongodb.client.model.InsertManyOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Seeds movies, series with seasons and episodes, their reviews and the imdbId registry with unordered insertMany
+ * chunks, bypassing the services so a 50M reviews catalog does not take a day to load.
+ * Parents are written as the services leave them: rating stats and latest reviews previews match their reviews, and
+ * the title suffixes the save listener would have stored are set by hand since the documents skip the listener.
+ * The same seed always produces the same catalog, so reports of different commits are comparable.
+ */
+@Slf4j
+public class CatalogGenerator {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int REVIEW_SAMPLE_SIZE = 100_000;
+    private static final int LATEST_REVIEWS_SIZE = 5;
+    private static final LocalDateTime CATALOG_START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private final MongoTemplate mongoTemplate;
+    private final LoadSettings settings;
+    private final Random random;
+    private final Map<Class<?>, List<Document>> chunks = new HashMap<>();
+    private final List<ObjectId> reviewSample = new ArrayList<>();
+    private long reviewsSeen;
+
+    public CatalogGenerator(MongoTemplate mongoTemplate, LoadSettings settings) {
+        this.mongoTemplate = mongoTemplate;
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+    }
+
+    public Catalog generate() {
+        long parents = (long) settings.movies() + settings.series();
+        List<ObjectId> movieIds = new ArrayList<>(settings.movies());
+        List<ObjectId> seriesIds = new ArrayList<>(settings.series());
+        long started = System.nanoTime();
+
+        for (int i = 0; i < settings.movies(); i++) {
+            Movie movie = movieOf(i);
+            movie.setLatestReviews(seedReviews(movie.getImdbId(), reviewsOf(i, parents), movie.getRatingStats()));
+            movieIds.add(movie.getId());
+            add(Movie.class, movie);
+            add(ImdbIdEntry.class, new ImdbIdEntry(movie.getImdbId(), ImdbIdEntry.Type.MOVIE));
+        }
+        for (int i = 0; i < settings.series(); i++) {
+            Series series = seriesOf(i);
+            series.setLatestReviews(seedReviews(series.getImdbId(), reviewsOf(settings.movies() + i, parents), series.getRatingStats()));
+            seriesIds.add(series.getId());
+            add(Series.class, series);
+            add(ImdbIdEntry.class, new ImdbIdEntry(series.getImdbId(), ImdbIdEntry.Type.SERIES));
+        }
+        chunks.keySet().forEach(this::flush);
+
+        log.info(String.format("Seeded %s movies, %s series and %s reviews in %s s", settings.movies(), settings.series(), reviewsSeen,
+                (System.nanoTime() - started) / 1_000_000_000));
+        return new Catalog(movieIds, seriesIds, List.copyOf(reviewSample));
+    }
+
+    // Reviews are spread evenly, the first parents take the remainder
+    private long reviewsOf(long parentIndex, long parents) {
+        return settings.reviews() / parents + (parentIndex < settings.reviews() % parents ? 1 : 0);
+    }
+
+    private Movie movieOf(int index) {
+        return Movie.builder().id(new ObjectId()).version(0L).imdbId(Catalog.movieImdbId(index)).title(Catalog.titleOf(index))
+                .titleSuffixes(FilterUtils.titleSuffixesOf(Catalog.titleOf(index)))
+                .overview("Synthetic movie " + index + " of the load test catalog.").duration((80 + index % 100) + " min")
+                .director("Director " + index % 5000).releaseDate(releaseDateOf(index)).trailerLink("https://www.youtube.com/watch?v=" + index)
+                .genres(genresOf(index)).poster("https://image.tmdb.org/t/p/original/" + index + ".jpg")
+                .backdrop("https://image.tmdb.org/t/p/original/" + index + "-backdrop.jpg").ratingStats(RatingStats.empty()).build();
+    }
+
+    private Series seriesOf(int index) {
+        List<Series.Season> seasons = new ArrayList<>(settings.seasons());
+        for (int season = 1; season <= settings.seasons(); season++) {
+            List<Series.Season.Episode> episodes = new ArrayList<>(settings.episodes());
+            for (int episode = 1; episode <= settings.episodes(); episode++)
+                episodes.add(new Series.Season.Episode("Episode " + episode, releaseDateOf(index + season), (30 + episode % 30) + " min",
+                        "Season " + season + " episode " + episode + " of synthetic series " + index + "."));
+            seasons.add(new Series.Season("Season " + season + " of synthetic series " + index + ".", episodes, "https://image.tmdb.org/t/p/original/" + index + "-" + season + ".jpg"));
+        }
+        return Series.builder().id(new ObjectId()).version(0L).imdbId(Catalog.seriesImdbId(index)).title(Catalog.titleOf(index))
+                .titleSuffixes(FilterUtils.titleSuffixesOf(Catalog.titleOf(index)))
+                .overview("Synthetic series " + index + " of the load test catalog.").numberOfSeasons(settings.seasons())
+                .creator("Creator " + index % 2000).releaseDate(releaseDateOf(index)).trailerLink("https://www.youtube.com/watch?v=s" + index)
+                .genres(genresOf(index)).seasonList(seasons).poster("https://image.tmdb.org/t/p/original/s" + index + ".jpg")
+                .backdrop("https://image.tmdb.org/t/p/original/s" + index + "-backdrop.jpg").ratingStats(RatingStats.empty()).build();
+    }
+
+    // Reviews are created oldest first, so the last ones are the newest previews of their parent
+    private List<ReviewPreview> seedReviews(String imdbId, long count, RatingStats ratingStats) {
+        Deque<ReviewPreview> latest = new ArrayDeque<>(LATEST_REVIEWS_SIZE);
+        for (long i = 0; i < count; i++) {
+            LocalDateTime createdAt = CATALOG_START.plusMinutes(i * 10 + random.nextInt(10));
+            Review review = Review.builder().id(new ObjectId()).version(0L).imdbId(imdbId).title("Review " + i + " of " + imdbId)
+                    .rating(random.nextInt(6)).body("Synthetic review body number " + i + " written for " + imdbId + ".")
+                    .createdAt(createdAt).updatedAt(createdAt).build();
+            ratingStats.setCount(ratingStats.getCount() + 1);
+            ratingStats.setSum(ratingStats.getSum() + review.getRating());
+            ratingStats.getHistogram().merge(String.valueOf(review.getRating()), 1L, Long::sum);
+            if (latest.size() == LATEST_REVIEWS_SIZE) latest.removeLast();
+            latest.addFirst(new ReviewPreview(review.getId(), review.getTitle(), review.getRating(), review.getBody(), review.getCreatedAt()));
+            sample(review.getId());
+            add(Review.class, review);
+        }
+        return new ArrayList<>(latest);
+    }
+
+    // Reservoir sampling keeps a uniform sample of review ids for the read and update routes
+    private void sample(ObjectId reviewId) {
+        reviewsSeen++;
+        if (reviewSample.size() < REVIEW_SAMPLE_SIZE) reviewSample.add(reviewId);
+        else {
+            long slot = (long) (random.nextDouble() * reviewsSeen);
+            if (slot < REVIEW_SAMPLE_SIZE) reviewSample.set((int) slot, reviewId);
+        }
+    }
+
+    private String releaseDateOf(int index) {
+        return String.format("%d-%02d-%02d", Catalog.FIRST_YEAR + index % Catalog.YEARS, 1 + index % 12, 1 + index % 28);
+    }
+
+    private List<String> genresOf(int index) {
+        String[] genres = Catalog.GENRES;
+        return List.of(genres[index % genres.length], genres[(index / genres.length) % genres.length]);
+    }
+
+    private void add(Class<?> entityClass, Object entity) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        List<Document> chunk = chunks.computeIfAbsent(entityClass, key -> new ArrayList<>(CHUNK_SIZE));
+        chunk.add(document);
+        if (chunk.size() >= CHUNK_SIZE) flush(entityClass);
+    }
+
+    private void flush(Class<?> entityClass) {
+        List<Document> chunk = chunks.get(entityClass);
+        if (chunk.isEmpty()) return;
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass)).insertMany(chunk, new InsertManyOptions().ordered(false));
+        chunk.clear();
+    }
+}
@@ -0,0 +1,69 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed model driver: every worker sends its next request as soon as the previous one is answered, so throughput is
+ * what the service sustains at the configured concurrency. Workers are virtual threads with their own seeded random.
+ */
+@Slf4j
+public class LoadDriver {
+    private final HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    private final LoadMix mix;
+    private final ObjectMapper objectMapper;
+    private final LoadSettings settings;
+
+    public LoadDriver(LoadMix mix, ObjectMapper objectMapper, LoadSettings settings) {
+        this.mix = mix;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+    }
+
+    public void run(Duration duration, LoadReport report) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < settings.concurrency(); worker++) {
+                Random random = new Random(settings.seed() + worker);
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline) send(mix.next(random), random, report);
+                });
+            }
+            workers.shutdown();
+            if (!workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS))
+                log.warn("Load workers did not finish after the run, their last requests are missing from the report");
+        }
+    }
+
+    private void send(LoadMix.Route route, Random random, LoadReport report) {
+        HttpRequest request = route.request().apply(random);
+        if (request == null) return;
+        long started = System.nanoTime();
+        try {
+            // Only saves read their body, the rest are drained without buffering the larger pages and streams
+            if (route.onCreated() == null) {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                report.record(route.name(), System.nanoTime() - started, response.statusCode());
+                return;
+            }
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            report.record(route.name(), System.nanoTime() - started, response.statusCode());
+            if (response.statusCode() == 201) route.onCreated().accept(objectMapper.readTree(response.body()).path("id").asText());
+        } catch (IOException e) {
+            report.record(route.name(), System.nanoTime() - started, 0);
+            log.error(String.format("Error in load route %s [%s]", route.name(), e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcpikon.cinemawebback.dtos.MovieDTO;
+import com.mcpikon.cinemawebback.dtos.ReviewDTO;
+import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
+import com.mcpikon.cinemawebback.dtos.SeriesDTO;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Weighted mix of every /api/v1 route, reads dominate as they do in production.
+ * Writes update the seeded catalog, while deletes only remove what the run itself created, so the catalog keeps its size
+ * for the whole run. A route without anything to work on (a delete before any save) is skipped for that turn.
+ */
+public class LoadMix {
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGE = 100;
+    private static final int BULK_SIZE = 10;
+    // A full export is not part of a request mix once the catalog is large, it is still measured on small ones
+    private static final long STREAM_MAX_REVIEWS = 1_000_000L;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    public record Route(String name, int weight, Function<Random, HttpRequest> request, Consumer<String> onCreated) {}
+
+    private final String baseUri;
+    private final Catalog catalog;
+    private final LoadSettings settings;
+    private final ObjectMapper objectMapper;
+    private final Queue<String> createdMovies = new ConcurrentLinkedQueue<>();
+    private final Queue<String> createdSeries = new ConcurrentLinkedQueue<>();
+    private final Queue<String> createdReviews = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger newImdbIds = new AtomicInteger();
+    private final List<Route> routes = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadMix(String baseUri, Catalog catalog, LoadSettings settings, ObjectMapper objectMapper) {
+        this.baseUri = baseUri + "/api/v1";
+        this.catalog = catalog;
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+
+        route("movies.findAll", 6, random -> get("/movies/findAll?size=" + PAGE_SIZE + "&page=" + random.nextInt(pagesOf(settings.movies()))));
+        route("movies.search", 4, random -> get("/movies/findAll?title=" + Catalog.TITLE_WORDS[random.nextInt(Catalog.TITLE_WORDS.length)]));
+        route("movies.cursor", 3, random -> get("/movies/findAll?size=" + PAGE_SIZE + "&after=" + CursorUtils.encode(catalog.movieIds().get(catalog.randomMovie(random)))));
+        route("movies.browse", 3, random -> get("/movies/findAll?size=" + PAGE_SIZE + "&genre=" + Catalog.GENRES[random.nextInt(Catalog.GENRES.length)]
+                + "&year=" + (Catalog.FIRST_YEAR + random.nextInt(Catalog.YEARS))));
+        route("movies.facets", 3, random -> get("/movies/facets"));
+        route("movies.findById", 12, random -> get("/movies/findById/" + catalog.movieIds().get(catalog.randomMovie(random))));
+        route("movies.findByImdbId", 12, random -> get("/movies/findByImdbId/" + Catalog.movieImdbId(catalog.randomMovie(random))));
+        route("movies.save", 1, random -> post("/movies/save", movieDTO(nextImdbId("tt2"), random)), createdMovies::add);
+        route("movies.bulk", 1, random -> post("/movies/bulk", bulkOf(() -> movieDTO(nextImdbId("tt2"), random))));
+        route("movies.update", 1, random -> {
+            int index = catalog.randomMovie(random);
+            return put("/movies/update/" + catalog.movieIds().get(index), movieDTO(Catalog.movieImdbId(index), random));
+        });
+        route("movies.patch", 1, random -> patch("/movies/patch/" + catalog.movieIds().get(catalog.randomMovie(random)), "/overview"));
+        route("movies.delete", 1, random -> delete("/movies/delete/", createdMovies));
+
+        route("series.findAll", 3, random -> get("/series/findAll?size=" + PAGE_SIZE + "&page=" + random.nextInt(pagesOf(settings.series()))));
+        route("series.search", 2, random -> get("/series/findAll?title=" + Catalog.TITLE_WORDS[random.nextInt(Catalog.TITLE_WORDS.length)]));
+        route("series.cursor", 2, random -> get("/series/findAll?size=" + PAGE_SIZE + "&after=" + CursorUtils.encode(catalog.seriesIds().get(catalog.randomSeries(random)))));
+        route("series.browse", 2, random -> get("/series/findAll?size=" + PAGE_SIZE + "&genre=" + Catalog.GENRES[random.nextInt(Catalog.GENRES.length)]
+                + "&year=" + (Catalog.FIRST_YEAR + random.nextInt(Catalog.YEARS))));
+        route("series.facets", 2, random -> get("/series/facets"));
+        route("series.findById", 6, random -> get("/series/findById/" + catalog.seriesIds().get(catalog.randomSeries(random))));
+        route("series.findByImdbId", 6, random -> get("/series/findByImdbId/" + Catalog.seriesImdbId(catalog.randomSeries(random))));
+        route("series.save", 1, random -> post("/series/save", seriesDTO(nextImdbId("tt3"), random)), createdSeries::add);
+        route("series.bulk", 1, random -> post("/series/bulk", bulkOf(() -> seriesDTO(nextImdbId("tt3"), random))));
+        route("series.update", 1, random -> {
+            int index = catalog.randomSeries(random);
+            return put("/series/update/" + catalog.seriesIds().get(index), seriesDTO(Catalog.seriesImdbId(index), random));
+        });
+        route("series.patch", 1, random -> patch("/series/patch/" + catalog.seriesIds().get(catalog.randomSeries(random)), "/overview"));
+        route("series.delete", 1, random -> delete("/series/delete/", createdSeries));
+
+        route("reviews.findAll", 3, random -> get("/reviews/findAll?size=" + PAGE_SIZE + "&page=" + random.nextInt(pagesOf(settings.reviews()))));
+        route("reviews.cursor", 2, random -> get("/reviews/findAll?size=" + PAGE_SIZE + "&after=" + CursorUtils.encode(catalog.randomReviewId(random))));
+        route("reviews.findAllByImdbId", 10, random -> get("/reviews/findAllByImdbId/" + catalog.randomParentImdbId(random) + "?size=" + PAGE_SIZE));
+        route("reviews.stats", 6, random -> get("/reviews/stats/" + catalog.randomParentImdbId(random)));
+        route("reviews.findById", 6, random -> get("/reviews/findById/" + catalog.randomReviewId(random)));
+        route("reviews.stream", settings.reviews() <= STREAM_MAX_REVIEWS ? 1 : 0, random -> get("/reviews/stream"));
+        route("reviews.save", 4, random -> post("/reviews/save", new ReviewSaveDTO("Load review", random.nextInt(6), "Written by the load test.", catalog.randomParentImdbId(random))), createdReviews::add);
+        route("reviews.update", 2, random -> put("/reviews/update/" + catalog.randomReviewId(random), new ReviewDTO("Updated review", random.nextInt(6), "Updated by the load test.")));
+        route("reviews.patch", 2, random -> patch("/reviews/patch/" + catalog.randomReviewId(random), "/body"));
+        route("reviews.delete", 2, random -> delete("/reviews/delete/", createdReviews));
+    }
+
+    public Route next(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Route route : routes) {
+            ticket -= route.weight();
+            if (ticket < 0) return route;
+        }
+        throw new IllegalStateException("Every route of the mix has weight 0");
+    }
+
+    private void route(String name, int defaultWeight, Function<Random, HttpRequest> request) {
+        route(name, defaultWeight, request, null);
+    }
+
+    private void route(String name, int defaultWeight, Function<Random, HttpRequest> request, Consumer<String> onCreated) {
+        int weight = settings.weightOf(name, defaultWeight);
+        if (weight <= 0) return;
+        routes.add(new Route(name, weight, request, onCreated));
+        totalWeight += weight;
+    }
+
+    private static int pagesOf(long documents) {
+        return (int) Math.max(1, Math.min(MAX_PAGE, documents / PAGE_SIZE));
+    }
+
+    private String nextImdbId(String prefix) {
+        return String.format("%s%07d", prefix, newImdbIds.incrementAndGet());
+    }
+
+    private MovieDTO movieDTO(String imdbId, Random random) {
+        int index = random.nextInt(Integer.MAX_VALUE);
+        return new MovieDTO(imdbId, Catalog.titleOf(index), "Movie written by the load test.", "120 min", "Director " + index % 5000,
+                "2024-01-01", "https://www.youtube.com/watch?v=" + imdbId, List.of("Drama"), "https://image.tmdb.org/t/p/original/" + imdbId + ".jpg", null);
+    }
+
+    private SeriesDTO seriesDTO(String imdbId, Random random) {
+        int index = random.nextInt(Integer.MAX_VALUE);
+        List<Series.Season.Episode> episodes = new ArrayList<>(settings.episodes());
+        for (int episode = 1; episode <= settings.episodes(); episode++)
+            episodes.add(new Series.Season.Episode("Episode " + episode, "2024-01-01", "45 min", "Episode written by the load test."));
+        List<Series.Season> seasons = new ArrayList<>(settings.seasons());
+        for (int season = 1; season <= settings.seasons(); season++) seasons.add(new Series.Season("Season " + season, episodes, null));
+        return new SeriesDTO(imdbId, Catalog.titleOf(index), "Series written by the load test.", settings.seasons(), "Creator " + index % 2000,
+                "2024-01-01", "https://www.youtube.com/watch?v=" + imdbId, List.of("Drama"), seasons, null, null);
+    }
+
+    private List<Object> bulkOf(Supplier<Object> item) {
+        List<Object> items = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) items.add(item.get());
+        return items;
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        return request(path).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(json(body))).build();
+    }
+
+    private HttpRequest put(String path, Object body) {
+        return request(path).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(json(body))).build();
+    }
+
+    private HttpRequest patch(String path, String field) {
+        String operations = String.format("[{\"op\": \"replace\", \"path\": \"%s\", \"value\": \"Patched by the load test at %s\"}]", field, System.nanoTime());
+        return request(path).header("Content-Type", "application/json").method("PATCH", HttpRequest.BodyPublishers.ofString(operations)).build();
+    }
+
+    private HttpRequest delete(String path, Queue<String> created) {
+        String id = created.poll();
+        return id == null ? null : request(path + id).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
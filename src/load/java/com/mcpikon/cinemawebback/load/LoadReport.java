@@ -0,0 +1,107 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and status counts per route. The JSON written at the end has stable keys so the reports of
+ * two commits can be diffed, or compared with -Dload.baseline=<report of the previous commit>.
+ */
+public class LoadReport {
+    private static final Map<String, Double> PERCENTILES = Map.of("p50Ms", 50.0, "p90Ms", 90.0, "p95Ms", 95.0, "p99Ms", 99.0, "p999Ms", 99.9);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+
+    private static class RouteStats {
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+    }
+
+    // Status 0 is a request that failed without response, it counts as a server error
+    public void record(String route, long elapsedNanos, int status) {
+        RouteStats stats = routes.computeIfAbsent(route, key -> new RouteStats());
+        stats.latencies.recordValue(Math.max(1, elapsedNanos / 1000));
+        if (status == 0 || status >= 500) stats.serverErrors.increment();
+        else if (status >= 400) stats.clientErrors.increment();
+    }
+
+    public long serverErrors() {
+        return routes.values().stream().mapToLong(stats -> stats.serverErrors.sum()).sum();
+    }
+
+    public Map<String, Object> summary(LoadSettings settings, Duration measured, boolean virtualThreads) {
+        double seconds = measured.toMillis() / 1000.0;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("label", settings.label());
+        summary.put("finishedAt", LocalDateTime.now().toString());
+        summary.put("virtualThreads", virtualThreads);
+        summary.put("catalog", Map.of("movies", settings.movies(), "series", settings.series(), "seasons", settings.seasons(),
+                "episodes", settings.episodes(), "reviews", settings.reviews()));
+        summary.put("concurrency", settings.concurrency());
+        summary.put("durationSeconds", seconds);
+
+        long total = 0;
+        Map<String, Object> routeSummaries = new TreeMap<>();
+        for (Map.Entry<String, RouteStats> route : routes.entrySet()) {
+            Histogram latencies = route.getValue().latencies;
+            total += latencies.getTotalCount();
+            Map<String, Object> routeSummary = new LinkedHashMap<>();
+            routeSummary.put("requests", latencies.getTotalCount());
+            routeSummary.put("throughput", round(latencies.getTotalCount() / seconds));
+            routeSummary.put("clientErrors", route.getValue().clientErrors.sum());
+            routeSummary.put("serverErrors", route.getValue().serverErrors.sum());
+            PERCENTILES.entrySet().stream().sorted(Map.Entry.comparingByValue()).forEach(percentile ->
+                    routeSummary.put(percentile.getKey(), round(latencies.getValueAtPercentile(percentile.getValue()) / 1000.0)));
+            routeSummary.put("maxMs", round(latencies.getMaxValue() / 1000.0));
+            routeSummaries.put(route.getKey(), routeSummary);
+        }
+        summary.put("requests", total);
+        summary.put("throughput", round(total / seconds));
+        summary.put("routes", routeSummaries);
+        return summary;
+    }
+
+    public Path write(Map<String, Object> summary, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        Path report = reportDir.resolve("load-" + summary.get("label") + ".json");
+        OBJECT_MAPPER.writeValue(report.toFile(), summary);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static String format(Map<String, Object> summary, Path baseline) throws IOException {
+        JsonNode baselineRoutes = baseline == null ? null : OBJECT_MAPPER.readTree(baseline.toFile()).path("routes");
+        StringBuilder table = new StringBuilder(String.format("%n%-32s %10s %10s %10s %10s %10s %8s%n", "route", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "5xx"));
+        ((Map<String, Map<String, Object>>) summary.get("routes")).forEach((route, stats) -> {
+            table.append(String.format("%-32s %10s %10s %10s %10s %10s %8s", route, stats.get("throughput"), stats.get("p50Ms"),
+                    stats.get("p95Ms"), stats.get("p99Ms"), stats.get("maxMs"), stats.get("serverErrors")));
+            if (baselineRoutes != null && baselineRoutes.has(route))
+                table.append(String.format("   vs baseline: req/s %s, p99 %s", change((double) stats.get("throughput"), baselineRoutes.path(route).path("throughput").asDouble()),
+                        change((double) stats.get("p99Ms"), baselineRoutes.path(route).path("p99Ms").asDouble())));
+            table.append(System.lineSeparator());
+        });
+        return table.append(String.format("%-32s %10s%n", "total", summary.get("throughput"))).toString();
+    }
+
+    private static String change(double current, double baseline) {
+        return baseline == 0 ? "n/a" : String.format("%+.1f%%", (current - baseline) * 100 / baseline);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.mcpikon.cinemawebback.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Sizes of the synthetic catalog and of the run, read from -Dload.* properties. The defaults seed a catalog that fits
+ * a laptop in a couple of minutes, capacity runs use -Dload.movies=1000000 -Dload.series=100000 -Dload.reviews=50000000.
+ */
+public record LoadSettings(int movies, int series, int seasons, int episodes, long reviews, long seed,
+                           int concurrency, Duration warmup, Duration duration, String label, Path reportDir, Path baseline) {
+
+    public static LoadSettings fromSystemProperties() {
+        String baseline = System.getProperty("load.baseline");
+        return new LoadSettings(
+                Integer.getInteger("load.movies", 10_000),
+                Integer.getInteger("load.series", 1_000),
+                Integer.getInteger("load.seasons", 5),
+                Integer.getInteger("load.episodes", 10),
+                Long.getLong("load.reviews", 200_000L),
+                Long.getLong("load.seed", 42L),
+                Integer.getInteger("load.concurrency", 64),
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 15L)),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 60L)),
+                System.getProperty("load.label", "local"),
+                Path.of(System.getProperty("load.report-dir", "target/load-reports")),
+                baseline == null || baseline.isBlank() ? null : Path.of(baseline));
+    }
+
+    // Same catalog and run under another report label and concurrency, for the runs that compare two setups
+    public LoadSettings forRun(String runLabel, int runConcurrency) {
+        return new LoadSettings(movies, series, seasons, episodes, reviews, seed, runConcurrency, warmup, duration, runLabel, reportDir, baseline);
+    }
+
+    // -Dload.weight.<route>=<weight> overrides the share of a route in the mix, 0 leaves it out
+    public int weightOf(String route, int defaultWeight) {
+        return Integer.getInteger("load.weight." + route, defaultWeight);
+    }
+}
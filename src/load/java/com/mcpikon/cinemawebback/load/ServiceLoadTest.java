@@ -0,0 +1,67 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the whole service against a MongoDB container, seeds the synthetic catalog and drives the route mix.
+ * Runs only with the load-test profile: mvn -P load-test test -Dload.label=$(git rev-parse --short HEAD)
+ * Add -Dspring.threads.virtual.enabled=true to measure the virtual thread mode, the report records which one ran.
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.org.springframework.data.mongodb.core.MongoTemplate=INFO")
+class ServiceLoadTest {
+    // Pinned so the reports of different commits are measured against the same server
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0").withExposedPorts(27017);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    @DisplayName("Load - Route mix over the synthetic catalog")
+    void load() throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        Catalog catalog = new CatalogGenerator(mongoTemplate, settings).generate();
+        LoadDriver driver = new LoadDriver(new LoadMix("http://localhost:" + port, catalog, settings, objectMapper), objectMapper, settings);
+
+        driver.run(settings.warmup(), new LoadReport());
+        LoadReport report = new LoadReport();
+        long started = System.nanoTime();
+        driver.run(settings.duration(), report);
+
+        Map<String, Object> summary = report.summary(settings, Duration.ofNanos(System.nanoTime() - started), virtualThreads);
+        Path written = report.write(summary, settings.reportDir());
+        log.info(LoadReport.format(summary, settings.baseline()) + "Report written to " + written.toAbsolutePath());
+        assertEquals(0, report.serverErrors());
+    }
+}
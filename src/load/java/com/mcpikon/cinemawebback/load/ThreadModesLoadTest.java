@@ -0,0 +1,72 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcpikon.cinemawebback.CinemaWebBackApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the route mix twice at the same concurrency, 2000 workers by default, first with platform request threads and then
+ * with virtual ones, and prints the virtual run against the platform one. Each mode starts its own application over its own
+ * freshly seeded database so the writes of the first run do not change the second.
+ * Left out of the default load run: mvn -P load-test test -Dtest=ThreadModesLoadTest -Dload.label=$(git rev-parse --short HEAD)
+ */
+@Slf4j
+@Testcontainers
+class ThreadModesLoadTest {
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0").withExposedPorts(27017);
+
+    @Test
+    @DisplayName("Load - Route mix with platform and virtual request threads")
+    void threadModes() throws Exception {
+        LoadSettings defaults = LoadSettings.fromSystemProperties();
+        int concurrency = Integer.getInteger("load.concurrency", 2_000);
+        Path platformReport = null;
+        StringBuilder comparison = new StringBuilder();
+
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            LoadSettings settings = defaults.forRun(defaults.label() + "-" + mode, concurrency);
+            // Command line arguments, so they win over the environment placeholders of application.yml
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CinemaWebBackApplication.class).run(
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl(mode),
+                    "--spring.data.mongodb.database=" + mode,
+                    "--spring.threads.virtual.enabled=" + virtualThreads,
+                    "--logging.level.org.springframework.data.mongodb.core.MongoTemplate=INFO")) {
+                ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Catalog catalog = new CatalogGenerator(context.getBean(MongoTemplate.class), settings).generate();
+                LoadDriver driver = new LoadDriver(new LoadMix("http://localhost:" + port, catalog, settings, objectMapper), objectMapper, settings);
+
+                driver.run(settings.warmup(), new LoadReport());
+                LoadReport report = new LoadReport();
+                long started = System.nanoTime();
+                driver.run(settings.duration(), report);
+
+                Map<String, Object> summary = report.summary(settings, Duration.ofNanos(System.nanoTime() - started), virtualThreads);
+                Path written = report.write(summary, settings.reportDir());
+                comparison.append(String.format("%n%s request threads, %s workers:", mode, concurrency))
+                        .append(LoadReport.format(summary, platformReport)).append("Report written to ").append(written.toAbsolutePath());
+                if (!virtualThreads) platformReport = written;
+                assertEquals(0, report.serverErrors(), mode);
+            }
+        }
+        log.info(comparison.toString());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mcpikon.cinemawebback.load;
+
+import com.mcpikon.cinemawebback.services.MovieService;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import com.mongodb.ExplainVerbosity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times the /findAll?title= page of whole words, partial words and mixed case searches over the seeded movies and checks
+ * through explain() that the title suffixes index serves them: no collection scan and one document read per movie returned.
+ * The 1M movies run: mvn -P load-test test -Dtest=TitleSearchLoadTest -Dload.movies=1000000 -Dload.series=0 -Dload.reviews=0
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class TitleSearchLoadTest {
+    private static final List<String> SEARCHES = List.of("night", "Nig", "IVER", "ark", "ver sha");
+    private static final int PAGE_SIZE = 10;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0").withExposedPorts(27017);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Test
+    @DisplayName("Title Search - Index bounded over the seeded movies")
+    void titleSearch() {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        new CatalogGenerator(mongoTemplate, settings).generate();
+        int iterations = Integer.getInteger("load.search-iterations", 50);
+
+        StringBuilder report = new StringBuilder(String.format("%nTitle search over %s movies%n", settings.movies()));
+        for (String title : SEARCHES) {
+            Document plan = mongoTemplate.getCollection("movies").find(FilterUtils.queryOf(title, null, null).getQueryObject())
+                    .limit(PAGE_SIZE).explain(ExplainVerbosity.EXECUTION_STATS);
+            Document stats = plan.get("executionStats", Document.class);
+            assertFalse(plan.toJson().contains("COLLSCAN"), title);
+            assertTrue(stats.getInteger("nReturned") > 0, title);
+            assertEquals(stats.getInteger("nReturned"), stats.getInteger("totalDocsExamined"), title);
+
+            List<Long> latencies = new ArrayList<>(iterations);
+            for (int i = 0; i < iterations; i++) {
+                long started = System.nanoTime();
+                movieService.findAll(title, null, null, 0, PAGE_SIZE);
+                latencies.add((System.nanoTime() - started) / 1_000);
+            }
+            Collections.sort(latencies);
+            report.append(String.format("  %-10s keys %8s docs %3s  p50 %8s us  p99 %8s us%n", title, stats.getInteger("totalKeysExamined"),
+                    stats.getInteger("totalDocsExamined"), latencies.get(iterations / 2), latencies.get(Math.min(iterations - 1, iterations * 99 / 100))));
+        }
+        log.info(report.toString());
+    }
+}
@@ -0,0 +1,127 @@
+package com.mcpikon.cinemawebback.aspects;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.fge.jsonpatch.JsonPatchException;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.CANNOT_PARSE_JSON;
+import static com.mcpikon.cinemawebback.exceptions.Errors.PRECONDITION_FAILED;
+
+/**
+ * Times every public controller and service method, tagged with its outcome and the Errors code it ended with.
+ * Reactive methods only assemble their pipeline, so Monos and Fluxes are timed from subscription to termination or cancellation.
+ * Streams last as long as their client reads them, they are timed under the stream metrics so they stay out of the request SLOs:
+ * Fluxes, StreamingResponseBody results timed while they write and methods writing to an OutputStream passed to them.
+ * Percentiles and SLO buckets of the timers are configured under management.metrics.distribution.
+ */
+@Aspect
+@Component
+public class MethodMetricsAspect {
+    public static final String CONTROLLER_METRIC = "cinemawebback.controller";
+    public static final String SERVICE_METRIC = "cinemawebback.service";
+    public static final String STREAM_CONTROLLER_METRIC = "cinemawebback.stream.controller";
+    public static final String STREAM_SERVICE_METRIC = "cinemawebback.stream.service";
+    private static final String NO_ERROR = "none";
+    private static final String CANCELLED = "CANCELLED";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.mcpikon.cinemawebback.controllers..*(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(CONTROLLER_METRIC, STREAM_CONTROLLER_METRIC, joinPoint);
+    }
+
+    @Around("execution(public * com.mcpikon.cinemawebback.services.impl..*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_METRIC, STREAM_SERVICE_METRIC, joinPoint);
+    }
+
+    private Object time(String metric, String streamMetric, ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags tags = Tags.of("class", joinPoint.getSignature().getDeclaringType().getSimpleName(), "method", joinPoint.getSignature().getName());
+        String callMetric = writesToStream(joinPoint) ? streamMetric : metric;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, callMetric, tags, outcomeTagsOf(e));
+            throw e;
+        }
+        if (result instanceof Mono<?> mono) return Mono.defer(() -> {
+            Timer.Sample subscribed = Timer.start(meterRegistry);
+            return mono.doOnSuccess(value -> stop(subscribed, metric, tags, outcomeTagsOf(null)))
+                    .doOnError(e -> stop(subscribed, metric, tags, outcomeTagsOf(e)))
+                    .doOnCancel(() -> stop(subscribed, metric, tags, cancelledTags()));
+        });
+        if (result instanceof Flux<?> flux) return Flux.defer(() -> {
+            Timer.Sample subscribed = Timer.start(meterRegistry);
+            return flux.doOnComplete(() -> stop(subscribed, streamMetric, tags, outcomeTagsOf(null)))
+                    .doOnError(e -> stop(subscribed, streamMetric, tags, outcomeTagsOf(e)))
+                    .doOnCancel(() -> stop(subscribed, streamMetric, tags, cancelledTags()));
+        });
+        // The handler only returns the body, the response is written by it afterwards on the async executor
+        if (result instanceof StreamingResponseBody body) return timed(body, streamMetric, tags);
+        if (result instanceof ResponseEntity<?> entity && entity.getBody() instanceof StreamingResponseBody body)
+            return new ResponseEntity<>(timed(body, streamMetric, tags), entity.getHeaders(), entity.getStatusCode());
+        stop(sample, callMetric, tags, outcomeTagsOf(null));
+        return result;
+    }
+
+    private StreamingResponseBody timed(StreamingResponseBody body, String metric, Tags tags) {
+        return outputStream -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                body.writeTo(outputStream);
+            } catch (Throwable e) {
+                stop(sample, metric, tags, outcomeTagsOf(e));
+                throw e;
+            }
+            stop(sample, metric, tags, outcomeTagsOf(null));
+        };
+    }
+
+    private static boolean writesToStream(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature() instanceof MethodSignature signature
+                && Arrays.stream(signature.getParameterTypes()).anyMatch(OutputStream.class::isAssignableFrom);
+    }
+
+    private void stop(Timer.Sample sample, String metric, Tags tags, Tags outcomeTags) {
+        sample.stop(Timer.builder(metric).tags(tags).tags(outcomeTags).register(meterRegistry));
+    }
+
+    // A client that stops reading, or a timeout upstream, ends the subscription without a result or an error
+    private static Tags cancelledTags() {
+        return Tags.of("outcome", CANCELLED, "error", NO_ERROR);
+    }
+
+    // Exceptions the GlobalExceptionHandler answers with an Errors code are tagged with it, anything else is a server error
+    private static Tags outcomeTagsOf(Throwable error) {
+        if (error == null) return Tags.of("outcome", Outcome.SUCCESS.name(), "error", NO_ERROR);
+        if (error instanceof ErrorException e)
+            return Tags.of("outcome", Outcome.forStatus(e.getHttpStatus().value()).name(), "error", String.valueOf(e.getId()));
+        if (error instanceof JsonPatchException || error instanceof JsonProcessingException)
+            return Tags.of("outcome", Outcome.CLIENT_ERROR.name(), "error", String.valueOf(CANNOT_PARSE_JSON.getId()));
+        if (error instanceof OptimisticLockingFailureException)
+            return Tags.of("outcome", Outcome.CLIENT_ERROR.name(), "error", String.valueOf(PRECONDITION_FAILED.getId()));
+        return Tags.of("outcome", Outcome.SERVER_ERROR.name(), "error", error.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,35 @@
+package com.mcpikon.cinemawebback.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String MOVIES_CACHE = "movies";
+    public static final String SERIES_CACHE = "series";
+    public static final String ETAGS_CACHE = "etags";
+
+    @Value("${com.mcpikon.cinemawebback.http-cache.etag-ttl-seconds:30}")
+    private long etagTtlSeconds;
+
+    @Value("${com.mcpikon.cinemawebback.http-cache.etag-maximum-size:50000}")
+    private long etagMaximumSize;
+
+    // ETags are tiny and a stale one answers 304 for a changed document, so they get their own short expiry
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> etagsCacheCustomizer() {
+        return cacheManager -> cacheManager.registerCustomCache(ETAGS_CACHE, Caffeine.newBuilder()
+                .maximumSize(etagMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(etagTtlSeconds))
+                .recordStats()
+                .build());
+    }
+}
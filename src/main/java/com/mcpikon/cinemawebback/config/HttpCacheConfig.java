@@ -0,0 +1,34 @@
+package com.mcpikon.cinemawebback.config;
+
+import com.mcpikon.cinemawebback.interceptors.HttpCacheInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(HttpCacheProperties.class)
+public class HttpCacheConfig implements WebMvcConfigurer {
+    @Autowired
+    private HttpCacheProperties httpCacheProperties;
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManager;
+
+    // Without a cache manager (caching disabled) every conditional GET is answered by the controllers, Cache-Control is still added
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Cache eTags = cacheManager.getIfAvailable(NoOpCacheManager::new).getCache(ETAGS_CACHE);
+        httpCacheProperties.cacheControl().forEach((pathPattern, cacheControl) ->
+                registry.addInterceptor(new HttpCacheInterceptor(eTags, cacheControl)).addPathPatterns(pathPattern));
+    }
+}
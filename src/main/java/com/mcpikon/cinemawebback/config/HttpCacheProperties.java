@@ -0,0 +1,15 @@
+package com.mcpikon.cinemawebback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Cache-Control value of every cached GET route, keyed by its path pattern.
+ */
+@ConfigurationProperties(prefix = "com.mcpikon.cinemawebback.http-cache")
+public record HttpCacheProperties(Map<String, String> cacheControl) {
+    public HttpCacheProperties {
+        cacheControl = cacheControl == null ? Map.of() : cacheControl;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mcpikon.cinemawebback.config;
+
+import com.mcpikon.cinemawebback.listeners.SlowCommandListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class MongoMetricsConfig {
+    @Value("${com.mcpikon.cinemawebback.mongo.slow-command-threshold-ms:200}")
+    private long slowCommandThresholdMs;
+
+    @Value("${com.mcpikon.cinemawebback.mongo.slow-command-samples:100}")
+    private int slowCommandSamples;
+
+    @Bean
+    public SlowCommandListener slowCommandListener(MeterRegistry meterRegistry) {
+        return new SlowCommandListener(meterRegistry, Duration.ofMillis(slowCommandThresholdMs), slowCommandSamples);
+    }
+
+    // Applies to the sync and the reactive client alike, next to the metrics listeners Spring Boot already adds
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowCommandListenerCustomizer(SlowCommandListener slowCommandListener) {
+        return builder -> builder.addCommandListener(slowCommandListener);
+    }
+}
@@ -1,12 +1,15 @@
 package com.mcpikon.cinemawebback.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.mcpikon.cinemawebback.dtos.MovieDTO;
 import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
 import com.mcpikon.cinemawebback.models.Movie;
 import com.mcpikon.cinemawebback.services.MovieService;
+import com.mcpikon.cinemawebback.utils.BulkUtils;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
 import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -16,53 +19,86 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Tag(name = "Movies", description = "Movies management API endpoints.")
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/movies")
 public class MovieController {
     @Autowired
     private MovieService movieService;
 
-    @Operation(summary = "Fetch all movies", description = "fetches all movies and their data from data source")
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-max-items:10000}")
+    private int bulkMaxItems;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-max-bytes:52428800}")
+    private long bulkMaxBytes;
+
+    @Operation(summary = "Fetch all movies", description = "fetches all movies and their data from data source, pass 'after' (empty for the first page) to paginate with cursors instead of page numbers, 'genre' and 'year' narrow the movies listed")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(array = @ArraySchema(schema = @Schema(implementation = MovieResponseDTO.class)), mediaType = "application/json") }),
-            @ApiResponse(responseCode = "204", description = "Empty List")
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The cursor or year passed is not valid)")
     })
     @GetMapping("/findAll")
-    public ResponseEntity<Map<String, Object>> findAll(@RequestParam(required = false) String title, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
-        return new ResponseEntity<>(movieService.findAll(title, page, size), HttpStatus.OK);
+    public ResponseEntity<Map<String, Object>> findAll(@RequestParam(required = false) String title, @RequestParam(required = false) String genre, @RequestParam(required = false) @Min(1800) @Max(9998) Integer year,
+                                                       @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size, @RequestParam(required = false) String after) {
+        if (after != null) return new ResponseEntity<>(movieService.findAllByCursor(title, genre, year, after, size), HttpStatus.OK);
+        return new ResponseEntity<>(movieService.findAll(title, genre, year, page, size), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch movies facets", description = "fetches how many movies there are of every genre and release decade, for the filters of the browse sidebar")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = { @Content(schema = @Schema(implementation = Json.class), mediaType = "application/json") })
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> findFacets() {
+        return new ResponseEntity<>(movieService.findFacets(), HttpStatus.OK);
     }
 
     @Operation(summary = "Fetch movie by id", description = "fetch a movie and their data filtering by id key")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(schema = @Schema(implementation = Movie.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/findById/{id}")
-    public ResponseEntity<Optional<Movie>> findById(@PathVariable ObjectId id) {
-        return new ResponseEntity<>(movieService.findById(id), HttpStatus.OK);
+    public ResponseEntity<Movie> findById(@PathVariable ObjectId id) {
+        return withETag(movieService.findById(id).orElseThrow(), HttpStatus.OK);
     }
 
     @Operation(summary = "Fetch movie by ImdbId", description = "fetch a movie and their data filtering by ImdbId key")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(schema = @Schema(implementation = Movie.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/findByImdbId/{imdbId}")
-    public ResponseEntity<Optional<Movie>> findByImdbId(@PathVariable String imdbId) {
-        return new ResponseEntity<>(movieService.findByImdbId(imdbId), HttpStatus.OK);
+    public ResponseEntity<Movie> findByImdbId(@PathVariable String imdbId) {
+        return withETag(movieService.findByImdbId(imdbId).orElseThrow(), HttpStatus.OK);
     }
 
     @Operation(summary = "Post new movie", description = "Post new movie into the database")
@@ -73,7 +109,26 @@ public class MovieController {
     })
     @PostMapping("/save")
     public ResponseEntity<Movie> save(@Valid @RequestBody MovieDTO movieDTO) {
-        return new ResponseEntity<>(movieService.save(movieDTO), HttpStatus.CREATED);
+        return withETag(movieService.save(movieDTO), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Bulk import movies", description = "Post a JSON array or NDJSON stream of movies, duplicated ImdbIds are checked in a single query and the rest are inserted with unordered bulk writes, the result of every item is returned by its position")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Created (every item was inserted)",
+                    content = { @Content(schema = @Schema(implementation = Json.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "207", description = "Multi-Status (some items failed, check the results)"),
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The body cannot be parsed)"),
+            @ApiResponse(responseCode = "413", description = "Payload Too Large (More items or bytes than a bulk request accepts)")
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Map<String, Object>> saveAll(InputStream body) throws IOException {
+        List<MovieDTO> movieDTOs = BulkUtils.readItems(objectMapper.readerFor(MovieDTO.class), body, bulkMaxItems, bulkMaxBytes);
+        return bulkResponse(movieService.saveAll(movieDTOs));
+    }
+
+    private static ResponseEntity<Map<String, Object>> bulkResponse(Map<String, Object> response) {
+        return new ResponseEntity<>(response, (long) response.get("failed") > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.CREATED);
     }
 
     @Operation(summary = "Delete movie by id", description = "Delete movie with the id key passed")
@@ -92,11 +147,13 @@ public class MovieController {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(schema = @Schema(implementation = Movie.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "404", description = "Not Found"),
-            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)")
+            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)"),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed (The If-Match ETag passed is outdated)")
     })
     @PutMapping("/update/{id}")
-    public ResponseEntity<Movie> update(@PathVariable ObjectId id, @Valid @RequestBody MovieDTO movieDTO) {
-        return new ResponseEntity<>(movieService.update(id, movieDTO), HttpStatus.OK);
+    public ResponseEntity<Movie> update(@PathVariable ObjectId id, @Valid @RequestBody MovieDTO movieDTO,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(movieService.update(id, movieDTO, ETagUtils.versionOf(ifMatch, id)), HttpStatus.OK);
     }
 
     @Operation(summary = "Patch movie by id", description = "Patch a movie with the fields and id key passed")
@@ -105,10 +162,17 @@ public class MovieController {
                     content = { @Content(schema = @Schema(implementation = Movie.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "404", description = "Not Exists"),
             @ApiResponse(responseCode = "400", description = "Bad Request (The Id key cannot be changed)"),
-            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)")
+            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)"),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed (The If-Match ETag passed is outdated)")
     })
     @PatchMapping("/patch/{id}")
-    public ResponseEntity<Movie> patch(@PathVariable ObjectId id, @RequestBody JsonPatch jsonPatch) throws JsonPatchException, JsonProcessingException {
-        return new ResponseEntity<>(movieService.patch(id, jsonPatch), HttpStatus.OK);
+    public ResponseEntity<Movie> patch(@PathVariable ObjectId id, @RequestBody JsonPatch jsonPatch,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws JsonPatchException, JsonProcessingException {
+        return withETag(movieService.patch(id, jsonPatch, ETagUtils.versionOf(ifMatch, id)), HttpStatus.OK);
+    }
+
+    // GET responses with an ETag are answered with 304 by Spring when the If-None-Match header holds the same tag
+    private static ResponseEntity<Movie> withETag(Movie movie, HttpStatus status) {
+        return ResponseEntity.status(status).eTag(ETagUtils.of(movie.getId(), movie.getVersion())).body(movie);
     }
 }
\ No newline at end of file
@@ -5,8 +5,10 @@ import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.mcpikon.cinemawebback.dtos.ReviewDTO;
 import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
 import com.mcpikon.cinemawebback.services.ReviewService;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
 import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -18,33 +20,49 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Tag(name = "Reviews", description = "Reviews management API endpoints.")
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/reviews")
 public class ReviewController {
     @Autowired
     private ReviewService reviewService;
 
-    @Operation(summary = "Fetch all reviews", description = "fetches all reviews and their data from data source")
+    @Operation(summary = "Fetch all reviews", description = "fetches all reviews and their data from data source, pass 'after' (empty for the first page) to paginate with cursors instead of page numbers")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = {@Content(array = @ArraySchema(schema = @Schema(implementation = Review.class)), mediaType = "application/json")}),
-            @ApiResponse(responseCode = "204", description = "Empty List")
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The cursor passed is not valid)")
     })
     @GetMapping("/findAll")
-    public ResponseEntity<List<Review>> findAll() {
-        return new ResponseEntity<>(reviewService.findAll(), HttpStatus.OK);
+    public ResponseEntity<Map<String, Object>> findAll(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                       @RequestParam(required = false) String after) {
+        if (after != null) return new ResponseEntity<>(reviewService.findAllByCursor(after, size), HttpStatus.OK);
+        return new ResponseEntity<>(reviewService.findAll(page, size), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Stream all reviews", description = "streams every review as newline delimited JSON straight from the data source cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(schema = @Schema(implementation = Review.class), mediaType = "application/x-ndjson")})
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(outputStream -> reviewService.streamAll(outputStream));
     }
 
-    @Operation(summary = "Fetch all reviews by movie or series ImdbId", description = "fetches all reviews and their data from movie or series with the ImdbId key passed")
+    @Operation(summary = "Fetch all reviews by movie or series ImdbId", description = "fetches a page of the reviews of the movie or series with the ImdbId key passed, newest first")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = {@Content(array = @ArraySchema(schema = @Schema(implementation = Review.class)), mediaType = "application/json")}),
@@ -52,19 +70,32 @@ public class ReviewController {
             @ApiResponse(responseCode = "204", description = "Empty List")
     })
     @GetMapping("/findAllByImdbId/{imdbId}")
-    public ResponseEntity<List<Review>> findAllByImdbId(@PathVariable String imdbId) {
-        return new ResponseEntity<>(reviewService.findAllByImdbId(imdbId), HttpStatus.OK);
+    public ResponseEntity<Map<String, Object>> findAllByImdbId(@PathVariable String imdbId, @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "10") int size) {
+        return new ResponseEntity<>(reviewService.findAllByImdbId(imdbId, page, size), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch rating stats by movie or series ImdbId", description = "fetches the review count, rating sum, average and histogram of the movie or series with the ImdbId key passed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(schema = @Schema(implementation = RatingStats.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "404", description = "Not Found")
+    })
+    @GetMapping("/stats/{imdbId}")
+    public ResponseEntity<RatingStats> findStatsByImdbId(@PathVariable String imdbId) {
+        return new ResponseEntity<>(reviewService.findStatsByImdbId(imdbId), HttpStatus.OK);
     }
 
     @Operation(summary = "Fetch review by id", description = "fetch a review and their data filtering by id key")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = {@Content(schema = @Schema(implementation = Review.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/findById/{id}")
-    public ResponseEntity<Optional<Review>> findById(@PathVariable ObjectId id) {
-        return new ResponseEntity<>(reviewService.findById(id), HttpStatus.OK);
+    public ResponseEntity<Review> findById(@PathVariable ObjectId id) {
+        return withETag(reviewService.findById(id).orElseThrow(), HttpStatus.OK);
     }
 
     @Operation(summary = "Post review by ImdbId key", description = "Post a review and their data to the movie or series with the ImdbId key passed")
@@ -75,10 +106,10 @@ public class ReviewController {
     })
     @PostMapping("/save")
     public ResponseEntity<Review> save(@Valid @RequestBody ReviewSaveDTO reviewSaveDTO) {
-        return new ResponseEntity<>(reviewService.save(reviewSaveDTO), HttpStatus.CREATED);
+        return withETag(reviewService.save(reviewSaveDTO), HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Delete review by id", description = "Delete a review and the id related in movies or series reviewIds array with the id key passed")
+    @Operation(summary = "Delete review by id", description = "Delete a review with the id key passed and remove it from the rating stats and latest reviews of its movie or series")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = {@Content(schema = @Schema(implementation = Json.class), mediaType = "application/json")}),
@@ -93,11 +124,13 @@ public class ReviewController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = {@Content(schema = @Schema(implementation = Review.class), mediaType = "application/json")}),
-            @ApiResponse(responseCode = "404", description = "Not Found")
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed (The If-Match ETag passed is outdated)")
     })
     @PutMapping("/update/{id}")
-    public ResponseEntity<Review> update(@PathVariable ObjectId id, @Valid @RequestBody ReviewDTO reviewDTO) {
-        return new ResponseEntity<>(reviewService.update(id, reviewDTO), HttpStatus.OK);
+    public ResponseEntity<Review> update(@PathVariable ObjectId id, @Valid @RequestBody ReviewDTO reviewDTO,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(reviewService.update(id, reviewDTO, ETagUtils.versionOf(ifMatch, id)), HttpStatus.OK);
     }
 
     @Operation(summary = "Patch review by id", description = "Patch a review with the fields and id key passed")
@@ -105,10 +138,17 @@ public class ReviewController {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = {@Content(schema = @Schema(implementation = Review.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "404", description = "Not Found"),
-            @ApiResponse(responseCode = "400", description = "Bad Request (The review id cannot be changed)")
+            @ApiResponse(responseCode = "400", description = "Bad Request (The review id cannot be changed)"),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed (The If-Match ETag passed is outdated)")
     })
     @PatchMapping("/patch/{id}")
-    public ResponseEntity<Review> patch(@PathVariable ObjectId id, @RequestBody JsonPatch jsonPatch) throws JsonPatchException, JsonProcessingException {
-        return new ResponseEntity<>(reviewService.patch(id, jsonPatch), HttpStatus.OK);
+    public ResponseEntity<Review> patch(@PathVariable ObjectId id, @RequestBody JsonPatch jsonPatch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws JsonPatchException, JsonProcessingException {
+        return withETag(reviewService.patch(id, jsonPatch, ETagUtils.versionOf(ifMatch, id)), HttpStatus.OK);
+    }
+
+    // GET responses with an ETag are answered with 304 by Spring when the If-None-Match header holds the same tag
+    private static ResponseEntity<Review> withETag(Review review, HttpStatus status) {
+        return ResponseEntity.status(status).eTag(ETagUtils.of(review.getId(), review.getVersion())).body(review);
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.mcpikon.cinemawebback.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.mcpikon.cinemawebback.dtos.SeriesDTO;
 import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
 import com.mcpikon.cinemawebback.models.Series;
 import com.mcpikon.cinemawebback.services.SeriesService;
+import com.mcpikon.cinemawebback.utils.BulkUtils;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
 import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -16,53 +19,86 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Tag(name = "Series", description = "Series management API endpoints.")
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/series")
 public class SeriesController {
     @Autowired
     private SeriesService seriesService;
 
-    @Operation(summary = "Fetch all series", description = "fetches all series and their data from data source")
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-max-items:10000}")
+    private int bulkMaxItems;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-max-bytes:52428800}")
+    private long bulkMaxBytes;
+
+    @Operation(summary = "Fetch all series", description = "fetches all series and their data from data source, pass 'after' (empty for the first page) to paginate with cursors instead of page numbers, 'genre' and 'year' narrow the series listed")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(array = @ArraySchema(schema = @Schema(implementation = SeriesResponseDTO.class)), mediaType = "application/json") }),
-            @ApiResponse(responseCode = "204", description = "Empty List")
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The cursor or year passed is not valid)")
     })
     @GetMapping("/findAll")
-    public ResponseEntity<Map<String, Object>> findAll(@RequestParam(required = false) String title, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
-        return new ResponseEntity<>(seriesService.findAll(title, page, size), HttpStatus.OK);
+    public ResponseEntity<Map<String, Object>> findAll(@RequestParam(required = false) String title, @RequestParam(required = false) String genre, @RequestParam(required = false) @Min(1800) @Max(9998) Integer year,
+                                                       @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size, @RequestParam(required = false) String after) {
+        if (after != null) return new ResponseEntity<>(seriesService.findAllByCursor(title, genre, year, after, size), HttpStatus.OK);
+        return new ResponseEntity<>(seriesService.findAll(title, genre, year, page, size), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Fetch series facets", description = "fetches how many series there are of every genre and release decade, for the filters of the browse sidebar")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = { @Content(schema = @Schema(implementation = Json.class), mediaType = "application/json") })
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> findFacets() {
+        return new ResponseEntity<>(seriesService.findFacets(), HttpStatus.OK);
     }
 
     @Operation(summary = "Fetch series by id", description = "fetch a series and their data filtering by id key")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(schema = @Schema(implementation = Series.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/findById/{id}")
-    public ResponseEntity<Optional<Series>> findById(@PathVariable ObjectId id) {
-        return new ResponseEntity<>(seriesService.findById(id), HttpStatus.OK);
+    public ResponseEntity<Series> findById(@PathVariable ObjectId id) {
+        return withETag(seriesService.findById(id).orElseThrow(), HttpStatus.OK);
     }
 
     @Operation(summary = "Fetch series by ImdbId", description = "fetch a series and their data filtering by ImdbId key")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(schema = @Schema(implementation = Series.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
             @ApiResponse(responseCode = "404", description = "Not Found")
     })
     @GetMapping("/findByImdbId/{imdbId}")
-    public ResponseEntity<Optional<Series>> findByImdbId(@PathVariable String imdbId) {
-        return new ResponseEntity<>(seriesService.findByImdbId(imdbId), HttpStatus.OK);
+    public ResponseEntity<Series> findByImdbId(@PathVariable String imdbId) {
+        return withETag(seriesService.findByImdbId(imdbId).orElseThrow(), HttpStatus.OK);
     }
 
     @Operation(summary = "Post new series", description = "Post new series into the database")
@@ -73,7 +109,26 @@ public class SeriesController {
     })
     @PostMapping("/save")
     public ResponseEntity<Series> save(@Valid @RequestBody SeriesDTO seriesDTO) {
-        return new ResponseEntity<>(seriesService.save(seriesDTO), HttpStatus.CREATED);
+        return withETag(seriesService.save(seriesDTO), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Bulk import series", description = "Post a JSON array or NDJSON stream of series, duplicated ImdbIds are checked in a single query and the rest are inserted with unordered bulk writes, the result of every item is returned by its position")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Created (every item was inserted)",
+                    content = { @Content(schema = @Schema(implementation = Json.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "207", description = "Multi-Status (some items failed, check the results)"),
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The body cannot be parsed)"),
+            @ApiResponse(responseCode = "413", description = "Payload Too Large (More items or bytes than a bulk request accepts)")
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Map<String, Object>> saveAll(InputStream body) throws IOException {
+        List<SeriesDTO> seriesDTOs = BulkUtils.readItems(objectMapper.readerFor(SeriesDTO.class), body, bulkMaxItems, bulkMaxBytes);
+        return bulkResponse(seriesService.saveAll(seriesDTOs));
+    }
+
+    private static ResponseEntity<Map<String, Object>> bulkResponse(Map<String, Object> response) {
+        return new ResponseEntity<>(response, (long) response.get("failed") > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.CREATED);
     }
 
     @Operation(summary = "Delete series by id", description = "Delete series with the id key passed")
@@ -92,11 +147,13 @@ public class SeriesController {
             @ApiResponse(responseCode = "200", description = "Successful Operation",
                     content = { @Content(schema = @Schema(implementation = Series.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "404", description = "Not Exists"),
-            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)")
+            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)"),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed (The If-Match ETag passed is outdated)")
     })
     @PutMapping("/update/{id}")
-    public ResponseEntity<Series> update(@PathVariable ObjectId id, @Valid @RequestBody SeriesDTO seriesDTO) {
-        return new ResponseEntity<>(seriesService.update(id, seriesDTO), HttpStatus.OK);
+    public ResponseEntity<Series> update(@PathVariable ObjectId id, @Valid @RequestBody SeriesDTO seriesDTO,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(seriesService.update(id, seriesDTO, ETagUtils.versionOf(ifMatch, id)), HttpStatus.OK);
     }
 
     @Operation(summary = "Patch series by id", description = "Patch a series with the fields and id key passed")
@@ -105,10 +162,17 @@ public class SeriesController {
                     content = { @Content(schema = @Schema(implementation = Series.class), mediaType = "application/json") }),
             @ApiResponse(responseCode = "404", description = "Not Exists"),
             @ApiResponse(responseCode = "400", description = "Bad Request (The Id key cannot be changed)"),
-            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)")
+            @ApiResponse(responseCode = "400", description = "Bad Request (The ImdbId passed is already in use)"),
+            @ApiResponse(responseCode = "412", description = "Precondition Failed (The If-Match ETag passed is outdated)")
     })
     @PatchMapping("/patch/{id}")
-    public ResponseEntity<Series> patch(@PathVariable ObjectId id, @RequestBody JsonPatch jsonPatch) throws JsonPatchException, JsonProcessingException {
-        return new ResponseEntity<>(seriesService.patch(id, jsonPatch), HttpStatus.OK);
+    public ResponseEntity<Series> patch(@PathVariable ObjectId id, @RequestBody JsonPatch jsonPatch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws JsonPatchException, JsonProcessingException {
+        return withETag(seriesService.patch(id, jsonPatch, ETagUtils.versionOf(ifMatch, id)), HttpStatus.OK);
+    }
+
+    // GET responses with an ETag are answered with 304 by Spring when the If-None-Match header holds the same tag
+    private static ResponseEntity<Series> withETag(Series series, HttpStatus status) {
+        return ResponseEntity.status(status).eTag(ETagUtils.of(series.getId(), series.getVersion())).body(series);
     }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.mcpikon.cinemawebback.dtos;
+
+import lombok.Builder;
+
+@Builder
+public record BulkResultDTO(int index, String imdbId, boolean success, String message) { }
@@ -1,6 +1,10 @@
 package com.mcpikon.cinemawebback.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import lombok.Builder;
+import org.bson.types.ObjectId;
 
 @Builder
-public record SeriesResponseDTO(String imdbId, String title, int numberOfSeasons, String releaseDate, String poster) { }
\ No newline at end of file
+public record SeriesResponseDTO(@JsonSerialize(using = ToStringSerializer.class) ObjectId id, String imdbId, String title, int numberOfSeasons, String releaseDate, String poster, RatingStats ratingStats) { }
\ No newline at end of file
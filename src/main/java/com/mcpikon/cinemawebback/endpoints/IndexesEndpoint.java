@@ -0,0 +1,22 @@
+package com.mcpikon.cinemawebback.endpoints;
+
+import com.mcpikon.cinemawebback.services.IndexManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Declared, missing, undeclared and unused indexes of every collection under /api/v1/indexes
+@Component
+@Endpoint(id = "indexes")
+public class IndexesEndpoint {
+    @Autowired
+    private IndexManager indexManager;
+
+    @ReadOperation
+    public Map<String, Object> indexes() {
+        return indexManager.report();
+    }
+}
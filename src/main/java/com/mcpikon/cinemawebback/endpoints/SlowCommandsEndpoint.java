@@ -0,0 +1,22 @@
+package com.mcpikon.cinemawebback.endpoints;
+
+import com.mcpikon.cinemawebback.listeners.SlowCommandListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Latest MongoDB commands over the slow threshold under /api/v1/slowcommands
+@Component
+@Endpoint(id = "slowcommands")
+public class SlowCommandsEndpoint {
+    @Autowired
+    private SlowCommandListener slowCommandListener;
+
+    @ReadOperation
+    public List<SlowCommandListener.SlowCommand> slowCommands() {
+        return slowCommandListener.samples();
+    }
+}
@@ -15,7 +15,12 @@ public enum Errors {
     CANNOT_PARSE_OBJ_ID(6L,"Error parsing String id to ObjectId (id not valid)", HttpStatus.BAD_REQUEST),
     IMDB_ID_ALREADY_IN_USE(7L,"The imdbId passed is already in use", HttpStatus.BAD_REQUEST),
     CANNOT_PARSE_JSON(8L, "Cannot parse JSON Patch, change JSON object", HttpStatus.BAD_REQUEST),
-    VALIDATION_FAILED(9L, "Validation failed, check that the fields are not empty or null", HttpStatus.BAD_REQUEST);
+    VALIDATION_FAILED(9L, "Validation failed, check that the fields are not empty or null", HttpStatus.BAD_REQUEST),
+    CANNOT_PARSE_CURSOR(11L, "Error parsing pagination cursor (cursor not valid)", HttpStatus.BAD_REQUEST),
+    PRECONDITION_FAILED(12L, "Entity was modified by another request, fetch it again to get its current ETag", HttpStatus.PRECONDITION_FAILED),
+    BULK_TOO_LARGE(13L, "Bulk request is too large, split it in smaller requests", HttpStatus.PAYLOAD_TOO_LARGE),
+    READ_ONLY_FIELD(14L, "Rating stats and latest reviews are kept by the server and cannot be patched", HttpStatus.BAD_REQUEST),
+    INVALID_YEAR(15L, "Year must be a number between 1800 and 9998", HttpStatus.BAD_REQUEST);
 
     private final long id;
     private final String message;
@@ -6,19 +6,24 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import static com.mcpikon.cinemawebback.exceptions.Errors.CANNOT_PARSE_JSON;
 import static com.mcpikon.cinemawebback.exceptions.Errors.CANNOT_PARSE_OBJ_ID;
+import static com.mcpikon.cinemawebback.exceptions.Errors.INVALID_YEAR;
+import static com.mcpikon.cinemawebback.exceptions.Errors.PRECONDITION_FAILED;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final String YEAR_PARAM = "year";
 
     @ExceptionHandler(ErrorException.class)
     public ResponseEntity<ResponseBase> handleErrorException(ErrorException e) {
@@ -32,8 +37,29 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<ResponseBase> handleMethodArgumentTypeMismatchException() {
-        final ErrorException e = new ErrorException(CANNOT_PARSE_OBJ_ID.getId(), CANNOT_PARSE_OBJ_ID.getMessage(), CANNOT_PARSE_OBJ_ID.getHttpStatus());
+    public ResponseEntity<ResponseBase> handleMethodArgumentTypeMismatchException(final MethodArgumentTypeMismatchException ex) {
+        final Errors error = YEAR_PARAM.equals(ex.getName()) ? INVALID_YEAR : CANNOT_PARSE_OBJ_ID;
+        final ErrorException e = new ErrorException(error.getId(), error.getMessage(), error.getHttpStatus());
+        return new ResponseEntity<>(new ResponseBase(e), e.getHttpStatus());
+    }
+
+    // Constraints on request params, only the year filter has them for now
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ResponseBase> handleHandlerMethodValidationException(final HandlerMethodValidationException ex) {
+        final boolean yearFailed = ex.getAllValidationResults().stream().anyMatch(result -> YEAR_PARAM.equals(result.getMethodParameter().getParameterName()));
+        if (yearFailed) {
+            final ErrorException e = new ErrorException(INVALID_YEAR.getId(), INVALID_YEAR.getMessage(), INVALID_YEAR.getHttpStatus());
+            return new ResponseEntity<>(new ResponseBase(e), e.getHttpStatus());
+        }
+        final String errorMsg = ex.getAllErrors().get(0).getDefaultMessage();
+        log.error(String.format("Error in validation [%s]", errorMsg));
+        return new ResponseEntity<>(new ResponseBase(10L, errorMsg), HttpStatus.BAD_REQUEST);
+    }
+
+    // A versioned save that matched no document lost the race against another write
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ResponseBase> handleOptimisticLockingFailureException() {
+        final ErrorException e = new ErrorException(PRECONDITION_FAILED.getId(), PRECONDITION_FAILED.getMessage(), PRECONDITION_FAILED.getHttpStatus());
         return new ResponseEntity<>(new ResponseBase(e), e.getHttpStatus());
     }
 
@@ -0,0 +1,37 @@
+package com.mcpikon.cinemawebback.interceptors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the Cache-Control of the route to successful responses right before the body is written,
+ * error responses of the same routes are never cached.
+ */
+@ControllerAdvice
+@Profile("!reactive")
+public class HttpCacheAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest) || !(response instanceof ServletServerHttpResponse servletResponse)) return body;
+        Object cacheControl = servletRequest.getServletRequest().getAttribute(HttpCacheInterceptor.CACHE_CONTROL_ATTRIBUTE);
+        HttpStatus status = HttpStatus.resolve(servletResponse.getServletResponse().getStatus());
+        if (cacheControl != null && status != null && status.is2xxSuccessful()) response.getHeaders().setCacheControl(cacheControl.toString());
+        return body;
+    }
+}
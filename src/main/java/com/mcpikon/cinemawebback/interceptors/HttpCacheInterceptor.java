@@ -0,0 +1,74 @@
+package com.mcpikon.cinemawebback.interceptors;
+
+import com.mcpikon.cinemawebback.utils.ETagUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.cache.Cache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Answers conditional GETs of the routes it is registered for with 304 straight from the ETags cache, before the controller reads MongoDB.
+ * The ETag of every successful or not modified response is recorded by request path, writes evict them with the entity caches.
+ * A response read before a write may finish after it, its older tag never replaces the newer one recorded for the same document.
+ */
+public class HttpCacheInterceptor implements HandlerInterceptor {
+    public static final String CACHE_CONTROL_ATTRIBUTE = HttpCacheInterceptor.class.getName() + ".cacheControl";
+
+    private final Cache eTags;
+    private final String cacheControl;
+
+    public HttpCacheInterceptor(Cache eTags, String cacheControl) {
+        this.eTags = eTags;
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isCacheable(request)) return true;
+        // Picked up by HttpCacheAdvice, the header is only added once the response is known to be successful
+        request.setAttribute(CACHE_CONTROL_ATTRIBUTE, cacheControl);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        String eTag = ifNoneMatch == null ? null : eTags.get(request.getRequestURI(), String.class);
+        if (eTag == null || !ETagUtils.anyMatches(ifNoneMatch, eTag)) return true;
+
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return false;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        HttpStatus status = HttpStatus.resolve(response.getStatus());
+        if (!isCacheable(request) || eTag == null || status == null) return;
+        if (status.is2xxSuccessful() || status == HttpStatus.NOT_MODIFIED) record(request.getRequestURI(), eTag);
+    }
+
+    // Compared and replaced atomically on the map behind the cache, caches without one only narrow the race with putIfAbsent
+    @SuppressWarnings("unchecked")
+    private void record(String path, String eTag) {
+        ConcurrentMap<Object, Object> map = switch (eTags.getNativeCache()) {
+            case com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine -> (ConcurrentMap<Object, Object>) caffeine.asMap();
+            case ConcurrentMap<?, ?> concurrentMap -> (ConcurrentMap<Object, Object>) concurrentMap;
+            default -> null;
+        };
+        if (map != null) {
+            map.merge(path, eTag, (recorded, candidate) -> recorded instanceof String recordedTag && !ETagUtils.isNotOlder(eTag, recordedTag) ? recorded : candidate);
+            return;
+        }
+        Cache.ValueWrapper recorded = eTags.putIfAbsent(path, eTag);
+        if (recorded != null && recorded.get() instanceof String recordedTag && ETagUtils.isNotOlder(eTag, recordedTag)) eTags.put(path, eTag);
+    }
+
+    private static boolean isCacheable(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+}
@@ -0,0 +1,262 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.MOVIES_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.SERIES_CACHE;
+
+/**
+ * Keeps the local caches of every node coherent with the writes of the others. One database change stream over movies,
+ * series and reviews evicts the entries a write changed, keyed by imdbId: the one the document has after the write,
+ * looked up for updates, and the one it had when an update, replace or delete may have changed or removed it. That one is
+ * found by the document id among the local entries, the only ones that can be stale. Reviews change their parent with
+ * a write of its own, so they only clear the ETags, recorded by request path like the writing node's @CacheEvict clears them.
+ * The resume token is saved in change_stream_tokens under a key stable across restarts, so a restarted node or a dropped
+ * stream picks up where it stopped. When the token fell off the oplog every cache is cleared instead.
+ * Change streams need a replica set, on a standalone server the invalidator logs it and stays off.
+ */
+@Slf4j
+@Component
+public class ChangeStreamCacheInvalidator implements SmartLifecycle {
+    public static final String TOKENS_COLLECTION = "change_stream_tokens";
+    private static final String IMDB_ID_KEY = "imdbId";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+    private static final Duration MAX_AWAIT_TIME = Duration.ofSeconds(1);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Value("${com.mcpikon.cinemawebback.cache-invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${com.mcpikon.cinemawebback.cache-invalidation.node-id:cinema-web-back}")
+    private String nodeId;
+
+    @Value("${com.mcpikon.cinemawebback.cache-invalidation.token-save-interval-seconds:5}")
+    private long tokenSaveIntervalSeconds;
+
+    private volatile boolean running;
+    private Thread watcher;
+    private BsonDocument savedToken;
+    private long savedAt;
+    private Duration retryDelay = RETRY_DELAY;
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        watcher = Thread.ofVirtual().name("cache-invalidator").start(this::watch);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (watcher == null) return;
+        try {
+            watcher.join(MAX_AWAIT_TIME.multipliedBy(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watch() {
+        BsonDocument resumeToken = loadToken();
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream(resumeToken).cursor()) {
+                log.info(String.format("Cache invalidation of node '%s' watching %s", nodeId, resumeToken == null ? "from now" : "from its saved token"));
+                retryDelay = RETRY_DELAY;
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) invalidate(change.getNamespace() == null ? null : change.getNamespace().getCollectionName(),
+                            change.getOperationType(), imdbIdsOf(change), idOf(change));
+                    if (change != null && change.getOperationType() == OperationType.INVALIDATE) {
+                        resumeToken = null;
+                        break;
+                    }
+                    resumeToken = cursor.getResumeToken();
+                    saveToken(resumeToken, false);
+                }
+                saveToken(resumeToken, true);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                    log.warn(String.format("Cache invalidation disabled [%s]", e.getErrorMessage()));
+                    running = false;
+                    return;
+                }
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) resumeToken = null;
+                recover(e);
+            } catch (RuntimeException e) {
+                // Anything else, a decoding or cache failure included, must not end the only thread keeping the caches coherent
+                recover(e);
+            }
+        }
+    }
+
+    // Changes may have been missed while the stream was down, the caches are cleared before watching again after a growing delay
+    private void recover(RuntimeException e) {
+        log.error(String.format("Error in cache invalidation of node '%s', retrying in %s s [%s]", nodeId, retryDelay.toSeconds(), e.getMessage()));
+        try {
+            clear(MOVIES_CACHE, SERIES_CACHE, ETAGS_CACHE);
+            TimeUnit.MILLISECONDS.sleep(retryDelay.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (RuntimeException clearFailed) {
+            log.error(String.format("Error in cache invalidation of node '%s' clearing the caches [%s]", nodeId, clearFailed.getMessage()));
+        }
+        retryDelay = retryDelay.multipliedBy(2).compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : retryDelay.multipliedBy(2);
+    }
+
+    private ChangeStreamIterable<Document> changeStream(BsonDocument resumeToken) {
+        List<String> collections = List.of(mongoTemplate.getCollectionName(Movie.class), mongoTemplate.getCollectionName(Series.class),
+                mongoTemplate.getCollectionName(Review.class));
+        // Only the fields used to evict are sent, the _id is the resume token and has to stay.
+        // Updates look the document up to know its imdbId, their description only tells if the imdbId was one of the fields set
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getDb().watch(List.of(
+                Aggregates.match(Filters.in("ns.coll", collections)),
+                Aggregates.project(Projections.include("operationType", "ns", "documentKey", "fullDocument." + IMDB_ID_KEY,
+                        "updateDescription.updatedFields." + IMDB_ID_KEY))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(MAX_AWAIT_TIME.toMillis(), TimeUnit.MILLISECONDS);
+        return resumeToken == null ? changeStream : changeStream.resumeAfter(resumeToken);
+    }
+
+    // The imdbIds known to be affected, those the document has after the change
+    static Set<String> imdbIdsOf(ChangeStreamDocument<Document> change) {
+        Document fullDocument = change.getFullDocument();
+        return fullDocument == null || fullDocument.getString(IMDB_ID_KEY) == null ? Set.of() : Set.of(fullDocument.getString(IMDB_ID_KEY));
+    }
+
+    // The id of the document when its imdbId before the change is unknown: updates setting it, replaces and deletes
+    static Object idOf(ChangeStreamDocument<Document> change) {
+        OperationType operationType = change.getOperationType();
+        boolean imdbIdMayChange = switch (operationType) {
+            case UPDATE -> change.getFullDocument() == null || change.getUpdateDescription() == null
+                    || change.getUpdateDescription().getUpdatedFields() == null || change.getUpdateDescription().getUpdatedFields().containsKey(IMDB_ID_KEY);
+            case REPLACE, DELETE -> true;
+            default -> false;
+        };
+        if (!imdbIdMayChange || change.getDocumentKey() == null || !change.getDocumentKey().containsKey("_id")) return null;
+        BsonValue id = change.getDocumentKey().get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue() : id;
+    }
+
+    void invalidate(String collection, OperationType operationType, Set<String> imdbIds, Object id) {
+        if (operationType == OperationType.DROP_DATABASE || operationType == OperationType.INVALIDATE) {
+            clear(MOVIES_CACHE, SERIES_CACHE, ETAGS_CACHE);
+            return;
+        }
+        String cacheName = collection == null ? "" : switch (collection) {
+            case "movies" -> MOVIES_CACHE;
+            case "series" -> SERIES_CACHE;
+            case "reviews" -> null;
+            default -> "";
+        };
+        if ("".equals(cacheName)) return;
+
+        clear(ETAGS_CACHE);
+        if (cacheName == null) return;
+        Cache cache = cache(cacheName);
+        if (cache == null) return;
+        // Drops or renames of the collection carry no document, nothing narrower than the whole cache is known
+        if (operationType != OperationType.INSERT && operationType != OperationType.UPDATE && operationType != OperationType.REPLACE
+                && operationType != OperationType.DELETE) {
+            cache.clear();
+            return;
+        }
+        imdbIds.forEach(cache::evict);
+        if (id != null) evictById(cache, id);
+    }
+
+    // Entries are keyed by imdbId and hold the document, the ones of this id are found by scanning the local entries
+    private static void evictById(Cache cache, Object id) {
+        Map<?, ?> entries = cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache ? caffeineCache.asMap()
+                : cache.getNativeCache() instanceof Map<?, ?> map ? map : null;
+        if (entries == null) {
+            cache.clear();
+            return;
+        }
+        entries.values().removeIf(value -> id.equals(value instanceof Movie movie ? movie.getId() : value instanceof Series series ? series.getId() : null));
+    }
+
+    private void clear(String... cacheNames) {
+        for (String name : cacheNames) {
+            Cache cache = cache(name);
+            if (cache != null) cache.clear();
+        }
+    }
+
+    private Cache cache(String name) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager == null ? null : manager.getCache(name);
+    }
+
+    private BsonDocument loadToken() {
+        try {
+            Document saved = tokens().find(Filters.eq("_id", nodeId)).first();
+            savedToken = saved == null ? null : saved.get("token", Document.class).toBsonDocument();
+        } catch (MongoException e) {
+            log.error(String.format("Error in cache invalidation loading the token of node '%s' [%s]", nodeId, e.getMessage()));
+        }
+        return savedToken;
+    }
+
+    // Idle streams keep advancing their token, it is written at most once per interval unless the stream is closing
+    private void saveToken(BsonDocument token, boolean force) {
+        if (token == null || token.equals(savedToken)) return;
+        if (!force && System.nanoTime() - savedAt < TimeUnit.SECONDS.toNanos(tokenSaveIntervalSeconds)) return;
+        tokens().replaceOne(Filters.eq("_id", nodeId), new Document("_id", nodeId).append("token", token).append("updatedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+        savedToken = token;
+        savedAt = System.nanoTime();
+    }
+
+    private MongoCollection<Document> tokens() {
+        return mongoTemplate.getCollection(TOKENS_COLLECTION);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import com.mcpikon.cinemawebback.utils.MongoCommandUtils;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the MongoDB commands slower than the threshold, the per command timers and pool metrics are the ones
+ * Spring Boot registers as mongodb.driver.commands and mongodb.driver.pool.
+ * The command document is only readable during the started callback, so only the collection and a raw copy of the
+ * filter are kept then. The filter shape is built from that copy for slow commands only.
+ * The origin is looked up on the stack only for slow commands, the sync driver completes them on the calling thread
+ * so reactive commands are sampled without it.
+ * A zero threshold turns the sampling off.
+ */
+@Slf4j
+public class SlowCommandListener implements CommandListener {
+    public static final String SLOW_COMMANDS_METRIC = "mongodb.driver.commands.slow";
+    private static final String APPLICATION_PACKAGE = "com.mcpikon.cinemawebback.";
+    private static final String UNKNOWN = "unknown";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final int samplesSize;
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> samples = new ConcurrentLinkedDeque<>();
+
+    public SlowCommandListener(MeterRegistry meterRegistry, Duration threshold, int samplesSize) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+        this.samplesSize = samplesSize;
+    }
+
+    public record SlowCommand(String command, String collection, String filter, String origin, long durationMs, LocalDateTime finishedAt) {}
+
+    private record StartedCommand(String collection, BsonDocument filter) {}
+
+    // Most recent first
+    public List<SlowCommand> samples() {
+        return new ArrayList<>(samples);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (threshold.isZero()) return;
+        startedCommands.put(event.getRequestId(), new StartedCommand(
+                MongoCommandUtils.collectionOf(event.getCommandName(), event.getCommand()), MongoCommandUtils.filterOf(event.getCommand())));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void finished(int requestId, String commandName, long elapsedNanos) {
+        StartedCommand started = startedCommands.remove(requestId);
+        if (started == null || elapsedNanos < threshold.toNanos()) return;
+
+        SlowCommand slowCommand = new SlowCommand(commandName, started.collection(), MongoCommandUtils.filterShapeOf(started.filter()), originOf(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), LocalDateTime.now());
+        meterRegistry.counter(SLOW_COMMANDS_METRIC, "command", commandName, "collection", started.collection()).increment();
+        samples.addFirst(slowCommand);
+        while (samples.size() > samplesSize) samples.pollLast();
+        log.warn(String.format("Slow mongo command %s on %s took %s ms with filter %s from %s",
+                commandName, started.collection(), slowCommand.durationMs(), slowCommand.filter(), slowCommand.origin()));
+    }
+
+    // Innermost application frame that is not this listener, a service or migration method for the sync driver
+    private static String originOf() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE) && !frame.getClassName().equals(SlowCommandListener.class.getName()))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName())
+                .orElse(UNKNOWN));
+    }
+}
@@ -0,0 +1,22 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the title suffixes of every movie and series saved or inserted, single and bulk, by the blocking and the reactive templates.
+ * Field level updates do not convert an entity, they set the suffixes themselves with FilterUtils.withTitleSuffixes.
+ */
+@Component
+public class TitleSuffixesListener extends AbstractMongoEventListener<Object> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        if (event.getSource() instanceof Movie movie) movie.setTitleSuffixes(FilterUtils.titleSuffixesOf(movie.getTitle()));
+        else if (event.getSource() instanceof Series series) series.setTitleSuffixes(FilterUtils.titleSuffixesOf(series.getTitle()));
+    }
+}
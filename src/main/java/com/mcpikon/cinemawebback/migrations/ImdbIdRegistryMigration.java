@@ -0,0 +1,44 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills the imdb_ids registry with the movies and series stored before it existed.
+ * Upserts only set the type on insert, so running it again is harmless.
+ */
+@Slf4j
+@Component
+public class ImdbIdRegistryMigration implements Migration {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        long titles = mongoTemplate.count(new Query(), Movie.class) + mongoTemplate.count(new Query(), Series.class);
+        if (mongoTemplate.count(new Query(), ImdbIdEntry.class) >= titles) return;
+        backfill(Movie.class, ImdbIdEntry.Type.MOVIE);
+        backfill(Series.class, ImdbIdEntry.Type.SERIES);
+    }
+
+    private void backfill(Class<?> entityClass, ImdbIdEntry.Type type) {
+        List<String> imdbIds = mongoTemplate.findDistinct(new Query(), "imdbId", entityClass, String.class);
+        if (imdbIds.isEmpty()) return;
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ImdbIdEntry.class);
+        imdbIds.forEach(imdbId -> bulkOps.upsert(Query.query(Criteria.where("_id").is(imdbId)), new Update().setOnInsert("type", type)));
+        BulkWriteResult result = bulkOps.execute();
+        log.info(String.format("imdb_ids registry backfilled with %s %s imdbIds", result.getUpserts().size(), type));
+    }
+}
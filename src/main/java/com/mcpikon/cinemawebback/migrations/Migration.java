@@ -0,0 +1,13 @@
+package com.mcpikon.cinemawebback.migrations;
+
+/**
+ * A one time data migration, run by the MigrationRunner in its @Order before the web server takes requests.
+ * The name is recorded once it completes, so it is not run again on the next start.
+ */
+public interface Migration {
+    void migrate();
+
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,44 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Runs the pending migrations once every singleton exists and before the lifecycle beans start, so the web server
+ * only opens its connector on migrated data. Application runners would only be called after it already took requests.
+ * Completed migrations are recorded in the migrations collection, instances starting together may still both run one,
+ * every migration only touches documents not migrated yet so that is harmless.
+ */
+@Slf4j
+@Component
+public class MigrationRunner implements SmartInitializingSingleton {
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Injected sorted by their @Order
+    @Autowired
+    private List<Migration> migrations;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Migration migration : migrations) {
+            if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(migration.name())), MIGRATIONS_COLLECTION)) continue;
+
+            long start = System.currentTimeMillis();
+            migration.migrate();
+            mongoTemplate.save(new Document("_id", migration.name()).append("completedAt", new Date()), MIGRATIONS_COLLECTION);
+            log.info(String.format("Migration %s completed in %s ms", migration.name(), System.currentTimeMillis() - start));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Builds the rating stats of the movies and series stored before they were kept up to date on every review write.
+ * Without them the first delete or update of an older review would take count, sum and histogram below zero.
+ * The reviews of every chunk of parents are grouped by imdbId and rating in one aggregation over the imdbId_createdAt index.
+ * Only parents missing the field are updated so running it again is harmless, it runs after the reviews know their parent.
+ */
+@Slf4j
+@Order(3)
+@Component
+public class RatingStatsMigration implements Migration {
+    private static final String IMDB_ID_KEY = "imdbId";
+    private static final String RATING_STATS_KEY = "ratingStats";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Override
+    public void migrate() {
+        for (Class<?> parentClass : List.of(Movie.class, Series.class)) {
+            Query query = Query.query(Criteria.where(RATING_STATS_KEY).exists(false));
+            query.fields().include(IMDB_ID_KEY);
+
+            long modified = 0;
+            List<String> chunk = new ArrayList<>();
+            try (Stream<Document> parents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(parentClass))) {
+                for (Document parent : (Iterable<Document>) parents::iterator) {
+                    if (parent.getString(IMDB_ID_KEY) == null) continue;
+                    chunk.add(parent.getString(IMDB_ID_KEY));
+                    if (chunk.size() < Math.max(bulkChunkSize, 1)) continue;
+                    modified += setStats(parentClass, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) modified += setStats(parentClass, chunk);
+            if (modified > 0)
+                log.info(String.format("%s rating stats built in %s documents", mongoTemplate.getCollectionName(parentClass), modified));
+        }
+    }
+
+    private long setStats(Class<?> parentClass, List<String> imdbIds) {
+        Map<String, RatingStats> stats = new HashMap<>();
+        imdbIds.forEach(imdbId -> stats.put(imdbId, RatingStats.empty()));
+
+        Aggregation byRating = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(IMDB_ID_KEY).in(imdbIds)),
+                Aggregation.group(IMDB_ID_KEY, "rating").count().as("count"));
+        for (Document group : mongoTemplate.aggregate(byRating, Review.class, Document.class)) {
+            Document key = group.get("_id", Document.class);
+            RatingStats ratingStats = stats.get(key.getString(IMDB_ID_KEY));
+            int rating = key.getInteger("rating", 0);
+            long count = ((Number) group.get("count")).longValue();
+            ratingStats.setCount(ratingStats.getCount() + count);
+            ratingStats.setSum(ratingStats.getSum() + rating * count);
+            ratingStats.getHistogram().put(String.valueOf(rating), count);
+        }
+
+        // Parents given stats by a review write in the meantime are left alone
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, parentClass);
+        stats.forEach((imdbId, ratingStats) -> bulkOps.updateOne(Query.query(Criteria.where(IMDB_ID_KEY).is(imdbId).and(RATING_STATS_KEY).exists(false)),
+                new Update().set(RATING_STATS_KEY, ratingStats)));
+        return bulkOps.execute().getModifiedCount();
+    }
+}
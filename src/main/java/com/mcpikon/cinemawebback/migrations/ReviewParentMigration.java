@@ -0,0 +1,72 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores the parent imdbId on the reviews saved before reviews knew their movie or series.
+ * Parents are read as raw documents so their review references are never resolved, and one unordered bulk write is sent per chunk of parents.
+ * Only reviews missing the field are updated so running it again is harmless, it runs before the parents drop their reviewIds array.
+ */
+@Slf4j
+@Order(1)
+@Component
+public class ReviewParentMigration implements Migration {
+    private static final String IMDB_ID_KEY = "imdbId";
+    private static final String REVIEW_IDS_KEY = "reviewIds";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Override
+    public void migrate() {
+        if (!mongoTemplate.exists(Query.query(Criteria.where(IMDB_ID_KEY).exists(false)), Review.class)) return;
+        for (Class<?> parentClass : List.of(Movie.class, Series.class)) {
+            Query query = Query.query(Criteria.where(REVIEW_IDS_KEY + ".0").exists(true));
+            query.fields().include(IMDB_ID_KEY, REVIEW_IDS_KEY);
+
+            long modified = 0;
+            List<Document> chunk = new ArrayList<>();
+            try (Stream<Document> parents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(parentClass))) {
+                for (Document parent : (Iterable<Document>) parents::iterator) {
+                    chunk.add(parent);
+                    if (chunk.size() < Math.max(bulkChunkSize, 1)) continue;
+                    modified += setParents(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) modified += setParents(chunk);
+            if (modified > 0)
+                log.info(String.format("reviews of %s linked to their parent in %s documents", mongoTemplate.getCollectionName(parentClass), modified));
+        }
+    }
+
+    private long setParents(List<Document> parents) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        for (Document parent : parents) {
+            Query reviews = Query.query(Criteria.where("id").in(parent.getList(REVIEW_IDS_KEY, ObjectId.class)).and(IMDB_ID_KEY).exists(false));
+            bulkOps.updateMulti(reviews, new Update().set(IMDB_ID_KEY, parent.getString(IMDB_ID_KEY)));
+        }
+        return bulkOps.execute().getModifiedCount();
+    }
+}
@@ -0,0 +1,83 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ReviewRepository;
+import com.mcpikon.cinemawebback.utils.DTOMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Replaces the reviewIds array of the movies and series stored before reviews were linked only from their side with the
+ * capped latest reviews preview, read from the reviews once they know their parent imdbId.
+ * Only parents still holding the array are updated so running it again is harmless.
+ */
+@Slf4j
+@Order(2)
+@Component
+public class ReviewPreviewMigration implements Migration {
+    private static final String IMDB_ID_KEY = "imdbId";
+    private static final String REVIEW_IDS_KEY = "reviewIds";
+    private static final String LATEST_REVIEWS_KEY = "latestReviews";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReviewRepository reviewRepo;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${com.mcpikon.cinemawebback.latest-reviews-size:5}")
+    private int latestReviewsSize;
+
+    @Override
+    public void migrate() {
+        for (Class<?> parentClass : List.of(Movie.class, Series.class)) {
+            Query query = Query.query(Criteria.where(REVIEW_IDS_KEY).exists(true));
+            query.fields().include(IMDB_ID_KEY);
+
+            long modified = 0;
+            List<Document> chunk = new ArrayList<>();
+            try (Stream<Document> parents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(parentClass))) {
+                for (Document parent : (Iterable<Document>) parents::iterator) {
+                    chunk.add(parent);
+                    if (chunk.size() < Math.max(bulkChunkSize, 1)) continue;
+                    modified += setPreviews(parentClass, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) modified += setPreviews(parentClass, chunk);
+            if (modified > 0)
+                log.info(String.format("%s moved to latest reviews in %s documents", mongoTemplate.getCollectionName(parentClass), modified));
+        }
+    }
+
+    private long setPreviews(Class<?> parentClass, List<Document> parents) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, parentClass);
+        for (Document parent : parents) {
+            String imdbId = parent.getString(IMDB_ID_KEY);
+            Update update = new Update().unset(REVIEW_IDS_KEY).set(LATEST_REVIEWS_KEY, imdbId == null ? List.of()
+                    : reviewRepo.findLatestByImdbId(imdbId, PageRequest.of(0, latestReviewsSize, Sort.by(Sort.Direction.DESC, "createdAt")))
+                    .stream().map(DTOMapper::reviewToPreview).toList());
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(parent.get("_id"))), update);
+        }
+        return bulkOps.execute().getModifiedCount();
+    }
+}
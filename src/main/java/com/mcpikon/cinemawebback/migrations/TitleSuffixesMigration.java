@@ -0,0 +1,74 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores the title suffixes of the movies and series saved before the title search used them, and drops the text index
+ * the search used before, nothing reads it and every write would keep paying for it.
+ * Only documents missing the field are updated so running it again is harmless.
+ */
+@Slf4j
+@Component
+public class TitleSuffixesMigration implements Migration {
+    private static final String TITLE_KEY = "title";
+    private static final String TITLE_SUFFIXES_KEY = "titleSuffixes";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Override
+    public void migrate() {
+        for (Class<?> parentClass : List.of(Movie.class, Series.class)) {
+            for (IndexInfo index : mongoTemplate.indexOps(parentClass).getIndexInfo()) {
+                if (index.getIndexFields().stream().anyMatch(IndexField::isText)) mongoTemplate.indexOps(parentClass).dropIndex(index.getName());
+            }
+
+            Query query = Query.query(Criteria.where(TITLE_SUFFIXES_KEY).exists(false).and(TITLE_KEY).ne(null));
+            query.fields().include(TITLE_KEY);
+
+            long modified = 0;
+            List<Document> chunk = new ArrayList<>();
+            try (Stream<Document> parents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(parentClass))) {
+                for (Document parent : (Iterable<Document>) parents::iterator) {
+                    chunk.add(parent);
+                    if (chunk.size() < Math.max(bulkChunkSize, 1)) continue;
+                    modified += setSuffixes(parentClass, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) modified += setSuffixes(parentClass, chunk);
+            if (modified > 0)
+                log.info(String.format("%s title suffixes stored in %s documents", mongoTemplate.getCollectionName(parentClass), modified));
+        }
+    }
+
+    private long setSuffixes(Class<?> parentClass, List<Document> parents) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, parentClass);
+        for (Document parent : parents) {
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(parent.get("_id"))),
+                    new Update().set(TITLE_SUFFIXES_KEY, FilterUtils.titleSuffixesOf(parent.getString(TITLE_KEY))));
+        }
+        return bulkOps.execute().getModifiedCount();
+    }
+}
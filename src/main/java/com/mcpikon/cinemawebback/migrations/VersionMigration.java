@@ -0,0 +1,37 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sets the initial version of the movies, series and reviews stored before they were versioned.
+ * Without it their saves would be taken as inserts, only documents missing the field are updated so running it again is harmless.
+ */
+@Slf4j
+@Component
+public class VersionMigration implements Migration {
+    private static final String VERSION_KEY = "version";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void migrate() {
+        for (Class<?> entityClass : List.of(Movie.class, Series.class, Review.class)) {
+            UpdateResult result = mongoTemplate.updateMulti(Query.query(Criteria.where(VERSION_KEY).exists(false)), new Update().set(VERSION_KEY, 0L), entityClass);
+            if (result.getModifiedCount() > 0)
+                log.info(String.format("%s versioned %s documents", mongoTemplate.getCollectionName(entityClass), result.getModifiedCount()));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.mcpikon.cinemawebback.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "imdb_ids")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImdbIdEntry {
+    @Id
+    private String imdbId;
+    private Type type;
+
+    // DELETED keeps the imdbId of a deleted title claimed until its reviews are gone, so it cannot be created again meanwhile
+    public enum Type { MOVIE, SERIES, DELETED }
+}
@@ -1,5 +1,6 @@
 package com.mcpikon.cinemawebback.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
@@ -8,12 +9,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 import java.util.List;
 
 @Document(collection = "movies")
+// Genres are an array, the compound index is multikey and serves genre filters with or without a release year
+@CompoundIndex(name = "genres_releaseDate", def = "{'genres': 1, 'releaseDate': 1}")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -22,16 +27,24 @@ public class Movie {
     @Id
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId id;
+    @Version
+    private Long version;
+    @Indexed(name = "imdbId_unique", unique = true)
     private String imdbId;
     private String title;
+    // Lower-cased suffixes of the title kept by the TitleSuffixesListener, the index behind the title search
+    @Indexed(name = "titleSuffixes")
+    @JsonIgnore
+    private List<String> titleSuffixes;
     private String overview;
     private String duration;
     private String director;
+    @Indexed(name = "releaseDate")
     private String releaseDate;
     private String trailerLink;
     private List<String> genres;
     private String poster;
     private String backdrop;
-    @DocumentReference
-    private List<Review> reviewIds;
+    private List<ReviewPreview> latestReviews;
+    private RatingStats ratingStats;
 }
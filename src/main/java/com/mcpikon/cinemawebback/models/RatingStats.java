@@ -0,0 +1,27 @@
+package com.mcpikon.cinemawebback.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RatingStats {
+    private long count;
+    private long sum;
+    private Map<String, Long> histogram;
+
+    public static RatingStats empty() {
+        return new RatingStats(0, 0, new HashMap<>());
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
@@ -8,11 +8,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "reviews")
+@CompoundIndex(name = "imdbId_createdAt", def = "{'imdbId': 1, 'createdAt': -1}")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,6 +24,9 @@ public class Review {
     @Id
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId id;
+    @Version
+    private Long version;
+    private String imdbId;
     private String title;
     private int rating;
     private String body;
@@ -0,0 +1,24 @@
+package com.mcpikon.cinemawebback.models;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReviewPreview {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId id;
+    private String title;
+    private int rating;
+    private String body;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,8 @@
+package com.mcpikon.cinemawebback.repositories;
+
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImdbIdRepository extends MongoRepository<ImdbIdEntry, String> { }
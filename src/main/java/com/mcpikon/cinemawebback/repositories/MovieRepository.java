@@ -1,11 +1,12 @@
 package com.mcpikon.cinemawebback.repositories;
 
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
 import com.mcpikon.cinemawebback.models.Movie;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,6 +15,8 @@ import java.util.Optional;
 public interface MovieRepository extends MongoRepository<Movie, ObjectId> {
     Optional<Movie> findByImdbId(String imdbId);
     boolean existsByImdbId(String imdbId);
-    @Query(value = "{'title': {$regex : ?0, $options: 'i'}}")
-    Page<Movie> findAllByTitle(String title, Pageable pageable);
+    Page<MovieResponseDTO> findAllProjectedBy(Pageable pageable);
+    Page<MovieResponseDTO> findAllProjectedByTitleSuffixesRegex(String titleRegex, Pageable pageable);
+    Slice<MovieResponseDTO> findAllProjectedByIdGreaterThan(ObjectId after, Pageable pageable);
+    Slice<MovieResponseDTO> findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(ObjectId after, String titleRegex, Pageable pageable);
 }
\ No newline at end of file
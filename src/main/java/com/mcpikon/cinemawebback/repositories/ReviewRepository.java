@@ -2,8 +2,21 @@ package com.mcpikon.cinemawebback.repositories;
 
 import com.mcpikon.cinemawebback.models.Review;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface ReviewRepository extends MongoRepository<Review, ObjectId> { }
+public interface ReviewRepository extends MongoRepository<Review, ObjectId> {
+    Page<Review> findAllByImdbId(String imdbId, Pageable pageable);
+    List<Review> findLatestByImdbId(String imdbId, Pageable pageable);
+    Slice<Review> findAllByIdGreaterThan(ObjectId after, Pageable pageable);
+    @Meta(cursorBatchSize = 500)
+    Stream<Review> streamAllBy();
+}
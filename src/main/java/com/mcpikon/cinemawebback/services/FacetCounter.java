@@ -0,0 +1,10 @@
+package com.mcpikon.cinemawebback.services;
+
+import java.util.List;
+import java.util.Map;
+
+public interface FacetCounter {
+    Map<String, Object> facetsOf(Class<?> entityClass);
+    void count(Class<?> entityClass, List<String> genres, String releaseDate, int delta);
+    void invalidate(Class<?> entityClass);
+}
@@ -0,0 +1,18 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface ImdbIdRegistry {
+    Optional<ImdbIdEntry.Type> findTypeByImdbId(String imdbId);
+    boolean register(String imdbId, ImdbIdEntry.Type type);
+    Set<String> registerAll(Collection<String> imdbIds, ImdbIdEntry.Type type);
+    void tombstone(String imdbId);
+    List<String> findTombstones();
+    void unregister(String imdbId);
+    void unregisterAll(Collection<String> imdbIds);
+}
@@ -0,0 +1,9 @@
+package com.mcpikon.cinemawebback.services;
+
+import java.util.List;
+import java.util.Map;
+
+public interface IndexManager {
+    List<String> ensureIndexes();
+    Map<String, Object> report();
+}
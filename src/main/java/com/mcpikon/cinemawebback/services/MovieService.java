@@ -8,15 +8,19 @@ import com.mcpikon.cinemawebback.models.Movie;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import org.bson.types.ObjectId;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public interface MovieService {
-    Map<String, Object> findAll(String title, int page, int size) throws ErrorException;
+    Map<String, Object> findAll(String title, String genre, Integer year, int page, int size) throws ErrorException;
+    Map<String, Object> findAllByCursor(String title, String genre, Integer year, String after, int size) throws ErrorException;
+    Map<String, Object> findFacets();
     Optional<Movie> findById(ObjectId id) throws ErrorException;
     Optional<Movie> findByImdbId(String imdbId) throws ErrorException;
     Movie save(MovieDTO movieDTO) throws ErrorException;
+    Map<String, Object> saveAll(List<MovieDTO> movieDTOs) throws ErrorException;
     Map<String, String> delete(ObjectId id) throws ErrorException;
-    Movie update(ObjectId id, MovieDTO movieDTO) throws ErrorException;
-    Movie patch(ObjectId id, JsonPatch jsonPatch) throws ErrorException, JsonPatchException, JsonProcessingException;
+    Movie update(ObjectId id, MovieDTO movieDTO, Long expectedVersion) throws ErrorException;
+    Movie patch(ObjectId id, JsonPatch jsonPatch, Long expectedVersion) throws ErrorException, JsonPatchException, JsonProcessingException;
 }
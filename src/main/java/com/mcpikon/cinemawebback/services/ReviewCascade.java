@@ -0,0 +1,6 @@
+package com.mcpikon.cinemawebback.services;
+
+public interface ReviewCascade {
+    void deleteReviews(String imdbId, long reviewCount);
+    void moveReviews(String fromImdbId, String toImdbId);
+}
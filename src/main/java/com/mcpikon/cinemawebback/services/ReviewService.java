@@ -5,20 +5,26 @@ import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.mcpikon.cinemawebback.dtos.ReviewDTO;
 import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import org.bson.types.ObjectId;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public interface ReviewService {
-    List<Review> findAll() throws ErrorException;
-    List<Review> findAllByImdbId(String imdbId) throws ErrorException;
+    Map<String, Object> findAll(int page, int size) throws ErrorException;
+    Map<String, Object> findAllByCursor(String after, int size) throws ErrorException;
+    void streamAll(OutputStream outputStream) throws IOException;
+    Map<String, Object> findAllByImdbId(String imdbId, int page, int size) throws ErrorException;
+    RatingStats findStatsByImdbId(String imdbId) throws ErrorException;
     Optional<Review> findById(ObjectId id) throws ErrorException;
     Review save(ReviewSaveDTO reviewSaveDTO) throws ErrorException;
     Map<String, String> delete(ObjectId id) throws ErrorException;
-    Review update(ObjectId id, ReviewDTO reviewDTO) throws ErrorException;
-    Review patch(ObjectId id, JsonPatch jsonPatch) throws ErrorException, JsonPatchException, JsonProcessingException;
+    Review update(ObjectId id, ReviewDTO reviewDTO, Long expectedVersion) throws ErrorException;
+    Review patch(ObjectId id, JsonPatch jsonPatch, Long expectedVersion) throws ErrorException, JsonPatchException, JsonProcessingException;
 }
@@ -8,15 +8,19 @@ import com.mcpikon.cinemawebback.models.Series;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import org.bson.types.ObjectId;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public interface SeriesService {
-    Map<String, Object> findAll(String title, int page, int size) throws ErrorException;
+    Map<String, Object> findAll(String title, String genre, Integer year, int page, int size) throws ErrorException;
+    Map<String, Object> findAllByCursor(String title, String genre, Integer year, String after, int size) throws ErrorException;
+    Map<String, Object> findFacets();
     Optional<Series> findById(ObjectId id) throws ErrorException;
     Optional<Series> findByImdbId(String imdbId) throws ErrorException;
     Series save(SeriesDTO seriesDTO) throws ErrorException;
+    Map<String, Object> saveAll(List<SeriesDTO> seriesDTOs) throws ErrorException;
     Map<String, String> delete(ObjectId id) throws ErrorException;
-    Series update(ObjectId id, SeriesDTO seriesDTO) throws ErrorException;
-    Series patch(ObjectId id, JsonPatch jsonPatch) throws ErrorException, JsonPatchException, JsonProcessingException;
+    Series update(ObjectId id, SeriesDTO seriesDTO, Long expectedVersion) throws ErrorException;
+    Series patch(ObjectId id, JsonPatch jsonPatch, Long expectedVersion) throws ErrorException, JsonPatchException, JsonProcessingException;
 }
@@ -0,0 +1,114 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.services.FacetCounter;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import com.mcpikon.cinemawebback.utils.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts movies and series by genre and release decade with one $facet aggregation per collection, kept in memory.
+ * The writes of this node add and subtract their own documents from the counts, so reads do not aggregate again.
+ * Counts are aggregated again once they are older than the refresh interval, picking up the writes of other nodes
+ * and correcting any drift, and when they were being aggregated while a write of the same collection was counted.
+ */
+@Slf4j
+@Service
+public class FacetCounterImpl implements FacetCounter {
+    private static final String GENRES_KEY = "genres";
+    private static final String DECADES_KEY = "decades";
+    private static final String COUNT_KEY = "count";
+    private static final Document FACET_STAGE = new Document("$facet", new Document()
+            .append(GENRES_KEY, List.of(
+                    new Document("$unwind", "$genres"),
+                    new Document("$match", new Document(GENRES_KEY, new Document("$type", "string"))),
+                    new Document("$group", new Document("_id", "$genres").append(COUNT_KEY, new Document("$sum", 1)))))
+            .append(DECADES_KEY, List.of(
+                    new Document("$group", new Document("_id", new Document("$multiply", List.of(new Document("$floor", new Document("$divide", List.of(
+                            new Document("$convert", new Document("input", new Document("$substrCP", List.of("$releaseDate", 0, 4)))
+                                    .append("to", "int").append("onError", null).append("onNull", null)), 10))), 10)))
+                            .append(COUNT_KEY, new Document("$sum", 1))),
+                    new Document("$match", new Document("_id", new Document("$ne", null))))));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${com.mcpikon.cinemawebback.facets.refresh-seconds:60}")
+    private long refreshSeconds;
+
+    private final Map<Class<?>, Facets> facets = new ConcurrentHashMap<>();
+    // Writes counted per collection, a movie write must not throw away series counts being aggregated
+    private final Map<Class<?>, AtomicLong> writes = new ConcurrentHashMap<>();
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private record Facets(Map<String, Long> genres, Map<Integer, Long> decades, long aggregatedAt) { }
+
+    @Override
+    public Map<String, Object> facetsOf(Class<?> entityClass) {
+        Facets current = facets.get(entityClass);
+        if (current == null || System.nanoTime() - current.aggregatedAt() >= TimeUnit.SECONDS.toNanos(refreshSeconds))
+            current = singleFlight.execute(SingleFlight.key("facetsOf", entityClass), () -> aggregate(entityClass));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put(GENRES_KEY, current.genres().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(genre -> Map.of("genre", genre.getKey(), COUNT_KEY, genre.getValue())).toList());
+        response.put(DECADES_KEY, current.decades().entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .map(decade -> Map.of("decade", decade.getKey(), COUNT_KEY, decade.getValue())).toList());
+        return response;
+    }
+
+    @Override
+    public void count(Class<?> entityClass, List<String> genres, String releaseDate, int delta) {
+        writesOf(entityClass).incrementAndGet();
+        Facets current = facets.get(entityClass);
+        if (current == null) return;
+        if (genres != null) genres.stream().filter(Objects::nonNull).forEach(genre -> add(current.genres(), genre, delta));
+        Integer decade = FilterUtils.decadeOf(releaseDate);
+        if (decade != null) add(current.decades(), decade, delta);
+    }
+
+    @Override
+    public void invalidate(Class<?> entityClass) {
+        writesOf(entityClass).incrementAndGet();
+        facets.remove(entityClass);
+    }
+
+    private Facets aggregate(Class<?> entityClass) {
+        long writesBefore = writesOf(entityClass).get();
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(context -> FACET_STAGE), entityClass, Document.class).getUniqueMappedResult();
+        Facets aggregated = new Facets(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), System.nanoTime());
+        if (result != null) {
+            for (Document genre : result.getList(GENRES_KEY, Document.class))
+                aggregated.genres().put(genre.getString("_id"), ((Number) genre.get(COUNT_KEY)).longValue());
+            for (Document decade : result.getList(DECADES_KEY, Document.class))
+                aggregated.decades().put(((Number) decade.get("_id")).intValue(), ((Number) decade.get(COUNT_KEY)).longValue());
+        }
+        // A write counted while aggregating may be missing from the result or counted twice, the next read aggregates again
+        if (writesOf(entityClass).get() == writesBefore) facets.put(entityClass, aggregated);
+        else facets.remove(entityClass);
+        log.info(String.format("%s facets aggregated", mongoTemplate.getCollectionName(entityClass)));
+        return aggregated;
+    }
+
+    private AtomicLong writesOf(Class<?> entityClass) {
+        return writes.computeIfAbsent(entityClass, k -> new AtomicLong());
+    }
+
+    private static <K> void add(Map<K, Long> counts, K key, int delta) {
+        counts.compute(key, (k, count) -> {
+            long updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+}
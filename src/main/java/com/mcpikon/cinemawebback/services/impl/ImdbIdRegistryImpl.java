@@ -0,0 +1,97 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ImdbIdRepository;
+import com.mcpikon.cinemawebback.services.ImdbIdRegistry;
+import com.mcpikon.cinemawebback.utils.BulkUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Every imdbId in use is the _id of a document in the imdb_ids collection, so a single primary key lookup
+ * tells whether it exists and whether it belongs to a movie or a series, and claiming it is an atomic insert.
+ */
+@Slf4j
+@Service
+public class ImdbIdRegistryImpl implements ImdbIdRegistry {
+    private static final String IMDB_ID_KEY = "imdbId";
+
+    @Autowired
+    private ImdbIdRepository imdbIdRepo;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Override
+    public Optional<ImdbIdEntry.Type> findTypeByImdbId(String imdbId) {
+        return imdbIdRepo.findById(imdbId).map(ImdbIdEntry::getType).filter(type -> type != ImdbIdEntry.Type.DELETED);
+    }
+
+    @Override
+    public boolean register(String imdbId, ImdbIdEntry.Type type) {
+        try {
+            imdbIdRepo.insert(new ImdbIdEntry(imdbId, type));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<String> registerAll(Collection<String> imdbIds, ImdbIdEntry.Type type) {
+        List<ImdbIdEntry> entries = imdbIds.stream().map(imdbId -> new ImdbIdEntry(imdbId, type)).toList();
+        Set<String> registered = new HashSet<>();
+        int size = Math.max(bulkChunkSize, 1);
+        for (int from = 0; from < entries.size(); from += size) {
+            List<ImdbIdEntry> chunk = entries.subList(from, Math.min(from + size, entries.size()));
+            try {
+                Set<Integer> rejected = BulkUtils.insertUnordered(mongoTemplate, ImdbIdEntry.class, chunk, size).keySet();
+                for (int i = 0; i < chunk.size(); i++) if (!rejected.contains(i)) registered.add(chunk.get(i).getImdbId());
+            } catch (RuntimeException e) {
+                // Which claims of the failed chunk were written is unknown, the ones without a movie or series behind them are released too
+                List<String> chunkIds = chunk.stream().map(ImdbIdEntry::getImdbId).toList();
+                Set<String> inUse = new HashSet<>();
+                for (Class<?> parentClass : List.of(Movie.class, Series.class))
+                    inUse.addAll(mongoTemplate.findDistinct(Query.query(Criteria.where(IMDB_ID_KEY).in(chunkIds)), IMDB_ID_KEY, parentClass, String.class));
+                chunkIds.stream().filter(imdbId -> !inUse.contains(imdbId)).forEach(registered::add);
+                unregisterAll(registered);
+                log.error(String.format("Error registering imdbIds, %s claims released [%s]", registered.size(), e.getMessage()));
+                throw e;
+            }
+        }
+        return registered;
+    }
+
+    @Override
+    public void tombstone(String imdbId) {
+        imdbIdRepo.save(new ImdbIdEntry(imdbId, ImdbIdEntry.Type.DELETED));
+    }
+
+    @Override
+    public List<String> findTombstones() {
+        return mongoTemplate.findDistinct(Query.query(Criteria.where("type").is(ImdbIdEntry.Type.DELETED)), "_id", ImdbIdEntry.class, String.class);
+    }
+
+    @Override
+    public void unregister(String imdbId) {
+        imdbIdRepo.deleteById(imdbId);
+    }
+
+    @Override
+    public void unregisterAll(Collection<String> imdbIds) {
+        if (!imdbIds.isEmpty()) imdbIdRepo.deleteAllById(imdbIds);
+    }
+}
@@ -0,0 +1,128 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.services.IndexManager;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the indexes declared on the models, auto index creation is disabled so they are only created here.
+ * On startup missing indexes are created, or only reported when creation is disabled, and a missing index fails the
+ * startup when it is required. The report compares the declared indexes with the collections and their $indexStats.
+ */
+@Slf4j
+@Service
+public class IndexManagerImpl implements IndexManager {
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Movie.class, Series.class, Review.class);
+    private static final String ID_INDEX = "_id_";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${com.mcpikon.cinemawebback.indexes.create-missing:true}")
+    private boolean createMissing;
+
+    @Value("${com.mcpikon.cinemawebback.indexes.fail-on-missing:false}")
+    private boolean failOnMissing;
+
+    @PostConstruct
+    void verifyOnStartup() {
+        List<String> missing = ensureIndexes();
+        if (missing.isEmpty()) return;
+        String message = String.format("Required indexes are missing %s", missing);
+        if (failOnMissing) throw new IllegalStateException(message);
+        log.error(message);
+    }
+
+    @Override
+    public List<String> ensureIndexes() {
+        List<String> missing = new ArrayList<>();
+        for (Class<?> entityClass : INDEXED_ENTITIES) {
+            String collection = mongoTemplate.getCollectionName(entityClass);
+            Set<String> existing = existingIndexes(entityClass);
+            for (IndexDefinition index : declaredIndexes(entityClass)) {
+                String name = nameOf(index);
+                if (existing.contains(name) || createMissing && create(entityClass, index, collection, name)) continue;
+                missing.add(collection + "." + name);
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (Class<?> entityClass : INDEXED_ENTITIES) {
+            String collection = mongoTemplate.getCollectionName(entityClass);
+            List<String> declared = declaredIndexes(entityClass).stream().map(IndexManagerImpl::nameOf).sorted().toList();
+            Set<String> existing = existingIndexes(entityClass);
+            Map<String, Object> indexes = new LinkedHashMap<>();
+            indexes.put("declared", declared);
+            indexes.put("missing", declared.stream().filter(name -> !existing.contains(name)).toList());
+            indexes.put("undeclared", existing.stream().filter(name -> !name.equals(ID_INDEX) && !declared.contains(name)).sorted().toList());
+            indexes.put("unused", unusedIndexes(collection));
+            report.put(collection, indexes);
+        }
+        return report;
+    }
+
+    private List<IndexDefinition> declaredIndexes(Class<?> entityClass) {
+        List<IndexDefinition> indexes = new ArrayList<>();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        resolver.resolveIndexFor(entityClass).forEach(indexes::add);
+        return indexes;
+    }
+
+    private Set<String> existingIndexes(Class<?> entityClass) {
+        return mongoTemplate.indexOps(entityClass).getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toSet());
+    }
+
+    private boolean create(Class<?> entityClass, IndexDefinition index, String collection, String name) {
+        try {
+            mongoTemplate.indexOps(entityClass).ensureIndex(index);
+            log.info(String.format("Created index '%s' on %s", name, collection));
+            return true;
+        } catch (DataAccessException e) {
+            log.error(String.format("Error creating index '%s' on %s [%s]", name, collection, e.getMessage()));
+            return false;
+        }
+    }
+
+    // Access counters are kept since the last server restart, null when the server does not allow reading them
+    private List<String> unusedIndexes(String collection) {
+        try {
+            Aggregation indexStats = Aggregation.newAggregation(context -> new Document("$indexStats", new Document()));
+            return mongoTemplate.aggregate(indexStats, collection, Document.class).getMappedResults().stream()
+                    .filter(stats -> !ID_INDEX.equals(stats.getString("name")))
+                    .filter(stats -> ((Number) stats.get("accesses", Document.class).get("ops")).longValue() == 0)
+                    .map(stats -> stats.getString("name"))
+                    .sorted().toList();
+        } catch (DataAccessException e) {
+            log.error(String.format("Error reading index stats of %s [%s]", collection, e.getMessage()));
+            return null;
+        }
+    }
+
+    // Unnamed indexes get the server default name, their keys and directions joined by underscores
+    private static String nameOf(IndexDefinition index) {
+        String name = index.getIndexOptions().getString("name");
+        if (name != null) return name;
+        return index.getIndexKeys().entrySet().stream().map(key -> key.getKey() + "_" + key.getValue()).collect(Collectors.joining("_"));
+    }
+}
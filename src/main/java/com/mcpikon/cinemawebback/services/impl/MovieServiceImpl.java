@@ -5,156 +5,386 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
 import com.mcpikon.cinemawebback.dtos.MovieDTO;
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import com.mcpikon.cinemawebback.models.Movie;
-import com.mcpikon.cinemawebback.models.Review;
 import com.mcpikon.cinemawebback.repositories.MovieRepository;
-import com.mcpikon.cinemawebback.repositories.ReviewRepository;
-import com.mcpikon.cinemawebback.repositories.SeriesRepository;
+import com.mcpikon.cinemawebback.services.FacetCounter;
+import com.mcpikon.cinemawebback.services.ImdbIdRegistry;
+import com.mcpikon.cinemawebback.services.ReviewCascade;
 import com.mcpikon.cinemawebback.services.MovieService;
+import com.mcpikon.cinemawebback.utils.BulkUtils;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
 import com.mcpikon.cinemawebback.utils.DTOMapper;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import com.mcpikon.cinemawebback.utils.PatchUtils;
+import com.mcpikon.cinemawebback.utils.SingleFlight;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.MOVIES_CACHE;
 import static com.mcpikon.cinemawebback.exceptions.Errors.*;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.MOVIE;
 
 @Slf4j
 @Service
 @Transactional
 public class MovieServiceImpl implements MovieService {
+    private static final String VERSION_KEY = "version";
+
     @Autowired
     private MovieRepository movieRepo;
 
     @Autowired
-    private SeriesRepository seriesRepo;
+    private ReviewCascade reviewCascade;
 
     @Autowired
-    private ReviewRepository reviewRepo;
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ImdbIdRegistry imdbIdRegistry;
+
+    @Autowired
+    private FacetCounter facetCounter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    private final SingleFlight singleFlight = new SingleFlight();
 
     @Override
-    public Map<String, Object> findAll(String title, int page, int size) throws ErrorException {
+    public Map<String, Object> findAll(String title, String genre, Integer year, int page, int size) throws ErrorException {
         log.info("GET movies /findAll executed");
-        if (page < 0) page = 0;
-        if (size <= 0) size = 1;
+        int pageNumber = Math.max(page, 0);
+        int pageSize = size <= 0 ? 1 : size;
 
-        Pageable paging = PageRequest.of(page, size);
-        Page<Movie> movies;
+        // Identical pages requested while one is being read share its query, a trending search is read once
+        return singleFlight.execute(SingleFlight.key("findAll", title, genre, year, pageNumber, pageSize), () -> {
+            Page<MovieResponseDTO> movies;
 
-        if (title == null) movies = movieRepo.findAll(paging);
-        else movies = movieRepo.findAllByTitle(title, paging);
+            if (FilterUtils.isFiltered(genre, year)) movies = findFiltered(title, genre, year, PageRequest.of(pageNumber, pageSize));
+            else if (title == null) movies = movieRepo.findAllProjectedBy(PageRequest.of(pageNumber, pageSize));
+            else movies = movieRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf(title), PageRequest.of(pageNumber, pageSize));
 
-        if (movies.isEmpty()) {
-            log.warn(String.format("Warn in movies /findAll [%s]", EMPTY.getMessage()));
-            throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
-        }
+            if (movies.isEmpty()) {
+                log.warn(String.format("Warn in movies /findAll [%s]", EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("movies", movies.getContent().stream().map(DTOMapper::movieToResponseDTO).toList());
-        response.put("currentPage", movies.getNumber());
-        response.put("totalItems", movies.getTotalElements());
-        response.put("totalPages", movies.getTotalPages());
+            Map<String, Object> response = new HashMap<>();
+            response.put("movies", movies.getContent());
+            response.put("currentPage", movies.getNumber());
+            response.put("totalItems", movies.getTotalElements());
+            response.put("totalPages", movies.getTotalPages());
 
-        return response;
+            return response;
+        });
+    }
+
+    @Override
+    public Map<String, Object> findAllByCursor(String title, String genre, Integer year, String after, int size) throws ErrorException {
+        log.info("GET movies /findAll (cursor) executed");
+        ObjectId afterId = CursorUtils.decode(after);
+        Pageable paging = PageRequest.of(0, size <= 0 ? 1 : size, Sort.by("id"));
+
+        return singleFlight.execute(SingleFlight.key("findAllByCursor", title, genre, year, afterId, paging.getPageSize()), () -> {
+            Slice<MovieResponseDTO> movies;
+
+            if (FilterUtils.isFiltered(genre, year)) movies = findFilteredAfter(title, genre, year, afterId, paging);
+            else if (title == null) movies = movieRepo.findAllProjectedByIdGreaterThan(afterId, paging);
+            else movies = movieRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(afterId, FilterUtils.titleRegexOf(title), paging);
+
+            if (movies.isEmpty()) {
+                log.warn(String.format("Warn in movies /findAll (cursor) [%s]", EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
+
+            List<MovieResponseDTO> content = movies.getContent();
+            Map<String, Object> response = new HashMap<>();
+            response.put("movies", content);
+            response.put("nextCursor", movies.hasNext() ? CursorUtils.encode(content.get(content.size() - 1).id()) : null);
+
+            return response;
+        });
+    }
+
+    // Genre and year filters are combined with the title search in one query, the repository methods only cover the search
+    private Page<MovieResponseDTO> findFiltered(String title, String genre, Integer year, Pageable paging) {
+        Query query = FilterUtils.queryOf(title, genre, year).with(paging);
+        List<MovieResponseDTO> content = mongoTemplate.query(Movie.class).as(MovieResponseDTO.class).matching(query).all();
+        return PageableExecutionUtils.getPage(content, paging, () -> mongoTemplate.count(FilterUtils.queryOf(title, genre, year), Movie.class));
+    }
+
+    private Slice<MovieResponseDTO> findFilteredAfter(String title, String genre, Integer year, ObjectId afterId, Pageable paging) {
+        // One extra document tells whether there is a next page without counting
+        Query query = FilterUtils.queryOf(title, genre, year).addCriteria(Criteria.where("id").gt(afterId))
+                .with(paging.getSort()).limit(paging.getPageSize() + 1);
+        List<MovieResponseDTO> content = mongoTemplate.query(Movie.class).as(MovieResponseDTO.class).matching(query).all();
+        boolean hasNext = content.size() > paging.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, paging.getPageSize()) : content, paging, hasNext);
+    }
+
+    @Override
+    public Map<String, Object> findFacets() {
+        log.info("GET movies /facets executed");
+        return facetCounter.facetsOf(Movie.class);
     }
 
     @Override
     public Optional<Movie> findById(ObjectId id) throws ErrorException {
         log.info("GET movies /findById executed");
-        return Optional.ofNullable(movieRepo.findById(id).orElseThrow(() -> {
+        return singleFlight.execute(SingleFlight.key("findById", id), () -> Optional.ofNullable(movieRepo.findById(id).orElseThrow(() -> {
             log.error(String.format("Error in movies /findById with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }));
+        })));
     }
 
     @Override
+    // Concurrent misses of a key share one query through the single flight, sync would park them in a Caffeine compute that pins virtual threads
+    @Cacheable(cacheNames = MOVIES_CACHE, key = "#imdbId")
     public Optional<Movie> findByImdbId(String imdbId) throws ErrorException {
         log.info("GET movies /findByImdbId executed");
-        return Optional.ofNullable(movieRepo.findByImdbId(imdbId).orElseThrow(() -> {
+        return singleFlight.execute(SingleFlight.key("findByImdbId", imdbId), () -> Optional.ofNullable(movieRepo.findByImdbId(imdbId).orElseThrow(() -> {
             log.error(String.format("Error in movies /findByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }));
+        })));
     }
 
     @Override
+    @CacheEvict(cacheNames = MOVIES_CACHE, key = "#movieDTO.imdbId()")
     public Movie save(MovieDTO movieDTO) throws ErrorException {
         log.info("POST movies /save executed");
-        if (movieRepo.existsByImdbId(movieDTO.imdbId()) || seriesRepo.existsByImdbId(movieDTO.imdbId())) {
+        if (!imdbIdRegistry.register(movieDTO.imdbId(), MOVIE)) {
             log.error(String.format("Error in movies /save with imdbId: '%s' [%s]", movieDTO.imdbId(), ALREADY_EXISTS.getMessage()));
             throw new ErrorException(ALREADY_EXISTS.getId(), ALREADY_EXISTS.getMessage(), ALREADY_EXISTS.getHttpStatus());
         }
         Movie movieToSave = DTOMapper.dtoToMovie(movieDTO);
-        return movieRepo.insert(movieToSave);
+        try {
+            Movie movieSaved = movieRepo.insert(movieToSave);
+            facetCounter.count(Movie.class, movieSaved.getGenres(), movieSaved.getReleaseDate(), 1);
+            return movieSaved;
+        } catch (RuntimeException e) {
+            imdbIdRegistry.unregister(movieDTO.imdbId());
+            throw e;
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = MOVIES_CACHE, allEntries = true)
+    public Map<String, Object> saveAll(List<MovieDTO> movieDTOs) throws ErrorException {
+        log.info("POST movies /bulk executed");
+        if (movieDTOs.isEmpty()) {
+            log.warn(String.format("Warn in movies /bulk [%s]", EMPTY.getMessage()));
+            throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+        }
+
+        BulkResultDTO[] results = new BulkResultDTO[movieDTOs.size()];
+        Set<String> requestImdbIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < movieDTOs.size(); i++) {
+            MovieDTO movieDTO = movieDTOs.get(i);
+            String imdbId = movieDTO == null ? null : movieDTO.imdbId();
+            Set<ConstraintViolation<MovieDTO>> violations = movieDTO == null ? Set.of() : validator.validate(movieDTO);
+
+            if (movieDTO == null) results[i] = new BulkResultDTO(i, null, false, VALIDATION_FAILED.getMessage());
+            else if (!violations.isEmpty()) results[i] = new BulkResultDTO(i, imdbId, false, violations.iterator().next().getMessage());
+            else if (!requestImdbIds.add(imdbId)) results[i] = new BulkResultDTO(i, imdbId, false, IMDB_ID_ALREADY_IN_USE.getMessage());
+            else candidates.add(i);
+        }
+
+        Set<String> registered = imdbIdRegistry.registerAll(candidates.stream().map(i -> movieDTOs.get(i).imdbId()).toList(), MOVIE);
+        List<Movie> moviesToSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i : candidates) {
+            String imdbId = movieDTOs.get(i).imdbId();
+            if (!registered.contains(imdbId)) results[i] = new BulkResultDTO(i, imdbId, false, ALREADY_EXISTS.getMessage());
+            else {
+                moviesToSave.add(DTOMapper.dtoToMovie(movieDTOs.get(i)));
+                positions.add(i);
+            }
+        }
+
+        Map<Integer, String> writeErrors;
+        try {
+            writeErrors = BulkUtils.insertUnordered(mongoTemplate, Movie.class, moviesToSave, bulkChunkSize);
+        } catch (RuntimeException e) {
+            // A chunk failed as a whole, the imdbIds of the movies that were not written are released and the written ones counted
+            Set<String> stored = new HashSet<>(mongoTemplate.findDistinct(Query.query(Criteria.where("imdbId").in(registered)), "imdbId", Movie.class, String.class));
+            moviesToSave.stream().filter(saved -> stored.contains(saved.getImdbId()))
+                    .forEach(saved -> facetCounter.count(Movie.class, saved.getGenres(), saved.getReleaseDate(), 1));
+            imdbIdRegistry.unregisterAll(registered.stream().filter(imdbId -> !stored.contains(imdbId)).toList());
+            log.error(String.format("Error in movies /bulk [%s of %s items written before %s]", stored.size(), moviesToSave.size(), e.getMessage()));
+            throw e;
+        }
+        List<String> notInserted = new ArrayList<>();
+        for (int j = 0; j < positions.size(); j++) {
+            int i = positions.get(j);
+            results[i] = new BulkResultDTO(i, movieDTOs.get(i).imdbId(), !writeErrors.containsKey(j), writeErrors.getOrDefault(j, "Created"));
+            if (writeErrors.containsKey(j)) notInserted.add(movieDTOs.get(i).imdbId());
+            else facetCounter.count(Movie.class, moviesToSave.get(j).getGenres(), moviesToSave.get(j).getReleaseDate(), 1);
+        }
+        imdbIdRegistry.unregisterAll(notInserted);
+
+        Map<String, Object> response = BulkUtils.toResponse(Arrays.asList(results));
+        if ((long) response.get("failed") > 0)
+            log.warn(String.format("Warn in movies /bulk [%s of %s items failed]", response.get("failed"), movieDTOs.size()));
+        return response;
     }
 
     @Override
+    @CacheEvict(cacheNames = {MOVIES_CACHE, ETAGS_CACHE}, allEntries = true)
     public Map<String, String> delete(ObjectId id) throws ErrorException {
         log.info("DELETE movie /delete executed");
         Movie movieToDelete = movieRepo.findById(id).orElseThrow(() -> {
             log.error(String.format("Error in movies /delete with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        for (Review review : movieToDelete.getReviewIds()) {
-            reviewRepo.delete(review);
-        }
         movieRepo.delete(movieToDelete);
+        facetCounter.count(Movie.class, movieToDelete.getGenres(), movieToDelete.getReleaseDate(), -1);
+        reviewCascade.deleteReviews(movieToDelete.getImdbId(), movieToDelete.getRatingStats() == null ? 0 : movieToDelete.getRatingStats().getCount());
         return Map.of("message", String.format("Movie with id: '%s' was successfully deleted", id));
     }
 
     @Override
-    public Movie update(ObjectId id, MovieDTO movieDTO) throws ErrorException {
+    @CacheEvict(cacheNames = {MOVIES_CACHE, ETAGS_CACHE}, allEntries = true)
+    public Movie update(ObjectId id, MovieDTO movieDTO, Long expectedVersion) throws ErrorException {
         log.info("PUT movie /update executed");
         final String errorLogMsg = "Error in movies /update with id: '%s' [%s]";
         Movie movieToFind = movieRepo.findById(id).orElseThrow(() -> {
             log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        if ((movieRepo.existsByImdbId(movieDTO.imdbId()) || seriesRepo.existsByImdbId(movieDTO.imdbId()))
-                && !movieToFind.getImdbId().equalsIgnoreCase(movieDTO.imdbId())) {
+        checkVersion(id, movieToFind.getVersion(), expectedVersion, errorLogMsg);
+        boolean imdbIdChanged = !Objects.equals(movieToFind.getImdbId(), movieDTO.imdbId());
+        if (imdbIdChanged && !imdbIdRegistry.register(movieDTO.imdbId(), MOVIE)) {
             log.error(String.format(errorLogMsg, id, IMDB_ID_ALREADY_IN_USE.getMessage()));
             throw new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus());
         }
         Movie movieToUpdate = DTOMapper.dtoToMovieUpdate(movieToFind, movieDTO);
-        return movieRepo.save(movieToUpdate);
+        Movie movieUpdated = saveVersioned(movieToUpdate, imdbIdChanged);
+        recount(movieToFind, movieUpdated);
+        if (imdbIdChanged) {
+            imdbIdRegistry.unregister(movieToFind.getImdbId());
+            reviewCascade.moveReviews(movieToFind.getImdbId(), movieDTO.imdbId());
+        }
+        return movieUpdated;
     }
 
     @Override
-    public Movie patch(ObjectId id, JsonPatch jsonPatch) throws ErrorException, JsonPatchException, JsonProcessingException {
+    @CacheEvict(cacheNames = {MOVIES_CACHE, ETAGS_CACHE}, allEntries = true)
+    public Movie patch(ObjectId id, JsonPatch jsonPatch, Long expectedVersion) throws ErrorException, JsonPatchException, JsonProcessingException {
         log.info("PATCH movies /patch executed");
         final String errorLogMsg = "Error in movies /patch with id: '%s' [%s]";
 
+        JsonNode operations = objectMapper.convertValue(jsonPatch, JsonNode.class);
+        if (PatchUtils.touchesPath(operations, "/id")) {
+            log.error(String.format(errorLogMsg, id, ID_CANNOT_CHANGE.getMessage()));
+            throw new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus());
+        }
+        if (PatchUtils.touchesServerFields(operations)) {
+            log.error(String.format(errorLogMsg, id, READ_ONLY_FIELD.getMessage()));
+            throw new ErrorException(READ_ONLY_FIELD.getId(), READ_ONLY_FIELD.getMessage(), READ_ONLY_FIELD.getHttpStatus());
+        }
+
+        // ImdbId changes have to be claimed in the registry before the write, so they are applied to the whole document
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Movie.class);
+        Optional<Update> update = PatchUtils.toUpdate(operations, entity, objectMapper);
+        if (update.isEmpty() || PatchUtils.touchesPath(operations, "/imdbId")) return patchDocument(id, jsonPatch, expectedVersion, errorLogMsg);
+
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (expectedVersion != null) query.addCriteria(Criteria.where(VERSION_KEY).is(expectedVersion));
+        PatchUtils.requireTargets(query, operations, entity);
+        Movie moviePatched = mongoTemplate.findAndModify(query, FilterUtils.withTitleSuffixes(update.get()).inc(VERSION_KEY, 1), FindAndModifyOptions.options().returnNew(true), Movie.class);
+        // No match means the movie is missing, its version changed or a replaced field is not stored, the document path reports which
+        if (moviePatched == null) return patchDocument(id, jsonPatch, expectedVersion, errorLogMsg);
+        // The document before the patch is not read here, facets it may have changed are aggregated again
+        if (PatchUtils.touchesPath(operations, "/genres") || PatchUtils.touchesPath(operations, "/releaseDate")) facetCounter.invalidate(Movie.class);
+        return moviePatched;
+    }
+
+    private Movie patchDocument(ObjectId id, JsonPatch jsonPatch, Long expectedVersion, String errorLogMsg) throws ErrorException, JsonPatchException, JsonProcessingException {
         Movie movieToPatch = movieRepo.findById(id).orElseThrow(() -> {
             log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        var jsonPatchList = objectMapper.convertValue(jsonPatch, JsonNode.class);
-        String path = jsonPatchList.get(0).get("path").asText();
-        String value = jsonPatchList.get(0).get("value").asText();
+        checkVersion(id, movieToPatch.getVersion(), expectedVersion, errorLogMsg);
+        JsonNode patched = jsonPatch.apply(PatchUtils.withoutNullFields(objectMapper.convertValue(movieToPatch, JsonNode.class)));
+        Movie moviePatched = objectMapper.treeToValue(patched, Movie.class);
+        // The version and the review aggregates belong to the server, a whole document replace must not overwrite them
+        moviePatched.setVersion(movieToPatch.getVersion());
+        moviePatched.setRatingStats(movieToPatch.getRatingStats());
+        moviePatched.setLatestReviews(movieToPatch.getLatestReviews());
+        boolean imdbIdChanged = !Objects.equals(movieToPatch.getImdbId(), moviePatched.getImdbId());
 
-        if (path.equalsIgnoreCase("/id")) {
-            log.error(String.format(errorLogMsg, id, ID_CANNOT_CHANGE.getMessage()));
-            throw new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus());
-        } else if (path.equalsIgnoreCase("/imdbId")
-                && ((movieRepo.existsByImdbId(value) || seriesRepo.existsByImdbId(value))
-                && !movieToPatch.getImdbId().equalsIgnoreCase(value))) {
+        if (moviePatched.getImdbId() == null || moviePatched.getImdbId().isBlank()) {
+            log.error(String.format(errorLogMsg, id, VALIDATION_FAILED.getMessage()));
+            throw new ErrorException(VALIDATION_FAILED.getId(), VALIDATION_FAILED.getMessage(), VALIDATION_FAILED.getHttpStatus());
+        } else if (imdbIdChanged && !imdbIdRegistry.register(moviePatched.getImdbId(), MOVIE)) {
             log.error(String.format(errorLogMsg, id, IMDB_ID_ALREADY_IN_USE.getMessage()));
             throw new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus());
         }
 
-        JsonNode patched = jsonPatch.apply(objectMapper.convertValue(movieToPatch, JsonNode.class));
-        return movieRepo.save(objectMapper.treeToValue(patched, Movie.class));
+        moviePatched = saveVersioned(moviePatched, imdbIdChanged);
+        recount(movieToPatch, moviePatched);
+        if (imdbIdChanged) {
+            imdbIdRegistry.unregister(movieToPatch.getImdbId());
+            reviewCascade.moveReviews(movieToPatch.getImdbId(), moviePatched.getImdbId());
+        }
+        return moviePatched;
+    }
+
+    private void checkVersion(ObjectId id, Long version, Long expectedVersion, String errorLogMsg) throws ErrorException {
+        if (ETagUtils.matches(version, expectedVersion)) return;
+        log.error(String.format(errorLogMsg, id, PRECONDITION_FAILED.getMessage()));
+        throw new ErrorException(PRECONDITION_FAILED.getId(), PRECONDITION_FAILED.getMessage(), PRECONDITION_FAILED.getHttpStatus());
+    }
+
+    private void recount(Movie before, Movie after) {
+        facetCounter.count(Movie.class, before.getGenres(), before.getReleaseDate(), -1);
+        facetCounter.count(Movie.class, after.getGenres(), after.getReleaseDate(), 1);
+    }
+
+    // Any failed save releases the imdbId claimed for the write, a race lost on the version as much as a duplicate key
+    private Movie saveVersioned(Movie movie, boolean imdbIdChanged) {
+        try {
+            return movieRepo.save(movie);
+        } catch (RuntimeException e) {
+            if (imdbIdChanged) imdbIdRegistry.unregister(movie.getImdbId());
+            throw e;
+        }
     }
 }
\ No newline at end of file
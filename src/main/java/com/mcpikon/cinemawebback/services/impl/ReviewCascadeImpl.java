@@ -0,0 +1,73 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.services.ImdbIdRegistry;
+import com.mcpikon.cinemawebback.services.ReviewCascade;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes the reviews of a deleted movie or series with a single deleteMany by their parent imdbId.
+ * The imdbId stays claimed by a tombstone in the registry until its reviews are gone, so no title can be created again
+ * with it meanwhile and every review left with that imdbId belongs to the deleted one, whatever the clocks of the nodes say.
+ * Titles with more reviews than the async threshold are cleaned up on the task executor, the ones interrupted by a failure
+ * or a restart are taken up again on startup.
+ */
+@Slf4j
+@Service
+public class ReviewCascadeImpl implements ReviewCascade, SmartInitializingSingleton {
+    private static final String IMDB_ID_KEY = "imdbId";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private ImdbIdRegistry imdbIdRegistry;
+
+    @Value("${com.mcpikon.cinemawebback.cascade-async-threshold:5000}")
+    private int asyncThreshold;
+
+    @Override
+    public void deleteReviews(String imdbId, long reviewCount) {
+        imdbIdRegistry.tombstone(imdbId);
+        if (reviewCount <= asyncThreshold) {
+            removeAndRelease(imdbId);
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                removeAndRelease(imdbId);
+            } catch (RuntimeException e) {
+                log.error(String.format("Error in cascade of '%s' [%s]", imdbId, e.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String imdbId : imdbIdRegistry.findTombstones()) deleteReviews(imdbId, Long.MAX_VALUE);
+    }
+
+    private void removeAndRelease(String imdbId) {
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where(IMDB_ID_KEY).is(imdbId)), Review.class).getDeletedCount();
+        imdbIdRegistry.unregister(imdbId);
+        log.info(String.format("Cascade of '%s' deleted %s reviews", imdbId, deleted));
+    }
+
+    // Reviews point to their parent by imdbId, a parent that changes it takes its reviews along with one updateMany
+    @Override
+    public void moveReviews(String fromImdbId, String toImdbId) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where(IMDB_ID_KEY).is(fromImdbId)), new Update().set(IMDB_ID_KEY, toImdbId), Review.class);
+    }
+}
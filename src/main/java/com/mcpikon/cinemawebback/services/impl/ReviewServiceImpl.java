@@ -8,42 +8,78 @@ import com.github.fge.jsonpatch.JsonPatchException;
 import com.mcpikon.cinemawebback.dtos.ReviewDTO;
 import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
 import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.ReviewPreview;
 import com.mcpikon.cinemawebback.models.Series;
-import com.mcpikon.cinemawebback.repositories.MovieRepository;
 import com.mcpikon.cinemawebback.repositories.ReviewRepository;
-import com.mcpikon.cinemawebback.repositories.SeriesRepository;
+import com.mcpikon.cinemawebback.services.ImdbIdRegistry;
 import com.mcpikon.cinemawebback.services.ReviewService;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
 import com.mcpikon.cinemawebback.utils.DTOMapper;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
+import com.mcpikon.cinemawebback.utils.PatchUtils;
+import com.mcpikon.cinemawebback.utils.SingleFlight;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.metadata.BeanDescriptor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.MOVIES_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.SERIES_CACHE;
 import static com.mcpikon.cinemawebback.exceptions.Errors.*;
 
 @Slf4j
 @Service
 @Transactional
 public class ReviewServiceImpl implements ReviewService {
-    @Autowired
-    private ReviewRepository reviewRepo;
+    private static final String RATING_COUNT_KEY = "ratingStats.count";
+    private static final String RATING_SUM_KEY = "ratingStats.sum";
+    private static final String RATING_HISTOGRAM_KEY = "ratingStats.histogram.";
+    private static final String VERSION_KEY = "version";
+    private static final String LATEST_REVIEWS_KEY = "latestReviews";
+    private static final String IMDB_ID_KEY = "imdbId";
 
     @Autowired
-    private MovieRepository movieRepo;
+    private ReviewRepository reviewRepo;
 
     @Autowired
-    private SeriesRepository seriesRepo;
+    private ImdbIdRegistry imdbIdRegistry;
 
     @Autowired
     private MongoTemplate mongoTemplate;
@@ -51,74 +87,148 @@ public class ReviewServiceImpl implements ReviewService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Value("${com.mcpikon.cinemawebback.latest-reviews-size:5}")
+    private int latestReviewsSize;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
     @Override
-    public List<Review> findAll() throws ErrorException {
+    public Map<String, Object> findAll(int page, int size) throws ErrorException {
         log.info("GET reviews /findAll executed");
-        List<Review> reviews = reviewRepo.findAll();
-        if (reviews.isEmpty()) {
-            log.warn(String.format("Warn in reviews /findAll [%s]", EMPTY.getMessage()));
-            throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), size <= 0 ? 1 : size);
+
+        return singleFlight.execute(SingleFlight.key("findAll", pageRequest), () -> {
+            Page<Review> reviews = reviewRepo.findAll(pageRequest);
+            if (reviews.isEmpty()) {
+                log.warn(String.format("Warn in reviews /findAll [%s]", EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviews", reviews.getContent());
+            response.put("currentPage", reviews.getNumber());
+            response.put("totalItems", reviews.getTotalElements());
+            response.put("totalPages", reviews.getTotalPages());
+
+            return response;
+        });
+    }
+
+    @Override
+    public Map<String, Object> findAllByCursor(String after, int size) throws ErrorException {
+        log.info("GET reviews /findAll (cursor) executed");
+        ObjectId afterId = CursorUtils.decode(after);
+        PageRequest pageRequest = PageRequest.of(0, size <= 0 ? 1 : size, Sort.by("id"));
+
+        return singleFlight.execute(SingleFlight.key("findAllByCursor", afterId, pageRequest), () -> {
+            Slice<Review> reviews = reviewRepo.findAllByIdGreaterThan(afterId, pageRequest);
+            if (reviews.isEmpty()) {
+                log.warn(String.format("Warn in reviews /findAll (cursor) [%s]", EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
+
+            List<Review> content = reviews.getContent();
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviews", content);
+            response.put("nextCursor", reviews.hasNext() ? CursorUtils.encode(content.get(content.size() - 1).getId()) : null);
+
+            return response;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(OutputStream outputStream) throws IOException {
+        log.info("GET reviews /stream executed");
+        // Documents are written one per line as they come off the Mongo cursor, nothing is collected in memory
+        try (Stream<Review> reviews = reviewRepo.streamAllBy()) {
+            for (Review review : (Iterable<Review>) reviews::iterator) {
+                outputStream.write(objectMapper.writeValueAsBytes(review));
+                outputStream.write('\n');
+            }
         }
-        return reviews;
+        outputStream.flush();
     }
 
     @Override
-    public List<Review> findAllByImdbId(String imdbId) throws ErrorException {
+    public Map<String, Object> findAllByImdbId(String imdbId, int page, int size) throws ErrorException {
         log.info("GET reviews /findAllByImdbId executed");
-        List<Review> reviews;
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), size <= 0 ? 1 : size, Sort.by(Sort.Direction.DESC, "createdAt"));
 
-        if (movieRepo.existsByImdbId(imdbId)) reviews = movieRepo.findByImdbId(imdbId).orElseThrow().getReviewIds();
-        else if (seriesRepo.existsByImdbId(imdbId)) reviews = seriesRepo.findByImdbId(imdbId).orElseThrow().getReviewIds();
-        else {
-            log.error(String.format("Error in reviews /findAllByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
-            throw new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }
+        // Readers of a trending title arrive together, the ones asking for the same page share a single query
+        return singleFlight.execute(SingleFlight.key("findAllByImdbId", imdbId, pageRequest), () -> {
+            // Served by the imdbId_createdAt index of the reviews, the parent is only looked up to tell a missing title from an empty one
+            Page<Review> reviews = reviewRepo.findAllByImdbId(imdbId, pageRequest);
+            if (reviews.isEmpty()) {
+                if (imdbIdRegistry.findTypeByImdbId(imdbId).isEmpty()) {
+                    log.error(String.format("Error in reviews /findAllByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
+                    throw new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+                }
+                log.warn(String.format("Warn in reviews /findAllByImdbId with imdbId: '%s' [%s]", imdbId, EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
 
-        if (reviews.isEmpty()) {
-            log.warn(String.format("Warn in reviews /findAllByImdbId with imdbId: '%s' [%s]", imdbId, EMPTY.getMessage()));
-            throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
-        }
-        return reviews;
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviews", reviews.getContent());
+            response.put("currentPage", reviews.getNumber());
+            response.put("totalItems", reviews.getTotalElements());
+            response.put("totalPages", reviews.getTotalPages());
+
+            return response;
+        });
+    }
+
+    @Override
+    public RatingStats findStatsByImdbId(String imdbId) throws ErrorException {
+        log.info("GET reviews /stats executed");
+        return singleFlight.execute(SingleFlight.key("findStatsByImdbId", imdbId), () -> {
+            Query query = Query.query(Criteria.where(IMDB_ID_KEY).is(imdbId));
+            query.fields().include("ratingStats");
+
+            ImdbIdEntry.Type type = imdbIdRegistry.findTypeByImdbId(imdbId).orElseThrow(() -> {
+                log.error(String.format("Error in reviews /stats with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
+                return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+            });
+            RatingStats ratingStats = type == ImdbIdEntry.Type.MOVIE
+                    ? Optional.ofNullable(mongoTemplate.findOne(query, Movie.class)).map(Movie::getRatingStats).orElse(null)
+                    : Optional.ofNullable(mongoTemplate.findOne(query, Series.class)).map(Series::getRatingStats).orElse(null);
+            return ratingStats == null ? RatingStats.empty() : ratingStats;
+        });
     }
 
     @Override
     public Optional<Review> findById(ObjectId id) throws ErrorException {
         log.info("GET reviews /findById executed");
-        return Optional.ofNullable(reviewRepo.findById(id).orElseThrow(() -> {
+        return singleFlight.execute(SingleFlight.key("findById", id), () -> Optional.ofNullable(reviewRepo.findById(id).orElseThrow(() -> {
             log.error(String.format("Error in reviews /findById with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }));
+        })));
     }
 
     @Override
+    @CacheEvict(cacheNames = {MOVIES_CACHE, SERIES_CACHE}, key = "#reviewSaveDTO.imdbId()")
     public Review save(ReviewSaveDTO reviewSaveDTO) {
         log.info("POST reviews /save executed");
-        final String imdbIdKey = "imdbId";
-        final String reviewIdsKey = "reviewIds";
-        Review review;
-        Review reviewToSave;
-
-        if (movieRepo.existsByImdbId(reviewSaveDTO.imdbId())) {
-            reviewToSave = DTOMapper.dtoToReview(reviewSaveDTO);
-            review = reviewRepo.insert(reviewToSave);
-            mongoTemplate.update(Movie.class)
-                    .matching(Criteria.where(imdbIdKey).is(reviewSaveDTO.imdbId()))
-                    .apply(new Update().push(reviewIdsKey).value(review)).first();
-        } else if (seriesRepo.existsByImdbId(reviewSaveDTO.imdbId())) {
-            reviewToSave = DTOMapper.dtoToReview(reviewSaveDTO);
-            review = reviewRepo.insert(reviewToSave);
-            mongoTemplate.update(Series.class)
-                    .matching(Criteria.where(imdbIdKey).is(reviewSaveDTO.imdbId()))
-                    .apply(new Update().push(reviewIdsKey).value(review)).first();
-        } else {
+        ImdbIdEntry.Type type = imdbIdRegistry.findTypeByImdbId(reviewSaveDTO.imdbId()).orElseThrow(() -> {
             log.error(String.format("Error in reviews /save with imdbId: '%s' [%s]", reviewSaveDTO.imdbId(), NOT_EXISTS.getMessage()));
-            throw new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }
+            return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+        });
+        Class<?> parentClass = type == ImdbIdEntry.Type.MOVIE ? Movie.class : Series.class;
+        Review review = reviewRepo.insert(DTOMapper.dtoToReview(reviewSaveDTO));
+        Object parent = mongoTemplate.findAndModify(parentQueryOf(reviewSaveDTO.imdbId()), ratingAdded(previewAdded(review), review.getRating()), parentClass);
+        evictETags(review, parent);
 
         return review;
     }
 
     @Override
+    @CacheEvict(cacheNames = {MOVIES_CACHE, SERIES_CACHE}, allEntries = true)
     public Map<String, String> delete(ObjectId id) {
         log.info("DELETE reviews /delete executed");
         Review reviewToDelete = reviewRepo.findById(id).orElseThrow(() -> {
@@ -126,38 +236,179 @@ public class ReviewServiceImpl implements ReviewService {
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
         reviewRepo.delete(reviewToDelete);
+        // The preview is refilled from the reviews in the same update as the aggregates, so it never shows a deleted review
+        evictETags(reviewToDelete, updateParent(reviewToDelete, ratingRemoved(new Update().set(LATEST_REVIEWS_KEY, latestPreviewsOf(reviewToDelete.getImdbId())), reviewToDelete.getRating()), false));
         return Map.of("message", String.format("Review with id: '%s' was successfully deleted", id));
     }
 
     @Override
-    public Review update(ObjectId id, ReviewDTO reviewDTO) throws ErrorException {
+    @CacheEvict(cacheNames = {MOVIES_CACHE, SERIES_CACHE}, allEntries = true)
+    public Review update(ObjectId id, ReviewDTO reviewDTO, Long expectedVersion) throws ErrorException {
         log.info("PUT reviews /update executed");
+        final String errorLogMsg = "Error in reviews /update with id: '%s' [%s]";
         Review reviewToFind = reviewRepo.findById(id).orElseThrow(() -> {
-            log.error(String.format("Error in reviews /update with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
+            log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
+        checkVersion(id, reviewToFind.getVersion(), expectedVersion, errorLogMsg);
         Review reviewToUpdate = DTOMapper.dtoToReviewUpdate(reviewToFind, reviewDTO);
-        return reviewRepo.save(reviewToUpdate);
+        Review reviewUpdated = reviewRepo.save(reviewToUpdate);
+        evictETags(reviewUpdated, updateParent(reviewUpdated, reviewToFind.getRating(), reviewUpdated.getRating()));
+        return reviewUpdated;
     }
 
     @Override
-    public Review patch(ObjectId id, JsonPatch jsonPatch) throws ErrorException, JsonPatchException, JsonProcessingException {
+    @CacheEvict(cacheNames = {MOVIES_CACHE, SERIES_CACHE}, allEntries = true)
+    public Review patch(ObjectId id, JsonPatch jsonPatch, Long expectedVersion) throws ErrorException, JsonPatchException, JsonProcessingException {
         log.info("PATCH reviews /patch executed");
         final String errorLogMsg = "Error in reviews /patch with id: '%s' [%s]";
 
+        JsonNode operations = objectMapper.convertValue(jsonPatch, JsonNode.class);
+        if (PatchUtils.touchesPath(operations, "/id")) {
+            log.error(String.format(errorLogMsg, id, ID_CANNOT_CHANGE.getMessage()));
+            throw new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus());
+        }
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Review.class);
+        Optional<Update> update = PatchUtils.toUpdate(operations, entity, objectMapper);
+        // The parent imdbId belongs to the server, patches touching it are applied to the whole document that keeps the stored one
+        if (update.isEmpty() || PatchUtils.touchesPath(operations, "/imdbId")) return patchDocument(id, jsonPatch, expectedVersion, errorLogMsg);
+
+        validate(id, violationsOf(update.get()), errorLogMsg);
+
+        // The write only matches the rating read before it, so the aggregates delta is never computed from a stale rating
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (expectedVersion != null) query.addCriteria(Criteria.where(VERSION_KEY).is(expectedVersion));
+        Integer oldRating = null;
+        if (PatchUtils.touchesPath(operations, "/rating")) {
+            Query ratingQuery = Query.query(Criteria.where("id").is(id));
+            ratingQuery.fields().include("rating");
+            Review reviewToPatch = mongoTemplate.findOne(ratingQuery, Review.class);
+            if (reviewToPatch == null) {
+                log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
+                throw new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+            }
+            oldRating = reviewToPatch.getRating();
+            query.addCriteria(Criteria.where("rating").is(oldRating));
+        }
+        PatchUtils.requireTargets(query, operations, entity);
+
+        Review reviewPatched = mongoTemplate.findAndModify(query, update.get().set("updatedAt", LocalDateTime.now()).inc(VERSION_KEY, 1), FindAndModifyOptions.options().returnNew(true), Review.class);
+        // No match means the review was deleted, its rating or version changed meanwhile or a replaced field is not stored, the document path handles every case
+        if (reviewPatched == null) return patchDocument(id, jsonPatch, expectedVersion, errorLogMsg);
+        evictETags(reviewPatched, updateParent(reviewPatched, oldRating == null ? reviewPatched.getRating() : oldRating, reviewPatched.getRating()));
+        return reviewPatched;
+    }
+
+    private Review patchDocument(ObjectId id, JsonPatch jsonPatch, Long expectedVersion, String errorLogMsg) throws ErrorException, JsonPatchException, JsonProcessingException {
         Review reviewToPatch = reviewRepo.findById(id).orElseThrow(() -> {
             log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        var jsonPatchList = objectMapper.convertValue(jsonPatch, JsonNode.class);
-        String path = jsonPatchList.get(0).get("path").asText();
-        if (path.equalsIgnoreCase("/id")) {
-            log.error(String.format(errorLogMsg, id, ID_CANNOT_CHANGE.getMessage()));
-            throw new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus());
-        }
+        checkVersion(id, reviewToPatch.getVersion(), expectedVersion, errorLogMsg);
 
+        final int oldRating = reviewToPatch.getRating();
         reviewToPatch.setUpdatedAt(LocalDateTime.now());
-        JsonNode patched = jsonPatch.apply(objectMapper.convertValue(reviewToPatch, JsonNode.class));
-        return reviewRepo.save(objectMapper.treeToValue(patched, Review.class));
+        JsonNode patched = jsonPatch.apply(PatchUtils.withoutNullFields(objectMapper.convertValue(reviewToPatch, JsonNode.class)));
+        Review reviewPatched = objectMapper.treeToValue(patched, Review.class);
+        // The version belongs to the server, a patched one would skip the optimistic lock check
+        reviewPatched.setVersion(reviewToPatch.getVersion());
+        reviewPatched.setImdbId(reviewToPatch.getImdbId());
+        validate(id, validator.validate(ReviewDTO.builder().title(reviewPatched.getTitle()).rating(reviewPatched.getRating()).body(reviewPatched.getBody()).build()), errorLogMsg);
+        reviewPatched = reviewRepo.save(reviewPatched);
+        evictETags(reviewPatched, updateParent(reviewPatched, oldRating, reviewPatched.getRating()));
+        return reviewPatched;
+    }
+
+    // A patched review is held to the same constraints as a full update before anything is written
+    private void validate(ObjectId id, Set<ConstraintViolation<ReviewDTO>> violations, String errorLogMsg) throws ErrorException {
+        if (violations.isEmpty()) return;
+        String message = violations.iterator().next().getMessage();
+        log.error(String.format(errorLogMsg, id, message));
+        throw new ErrorException(VALIDATION_FAILED.getId(), message, VALIDATION_FAILED.getHttpStatus());
+    }
+
+    // Only the fields set or unset by the translated patch are checked, the ones left alone were validated when written
+    private Set<ConstraintViolation<ReviewDTO>> violationsOf(Update update) {
+        Set<ConstraintViolation<ReviewDTO>> violations = new HashSet<>();
+        BeanDescriptor constraints = validator.getConstraintsForClass(ReviewDTO.class);
+        for (String operator : List.of("$set", "$unset")) {
+            Document fields = update.getUpdateObject().get(operator, Document.class);
+            if (fields == null) continue;
+            fields.forEach((field, value) -> {
+                if (constraints.getConstraintsForProperty(field) != null)
+                    violations.addAll(validator.validateValue(ReviewDTO.class, field, operator.equals("$set") ? value : null));
+            });
+        }
+        return violations;
+    }
+
+    private void checkVersion(ObjectId id, Long version, Long expectedVersion, String errorLogMsg) throws ErrorException {
+        if (ETagUtils.matches(version, expectedVersion)) return;
+        log.error(String.format(errorLogMsg, id, PRECONDITION_FAILED.getMessage()));
+        throw new ErrorException(PRECONDITION_FAILED.getId(), PRECONDITION_FAILED.getMessage(), PRECONDITION_FAILED.getHttpStatus());
+    }
+
+    // Rating aggregates are kept on the parent title with $inc, so reading them never touches the reviews.
+    // The parent version is bumped with them, its ETag has to change and a stale full update of the parent must not overwrite them
+    private static Update ratingAdded(Update update, int rating) {
+        return update.inc(RATING_COUNT_KEY, 1).inc(RATING_SUM_KEY, rating).inc(RATING_HISTOGRAM_KEY + rating, 1).inc(VERSION_KEY, 1);
+    }
+
+    private static Update ratingRemoved(Update update, int rating) {
+        return update.inc(RATING_COUNT_KEY, -1).inc(RATING_SUM_KEY, -rating).inc(RATING_HISTOGRAM_KEY + rating, -1).inc(VERSION_KEY, 1);
+    }
+
+    private static Update ratingChanged(Update update, int oldRating, int newRating) {
+        return update.inc(RATING_SUM_KEY, newRating - oldRating)
+                .inc(RATING_HISTOGRAM_KEY + oldRating, -1)
+                .inc(RATING_HISTOGRAM_KEY + newRating, 1)
+                .inc(VERSION_KEY, 1);
+    }
+
+    // The parent embeds only the latest reviews, newest first and capped, so its document never grows with its reviews
+    private Update previewAdded(Review review) {
+        return new Update().push(LATEST_REVIEWS_KEY).sort(Sort.by(Sort.Direction.DESC, "createdAt")).slice(latestReviewsSize).each(DTOMapper.reviewToPreview(review));
+    }
+
+    private List<ReviewPreview> latestPreviewsOf(String imdbId) {
+        if (imdbId == null) return List.of();
+        return reviewRepo.findLatestByImdbId(imdbId, PageRequest.of(0, latestReviewsSize, Sort.by(Sort.Direction.DESC, "createdAt")))
+                .stream().map(DTOMapper::reviewToPreview).toList();
+    }
+
+    // A changed rating always writes the aggregates, otherwise the parent is only written when the review is in its preview
+    private Object updateParent(Review review, int oldRating, int newRating) {
+        Update update = new Update().set(LATEST_REVIEWS_KEY + ".$[preview]", DTOMapper.reviewToPreview(review))
+                .filterArray(Criteria.where("preview._id").is(review.getId()));
+        if (oldRating != newRating) return updateParent(review, ratingChanged(update, oldRating, newRating), false);
+        return updateParent(review, update.inc(VERSION_KEY, 1), true);
+    }
+
+    // The parent is found by the unique imdbId stored on the review, reviews without it have no parent left.
+    // Returns the written parent with only its id, null when none was written
+    private Object updateParent(Review review, Update update, boolean onlyPreviewed) {
+        if (review.getImdbId() == null) return null;
+        Query query = parentQueryOf(review.getImdbId());
+        if (onlyPreviewed) query.addCriteria(Criteria.where(LATEST_REVIEWS_KEY + ".id").is(review.getId()));
+        Movie movie = mongoTemplate.findAndModify(query, update, Movie.class);
+        return movie != null ? movie : mongoTemplate.findAndModify(query, update, Series.class);
+    }
+
+    private static Query parentQueryOf(String imdbId) {
+        Query query = Query.query(Criteria.where(IMDB_ID_KEY).is(imdbId));
+        query.fields().include("id");
+        return query;
+    }
+
+    // Only the ETags of the review and of its parent change with a review write, the parent version is bumped with it
+    private void evictETags(Review review, Object parent) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache eTags = manager == null ? null : manager.getCache(ETAGS_CACHE);
+        if (eTags == null) return;
+        List<String> paths = new ArrayList<>(ETagUtils.pathsOf("reviews", review.getId(), null));
+        if (parent instanceof Movie movie) paths.addAll(ETagUtils.pathsOf("movies", movie.getId(), review.getImdbId()));
+        else if (parent instanceof Series series) paths.addAll(ETagUtils.pathsOf("series", series.getId(), review.getImdbId()));
+        paths.forEach(eTags::evict);
     }
 }
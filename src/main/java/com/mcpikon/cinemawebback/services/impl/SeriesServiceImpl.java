@@ -5,156 +5,386 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
 import com.mcpikon.cinemawebback.dtos.SeriesDTO;
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
-import com.mcpikon.cinemawebback.models.Review;
 import com.mcpikon.cinemawebback.models.Series;
-import com.mcpikon.cinemawebback.repositories.MovieRepository;
-import com.mcpikon.cinemawebback.repositories.ReviewRepository;
 import com.mcpikon.cinemawebback.repositories.SeriesRepository;
+import com.mcpikon.cinemawebback.services.FacetCounter;
+import com.mcpikon.cinemawebback.services.ImdbIdRegistry;
+import com.mcpikon.cinemawebback.services.ReviewCascade;
 import com.mcpikon.cinemawebback.services.SeriesService;
+import com.mcpikon.cinemawebback.utils.BulkUtils;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
 import com.mcpikon.cinemawebback.utils.DTOMapper;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import com.mcpikon.cinemawebback.utils.PatchUtils;
+import com.mcpikon.cinemawebback.utils.SingleFlight;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.SERIES_CACHE;
 import static com.mcpikon.cinemawebback.exceptions.Errors.*;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.SERIES;
 
 @Slf4j
 @Service
 @Transactional
 public class SeriesServiceImpl implements SeriesService {
+    private static final String VERSION_KEY = "version";
+
     @Autowired
     private SeriesRepository seriesRepo;
 
     @Autowired
-    private MovieRepository movieRepo;
+    private ReviewCascade reviewCascade;
 
     @Autowired
-    private ReviewRepository reviewRepo;
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ImdbIdRegistry imdbIdRegistry;
+
+    @Autowired
+    private FacetCounter facetCounter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${com.mcpikon.cinemawebback.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    private final SingleFlight singleFlight = new SingleFlight();
 
     @Override
-    public Map<String, Object> findAll(String title, int page, int size) throws ErrorException {
+    public Map<String, Object> findAll(String title, String genre, Integer year, int page, int size) throws ErrorException {
         log.info("GET series /findAll executed");
-        if (page < 0) page = 0;
-        if (size <= 0) size = 1;
+        int pageNumber = Math.max(page, 0);
+        int pageSize = size <= 0 ? 1 : size;
 
-        Pageable paging = PageRequest.of(page, size);
-        Page<Series> series;
+        // Identical pages requested while one is being read share its query, a trending search is read once
+        return singleFlight.execute(SingleFlight.key("findAll", title, genre, year, pageNumber, pageSize), () -> {
+            Page<SeriesResponseDTO> series;
 
-        if (title == null) series = seriesRepo.findAll(paging);
-        else series = seriesRepo.findAllByTitle(title, paging);
+            if (FilterUtils.isFiltered(genre, year)) series = findFiltered(title, genre, year, PageRequest.of(pageNumber, pageSize));
+            else if (title == null) series = seriesRepo.findAllProjectedBy(PageRequest.of(pageNumber, pageSize));
+            else series = seriesRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf(title), PageRequest.of(pageNumber, pageSize));
 
-        if (series.isEmpty()) {
-            log.warn(String.format("Warn in series /findAll [%s]", EMPTY.getMessage()));
-            throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
-        }
+            if (series.isEmpty()) {
+                log.warn(String.format("Warn in series /findAll [%s]", EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("series", series.getContent().stream().map(DTOMapper::seriesToResponseDTO).toList());
-        response.put("currentPage", series.getNumber());
-        response.put("totalItems", series.getTotalElements());
-        response.put("totalPages", series.getTotalPages());
+            Map<String, Object> response = new HashMap<>();
+            response.put("series", series.getContent());
+            response.put("currentPage", series.getNumber());
+            response.put("totalItems", series.getTotalElements());
+            response.put("totalPages", series.getTotalPages());
 
-        return response;
+            return response;
+        });
+    }
+
+    @Override
+    public Map<String, Object> findAllByCursor(String title, String genre, Integer year, String after, int size) throws ErrorException {
+        log.info("GET series /findAll (cursor) executed");
+        ObjectId afterId = CursorUtils.decode(after);
+        Pageable paging = PageRequest.of(0, size <= 0 ? 1 : size, Sort.by("id"));
+
+        return singleFlight.execute(SingleFlight.key("findAllByCursor", title, genre, year, afterId, paging.getPageSize()), () -> {
+            Slice<SeriesResponseDTO> series;
+
+            if (FilterUtils.isFiltered(genre, year)) series = findFilteredAfter(title, genre, year, afterId, paging);
+            else if (title == null) series = seriesRepo.findAllProjectedByIdGreaterThan(afterId, paging);
+            else series = seriesRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(afterId, FilterUtils.titleRegexOf(title), paging);
+
+            if (series.isEmpty()) {
+                log.warn(String.format("Warn in series /findAll (cursor) [%s]", EMPTY.getMessage()));
+                throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+            }
+
+            List<SeriesResponseDTO> content = series.getContent();
+            Map<String, Object> response = new HashMap<>();
+            response.put("series", content);
+            response.put("nextCursor", series.hasNext() ? CursorUtils.encode(content.get(content.size() - 1).id()) : null);
+
+            return response;
+        });
+    }
+
+    // Genre and year filters are combined with the title search in one query, the repository methods only cover the search
+    private Page<SeriesResponseDTO> findFiltered(String title, String genre, Integer year, Pageable paging) {
+        Query query = FilterUtils.queryOf(title, genre, year).with(paging);
+        List<SeriesResponseDTO> content = mongoTemplate.query(Series.class).as(SeriesResponseDTO.class).matching(query).all();
+        return PageableExecutionUtils.getPage(content, paging, () -> mongoTemplate.count(FilterUtils.queryOf(title, genre, year), Series.class));
+    }
+
+    private Slice<SeriesResponseDTO> findFilteredAfter(String title, String genre, Integer year, ObjectId afterId, Pageable paging) {
+        // One extra document tells whether there is a next page without counting
+        Query query = FilterUtils.queryOf(title, genre, year).addCriteria(Criteria.where("id").gt(afterId))
+                .with(paging.getSort()).limit(paging.getPageSize() + 1);
+        List<SeriesResponseDTO> content = mongoTemplate.query(Series.class).as(SeriesResponseDTO.class).matching(query).all();
+        boolean hasNext = content.size() > paging.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, paging.getPageSize()) : content, paging, hasNext);
+    }
+
+    @Override
+    public Map<String, Object> findFacets() {
+        log.info("GET series /facets executed");
+        return facetCounter.facetsOf(Series.class);
     }
 
     @Override
     public Optional<Series> findById(ObjectId id) throws ErrorException {
         log.info("GET series /findById executed");
-        return Optional.ofNullable(seriesRepo.findById(id).orElseThrow(() -> {
+        return singleFlight.execute(SingleFlight.key("findById", id), () -> Optional.ofNullable(seriesRepo.findById(id).orElseThrow(() -> {
             log.error(String.format("Error in series /findById with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }));
+        })));
     }
 
     @Override
+    // Concurrent misses of a key share one query through the single flight, sync would park them in a Caffeine compute that pins virtual threads
+    @Cacheable(cacheNames = SERIES_CACHE, key = "#imdbId")
     public Optional<Series> findByImdbId(String imdbId) throws ErrorException {
         log.info("GET series /findByImdbId executed");
-        return Optional.ofNullable(seriesRepo.findByImdbId(imdbId).orElseThrow(() -> {
+        return singleFlight.execute(SingleFlight.key("findByImdbId", imdbId), () -> Optional.ofNullable(seriesRepo.findByImdbId(imdbId).orElseThrow(() -> {
             log.error(String.format("Error in series /findByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
-        }));
+        })));
     }
 
     @Override
+    @CacheEvict(cacheNames = SERIES_CACHE, key = "#seriesDTO.imdbId()")
     public Series save(SeriesDTO seriesDTO) throws ErrorException {
         log.info("POST series /save executed");
-        if (seriesRepo.existsByImdbId(seriesDTO.imdbId()) || movieRepo.existsByImdbId(seriesDTO.imdbId())) {
+        if (!imdbIdRegistry.register(seriesDTO.imdbId(), SERIES)) {
             log.error(String.format("Error in series /save with imdbId: '%s' [%s]", seriesDTO.imdbId(), ALREADY_EXISTS.getMessage()));
             throw new ErrorException(ALREADY_EXISTS.getId(), ALREADY_EXISTS.getMessage(), ALREADY_EXISTS.getHttpStatus());
         }
         Series seriesToSave = DTOMapper.dtoToSeries(seriesDTO);
-        return seriesRepo.insert(seriesToSave);
+        try {
+            Series seriesSaved = seriesRepo.insert(seriesToSave);
+            facetCounter.count(Series.class, seriesSaved.getGenres(), seriesSaved.getReleaseDate(), 1);
+            return seriesSaved;
+        } catch (RuntimeException e) {
+            imdbIdRegistry.unregister(seriesDTO.imdbId());
+            throw e;
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = SERIES_CACHE, allEntries = true)
+    public Map<String, Object> saveAll(List<SeriesDTO> seriesDTOs) throws ErrorException {
+        log.info("POST series /bulk executed");
+        if (seriesDTOs.isEmpty()) {
+            log.warn(String.format("Warn in series /bulk [%s]", EMPTY.getMessage()));
+            throw new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus());
+        }
+
+        BulkResultDTO[] results = new BulkResultDTO[seriesDTOs.size()];
+        Set<String> requestImdbIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < seriesDTOs.size(); i++) {
+            SeriesDTO seriesDTO = seriesDTOs.get(i);
+            String imdbId = seriesDTO == null ? null : seriesDTO.imdbId();
+            Set<ConstraintViolation<SeriesDTO>> violations = seriesDTO == null ? Set.of() : validator.validate(seriesDTO);
+
+            if (seriesDTO == null) results[i] = new BulkResultDTO(i, null, false, VALIDATION_FAILED.getMessage());
+            else if (!violations.isEmpty()) results[i] = new BulkResultDTO(i, imdbId, false, violations.iterator().next().getMessage());
+            else if (!requestImdbIds.add(imdbId)) results[i] = new BulkResultDTO(i, imdbId, false, IMDB_ID_ALREADY_IN_USE.getMessage());
+            else candidates.add(i);
+        }
+
+        Set<String> registered = imdbIdRegistry.registerAll(candidates.stream().map(i -> seriesDTOs.get(i).imdbId()).toList(), SERIES);
+        List<Series> seriesToSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i : candidates) {
+            String imdbId = seriesDTOs.get(i).imdbId();
+            if (!registered.contains(imdbId)) results[i] = new BulkResultDTO(i, imdbId, false, ALREADY_EXISTS.getMessage());
+            else {
+                seriesToSave.add(DTOMapper.dtoToSeries(seriesDTOs.get(i)));
+                positions.add(i);
+            }
+        }
+
+        Map<Integer, String> writeErrors;
+        try {
+            writeErrors = BulkUtils.insertUnordered(mongoTemplate, Series.class, seriesToSave, bulkChunkSize);
+        } catch (RuntimeException e) {
+            // A chunk failed as a whole, the imdbIds of the series that were not written are released and the written ones counted
+            Set<String> stored = new HashSet<>(mongoTemplate.findDistinct(Query.query(Criteria.where("imdbId").in(registered)), "imdbId", Series.class, String.class));
+            seriesToSave.stream().filter(saved -> stored.contains(saved.getImdbId()))
+                    .forEach(saved -> facetCounter.count(Series.class, saved.getGenres(), saved.getReleaseDate(), 1));
+            imdbIdRegistry.unregisterAll(registered.stream().filter(imdbId -> !stored.contains(imdbId)).toList());
+            log.error(String.format("Error in series /bulk [%s of %s items written before %s]", stored.size(), seriesToSave.size(), e.getMessage()));
+            throw e;
+        }
+        List<String> notInserted = new ArrayList<>();
+        for (int j = 0; j < positions.size(); j++) {
+            int i = positions.get(j);
+            results[i] = new BulkResultDTO(i, seriesDTOs.get(i).imdbId(), !writeErrors.containsKey(j), writeErrors.getOrDefault(j, "Created"));
+            if (writeErrors.containsKey(j)) notInserted.add(seriesDTOs.get(i).imdbId());
+            else facetCounter.count(Series.class, seriesToSave.get(j).getGenres(), seriesToSave.get(j).getReleaseDate(), 1);
+        }
+        imdbIdRegistry.unregisterAll(notInserted);
+
+        Map<String, Object> response = BulkUtils.toResponse(Arrays.asList(results));
+        if ((long) response.get("failed") > 0)
+            log.warn(String.format("Warn in series /bulk [%s of %s items failed]", response.get("failed"), seriesDTOs.size()));
+        return response;
     }
 
     @Override
+    @CacheEvict(cacheNames = {SERIES_CACHE, ETAGS_CACHE}, allEntries = true)
     public Map<String, String> delete(ObjectId id) throws ErrorException {
         log.info("DELETE series /delete executed");
         Series seriesToDelete = seriesRepo.findById(id).orElseThrow(() -> {
             log.error(String.format("Error in series /delete with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        for (Review review : seriesToDelete.getReviewIds()) {
-            reviewRepo.delete(review);
-        }
         seriesRepo.delete(seriesToDelete);
+        facetCounter.count(Series.class, seriesToDelete.getGenres(), seriesToDelete.getReleaseDate(), -1);
+        reviewCascade.deleteReviews(seriesToDelete.getImdbId(), seriesToDelete.getRatingStats() == null ? 0 : seriesToDelete.getRatingStats().getCount());
         return Map.of("message", String.format("Series with id: '%s' was successfully deleted", id));
     }
 
     @Override
-    public Series update(ObjectId id, SeriesDTO seriesDTO) throws ErrorException {
+    @CacheEvict(cacheNames = {SERIES_CACHE, ETAGS_CACHE}, allEntries = true)
+    public Series update(ObjectId id, SeriesDTO seriesDTO, Long expectedVersion) throws ErrorException {
         log.info("PUT series /update executed");
         final String errorLogMsg = "Error in series /update with id: '%s' [%s]";
         Series seriesToFind = seriesRepo.findById(id).orElseThrow(() -> {
             log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        if ((movieRepo.existsByImdbId(seriesDTO.imdbId()) || seriesRepo.existsByImdbId(seriesDTO.imdbId()))
-                && !seriesToFind.getImdbId().equalsIgnoreCase(seriesDTO.imdbId())) {
+        checkVersion(id, seriesToFind.getVersion(), expectedVersion, errorLogMsg);
+        boolean imdbIdChanged = !Objects.equals(seriesToFind.getImdbId(), seriesDTO.imdbId());
+        if (imdbIdChanged && !imdbIdRegistry.register(seriesDTO.imdbId(), SERIES)) {
             log.error(String.format(errorLogMsg, id, IMDB_ID_ALREADY_IN_USE.getMessage()));
             throw new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus());
         }
         Series seriesToUpdate = DTOMapper.dtoToSeriesUpdate(seriesToFind, seriesDTO);
-        return seriesRepo.save(seriesToUpdate);
+        Series seriesUpdated = saveVersioned(seriesToUpdate, imdbIdChanged);
+        recount(seriesToFind, seriesUpdated);
+        if (imdbIdChanged) {
+            imdbIdRegistry.unregister(seriesToFind.getImdbId());
+            reviewCascade.moveReviews(seriesToFind.getImdbId(), seriesDTO.imdbId());
+        }
+        return seriesUpdated;
     }
 
     @Override
-    public Series patch(ObjectId id, JsonPatch jsonPatch) throws ErrorException, JsonPatchException, JsonProcessingException {
+    @CacheEvict(cacheNames = {SERIES_CACHE, ETAGS_CACHE}, allEntries = true)
+    public Series patch(ObjectId id, JsonPatch jsonPatch, Long expectedVersion) throws ErrorException, JsonPatchException, JsonProcessingException {
         log.info("PATCH series /patch executed");
         final String errorLogMsg = "Error in series /patch with id: '%s' [%s]";
 
+        JsonNode operations = objectMapper.convertValue(jsonPatch, JsonNode.class);
+        if (PatchUtils.touchesPath(operations, "/id")) {
+            log.error(String.format(errorLogMsg, id, ID_CANNOT_CHANGE.getMessage()));
+            throw new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus());
+        }
+        if (PatchUtils.touchesServerFields(operations)) {
+            log.error(String.format(errorLogMsg, id, READ_ONLY_FIELD.getMessage()));
+            throw new ErrorException(READ_ONLY_FIELD.getId(), READ_ONLY_FIELD.getMessage(), READ_ONLY_FIELD.getHttpStatus());
+        }
+
+        // ImdbId changes have to be claimed in the registry before the write, so they are applied to the whole document
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Series.class);
+        Optional<Update> update = PatchUtils.toUpdate(operations, entity, objectMapper);
+        if (update.isEmpty() || PatchUtils.touchesPath(operations, "/imdbId")) return patchDocument(id, jsonPatch, expectedVersion, errorLogMsg);
+
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (expectedVersion != null) query.addCriteria(Criteria.where(VERSION_KEY).is(expectedVersion));
+        PatchUtils.requireTargets(query, operations, entity);
+        Series seriesPatched = mongoTemplate.findAndModify(query, FilterUtils.withTitleSuffixes(update.get()).inc(VERSION_KEY, 1), FindAndModifyOptions.options().returnNew(true), Series.class);
+        // No match means the series is missing, its version changed or a replaced field is not stored, the document path reports which
+        if (seriesPatched == null) return patchDocument(id, jsonPatch, expectedVersion, errorLogMsg);
+        // The document before the patch is not read here, facets it may have changed are aggregated again
+        if (PatchUtils.touchesPath(operations, "/genres") || PatchUtils.touchesPath(operations, "/releaseDate")) facetCounter.invalidate(Series.class);
+        return seriesPatched;
+    }
+
+    private Series patchDocument(ObjectId id, JsonPatch jsonPatch, Long expectedVersion, String errorLogMsg) throws ErrorException, JsonPatchException, JsonProcessingException {
         Series seriesToPatch = seriesRepo.findById(id).orElseThrow(() -> {
             log.error(String.format(errorLogMsg, id, NOT_EXISTS.getMessage()));
             return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
         });
-        var jsonPatchList = objectMapper.convertValue(jsonPatch, JsonNode.class);
-        String path = jsonPatchList.get(0).get("path").asText();
-        String value = jsonPatchList.get(0).get("value").asText();
+        checkVersion(id, seriesToPatch.getVersion(), expectedVersion, errorLogMsg);
+        JsonNode patched = jsonPatch.apply(PatchUtils.withoutNullFields(objectMapper.convertValue(seriesToPatch, JsonNode.class)));
+        Series seriesPatched = objectMapper.treeToValue(patched, Series.class);
+        // The version and the review aggregates belong to the server, a whole document replace must not overwrite them
+        seriesPatched.setVersion(seriesToPatch.getVersion());
+        seriesPatched.setRatingStats(seriesToPatch.getRatingStats());
+        seriesPatched.setLatestReviews(seriesToPatch.getLatestReviews());
+        boolean imdbIdChanged = !Objects.equals(seriesToPatch.getImdbId(), seriesPatched.getImdbId());
 
-        if (path.equalsIgnoreCase("/id")) {
-            log.error(String.format(errorLogMsg, id, ID_CANNOT_CHANGE.getMessage()));
-            throw new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus());
-        } else if (path.equalsIgnoreCase("/imdbId")
-                && ((movieRepo.existsByImdbId(value) || seriesRepo.existsByImdbId(value))
-                && !seriesToPatch.getImdbId().equalsIgnoreCase(value))) {
+        if (seriesPatched.getImdbId() == null || seriesPatched.getImdbId().isBlank()) {
+            log.error(String.format(errorLogMsg, id, VALIDATION_FAILED.getMessage()));
+            throw new ErrorException(VALIDATION_FAILED.getId(), VALIDATION_FAILED.getMessage(), VALIDATION_FAILED.getHttpStatus());
+        } else if (imdbIdChanged && !imdbIdRegistry.register(seriesPatched.getImdbId(), SERIES)) {
             log.error(String.format(errorLogMsg, id, IMDB_ID_ALREADY_IN_USE.getMessage()));
             throw new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus());
         }
 
-        JsonNode patched = jsonPatch.apply(objectMapper.convertValue(seriesToPatch, JsonNode.class));
-        return seriesRepo.save(objectMapper.treeToValue(patched, Series.class));
+        seriesPatched = saveVersioned(seriesPatched, imdbIdChanged);
+        recount(seriesToPatch, seriesPatched);
+        if (imdbIdChanged) {
+            imdbIdRegistry.unregister(seriesToPatch.getImdbId());
+            reviewCascade.moveReviews(seriesToPatch.getImdbId(), seriesPatched.getImdbId());
+        }
+        return seriesPatched;
+    }
+
+    private void checkVersion(ObjectId id, Long version, Long expectedVersion, String errorLogMsg) throws ErrorException {
+        if (ETagUtils.matches(version, expectedVersion)) return;
+        log.error(String.format(errorLogMsg, id, PRECONDITION_FAILED.getMessage()));
+        throw new ErrorException(PRECONDITION_FAILED.getId(), PRECONDITION_FAILED.getMessage(), PRECONDITION_FAILED.getHttpStatus());
+    }
+
+    private void recount(Series before, Series after) {
+        facetCounter.count(Series.class, before.getGenres(), before.getReleaseDate(), -1);
+        facetCounter.count(Series.class, after.getGenres(), after.getReleaseDate(), 1);
+    }
+
+    // Any failed save releases the imdbId claimed for the write, a race lost on the version as much as a duplicate key
+    private Series saveVersioned(Series series, boolean imdbIdChanged) {
+        try {
+            return seriesRepo.save(series);
+        } catch (RuntimeException e) {
+            if (imdbIdChanged) imdbIdRegistry.unregister(series.getImdbId());
+            throw e;
+        }
     }
 }
@@ -0,0 +1,99 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.BULK_TOO_LARGE;
+
+public class BulkUtils {
+    private BulkUtils() {}
+
+    /**
+     * Inserts the documents with unordered bulk writes of chunkSize documents each,
+     * returns the write error message of every document that could not be inserted keyed by its position in the list.
+     */
+    public static <T> Map<Integer, String> insertUnordered(MongoTemplate mongoTemplate, Class<T> entityClass, List<T> documents, int chunkSize) {
+        Map<Integer, String> failures = new HashMap<>();
+        int size = Math.max(chunkSize, 1);
+        for (int from = 0; from < documents.size(); from += size) {
+            List<T> chunk = documents.subList(from, Math.min(from + size, documents.size()));
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass).insert(chunk).execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) failures.put(from + error.getIndex(), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Reads the items of a JSON array or NDJSON body one value at a time, the body is never buffered whole.
+     * Throws payload too large as soon as the body goes over maxItems items or maxBytes bytes.
+     */
+    public static <T> List<T> readItems(ObjectReader reader, InputStream body, int maxItems, long maxBytes) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> values = reader.readValues(new LimitedInputStream(body, maxBytes))) {
+            while (values.hasNextValue()) {
+                if (items.size() >= maxItems) throw tooLarge();
+                items.add(values.nextValue());
+            }
+        }
+        return items;
+    }
+
+    private static ErrorException tooLarge() {
+        return new ErrorException(BULK_TOO_LARGE.getId(), BULK_TOO_LARGE.getMessage(), BULK_TOO_LARGE.getHttpStatus());
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxBytes) throw tooLarge();
+        }
+    }
+
+    public static Map<String, Object> toResponse(List<BulkResultDTO> results) {
+        long inserted = results.stream().filter(BulkResultDTO::success).count();
+        Map<String, Object> response = new HashMap<>();
+        response.put("inserted", inserted);
+        response.put("failed", results.size() - inserted);
+        response.put("results", results);
+        return response;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.CANNOT_PARSE_CURSOR;
+
+public class CursorUtils {
+    private static final ObjectId FIRST_ID = new ObjectId("000000000000000000000000");
+
+    private CursorUtils() {}
+
+    // Opaque cursor tokens are the url-safe Base64 of the last returned document id
+    public static String encode(ObjectId lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toHexString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ObjectId decode(String cursor) throws ErrorException {
+        if (cursor == null || cursor.isBlank()) return FIRST_ID;
+        try {
+            return new ObjectId(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ErrorException(CANNOT_PARSE_CURSOR.getId(), CANNOT_PARSE_CURSOR.getMessage(), CANNOT_PARSE_CURSOR.getHttpStatus());
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.mcpikon.cinemawebback.utils;
 
 import com.mcpikon.cinemawebback.dtos.*;
 import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.ReviewPreview;
 import com.mcpikon.cinemawebback.models.Series;
 
 import java.time.LocalDateTime;
@@ -15,6 +17,7 @@ public class DTOMapper {
     // Movies DTOs Converters
     public static Movie dtoToMovie(MovieDTO movieDTO) {
         return Movie.builder()
+                .version(0L)
                 .imdbId(movieDTO.imdbId())
                 .title(movieDTO.title())
                 .overview(movieDTO.overview())
@@ -25,12 +28,14 @@ public class DTOMapper {
                 .genres(movieDTO.genres())
                 .poster(movieDTO.poster())
                 .backdrop(movieDTO.backdrop())
-                .reviewIds(new ArrayList<>()).build();
+                .latestReviews(new ArrayList<>())
+                .ratingStats(RatingStats.empty()).build();
     }
 
     public static Movie dtoToMovieUpdate(Movie movie, MovieDTO movieDTO) {
         return Movie.builder()
                 .id(movie.getId())
+                .version(movie.getVersion())
                 .imdbId(movieDTO.imdbId())
                 .title(movieDTO.title())
                 .overview(movieDTO.overview())
@@ -41,17 +46,19 @@ public class DTOMapper {
                 .genres(movieDTO.genres())
                 .poster(movieDTO.poster())
                 .backdrop(movieDTO.backdrop())
-                .reviewIds(movie.getReviewIds()).build();
+                .latestReviews(movie.getLatestReviews())
+                .ratingStats(movie.getRatingStats()).build();
     }
 
     public static MovieResponseDTO movieToResponseDTO(Movie movie) {
-        return new MovieResponseDTO(movie.getImdbId(), movie.getTitle(),
-                movie.getDuration(), movie.getReleaseDate(), movie.getPoster());
+        return new MovieResponseDTO(movie.getId(), movie.getImdbId(), movie.getTitle(),
+                movie.getDuration(), movie.getReleaseDate(), movie.getPoster(), movie.getRatingStats());
     }
 
     // Series DTOs Converters
     public static Series dtoToSeries(SeriesDTO seriesDTO) {
         return Series.builder()
+                .version(0L)
                 .imdbId(seriesDTO.imdbId())
                 .title(seriesDTO.title())
                 .overview(seriesDTO.overview())
@@ -63,12 +70,14 @@ public class DTOMapper {
                 .seasonList(seriesDTO.seasonList())
                 .poster(seriesDTO.poster())
                 .backdrop(seriesDTO.backdrop())
-                .reviewIds(new ArrayList<>()).build();
+                .latestReviews(new ArrayList<>())
+                .ratingStats(RatingStats.empty()).build();
     }
 
     public static Series dtoToSeriesUpdate(Series series, SeriesDTO seriesDTO) {
         return Series.builder()
                 .id(series.getId())
+                .version(series.getVersion())
                 .imdbId(seriesDTO.imdbId())
                 .title(seriesDTO.title())
                 .overview(seriesDTO.overview())
@@ -80,16 +89,19 @@ public class DTOMapper {
                 .seasonList(seriesDTO.seasonList())
                 .poster(seriesDTO.poster())
                 .backdrop(seriesDTO.backdrop())
-                .reviewIds(series.getReviewIds()).build();
+                .latestReviews(series.getLatestReviews())
+                .ratingStats(series.getRatingStats()).build();
     }
 
     public static SeriesResponseDTO seriesToResponseDTO(Series series) {
-        return new SeriesResponseDTO(series.getImdbId(), series.getTitle(), series.getNumberOfSeasons(), series.getReleaseDate(), series.getPoster());
+        return new SeriesResponseDTO(series.getId(), series.getImdbId(), series.getTitle(), series.getNumberOfSeasons(), series.getReleaseDate(), series.getPoster(), series.getRatingStats());
     }
 
     // Review DTOs Converters
     public static Review dtoToReview(ReviewSaveDTO reviewSaveDTO) {
         return Review.builder()
+                .version(0L)
+                .imdbId(reviewSaveDTO.imdbId())
                 .title(reviewSaveDTO.title())
                 .rating(reviewSaveDTO.rating())
                 .body(reviewSaveDTO.body())
@@ -101,6 +113,8 @@ public class DTOMapper {
     public static Review dtoToReviewUpdate(Review review, ReviewDTO reviewDTO) {
         return Review.builder()
                 .id(review.getId())
+                .version(review.getVersion())
+                .imdbId(review.getImdbId())
                 .title(reviewDTO.title())
                 .rating(reviewDTO.rating())
                 .body(reviewDTO.body())
@@ -108,4 +122,14 @@ public class DTOMapper {
                 .updatedAt(LocalDateTime.now())
                 .build();
     }
+
+    public static ReviewPreview reviewToPreview(Review review) {
+        return ReviewPreview.builder()
+                .id(review.getId())
+                .title(review.getTitle())
+                .rating(review.getRating())
+                .body(review.getBody())
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
 }
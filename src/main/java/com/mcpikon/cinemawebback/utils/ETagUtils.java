@@ -0,0 +1,84 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.PRECONDITION_FAILED;
+
+public class ETagUtils {
+    private static final String ANY_TAG = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETagUtils() {}
+
+    // Strong ETags are the document id and its version, so a deleted and recreated document never reuses a tag
+    public static String of(ObjectId id, Long version) {
+        return String.format("\"%s-%s\"", id.toHexString(), version);
+    }
+
+    /**
+     * Returns the version expected by the If-Match header of a write, null when the header is missing or '*'.
+     * Throws precondition failed when no strong tag of the header belongs to the document, weak tags never match a write.
+     */
+    public static Long versionOf(String ifMatch, ObjectId id) throws ErrorException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY_TAG)) return null;
+        String prefix = String.format("\"%s-", id.toHexString());
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length()) continue;
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Not one of our tags, keep looking at the rest of the list
+            }
+        }
+        throw new ErrorException(PRECONDITION_FAILED.getId(), PRECONDITION_FAILED.getMessage(), PRECONDITION_FAILED.getHttpStatus());
+    }
+
+    // Weak comparison of the If-None-Match header of a read, '*' matches any current representation
+    public static boolean anyMatches(String ifNoneMatch, String eTag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals(ANY_TAG) || opaqueTagOf(tag).equals(opaqueTagOf(eTag))) return true;
+        }
+        return false;
+    }
+
+    private static String opaqueTagOf(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+
+    /**
+     * Whether a tag read by a response may replace the one recorded for its path. Reads finishing after a write may carry the
+     * version before it, a tag of the same document never replaces a newer version. Tags of another document or not of ours always do.
+     */
+    public static boolean isNotOlder(String candidate, String recorded) {
+        String candidateTag = opaqueTagOf(candidate);
+        String recordedTag = opaqueTagOf(recorded);
+        int candidateSeparator = candidateTag.lastIndexOf('-');
+        int recordedSeparator = recordedTag.lastIndexOf('-');
+        if (candidateSeparator < 0 || recordedSeparator < 0 || !candidateTag.substring(0, candidateSeparator).equals(recordedTag.substring(0, recordedSeparator)))
+            return true;
+        try {
+            return Long.parseLong(candidateTag.substring(candidateSeparator + 1, candidateTag.length() - 1))
+                    >= Long.parseLong(recordedTag.substring(recordedSeparator + 1, recordedTag.length() - 1));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // ETags are recorded by request path, these are the cached GET paths showing a document of the collection
+    public static List<String> pathsOf(String collection, ObjectId id, String imdbId) {
+        List<String> paths = new ArrayList<>(2);
+        if (id != null) paths.add(String.format("/api/v1/%s/findById/%s", collection, id.toHexString()));
+        if (imdbId != null) paths.add(String.format("/api/v1/%s/findByImdbId/%s", collection, imdbId));
+        return paths;
+    }
+
+    public static boolean matches(Long version, Long expectedVersion) {
+        return expectedVersion == null || expectedVersion.equals(version);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mcpikon.cinemawebback.utils;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class FilterUtils {
+    private static final String GENRES_KEY = "genres";
+    private static final String RELEASE_DATE_KEY = "releaseDate";
+    private static final String TITLE_KEY = "title";
+    private static final String TITLE_SUFFIXES_KEY = "titleSuffixes";
+    private static final String REGEX_SPECIAL_CHARS = "\\^$.|?*+()[]{}";
+
+    private FilterUtils() {}
+
+    public static boolean isFiltered(String genre, Integer year) {
+        return genre != null || year != null;
+    }
+
+    /**
+     * Returns the browse query of a title search narrowed by genre and release year.
+     * Release dates are ISO strings, the year is a range of them so the genres and releaseDate indexes bound the scan.
+     */
+    public static Query queryOf(String title, String genre, Integer year) {
+        Query query = new Query();
+        if (title != null) query.addCriteria(Criteria.where(TITLE_SUFFIXES_KEY).regex(titleRegexOf(title)));
+        if (genre != null) query.addCriteria(Criteria.where(GENRES_KEY).is(genre));
+        if (year != null) query.addCriteria(Criteria.where(RELEASE_DATE_KEY).gte(String.format("%04d", year)).lt(String.format("%04d", year + 1)));
+        return query;
+    }
+
+    /**
+     * Every lower-cased suffix of the title, stored next to it so a case-insensitive substring search of the title
+     * becomes an anchored prefix search of the suffixes that the titleSuffixes index bounds.
+     */
+    public static List<String> titleSuffixesOf(String title) {
+        if (title == null) return null;
+        String normalized = title.toLowerCase(Locale.ROOT);
+        List<String> suffixes = new ArrayList<>(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) suffixes.add(normalized.substring(i));
+        return suffixes;
+    }
+
+    // Anchored and escaped, a search for "Incep" matches the suffix "inception" of "Inception" and nothing else
+    public static String titleRegexOf(String title) {
+        StringBuilder regex = new StringBuilder("^");
+        for (char c : title.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (REGEX_SPECIAL_CHARS.indexOf(c) >= 0) regex.append('\\');
+            regex.append(c);
+        }
+        return regex.toString();
+    }
+
+    // A title set or removed by a field level update takes its suffixes along
+    public static Update withTitleSuffixes(Update update) {
+        Document updateObject = update.getUpdateObject();
+        if (updateObject.get("$set") instanceof Document set && set.containsKey(TITLE_KEY))
+            update.set(TITLE_SUFFIXES_KEY, titleSuffixesOf(set.getString(TITLE_KEY)));
+        if (updateObject.get("$unset") instanceof Document unset && unset.containsKey(TITLE_KEY)) update.unset(TITLE_SUFFIXES_KEY);
+        return update;
+    }
+
+    // Same decade as the facets aggregation, null when the release date does not start with a year
+    public static Integer decadeOf(String releaseDate) {
+        if (releaseDate == null || releaseDate.length() < 4) return null;
+        try {
+            return Integer.parseInt(releaseDate.substring(0, 4)) / 10 * 10;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
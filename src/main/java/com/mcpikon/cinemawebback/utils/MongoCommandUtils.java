@@ -0,0 +1,86 @@
+package com.mcpikon.cinemawebback.utils;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.List;
+
+public class MongoCommandUtils {
+    private static final String UNKNOWN = "unknown";
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+    // Where each command keeps its filter, updates and deletes keep one per statement under 'q'
+    private static final List<String> FILTER_KEYS = List.of("filter", "query", "pipeline", "updates", "deletes");
+    private static final String STATEMENT_FILTER_KEY = "q";
+
+    private MongoCommandUtils() {}
+
+    // Most commands name their collection as the value of the command name, getMore names it under 'collection'
+    public static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue collection = command.get(commandName);
+        if (collection != null && collection.isString()) return collection.asString().getValue();
+        collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : UNKNOWN;
+    }
+
+    /**
+     * Returns the part of the command holding its filter, detached from the driver buffer so it can still be read once the
+     * started callback returns. Driver documents are copied as raw bytes, nothing is decoded until a shape is asked for.
+     * Updates and deletes keep only their first statement. Null when the command has no filter.
+     */
+    public static BsonDocument filterOf(BsonDocument command) {
+        for (String key : FILTER_KEYS) {
+            BsonValue filter = command.get(key);
+            if (filter == null) continue;
+            if (filter.isArray() && (key.equals("updates") || key.equals("deletes"))) {
+                BsonArray statements = filter.asArray();
+                if (statements.isEmpty() || !statements.get(0).isDocument()) return null;
+                return new BsonDocument(key, new BsonArray(List.of(statements.get(0).asDocument().clone())));
+            }
+            if (filter.isDocument()) return new BsonDocument(key, filter.asDocument().clone());
+            return new BsonDocument(key, filter.isArray() ? filter.asArray().clone() : filter);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the filter of the command, or of the part kept by filterOf, with every value replaced by '?', so commands that only differ by their
+     * parameters share the same shape. Null when the command has no filter.
+     */
+    public static String filterShapeOf(BsonDocument command) {
+        if (command == null) return null;
+        for (String key : FILTER_KEYS) {
+            BsonValue filter = command.get(key);
+            if (filter == null) continue;
+            if (filter.isArray() && (key.equals("updates") || key.equals("deletes"))) {
+                BsonArray statements = filter.asArray();
+                if (statements.isEmpty() || !statements.get(0).isDocument()) return null;
+                filter = statements.get(0).asDocument().get(STATEMENT_FILTER_KEY);
+                if (filter == null) return null;
+            }
+            BsonValue shape = shapeOf(filter);
+            return shape.isDocument() ? shape.asDocument().toJson() : new BsonDocument(key, shape).toJson();
+        }
+        return null;
+    }
+
+    // Values of an array collapse into a single '?' so $in lists of any length share a shape, documents and stages are kept
+    private static BsonValue shapeOf(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            value.asDocument().forEach((key, field) -> shape.append(key, shapeOf(field)));
+            return shape;
+        }
+        if (value.isArray()) {
+            BsonArray shape = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                BsonValue elementShape = shapeOf(element);
+                if (elementShape.equals(PLACEHOLDER) && shape.contains(PLACEHOLDER)) continue;
+                shape.add(elementShape);
+            }
+            return shape;
+        }
+        return PLACEHOLDER;
+    }
+}
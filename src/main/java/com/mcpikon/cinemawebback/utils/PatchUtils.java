@@ -0,0 +1,127 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.CANNOT_PARSE_JSON;
+
+public class PatchUtils {
+    private static final String APPEND_TOKEN = "-";
+    // Kept by the review writes with $inc and $push, a client value would corrupt them
+    private static final List<String> SERVER_FIELDS = List.of("ratingStats", "latestReviews");
+
+    private PatchUtils() {}
+
+    // Checks the path and the from pointer of every operation, not only the first one
+    public static boolean touchesPath(JsonNode operations, String path) {
+        for (JsonNode operation : operations) {
+            for (String pointer : List.of(operation.path("path").asText(), operation.path("from").asText())) {
+                if (pointer.equalsIgnoreCase(path) || pointer.toLowerCase().startsWith(path.toLowerCase() + "/")) return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean touchesServerFields(JsonNode operations) {
+        return SERVER_FIELDS.stream().anyMatch(field -> touchesPath(operations, "/" + field));
+    }
+
+    /**
+     * Translates the RFC 6902 operations into a single field level update, add and replace of a top level field become $set,
+     * remove becomes $unset and add to the end of a list ('/field/-') becomes $push.
+     * Returns empty when any operation cannot be translated (test, move, copy, nested or indexed paths, references, ids
+     * or a field touched twice) so the caller applies the whole patch to the document instead, keeping the operations order.
+     */
+    public static Optional<Update> toUpdate(JsonNode operations, MongoPersistentEntity<?> entity, ObjectMapper objectMapper) throws ErrorException {
+        Update update = new Update();
+        Set<String> touchedFields = new HashSet<>();
+
+        for (JsonNode operation : operations) {
+            List<String> tokens = tokensOf(operation.path("path").asText());
+            if (tokens.isEmpty() || tokens.size() > 2) return Optional.empty();
+
+            MongoPersistentProperty property = entity.getPersistentProperty(tokens.get(0));
+            if (!isPatchable(property) || !touchedFields.add(property.getFieldName())) return Optional.empty();
+
+            String op = operation.path("op").asText();
+            boolean wholeField = tokens.size() == 1;
+            if (wholeField && (op.equals("add") || op.equals("replace"))) {
+                update.set(property.getFieldName(), convert(operation.path("value"), property.getTypeInformation().toTypeDescriptor().getResolvableType().getType(), objectMapper));
+            } else if (wholeField && op.equals("remove")) {
+                update.unset(property.getFieldName());
+            } else if (!wholeField && op.equals("add") && tokens.get(1).equals(APPEND_TOKEN) && property.isCollectionLike()) {
+                update.push(property.getFieldName(), convert(operation.path("value"), property.getComponentType(), objectMapper));
+            } else {
+                return Optional.empty();
+            }
+        }
+        return touchedFields.isEmpty() ? Optional.empty() : Optional.of(update);
+    }
+
+    /**
+     * RFC 6902 replace and remove need an existing target, the translated update would create or silently skip it.
+     * Adds a criteria requiring every field replaced or removed as a whole to be stored and not null, the same fields the
+     * whole document path sees, so no match means the caller has to apply the patch to the document to report why.
+     * A field the query already matches by value is left alone.
+     */
+    public static Query requireTargets(Query query, JsonNode operations, MongoPersistentEntity<?> entity) {
+        for (JsonNode operation : operations) {
+            String op = operation.path("op").asText();
+            List<String> tokens = tokensOf(operation.path("path").asText());
+            if (tokens.size() != 1 || !(op.equals("replace") || op.equals("remove"))) continue;
+
+            MongoPersistentProperty property = entity.getPersistentProperty(tokens.get(0));
+            if (property == null || query.getQueryObject().containsKey(property.getFieldName())) continue;
+            query.addCriteria(Criteria.where(property.getFieldName()).ne(null));
+        }
+        return query;
+    }
+
+    // Fields never stored are missing for the JSON Patch too, otherwise replace and remove would succeed on them
+    public static JsonNode withoutNullFields(JsonNode document) {
+        if (document instanceof ObjectNode objectNode) objectNode.properties().removeIf(field -> field.getValue().isNull());
+        return document;
+    }
+
+    private static boolean isPatchable(MongoPersistentProperty property) {
+        return property != null && !property.isIdProperty() && !property.isVersionProperty() && !property.isAssociation()
+                && !property.isDocumentReference() && !property.isAnnotationPresent(JsonIgnore.class) && !property.isTransient()
+                && !SERVER_FIELDS.contains(property.getName());
+    }
+
+    private static List<String> tokensOf(String path) {
+        List<String> tokens = new ArrayList<>();
+        try {
+            for (JsonPointer pointer = JsonPointer.compile(path); !pointer.matches(); pointer = pointer.tail()) {
+                tokens.add(pointer.getMatchingProperty());
+            }
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+        return tokens;
+    }
+
+    private static Object convert(JsonNode value, Type type, ObjectMapper objectMapper) throws ErrorException {
+        try {
+            return objectMapper.convertValue(value, objectMapper.constructType(type));
+        } catch (IllegalArgumentException e) {
+            throw new ErrorException(CANNOT_PARSE_JSON.getId(), CANNOT_PARSE_JSON.getMessage(), CANNOT_PARSE_JSON.getHttpStatus());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mcpikon.cinemawebback.controllers;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.RatingStats;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.services.ReactiveReviewService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ReactiveReviewController.class)
+@ActiveProfiles("reactive")
+class ReactiveReviewControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveReviewService reviewService;
+
+    private List<Review> reviewList;
+
+    @BeforeEach
+    void init() {
+        reviewList = List.of(
+                Review.builder().id(new ObjectId()).title("review 1").rating(1).body("review 1 test").build(),
+                Review.builder().id(new ObjectId()).title("review 2").rating(2).body("review 2 test").build());
+    }
+
+    @Test
+    @DisplayName("Find All Reviews - OK (200)")
+    void findAllReviews_thenReturnOk() {
+        when(reviewService.findAll(0, 10)).thenReturn(Mono.just(Map.of("reviews", reviewList, "currentPage", 0, "totalItems", 2L, "totalPages", 1)));
+        webTestClient.get().uri("/api/v1/reviews/findAll")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.reviews[0].title").isEqualTo("review 1")
+                .jsonPath("$.totalItems").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By Cursor - Bad Request (400)")
+    void findAllReviewsByCursor_thenReturnBadRequest() {
+        when(reviewService.findAllByCursor("bad", 10)).thenReturn(Mono.error(new ErrorException(CANNOT_PARSE_CURSOR.getId(), CANNOT_PARSE_CURSOR.getMessage(), CANNOT_PARSE_CURSOR.getHttpStatus())));
+        webTestClient.get().uri("/api/v1/reviews/findAll?after=bad")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(CANNOT_PARSE_CURSOR.getId());
+    }
+
+    @Test
+    @DisplayName("Stream All Reviews - OK (200)")
+    void streamAllReviews_thenReturnNdjson() {
+        when(reviewService.streamAll()).thenReturn(Flux.fromIterable(reviewList));
+        List<Review> streamed = webTestClient.get().uri("/api/v1/reviews/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Review.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(2, streamed.size());
+        assertEquals("review 2", streamed.get(1).getTitle());
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By ImdbId - OK (200)")
+    void findAllReviewsByImdbId_thenReturnOk() {
+        when(reviewService.findAllByImdbId("tt12345", 0, 10)).thenReturn(Mono.just(Map.of("reviews", reviewList, "totalItems", 2)));
+        webTestClient.get().uri("/api/v1/reviews/findAllByImdbId/tt12345")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.reviews.length()").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Find Stats By ImdbId - OK (200)")
+    void findStatsByImdbId_thenReturnOk() {
+        when(reviewService.findStatsByImdbId("tt12345")).thenReturn(Mono.just(RatingStats.builder().count(2).sum(3).histogram(Map.of("1", 1L, "2", 1L)).build()));
+        webTestClient.get().uri("/api/v1/reviews/stats/tt12345")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(2)
+                .jsonPath("$.average").isEqualTo(1.5);
+    }
+
+    @Test
+    @DisplayName("Find Review By Id - Not Found (404)")
+    void findReviewById_thenReturnNotFound() {
+        ObjectId id = new ObjectId();
+        when(reviewService.findById(id)).thenReturn(Mono.error(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus())));
+        webTestClient.get().uri("/api/v1/reviews/findById/" + id)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo(NOT_EXISTS.getMessage());
+    }
+}
@@ -0,0 +1,167 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.repositories.ReactiveMovieRepository;
+import com.mcpikon.cinemawebback.services.impl.ReactiveMovieServiceImpl;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveMovieServiceTest {
+    @Mock
+    private ReactiveMovieRepository movieRepo;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @InjectMocks
+    private ReactiveMovieServiceImpl movieService;
+
+    @Test
+    @DisplayName("Find All Movies - OK")
+    void findAllMovies_thenReturnPage() {
+        List<MovieResponseDTO> movieList = List.of(
+                MovieResponseDTO.builder().title("movie 1").build(),
+                MovieResponseDTO.builder().title("movie 2").build());
+        when(movieRepo.findAllProjectedBy(PageRequest.of(0, 10))).thenReturn(Flux.fromIterable(movieList));
+        when(movieRepo.count()).thenReturn(Mono.just(12L));
+        StepVerifier.create(movieService.findAll(null, 0, 10))
+                .assertNext(resMap -> {
+                    assertEquals(movieList, resMap.get("movies"));
+                    assertEquals(12L, resMap.get("totalItems"));
+                    assertEquals(2, resMap.get("totalPages"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Title - OK")
+    void findAllMoviesByTitle_thenReturnPage() {
+        List<MovieResponseDTO> movieList = List.of(MovieResponseDTO.builder().title("movie 1").build());
+        when(movieRepo.findAllProjectedByTitleSuffixesRegex("^movie", PageRequest.of(0, 10))).thenReturn(Flux.fromIterable(movieList));
+        when(reactiveMongoTemplate.count(any(Query.class), eq(Movie.class))).thenReturn(Mono.just(1L));
+        StepVerifier.create(movieService.findAll("movie", 0, 10))
+                .assertNext(resMap -> assertEquals(movieList, resMap.get("movies")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Movies - Throws Empty List")
+    void findAllMovies_thenThrowsEmptyList() {
+        when(movieRepo.findAllProjectedBy(PageRequest.of(0, 1))).thenReturn(Flux.empty());
+        when(movieRepo.count()).thenReturn(Mono.just(0L));
+        StepVerifier.create(movieService.findAll(null, -1, -1))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Empty List"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor - OK")
+    void findAllMoviesByCursor_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
+        List<MovieResponseDTO> movieList = List.of(
+                MovieResponseDTO.builder().id(new ObjectId()).title("movie 1").build(),
+                MovieResponseDTO.builder().id(lastId).title("movie 2").build(),
+                MovieResponseDTO.builder().id(new ObjectId()).title("movie 3").build());
+        when(movieRepo.findAllProjectedByIdGreaterThan(any(ObjectId.class), eq(PageRequest.of(0, 3, Sort.by("id"))))).thenReturn(Flux.fromIterable(movieList));
+        StepVerifier.create(movieService.findAllByCursor(null, "", 2))
+                .assertNext(resMap -> {
+                    assertEquals(movieList.subList(0, 2), resMap.get("movies"));
+                    assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor - Last Page")
+    void findAllMoviesByCursor_whenNoMoreMovies_thenNextCursorIsNull() {
+        List<MovieResponseDTO> movieList = List.of(MovieResponseDTO.builder().id(new ObjectId()).title("movie 1").build());
+        when(movieRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(any(ObjectId.class), eq("^movie"), eq(PageRequest.of(0, 3, Sort.by("id"))))).thenReturn(Flux.fromIterable(movieList));
+        StepVerifier.create(movieService.findAllByCursor("movie", CursorUtils.encode(new ObjectId()), 2))
+                .assertNext(resMap -> assertNull(resMap.get("nextCursor")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor - Throws Cannot Parse Cursor")
+    void findAllMoviesByCursor_thenThrowsCannotParseCursor() {
+        StepVerifier.create(movieService.findAllByCursor(null, "not-a-cursor", 2))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Error parsing pagination cursor (cursor not valid)"))
+                .verify();
+        verifyNoInteractions(movieRepo);
+    }
+
+    @Test
+    @DisplayName("Stream All Movies - OK")
+    void streamAllMovies_thenEmitsEveryMovie() {
+        List<MovieResponseDTO> movieList = List.of(
+                MovieResponseDTO.builder().title("movie 1").build(),
+                MovieResponseDTO.builder().title("movie 2").build());
+        when(movieRepo.streamAllProjectedBy()).thenReturn(Flux.fromIterable(movieList));
+        StepVerifier.create(movieService.streamAll(null))
+                .expectNextSequence(movieList)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Movie By Id - OK")
+    void findMovieById_thenReturnMovie() {
+        ObjectId id = new ObjectId();
+        Movie movie = Movie.builder().id(id).title("movie 1").build();
+        when(movieRepo.findById(id)).thenReturn(Mono.just(movie));
+        StepVerifier.create(movieService.findById(id))
+                .expectNext(movie)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Movie By Id - Throws Not Exists")
+    void findMovieById_thenThrowsNotExists() {
+        ObjectId id = new ObjectId();
+        when(movieRepo.findById(id)).thenReturn(Mono.empty());
+        StepVerifier.create(movieService.findById(id))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find Movie By ImdbId - OK")
+    void findMovieByImdbId_thenReturnMovie() {
+        Movie movie = Movie.builder().imdbId("tt12345").title("movie 1").build();
+        when(movieRepo.findByImdbId("tt12345")).thenReturn(Mono.just(movie));
+        StepVerifier.create(movieService.findByImdbId("tt12345"))
+                .expectNext(movie)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Movie By ImdbId - Throws Not Exists")
+    void findMovieByImdbId_thenThrowsNotExists() {
+        when(movieRepo.findByImdbId("tt12345")).thenReturn(Mono.empty());
+        StepVerifier.create(movieService.findByImdbId("tt12345"))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+}
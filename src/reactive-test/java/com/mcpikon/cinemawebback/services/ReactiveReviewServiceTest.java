@@ -0,0 +1,180 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ReactiveReviewRepository;
+import com.mcpikon.cinemawebback.services.impl.ReactiveReviewServiceImpl;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveReviewServiceTest {
+    @Mock
+    private ReactiveReviewRepository reviewRepo;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @InjectMocks
+    private ReactiveReviewServiceImpl reviewService;
+
+    @Test
+    @DisplayName("Find All Reviews - OK")
+    void findAllReviews_thenReturnPage() {
+        List<Review> reviewList = List.of(
+                Review.builder().title("review 1").build(),
+                Review.builder().title("review 2").build());
+        when(reviewRepo.findAllBy(PageRequest.of(0, 10))).thenReturn(Flux.fromIterable(reviewList));
+        when(reviewRepo.count()).thenReturn(Mono.just(2L));
+        StepVerifier.create(reviewService.findAll(0, 10))
+                .assertNext(resMap -> {
+                    assertEquals(reviewList, resMap.get("reviews"));
+                    assertEquals(1, resMap.get("totalPages"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Reviews - Throws Empty List")
+    void findAllReviews_thenThrowsEmptyList() {
+        when(reviewRepo.findAllBy(PageRequest.of(0, 1))).thenReturn(Flux.empty());
+        when(reviewRepo.count()).thenReturn(Mono.just(0L));
+        StepVerifier.create(reviewService.findAll(-1, -1))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Empty List"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By Cursor - OK")
+    void findAllReviewsByCursor_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
+        List<Review> reviewList = List.of(
+                Review.builder().id(lastId).title("review 1").build(),
+                Review.builder().id(new ObjectId()).title("review 2").build());
+        when(reviewRepo.findAllByIdGreaterThan(any(ObjectId.class), eq(PageRequest.of(0, 2, Sort.by("id"))))).thenReturn(Flux.fromIterable(reviewList));
+        StepVerifier.create(reviewService.findAllByCursor("", 1))
+                .assertNext(resMap -> {
+                    assertEquals(reviewList.subList(0, 1), resMap.get("reviews"));
+                    assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Stream All Reviews - OK")
+    void streamAllReviews_thenEmitsEveryReview() {
+        List<Review> reviewList = List.of(
+                Review.builder().title("review 1").build(),
+                Review.builder().title("review 2").build());
+        when(reviewRepo.streamAllBy()).thenReturn(Flux.fromIterable(reviewList));
+        StepVerifier.create(reviewService.streamAll())
+                .expectNextSequence(reviewList)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By ImdbId - OK")
+    void findAllReviewsByImdbId_thenReturnPage() {
+        List<Review> reviewList = List.of(
+                Review.builder().id(new ObjectId()).imdbId("tt12345").title("review 1").build(),
+                Review.builder().id(new ObjectId()).imdbId("tt12345").title("review 2").build());
+        when(reviewRepo.findAllByImdbId("tt12345", PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt")))).thenReturn(Flux.fromIterable(reviewList));
+        when(reviewRepo.countByImdbId("tt12345")).thenReturn(Mono.just(3L));
+        StepVerifier.create(reviewService.findAllByImdbId("tt12345", 0, 2))
+                .assertNext(response -> {
+                    assertEquals(reviewList, response.get("reviews"));
+                    assertEquals(3L, response.get("totalItems"));
+                    assertEquals(2, response.get("totalPages"));
+                })
+                .verifyComplete();
+        verifyNoInteractions(reactiveMongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By ImdbId - Throws Not Exists")
+    void findAllReviewsByImdbId_thenThrowsNotExists() {
+        when(reviewRepo.findAllByImdbId(eq("tt12345"), any(Pageable.class))).thenReturn(Flux.empty());
+        when(reviewRepo.countByImdbId("tt12345")).thenReturn(Mono.just(0L));
+        when(reactiveMongoTemplate.exists(any(Query.class), eq(ImdbIdEntry.class))).thenReturn(Mono.just(false));
+        StepVerifier.create(reviewService.findAllByImdbId("tt12345", 0, 10))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By ImdbId - Throws Empty List")
+    void findAllReviewsByImdbId_thenThrowsEmptyList() {
+        when(reviewRepo.findAllByImdbId(eq("tt12345"), any(Pageable.class))).thenReturn(Flux.empty());
+        when(reviewRepo.countByImdbId("tt12345")).thenReturn(Mono.just(0L));
+        when(reactiveMongoTemplate.exists(any(Query.class), eq(ImdbIdEntry.class))).thenReturn(Mono.just(true));
+        StepVerifier.create(reviewService.findAllByImdbId("tt12345", 0, 10))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Empty List"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find Stats By ImdbId - OK")
+    void findStatsByImdbId_thenReturnRatingStats() {
+        RatingStats ratingStats = RatingStats.builder().count(2).sum(7).histogram(Map.of("3", 1L, "4", 1L)).build();
+        when(reactiveMongoTemplate.findOne(any(Query.class), eq(Movie.class))).thenReturn(Mono.just(Movie.builder().ratingStats(ratingStats).build()));
+        StepVerifier.create(reviewService.findStatsByImdbId("tt12345"))
+                .expectNext(ratingStats)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Stats By ImdbId - Empty Stats When Series Has No Reviews")
+    void findStatsByImdbId_whenSeriesWithoutStats_thenReturnEmptyStats() {
+        when(reactiveMongoTemplate.findOne(any(Query.class), eq(Movie.class))).thenReturn(Mono.empty());
+        when(reactiveMongoTemplate.findOne(any(Query.class), eq(Series.class))).thenReturn(Mono.just(Series.builder().build()));
+        StepVerifier.create(reviewService.findStatsByImdbId("tt12345"))
+                .assertNext(ratingStats -> assertEquals(0, ratingStats.getCount()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Stats By ImdbId - Throws Not Exists")
+    void findStatsByImdbId_thenThrowsNotExists() {
+        when(reactiveMongoTemplate.findOne(any(Query.class), eq(Movie.class))).thenReturn(Mono.empty());
+        when(reactiveMongoTemplate.findOne(any(Query.class), eq(Series.class))).thenReturn(Mono.empty());
+        StepVerifier.create(reviewService.findStatsByImdbId("tt12345"))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find Review By Id - Throws Not Exists")
+    void findReviewById_thenThrowsNotExists() {
+        ObjectId id = new ObjectId();
+        when(reviewRepo.findById(id)).thenReturn(Mono.empty());
+        StepVerifier.create(reviewService.findById(id))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+}
@@ -0,0 +1,167 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ReactiveSeriesRepository;
+import com.mcpikon.cinemawebback.services.impl.ReactiveSeriesServiceImpl;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveSeriesServiceTest {
+    @Mock
+    private ReactiveSeriesRepository seriesRepo;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @InjectMocks
+    private ReactiveSeriesServiceImpl seriesService;
+
+    @Test
+    @DisplayName("Find All Series - OK")
+    void findAllSeries_thenReturnPage() {
+        List<SeriesResponseDTO> seriesList = List.of(
+                SeriesResponseDTO.builder().title("series 1").build(),
+                SeriesResponseDTO.builder().title("series 2").build());
+        when(seriesRepo.findAllProjectedBy(PageRequest.of(0, 10))).thenReturn(Flux.fromIterable(seriesList));
+        when(seriesRepo.count()).thenReturn(Mono.just(12L));
+        StepVerifier.create(seriesService.findAll(null, 0, 10))
+                .assertNext(resMap -> {
+                    assertEquals(seriesList, resMap.get("series"));
+                    assertEquals(12L, resMap.get("totalItems"));
+                    assertEquals(2, resMap.get("totalPages"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Series By Title - OK")
+    void findAllSeriesByTitle_thenReturnPage() {
+        List<SeriesResponseDTO> seriesList = List.of(SeriesResponseDTO.builder().title("series 1").build());
+        when(seriesRepo.findAllProjectedByTitleSuffixesRegex("^series", PageRequest.of(0, 10))).thenReturn(Flux.fromIterable(seriesList));
+        when(reactiveMongoTemplate.count(any(Query.class), eq(Series.class))).thenReturn(Mono.just(1L));
+        StepVerifier.create(seriesService.findAll("series", 0, 10))
+                .assertNext(resMap -> assertEquals(seriesList, resMap.get("series")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Series - Throws Empty List")
+    void findAllSeries_thenThrowsEmptyList() {
+        when(seriesRepo.findAllProjectedBy(PageRequest.of(0, 1))).thenReturn(Flux.empty());
+        when(seriesRepo.count()).thenReturn(Mono.just(0L));
+        StepVerifier.create(seriesService.findAll(null, -1, -1))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Empty List"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor - OK")
+    void findAllSeriesByCursor_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
+        List<SeriesResponseDTO> seriesList = List.of(
+                SeriesResponseDTO.builder().id(new ObjectId()).title("series 1").build(),
+                SeriesResponseDTO.builder().id(lastId).title("series 2").build(),
+                SeriesResponseDTO.builder().id(new ObjectId()).title("series 3").build());
+        when(seriesRepo.findAllProjectedByIdGreaterThan(any(ObjectId.class), eq(PageRequest.of(0, 3, Sort.by("id"))))).thenReturn(Flux.fromIterable(seriesList));
+        StepVerifier.create(seriesService.findAllByCursor(null, "", 2))
+                .assertNext(resMap -> {
+                    assertEquals(seriesList.subList(0, 2), resMap.get("series"));
+                    assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor - Last Page")
+    void findAllSeriesByCursor_whenNoMoreSeries_thenNextCursorIsNull() {
+        List<SeriesResponseDTO> seriesList = List.of(SeriesResponseDTO.builder().id(new ObjectId()).title("series 1").build());
+        when(seriesRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(any(ObjectId.class), eq("^series"), eq(PageRequest.of(0, 3, Sort.by("id"))))).thenReturn(Flux.fromIterable(seriesList));
+        StepVerifier.create(seriesService.findAllByCursor("series", CursorUtils.encode(new ObjectId()), 2))
+                .assertNext(resMap -> assertNull(resMap.get("nextCursor")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor - Throws Cannot Parse Cursor")
+    void findAllSeriesByCursor_thenThrowsCannotParseCursor() {
+        StepVerifier.create(seriesService.findAllByCursor(null, "not-a-cursor", 2))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Error parsing pagination cursor (cursor not valid)"))
+                .verify();
+        verifyNoInteractions(seriesRepo);
+    }
+
+    @Test
+    @DisplayName("Stream All Series - OK")
+    void streamAllSeries_thenEmitsEverySeries() {
+        List<SeriesResponseDTO> seriesList = List.of(
+                SeriesResponseDTO.builder().title("series 1").build(),
+                SeriesResponseDTO.builder().title("series 2").build());
+        when(seriesRepo.streamAllProjectedBy()).thenReturn(Flux.fromIterable(seriesList));
+        StepVerifier.create(seriesService.streamAll(null))
+                .expectNextSequence(seriesList)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Series By Id - OK")
+    void findSeriesById_thenReturnSeries() {
+        ObjectId id = new ObjectId();
+        Series series = Series.builder().id(id).title("series 1").build();
+        when(seriesRepo.findById(id)).thenReturn(Mono.just(series));
+        StepVerifier.create(seriesService.findById(id))
+                .expectNext(series)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Series By Id - Throws Not Exists")
+    void findSeriesById_thenThrowsNotExists() {
+        ObjectId id = new ObjectId();
+        when(seriesRepo.findById(id)).thenReturn(Mono.empty());
+        StepVerifier.create(seriesService.findById(id))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find Series By ImdbId - OK")
+    void findSeriesByImdbId_thenReturnSeries() {
+        Series series = Series.builder().imdbId("tt12345").title("series 1").build();
+        when(seriesRepo.findByImdbId("tt12345")).thenReturn(Mono.just(series));
+        StepVerifier.create(seriesService.findByImdbId("tt12345"))
+                .expectNext(series)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find Series By ImdbId - Throws Not Exists")
+    void findSeriesByImdbId_thenThrowsNotExists() {
+        when(seriesRepo.findByImdbId("tt12345")).thenReturn(Mono.empty());
+        StepVerifier.create(seriesService.findByImdbId("tt12345"))
+                .expectErrorMatches(e -> e instanceof ErrorException && e.getMessage().equals("Entity doesn't exists"))
+                .verify();
+    }
+}
@@ -0,0 +1,98 @@
+package com.mcpikon.cinemawebback.controllers;
+
+import com.mcpikon.cinemawebback.models.RatingStats;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.services.ReactiveReviewService;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Tag(name = "Reviews", description = "Reviews read only reactive API endpoints.")
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/reviews")
+public class ReactiveReviewController {
+    @Autowired
+    private ReactiveReviewService reviewService;
+
+    @Operation(summary = "Fetch all reviews", description = "fetches all reviews and their data from data source, pass 'after' (empty for the first page) to paginate with cursors instead of page numbers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(array = @ArraySchema(schema = @Schema(implementation = Review.class)), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The cursor passed is not valid)")
+    })
+    @GetMapping("/findAll")
+    public Mono<ResponseEntity<Map<String, Object>>> findAll(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(required = false) String after) {
+        if (after != null) return reviewService.findAllByCursor(after, size).map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+        return reviewService.findAll(page, size).map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    @Operation(summary = "Stream all reviews", description = "streams every review as newline delimited JSON, the data source cursor is only read as fast as the client consumes it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(schema = @Schema(implementation = Review.class), mediaType = "application/x-ndjson")})
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Review> stream() {
+        return reviewService.streamAll();
+    }
+
+    @Operation(summary = "Fetch all reviews by movie or series ImdbId", description = "fetches a page of the reviews of the movie or series with the ImdbId key passed, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(array = @ArraySchema(schema = @Schema(implementation = Review.class)), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "404", description = "Not Found"),
+            @ApiResponse(responseCode = "204", description = "Empty List")
+    })
+    @GetMapping("/findAllByImdbId/{imdbId}")
+    public Mono<ResponseEntity<Map<String, Object>>> findAllByImdbId(@PathVariable String imdbId, @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "10") int size) {
+        return reviewService.findAllByImdbId(imdbId, page, size).map(reviews -> new ResponseEntity<>(reviews, HttpStatus.OK));
+    }
+
+    @Operation(summary = "Fetch rating stats by movie or series ImdbId", description = "fetches the review count, rating sum, average and histogram of the movie or series with the ImdbId key passed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(schema = @Schema(implementation = RatingStats.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "404", description = "Not Found")
+    })
+    @GetMapping("/stats/{imdbId}")
+    public Mono<ResponseEntity<RatingStats>> findStatsByImdbId(@PathVariable String imdbId) {
+        return reviewService.findStatsByImdbId(imdbId).map(ratingStats -> new ResponseEntity<>(ratingStats, HttpStatus.OK));
+    }
+
+    @Operation(summary = "Fetch review by id", description = "fetch a review and their data filtering by id key")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = {@Content(schema = @Schema(implementation = Review.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
+            @ApiResponse(responseCode = "404", description = "Not Found")
+    })
+    @GetMapping("/findById/{id}")
+    public Mono<ResponseEntity<Review>> findById(@PathVariable ObjectId id) {
+        return reviewService.findById(id).map(ReactiveReviewController::withETag);
+    }
+
+    // GET responses with an ETag are answered with 304 by Spring when the If-None-Match header holds the same tag
+    private static ResponseEntity<Review> withETag(Review review) {
+        return ResponseEntity.ok().eTag(ETagUtils.of(review.getId(), review.getVersion())).body(review);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mcpikon.cinemawebback.controllers;
+
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.services.ReactiveSeriesService;
+import com.mcpikon.cinemawebback.utils.ETagUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Tag(name = "Series", description = "Series read only reactive API endpoints.")
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/series")
+public class ReactiveSeriesController {
+    @Autowired
+    private ReactiveSeriesService seriesService;
+
+    @Operation(summary = "Fetch all series", description = "fetches all series and their data from data source, pass 'after' (empty for the first page) to paginate with cursors instead of page numbers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = { @Content(array = @ArraySchema(schema = @Schema(implementation = SeriesResponseDTO.class)), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "204", description = "Empty List"),
+            @ApiResponse(responseCode = "400", description = "Bad Request (The cursor passed is not valid)")
+    })
+    @GetMapping("/findAll")
+    public Mono<ResponseEntity<Map<String, Object>>> findAll(@RequestParam(required = false) String title, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(required = false) String after) {
+        if (after != null) return seriesService.findAllByCursor(title, after, size).map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+        return seriesService.findAll(title, page, size).map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    @Operation(summary = "Stream all series", description = "streams every series as newline delimited JSON, the data source cursor is only read as fast as the client consumes it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = { @Content(schema = @Schema(implementation = SeriesResponseDTO.class), mediaType = "application/x-ndjson") })
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SeriesResponseDTO> stream(@RequestParam(required = false) String title) {
+        return seriesService.streamAll(title);
+    }
+
+    @Operation(summary = "Fetch series by id", description = "fetch a series and their data filtering by id key")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = { @Content(schema = @Schema(implementation = Series.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
+            @ApiResponse(responseCode = "404", description = "Not Found")
+    })
+    @GetMapping("/findById/{id}")
+    public Mono<ResponseEntity<Series>> findById(@PathVariable ObjectId id) {
+        return seriesService.findById(id).map(ReactiveSeriesController::withETag);
+    }
+
+    @Operation(summary = "Fetch series by ImdbId", description = "fetch a series and their data filtering by ImdbId key")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = { @Content(schema = @Schema(implementation = Series.class), mediaType = "application/json") }),
+            @ApiResponse(responseCode = "304", description = "Not Modified (The If-None-Match ETag passed is current)"),
+            @ApiResponse(responseCode = "404", description = "Not Found")
+    })
+    @GetMapping("/findByImdbId/{imdbId}")
+    public Mono<ResponseEntity<Series>> findByImdbId(@PathVariable String imdbId) {
+        return seriesService.findByImdbId(imdbId).map(ReactiveSeriesController::withETag);
+    }
+
+    // GET responses with an ETag are answered with 304 by Spring when the If-None-Match header holds the same tag
+    private static ResponseEntity<Series> withETag(Series series) {
+        return ResponseEntity.ok().eTag(ETagUtils.of(series.getId(), series.getVersion())).body(series);
+    }
+}
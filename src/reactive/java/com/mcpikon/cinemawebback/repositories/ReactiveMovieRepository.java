@@ -0,0 +1,24 @@
+package com.mcpikon.cinemawebback.repositories;
+
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
+import com.mcpikon.cinemawebback.models.Movie;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveMovieRepository extends ReactiveMongoRepository<Movie, ObjectId> {
+    Mono<Movie> findByImdbId(String imdbId);
+    Flux<MovieResponseDTO> findAllProjectedBy(Pageable pageable);
+    Flux<MovieResponseDTO> findAllProjectedByTitleSuffixesRegex(String titleRegex, Pageable pageable);
+    Flux<MovieResponseDTO> findAllProjectedByIdGreaterThan(ObjectId after, Pageable pageable);
+    Flux<MovieResponseDTO> findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(ObjectId after, String titleRegex, Pageable pageable);
+    @Meta(cursorBatchSize = 500)
+    Flux<MovieResponseDTO> streamAllProjectedBy();
+    @Meta(cursorBatchSize = 500)
+    Flux<MovieResponseDTO> streamAllProjectedByTitleSuffixesRegex(String titleRegex);
+}
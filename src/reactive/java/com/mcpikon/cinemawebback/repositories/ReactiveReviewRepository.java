@@ -0,0 +1,20 @@
+package com.mcpikon.cinemawebback.repositories;
+
+import com.mcpikon.cinemawebback.models.Review;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveReviewRepository extends ReactiveMongoRepository<Review, ObjectId> {
+    Flux<Review> findAllBy(Pageable pageable);
+    Flux<Review> findAllByImdbId(String imdbId, Pageable pageable);
+    Mono<Long> countByImdbId(String imdbId);
+    Flux<Review> findAllByIdGreaterThan(ObjectId after, Pageable pageable);
+    @Meta(cursorBatchSize = 500)
+    Flux<Review> streamAllBy();
+}
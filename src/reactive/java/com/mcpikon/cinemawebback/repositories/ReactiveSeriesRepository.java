@@ -0,0 +1,24 @@
+package com.mcpikon.cinemawebback.repositories;
+
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
+import com.mcpikon.cinemawebback.models.Series;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveSeriesRepository extends ReactiveMongoRepository<Series, ObjectId> {
+    Mono<Series> findByImdbId(String imdbId);
+    Flux<SeriesResponseDTO> findAllProjectedBy(Pageable pageable);
+    Flux<SeriesResponseDTO> findAllProjectedByTitleSuffixesRegex(String titleRegex, Pageable pageable);
+    Flux<SeriesResponseDTO> findAllProjectedByIdGreaterThan(ObjectId after, Pageable pageable);
+    Flux<SeriesResponseDTO> findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(ObjectId after, String titleRegex, Pageable pageable);
+    @Meta(cursorBatchSize = 500)
+    Flux<SeriesResponseDTO> streamAllProjectedBy();
+    @Meta(cursorBatchSize = 500)
+    Flux<SeriesResponseDTO> streamAllProjectedByTitleSuffixesRegex(String titleRegex);
+}
@@ -0,0 +1,17 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
+import com.mcpikon.cinemawebback.models.Movie;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveMovieService {
+    Mono<Map<String, Object>> findAll(String title, int page, int size);
+    Mono<Map<String, Object>> findAllByCursor(String title, String after, int size);
+    Flux<MovieResponseDTO> streamAll(String title);
+    Mono<Movie> findById(ObjectId id);
+    Mono<Movie> findByImdbId(String imdbId);
+}
@@ -0,0 +1,18 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.models.RatingStats;
+import com.mcpikon.cinemawebback.models.Review;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveReviewService {
+    Mono<Map<String, Object>> findAll(int page, int size);
+    Mono<Map<String, Object>> findAllByCursor(String after, int size);
+    Flux<Review> streamAll();
+    Mono<Map<String, Object>> findAllByImdbId(String imdbId, int page, int size);
+    Mono<RatingStats> findStatsByImdbId(String imdbId);
+    Mono<Review> findById(ObjectId id);
+}
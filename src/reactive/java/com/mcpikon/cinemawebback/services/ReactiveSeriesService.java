@@ -0,0 +1,17 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
+import com.mcpikon.cinemawebback.models.Series;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveSeriesService {
+    Mono<Map<String, Object>> findAll(String title, int page, int size);
+    Mono<Map<String, Object>> findAllByCursor(String title, String after, int size);
+    Flux<SeriesResponseDTO> streamAll(String title);
+    Mono<Series> findById(ObjectId id);
+    Mono<Series> findByImdbId(String imdbId);
+}
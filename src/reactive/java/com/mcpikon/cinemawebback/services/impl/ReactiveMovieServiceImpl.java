@@ -0,0 +1,120 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.repositories.ReactiveMovieRepository;
+import com.mcpikon.cinemawebback.services.ReactiveMovieService;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.*;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveMovieServiceImpl implements ReactiveMovieService {
+    @Autowired
+    private ReactiveMovieRepository movieRepo;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Map<String, Object>> findAll(String title, int page, int size) {
+        log.info("GET movies /findAll executed");
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = Math.max(size, 1);
+
+        Flux<MovieResponseDTO> movies;
+        Mono<Long> totalItems;
+
+        if (title == null) {
+            movies = movieRepo.findAllProjectedBy(PageRequest.of(pageNumber, pageSize));
+            totalItems = movieRepo.count();
+        } else {
+            movies = movieRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf(title), PageRequest.of(pageNumber, pageSize));
+            totalItems = reactiveMongoTemplate.count(FilterUtils.queryOf(title, null, null), Movie.class);
+        }
+
+        return Mono.zip(movies.collectList(), totalItems).flatMap(result -> {
+            if (result.getT1().isEmpty()) {
+                log.warn(String.format("Warn in movies /findAll [%s]", EMPTY.getMessage()));
+                return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("movies", result.getT1());
+            response.put("currentPage", pageNumber);
+            response.put("totalItems", result.getT2());
+            response.put("totalPages", (int) Math.ceil((double) result.getT2() / pageSize));
+
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Mono<Map<String, Object>> findAllByCursor(String title, String after, int size) {
+        log.info("GET movies /findAll (cursor) executed");
+        final int pageSize = Math.max(size, 1);
+
+        // One extra document is read to know if there is a next page without counting
+        return Mono.fromCallable(() -> CursorUtils.decode(after)).flatMap(afterId -> {
+            PageRequest paging = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+            if (title == null) return movieRepo.findAllProjectedByIdGreaterThan(afterId, paging).collectList();
+            return movieRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(afterId, FilterUtils.titleRegexOf(title), paging).collectList();
+        }).flatMap(movies -> {
+            if (movies.isEmpty()) {
+                log.warn(String.format("Warn in movies /findAll (cursor) [%s]", EMPTY.getMessage()));
+                return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+            }
+
+            boolean hasNext = movies.size() > pageSize;
+            List<MovieResponseDTO> content = hasNext ? movies.subList(0, pageSize) : movies;
+            Map<String, Object> response = new HashMap<>();
+            response.put("movies", content);
+            response.put("nextCursor", hasNext ? CursorUtils.encode(content.get(content.size() - 1).id()) : null);
+
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Flux<MovieResponseDTO> streamAll(String title) {
+        log.info("GET movies /stream executed");
+        if (title == null) return movieRepo.streamAllProjectedBy();
+        return movieRepo.streamAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf(title));
+    }
+
+    @Override
+    public Mono<Movie> findById(ObjectId id) {
+        log.info("GET movies /findById executed");
+        return movieRepo.findById(id).switchIfEmpty(Mono.error(() -> {
+            log.error(String.format("Error in movies /findById with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
+            return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+        }));
+    }
+
+    @Override
+    public Mono<Movie> findByImdbId(String imdbId) {
+        log.info("GET movies /findByImdbId executed");
+        return movieRepo.findByImdbId(imdbId).switchIfEmpty(Mono.error(() -> {
+            log.error(String.format("Error in movies /findByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
+            return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+        }));
+    }
+}
@@ -0,0 +1,153 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ReactiveReviewRepository;
+import com.mcpikon.cinemawebback.services.ReactiveReviewService;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.*;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveReviewServiceImpl implements ReactiveReviewService {
+    private static final String IMDB_ID_KEY = "imdbId";
+
+    @Autowired
+    private ReactiveReviewRepository reviewRepo;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Map<String, Object>> findAll(int page, int size) {
+        log.info("GET reviews /findAll executed");
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = Math.max(size, 1);
+
+        return Mono.zip(reviewRepo.findAllBy(PageRequest.of(pageNumber, pageSize)).collectList(), reviewRepo.count()).flatMap(result -> {
+            if (result.getT1().isEmpty()) {
+                log.warn(String.format("Warn in reviews /findAll [%s]", EMPTY.getMessage()));
+                return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviews", result.getT1());
+            response.put("currentPage", pageNumber);
+            response.put("totalItems", result.getT2());
+            response.put("totalPages", (int) Math.ceil((double) result.getT2() / pageSize));
+
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Mono<Map<String, Object>> findAllByCursor(String after, int size) {
+        log.info("GET reviews /findAll (cursor) executed");
+        final int pageSize = Math.max(size, 1);
+
+        // One extra document is read to know if there is a next page without counting
+        return Mono.fromCallable(() -> CursorUtils.decode(after))
+                .flatMap(afterId -> reviewRepo.findAllByIdGreaterThan(afterId, PageRequest.of(0, pageSize + 1, Sort.by("id"))).collectList())
+                .flatMap(reviews -> {
+                    if (reviews.isEmpty()) {
+                        log.warn(String.format("Warn in reviews /findAll (cursor) [%s]", EMPTY.getMessage()));
+                        return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+                    }
+
+                    boolean hasNext = reviews.size() > pageSize;
+                    List<Review> content = hasNext ? reviews.subList(0, pageSize) : reviews;
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("reviews", content);
+                    response.put("nextCursor", hasNext ? CursorUtils.encode(content.get(content.size() - 1).getId()) : null);
+
+                    return Mono.just(response);
+                });
+    }
+
+    @Override
+    public Flux<Review> streamAll() {
+        log.info("GET reviews /stream executed");
+        return reviewRepo.streamAllBy();
+    }
+
+    @Override
+    public Mono<Map<String, Object>> findAllByImdbId(String imdbId, int page, int size) {
+        log.info("GET reviews /findAllByImdbId executed");
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = Math.max(size, 1);
+
+        // Served by the imdbId_createdAt index of the reviews, the imdbId registry is only read to tell a missing title from an empty one
+        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+        return Mono.zip(reviewRepo.findAllByImdbId(imdbId, pageRequest).collectList(), reviewRepo.countByImdbId(imdbId)).flatMap(result -> {
+            if (result.getT1().isEmpty()) {
+                return reactiveMongoTemplate.exists(Query.query(Criteria.where("_id").is(imdbId).and("type").ne(ImdbIdEntry.Type.DELETED)), ImdbIdEntry.class)
+                        .flatMap(exists -> {
+                            if (!exists) {
+                                log.error(String.format("Error in reviews /findAllByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
+                                return Mono.error(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
+                            }
+                            log.warn(String.format("Warn in reviews /findAllByImdbId with imdbId: '%s' [%s]", imdbId, EMPTY.getMessage()));
+                            return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+                        });
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviews", result.getT1());
+            response.put("currentPage", pageNumber);
+            response.put("totalItems", result.getT2());
+            response.put("totalPages", (int) Math.ceil((double) result.getT2() / pageSize));
+
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Mono<RatingStats> findStatsByImdbId(String imdbId) {
+        log.info("GET reviews /stats executed");
+        Query query = Query.query(Criteria.where(IMDB_ID_KEY).is(imdbId));
+        query.fields().include("ratingStats");
+
+        return reactiveMongoTemplate.findOne(query, Movie.class).map(movie -> ratingStatsOf(movie.getRatingStats()))
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.findOne(query, Series.class).map(series -> ratingStatsOf(series.getRatingStats()))))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error(String.format("Error in reviews /stats with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
+                    return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+                }));
+    }
+
+    @Override
+    public Mono<Review> findById(ObjectId id) {
+        log.info("GET reviews /findById executed");
+        return reviewRepo.findById(id).switchIfEmpty(Mono.error(() -> {
+            log.error(String.format("Error in reviews /findById with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
+            return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+        }));
+    }
+
+    private static RatingStats ratingStatsOf(RatingStats ratingStats) {
+        return Optional.ofNullable(ratingStats).orElseGet(RatingStats::empty);
+    }
+}
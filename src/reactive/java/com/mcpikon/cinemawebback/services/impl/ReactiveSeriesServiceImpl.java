@@ -0,0 +1,120 @@
+package com.mcpikon.cinemawebback.services.impl;
+
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ReactiveSeriesRepository;
+import com.mcpikon.cinemawebback.services.ReactiveSeriesService;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.*;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveSeriesServiceImpl implements ReactiveSeriesService {
+    @Autowired
+    private ReactiveSeriesRepository seriesRepo;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Map<String, Object>> findAll(String title, int page, int size) {
+        log.info("GET series /findAll executed");
+        final int pageNumber = Math.max(page, 0);
+        final int pageSize = Math.max(size, 1);
+
+        Flux<SeriesResponseDTO> series;
+        Mono<Long> totalItems;
+
+        if (title == null) {
+            series = seriesRepo.findAllProjectedBy(PageRequest.of(pageNumber, pageSize));
+            totalItems = seriesRepo.count();
+        } else {
+            series = seriesRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf(title), PageRequest.of(pageNumber, pageSize));
+            totalItems = reactiveMongoTemplate.count(FilterUtils.queryOf(title, null, null), Series.class);
+        }
+
+        return Mono.zip(series.collectList(), totalItems).flatMap(result -> {
+            if (result.getT1().isEmpty()) {
+                log.warn(String.format("Warn in series /findAll [%s]", EMPTY.getMessage()));
+                return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("series", result.getT1());
+            response.put("currentPage", pageNumber);
+            response.put("totalItems", result.getT2());
+            response.put("totalPages", (int) Math.ceil((double) result.getT2() / pageSize));
+
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Mono<Map<String, Object>> findAllByCursor(String title, String after, int size) {
+        log.info("GET series /findAll (cursor) executed");
+        final int pageSize = Math.max(size, 1);
+
+        // One extra document is read to know if there is a next page without counting
+        return Mono.fromCallable(() -> CursorUtils.decode(after)).flatMap(afterId -> {
+            PageRequest paging = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+            if (title == null) return seriesRepo.findAllProjectedByIdGreaterThan(afterId, paging).collectList();
+            return seriesRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(afterId, FilterUtils.titleRegexOf(title), paging).collectList();
+        }).flatMap(series -> {
+            if (series.isEmpty()) {
+                log.warn(String.format("Warn in series /findAll (cursor) [%s]", EMPTY.getMessage()));
+                return Mono.error(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
+            }
+
+            boolean hasNext = series.size() > pageSize;
+            List<SeriesResponseDTO> content = hasNext ? series.subList(0, pageSize) : series;
+            Map<String, Object> response = new HashMap<>();
+            response.put("series", content);
+            response.put("nextCursor", hasNext ? CursorUtils.encode(content.get(content.size() - 1).id()) : null);
+
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Flux<SeriesResponseDTO> streamAll(String title) {
+        log.info("GET series /stream executed");
+        if (title == null) return seriesRepo.streamAllProjectedBy();
+        return seriesRepo.streamAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf(title));
+    }
+
+    @Override
+    public Mono<Series> findById(ObjectId id) {
+        log.info("GET series /findById executed");
+        return seriesRepo.findById(id).switchIfEmpty(Mono.error(() -> {
+            log.error(String.format("Error in series /findById with id: '%s' [%s]", id, NOT_EXISTS.getMessage()));
+            return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+        }));
+    }
+
+    @Override
+    public Mono<Series> findByImdbId(String imdbId) {
+        log.info("GET series /findByImdbId executed");
+        return seriesRepo.findByImdbId(imdbId).switchIfEmpty(Mono.error(() -> {
+            log.error(String.format("Error in series /findByImdbId with imdbId: '%s' [%s]", imdbId, NOT_EXISTS.getMessage()));
+            return new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+        }));
+    }
+}
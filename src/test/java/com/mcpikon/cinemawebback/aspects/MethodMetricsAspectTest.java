@@ -0,0 +1,143 @@
+package com.mcpikon.cinemawebback.aspects;
+
+import com.mcpikon.cinemawebback.controllers.ReviewController;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.services.impl.ReviewServiceImpl;
+import com.mcpikon.cinemawebback.services.impl.MovieServiceImpl;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.NOT_FOUND;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MethodMetricsAspectTest {
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private MethodSignature signature;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MethodMetricsAspect aspect = new MethodMetricsAspect();
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+        when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    @Test
+    @DisplayName("Time Service - Success")
+    void timeService_thenRecordsSuccess() throws Throwable {
+        mockSignature(MovieServiceImpl.class, "findById");
+        when(joinPoint.proceed()).thenReturn("movie");
+
+        assertEquals("movie", aspect.timeService(joinPoint));
+        assertEquals(1, timer(MethodMetricsAspect.SERVICE_METRIC, "MovieServiceImpl", "findById", "SUCCESS", "none").count());
+    }
+
+    @Test
+    @DisplayName("Time Controller - Errors Code Tag")
+    void timeController_whenErrorException_thenRecordsErrorCode() throws Throwable {
+        mockSignature(MovieServiceImpl.class, "findById");
+        when(joinPoint.proceed()).thenThrow(new ErrorException(NOT_FOUND.getId(), NOT_FOUND.getMessage(), NOT_FOUND.getHttpStatus()));
+
+        assertThrows(ErrorException.class, () -> aspect.timeController(joinPoint));
+        assertEquals(1, timer(MethodMetricsAspect.CONTROLLER_METRIC, "MovieServiceImpl", "findById", "CLIENT_ERROR", "2").count());
+    }
+
+    @Test
+    @DisplayName("Time Service - Unexpected Exceptions Are Server Errors")
+    void timeService_whenUnexpectedException_thenRecordsServerError() throws Throwable {
+        mockSignature(MovieServiceImpl.class, "save");
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> aspect.timeService(joinPoint));
+        assertEquals(1, timer(MethodMetricsAspect.SERVICE_METRIC, "MovieServiceImpl", "save", "SERVER_ERROR", "IllegalStateException").count());
+    }
+
+    @Test
+    @DisplayName("Time Service - Reactive Results Are Timed On Termination")
+    void timeService_whenReactive_thenRecordsOnTermination() throws Throwable {
+        mockSignature(MovieServiceImpl.class, "findById");
+        when(joinPoint.proceed()).thenReturn(Mono.error(new ErrorException(NOT_FOUND.getId(), NOT_FOUND.getMessage(), NOT_FOUND.getHttpStatus())));
+
+        Mono<?> result = (Mono<?>) aspect.timeService(joinPoint);
+        assertTrue(meterRegistry.getMeters().isEmpty());
+        StepVerifier.create(result).expectError(ErrorException.class).verify();
+        assertEquals(1, timer(MethodMetricsAspect.SERVICE_METRIC, "MovieServiceImpl", "findById", "CLIENT_ERROR", "2").count());
+
+        mockSignature(MovieServiceImpl.class, "findAll");
+        when(joinPoint.proceed()).thenReturn(Flux.just(1, 2));
+        StepVerifier.create((Flux<?>) aspect.timeService(joinPoint)).expectNextCount(2).verifyComplete();
+        assertEquals(1, timer(MethodMetricsAspect.STREAM_SERVICE_METRIC, "MovieServiceImpl", "findAll", "SUCCESS", "none").count());
+    }
+
+    @Test
+    @DisplayName("Time Service - Cancelled Streams Are Recorded As Cancelled")
+    void timeService_whenFluxCancelled_thenRecordsCancelled() throws Throwable {
+        mockSignature(MovieServiceImpl.class, "streamAll");
+        when(joinPoint.proceed()).thenReturn(Flux.range(1, 100));
+
+        StepVerifier.create((Flux<?>) aspect.timeService(joinPoint)).expectNextCount(2).thenCancel().verify();
+        assertEquals(1, timer(MethodMetricsAspect.STREAM_SERVICE_METRIC, "MovieServiceImpl", "streamAll", "CANCELLED", "none").count());
+        assertNull(meterRegistry.find(MethodMetricsAspect.SERVICE_METRIC).timer());
+    }
+
+    @Test
+    @DisplayName("Time Controller - Streaming Bodies Are Timed While They Write")
+    void timeController_whenStreamingResponseBody_thenRecordsOnWrite() throws Throwable {
+        mockSignature(ReviewController.class, "stream");
+        StreamingResponseBody body = outputStream -> outputStream.write('x');
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok().header("X-Test", "kept").body(body));
+
+        ResponseEntity<?> response = (ResponseEntity<?>) aspect.timeController(joinPoint);
+        assertEquals("kept", response.getHeaders().getFirst("X-Test"));
+        assertTrue(meterRegistry.getMeters().isEmpty());
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(written);
+        assertEquals("x", written.toString());
+        assertEquals(1, timer(MethodMetricsAspect.STREAM_CONTROLLER_METRIC, "ReviewController", "stream", "SUCCESS", "none").count());
+        assertNull(meterRegistry.find(MethodMetricsAspect.CONTROLLER_METRIC).timer());
+    }
+
+    @Test
+    @DisplayName("Time Service - Methods Writing To A Stream Use The Stream Metric")
+    void timeService_whenOutputStreamParameter_thenRecordsStreamMetric() throws Throwable {
+        mockSignature(ReviewServiceImpl.class, "streamAll", OutputStream.class);
+        when(joinPoint.proceed()).thenReturn(null);
+
+        aspect.timeService(joinPoint);
+        assertEquals(1, timer(MethodMetricsAspect.STREAM_SERVICE_METRIC, "ReviewServiceImpl", "streamAll", "SUCCESS", "none").count());
+    }
+
+    private void mockSignature(Class<?> declaringType, String method, Class<?>... parameterTypes) {
+        doReturn(declaringType).when(signature).getDeclaringType();
+        when(signature.getName()).thenReturn(method);
+        when(signature.getParameterTypes()).thenReturn(parameterTypes);
+    }
+
+    private Timer timer(String metric, String className, String method, String outcome, String error) {
+        return meterRegistry.get(metric).tags("class", className, "method", method, "outcome", outcome, "error", error).timer();
+    }
+}
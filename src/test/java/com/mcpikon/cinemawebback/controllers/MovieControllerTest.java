@@ -2,6 +2,7 @@ package com.mcpikon.cinemawebback.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
 import com.mcpikon.cinemawebback.dtos.MovieDTO;
 import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
@@ -17,6 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -30,9 +33,11 @@ import static com.mcpikon.cinemawebback.exceptions.Errors.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -60,7 +65,7 @@ class MovieControllerTest {
                 MovieResponseDTO.builder().imdbId("tt12345").title("movie 1 test").build(),
                 MovieResponseDTO.builder().imdbId("tt23456").title("movie 2 test").build());
         moviesRes = Map.of("movies", movieResDTOList, "currentPage", 0, "totalItems", 2, "totalPages", 1);
-        movie = Movie.builder().id(new ObjectId()).imdbId("tt12345").title("movie test").director("test").overview("movie to test").build();
+        movie = Movie.builder().id(new ObjectId()).version(3L).imdbId("tt12345").title("movie test").director("test").overview("movie to test").build();
         movieDTO = MovieDTO.builder().imdbId("tt12345").title("movie test").director("test").overview("movie to test").build();
         jsonPatchMap = List.of(Map.of("op", "replace", "path", "/title", "value", "movie test"));
     }
@@ -68,7 +73,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Find All Movies - OK (200)")
     void findAllMovies_thenReturnOk() throws Exception {
-        when(movieService.findAll("movie", 0, 10)).thenReturn(moviesRes);
+        when(movieService.findAll("movie", null, null, 0, 10)).thenReturn(moviesRes);
         mockMvc.perform(get("/api/v1/movies/findAll")
                         .param("title", "movie")
                         .param("page", "0")
@@ -82,7 +87,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Find All Movies - No Content (204)")
     void findAllMovies_thenReturnNoContent() throws Exception {
-        when(movieService.findAll("test", 0, 10))
+        when(movieService.findAll("test", null, null, 0, 10))
                 .thenThrow(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
         mockMvc.perform(get("/api/v1/movies/findAll")
                         .param("title", "test")
@@ -92,6 +97,47 @@ class MovieControllerTest {
                 .andExpect(status().isNoContent()).andDo(print());
     }
 
+    @Test
+    @DisplayName("Find All Movies By Cursor - OK (200)")
+    void findAllMoviesByCursor_thenReturnOk() throws Exception {
+        when(movieService.findAllByCursor(null, null, null, "", 10)).thenReturn(Map.of("movies", moviesRes.get("movies"), "nextCursor", "next"));
+        mockMvc.perform(get("/api/v1/movies/findAll")
+                        .param("after", "")
+                        .param("size", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor - Bad Request (400)")
+    void findAllMoviesByCursor_thenReturnBadRequest() throws Exception {
+        when(movieService.findAllByCursor(null, null, null, "not-a-cursor", 10))
+                .thenThrow(new ErrorException(CANNOT_PARSE_CURSOR.getId(), CANNOT_PARSE_CURSOR.getMessage(), CANNOT_PARSE_CURSOR.getHttpStatus()));
+        mockMvc.perform(get("/api/v1/movies/findAll")
+                        .param("after", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest()).andDo(print());
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Year - Bad Request (400)")
+    void findAllMoviesByYear_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/movies/findAll")
+                        .param("year", "199x")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.id").value(INVALID_YEAR.getId()))
+                .andDo(print());
+        mockMvc.perform(get("/api/v1/movies/findAll")
+                        .param("year", "9999")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.id").value(INVALID_YEAR.getId()))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Find Movie By Id - OK (200)")
     void findMovieById_thenReturnOk() throws Exception {
@@ -157,6 +203,33 @@ class MovieControllerTest {
                 .andExpect(status().isBadRequest()).andDo(print());
     }
 
+    @Test
+    @DisplayName("Bulk Save Movie (JSON) - Created (201)")
+    void saveAllMovieJson_thenReturnCreated() throws Exception {
+        when(movieService.saveAll(List.of(movieDTO, movieDTO))).thenReturn(Map.of("inserted", 2L, "failed", 0L, "results", List.of()));
+        mockMvc.perform(post("/api/v1/movies/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(movieDTO, movieDTO))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Bulk Save Movie (NDJSON) - Multi-Status (207)")
+    void saveAllMovieNdjson_thenReturnMultiStatus() throws Exception {
+        List<BulkResultDTO> results = List.of(new BulkResultDTO(0, movieDTO.imdbId(), true, "Created"),
+                new BulkResultDTO(1, movieDTO.imdbId(), false, IMDB_ID_ALREADY_IN_USE.getMessage()));
+        when(movieService.saveAll(List.of(movieDTO, movieDTO))).thenReturn(Map.of("inserted", 1L, "failed", 1L, "results", results));
+        String body = objectMapper.writeValueAsString(movieDTO) + "\n" + objectMapper.writeValueAsString(movieDTO) + "\n";
+        mockMvc.perform(post("/api/v1/movies/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Delete Movie By Id - OK (200)")
     void deleteMovieById_thenReturnOk() throws Exception {
@@ -178,7 +251,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Update Movie By Id - OK (200)")
     void updateMovieById_thenReturnOk() throws Exception {
-        when(movieService.update(movie.getId(), movieDTO)).thenReturn(movie);
+        when(movieService.update(movie.getId(), movieDTO, null)).thenReturn(movie);
         mockMvc.perform(put("/api/v1/movies/update/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(movieDTO)))
@@ -190,7 +263,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Update Movie By Id - Not Found (404)")
     void updateMovieById_thenReturnNotFound() throws Exception {
-        when(movieService.update(movie.getId(), movieDTO)).thenThrow(
+        when(movieService.update(movie.getId(), movieDTO, null)).thenThrow(
                 new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(put("/api/v1/movies/update/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -201,7 +274,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Update Movie By Id - Bad Request (400)")
     void updateMovieById_thenReturnBadRequest() throws Exception {
-        when(movieService.update(movie.getId(), movieDTO)).thenThrow(
+        when(movieService.update(movie.getId(), movieDTO, null)).thenThrow(
                 new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus()));
         mockMvc.perform(put("/api/v1/movies/update/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -212,7 +285,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Patch Movie By Id - OK (200)")
     void patchMovieById_thenReturnOk() throws Exception {
-        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class))).thenReturn(movie);
+        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class), isNull())).thenReturn(movie);
         mockMvc.perform(patch("/api/v1/movies/patch/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(jsonPatchMap)))
@@ -224,7 +297,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Patch Movie By Id - Not Found (404)")
     void patchMovieById_thenReturnNotFound() throws Exception {
-        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class))).thenThrow(
+        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class), isNull())).thenThrow(
                 new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(patch("/api/v1/movies/patch/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -235,7 +308,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Patch Movie By Id - Bad Request [ID cannot change] (400)")
     void patchMovieById_thenReturnBadRequestId() throws Exception {
-        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class))).thenThrow(
+        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class), isNull())).thenThrow(
                 new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus()));
         MvcResult result = mockMvc.perform(patch("/api/v1/movies/patch/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -247,7 +320,7 @@ class MovieControllerTest {
     @Test
     @DisplayName("Patch Movie By Id - Bad Request [ImdbId already in use] (400)")
     void patchMovieById_thenReturnBadRequestImdbId() throws Exception {
-        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class))).thenThrow(
+        when(movieService.patch(eq(movie.getId()), any(JsonPatch.class), isNull())).thenThrow(
                 new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus()));
         MvcResult result = mockMvc.perform(patch("/api/v1/movies/patch/{id}", movie.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -255,4 +328,67 @@ class MovieControllerTest {
                 .andExpect(status().isBadRequest()).andDo(print()).andReturn();
         assertEquals(IMDB_ID_ALREADY_IN_USE.getMessage(), Objects.requireNonNull(result.getResolvedException()).getMessage());
     }
+
+    @Test
+    @DisplayName("Find Movie By Id - Cache-Control on success only")
+    void findMovieById_thenReturnCacheControl() throws Exception {
+        when(movieService.findById(movie.getId())).thenReturn(Optional.of(movie));
+        mockMvc.perform(get("/api/v1/movies/findById/{id}", movie.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60, must-revalidate"))
+                .andDo(print());
+
+        when(movieService.findById(movie.getId()))
+                .thenThrow(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
+        mockMvc.perform(get("/api/v1/movies/findById/{id}", movie.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Find Movie By Id - Not Modified (304)")
+    void findMovieById_whenETagMatches_thenReturnNotModified() throws Exception {
+        when(movieService.findById(movie.getId())).thenReturn(Optional.of(movie));
+        mockMvc.perform(get("/api/v1/movies/findById/{id}", movie.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + movie.getId() + "-3\""))
+                .andDo(print());
+        mockMvc.perform(get("/api/v1/movies/findById/{id}", movie.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + movie.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified()).andDo(print());
+    }
+
+    @Test
+    @DisplayName("Update Movie By Id - OK (200, If-Match)")
+    void updateMovieById_whenIfMatch_thenPassesVersion() throws Exception {
+        when(movieService.update(movie.getId(), movieDTO, 3L)).thenReturn(movie);
+        mockMvc.perform(put("/api/v1/movies/update/{id}", movie.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + movie.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movieDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + movie.getId() + "-3\""))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Update Movie By Id - Precondition Failed (412)")
+    void updateMovieById_thenReturnPreconditionFailed() throws Exception {
+        when(movieService.update(movie.getId(), movieDTO, 3L)).thenThrow(new OptimisticLockingFailureException("version changed"));
+        mockMvc.perform(put("/api/v1/movies/update/{id}", movie.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + movie.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movieDTO)))
+                .andExpect(status().isPreconditionFailed()).andDo(print());
+        mockMvc.perform(patch("/api/v1/movies/patch/{id}", movie.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + new ObjectId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jsonPatchMap)))
+                .andExpect(status().isPreconditionFailed()).andDo(print());
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.github.fge.jsonpatch.JsonPatch;
 import com.mcpikon.cinemawebback.dtos.ReviewDTO;
 import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
 import com.mcpikon.cinemawebback.services.ReviewService;
 import org.bson.types.ObjectId;
@@ -17,11 +18,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -32,8 +37,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ReviewController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -61,7 +65,7 @@ class ReviewControllerTest {
                 Review.builder().title("review 1").rating(1).body("review 1 test").build(),
                 Review.builder().title("review 2").rating(1).body("review 2 test").build());
         imdbId = "tt54321";
-        review = Review.builder().id(new ObjectId()).title("review test").rating(1).body("review to test").updatedAt(LocalDateTime.now()).createdAt(LocalDateTime.now()).build();
+        review = Review.builder().id(new ObjectId()).version(3L).title("review test").rating(1).body("review to test").updatedAt(LocalDateTime.now()).createdAt(LocalDateTime.now()).build();
         reviewDTO = ReviewDTO.builder().title("review test").rating(1).body("review to test").build();
         reviewSaveDTO = ReviewSaveDTO.builder().title("review test").rating(1).body("review to test").imdbId("tt12345").build();
         jsonPatchMap = List.of(Map.of("op", "replace", "path", "/title", "value", "review test"));
@@ -70,39 +74,83 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Find All Reviews - OK (200)")
     void findAllReviews_thenReturnOk() throws Exception {
-        when(reviewService.findAll()).thenReturn(reviewList);
+        when(reviewService.findAll(0, 10)).thenReturn(Map.of("reviews", reviewList, "currentPage", 0, "totalItems", 2L, "totalPages", 1));
         mockMvc.perform(get("/api/v1/reviews/findAll")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title").value("review 1"))
+                .andExpect(jsonPath("$.reviews[0].title").value("review 1"))
+                .andExpect(jsonPath("$.totalItems").value(2))
                 .andDo(print());
     }
 
     @Test
     @DisplayName("Find All Reviews - No Content (204)")
     void findAllReviews_thenReturnNoContent() throws Exception {
-        when(reviewService.findAll())
+        when(reviewService.findAll(0, 10))
                 .thenThrow(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
         mockMvc.perform(get("/api/v1/reviews/findAll")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent()).andDo(print());
     }
 
+    @Test
+    @DisplayName("Find All Reviews By Cursor - OK (200)")
+    void findAllReviewsByCursor_thenReturnOk() throws Exception {
+        Map<String, Object> reviewsRes = new HashMap<>();
+        reviewsRes.put("reviews", reviewList);
+        reviewsRes.put("nextCursor", null);
+        when(reviewService.findAllByCursor("", 10)).thenReturn(reviewsRes);
+        mockMvc.perform(get("/api/v1/reviews/findAll").param("after", "")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviews[1].title").value("review 2"))
+                .andDo(print());
+        verify(reviewService, never()).findAll(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By Cursor - Bad Request (400)")
+    void findAllReviewsByCursor_thenReturnBadRequest() throws Exception {
+        when(reviewService.findAllByCursor("bad", 10))
+                .thenThrow(new ErrorException(CANNOT_PARSE_CURSOR.getId(), CANNOT_PARSE_CURSOR.getMessage(), CANNOT_PARSE_CURSOR.getHttpStatus()));
+        mockMvc.perform(get("/api/v1/reviews/findAll").param("after", "bad")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest()).andDo(print());
+    }
+
+    @Test
+    @DisplayName("Stream All Reviews - OK (200)")
+    void streamAllReviews_thenReturnOk() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"title\":\"review 1\"}\n".getBytes());
+            return null;
+        }).when(reviewService).streamAll(any(OutputStream.class));
+        MvcResult result = mockMvc.perform(get("/api/v1/reviews/stream"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"title\":\"review 1\"}\n"))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Find All Reviews By ImdbId - OK (200)")
     void findAllReviewsByImdbId_thenReturnOk() throws Exception {
-        when(reviewService.findAllByImdbId(imdbId)).thenReturn(reviewList);
+        when(reviewService.findAllByImdbId(imdbId, 1, 5)).thenReturn(Map.of("reviews", reviewList, "currentPage", 1));
         mockMvc.perform(get("/api/v1/reviews/findAllByImdbId/{imdbId}", imdbId)
+                        .param("page", "1").param("size", "5")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title").value("review 1"))
+                .andExpect(jsonPath("$.reviews[0].title").value("review 1"))
+                .andExpect(jsonPath("$.currentPage").value(1))
                 .andDo(print());
     }
 
     @Test
     @DisplayName("Find All Reviews By ImdbId - Not Found (404)")
     void findAllReviewsByImdbId_thenReturnNotFound() throws Exception {
-        when(reviewService.findAllByImdbId(imdbId))
+        when(reviewService.findAllByImdbId(imdbId, 0, 10))
                 .thenThrow(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(get("/api/v1/reviews/findAllByImdbId/{imdbId}", imdbId)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -112,13 +160,35 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Find All Reviews By ImdbId - No Content (204)")
     void findAllReviewsByImdbId_thenReturnNoContent() throws Exception {
-        when(reviewService.findAllByImdbId(imdbId))
+        when(reviewService.findAllByImdbId(imdbId, 0, 10))
                 .thenThrow(new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
         mockMvc.perform(get("/api/v1/reviews/findAllByImdbId/{imdbId}", imdbId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent()).andDo(print());
     }
 
+    @Test
+    @DisplayName("Find Rating Stats By ImdbId - OK (200)")
+    void findStatsByImdbId_thenReturnOk() throws Exception {
+        when(reviewService.findStatsByImdbId(imdbId)).thenReturn(RatingStats.builder().count(2).sum(7).histogram(Map.of("3", 1L, "4", 1L)).build());
+        mockMvc.perform(get("/api/v1/reviews/stats/{imdbId}", imdbId)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.average").value(3.5))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Find Rating Stats By ImdbId - Not Found (404)")
+    void findStatsByImdbId_thenReturnNotFound() throws Exception {
+        when(reviewService.findStatsByImdbId(imdbId))
+                .thenThrow(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
+        mockMvc.perform(get("/api/v1/reviews/stats/{imdbId}", imdbId)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound()).andDo(print());
+    }
+
     @Test
     @DisplayName("Find Review By Id - OK (200)")
     void findReviewById_thenReturnOk() throws Exception {
@@ -183,7 +253,7 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Update Review By Id - OK (200)")
     void updateReviewById_thenReturnOk() throws Exception {
-        when(reviewService.update(review.getId(), reviewDTO)).thenReturn(review);
+        when(reviewService.update(review.getId(), reviewDTO, null)).thenReturn(review);
         mockMvc.perform(put("/api/v1/reviews/update/{id}", review.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(reviewDTO)))
@@ -195,7 +265,7 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Update Review By Id - Not Found (404)")
     void updateReviewById_thenReturnNotFound() throws Exception {
-        when(reviewService.update(review.getId(), reviewDTO))
+        when(reviewService.update(review.getId(), reviewDTO, null))
                 .thenThrow(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(put("/api/v1/reviews/update/{id}", review.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -206,7 +276,7 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Patch Review By Id - OK (200)")
     void patchReviewById_thenReturnOk() throws Exception {
-        when(reviewService.patch(eq(review.getId()), any(JsonPatch.class))).thenReturn(review);
+        when(reviewService.patch(eq(review.getId()), any(JsonPatch.class), isNull())).thenReturn(review);
         mockMvc.perform(patch("/api/v1/reviews/patch/{id}", review.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(jsonPatchMap)))
@@ -218,7 +288,7 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Patch Review By Id - Not Found (404)")
     void patchReviewById_thenReturnNotFound() throws Exception {
-        when(reviewService.patch(eq(review.getId()), any(JsonPatch.class)))
+        when(reviewService.patch(eq(review.getId()), any(JsonPatch.class), isNull()))
                 .thenThrow(new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(patch("/api/v1/reviews/patch/{id}", review.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -229,7 +299,7 @@ class ReviewControllerTest {
     @Test
     @DisplayName("Patch Review By Id - Bad Request [ID cannot change] (400)")
     void patchReviewById_thenReturnBadRequest() throws Exception {
-        when(reviewService.patch(eq(review.getId()), any(JsonPatch.class)))
+        when(reviewService.patch(eq(review.getId()), any(JsonPatch.class), isNull()))
                 .thenThrow(new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus()));
         MvcResult result = mockMvc.perform(patch("/api/v1/reviews/patch/{id}", review.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -237,4 +307,48 @@ class ReviewControllerTest {
                 .andExpect(status().isBadRequest()).andDo(print()).andReturn();
         assertEquals(ID_CANNOT_CHANGE.getMessage(), Objects.requireNonNull(result.getResolvedException()).getMessage());
     }
+
+    @Test
+    @DisplayName("Find Review By Id - Not Modified (304)")
+    void findReviewById_whenETagMatches_thenReturnNotModified() throws Exception {
+        when(reviewService.findById(review.getId())).thenReturn(Optional.of(review));
+        mockMvc.perform(get("/api/v1/reviews/findById/{id}", review.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + review.getId() + "-3\""))
+                .andDo(print());
+        mockMvc.perform(get("/api/v1/reviews/findById/{id}", review.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + review.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified()).andDo(print());
+    }
+
+    @Test
+    @DisplayName("Update Review By Id - OK (200, If-Match)")
+    void updateReviewById_whenIfMatch_thenPassesVersion() throws Exception {
+        when(reviewService.update(review.getId(), reviewDTO, 3L)).thenReturn(review);
+        mockMvc.perform(put("/api/v1/reviews/update/{id}", review.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + review.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reviewDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + review.getId() + "-3\""))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Update Review By Id - Precondition Failed (412)")
+    void updateReviewById_thenReturnPreconditionFailed() throws Exception {
+        when(reviewService.update(review.getId(), reviewDTO, 3L)).thenThrow(new OptimisticLockingFailureException("version changed"));
+        mockMvc.perform(put("/api/v1/reviews/update/{id}", review.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + review.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reviewDTO)))
+                .andExpect(status().isPreconditionFailed()).andDo(print());
+        mockMvc.perform(patch("/api/v1/reviews/patch/{id}", review.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + new ObjectId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jsonPatchMap)))
+                .andExpect(status().isPreconditionFailed()).andDo(print());
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.mcpikon.cinemawebback.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
 import com.mcpikon.cinemawebback.dtos.SeriesDTO;
 import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
@@ -17,6 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -30,9 +33,11 @@ import static com.mcpikon.cinemawebback.exceptions.Errors.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -60,7 +65,7 @@ class SeriesControllerTest {
                 SeriesResponseDTO.builder().imdbId("tt12345").title("series 1 test").build(),
                 SeriesResponseDTO.builder().imdbId("tt23456").title("series 2 test").build());
         seriesRes = Map.of("series", seriesResDTOList, "currentPage", 0, "totalItems", 2, "totalPages", 1);
-        series = Series.builder().id(new ObjectId()).imdbId("tt12345").title("series test").creator("test").numberOfSeasons(2).seasonList(List.of(new Series.Season())).build();
+        series = Series.builder().id(new ObjectId()).version(3L).imdbId("tt12345").title("series test").creator("test").numberOfSeasons(2).seasonList(List.of(new Series.Season())).build();
         seriesDTO = SeriesDTO.builder().imdbId("tt12345").title("series test").creator("test").numberOfSeasons(2).seasonList(List.of(new Series.Season())).build();
         jsonPatchMap = List.of(Map.of("op", "replace", "path", "/title", "value", "series test"));
     }
@@ -68,7 +73,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Find All Series - OK (200)")
     void findAllSeries_thenReturnOk() throws Exception {
-        when(seriesService.findAll("series", 0, 10)).thenReturn(seriesRes);
+        when(seriesService.findAll("series", null, null, 0, 10)).thenReturn(seriesRes);
         mockMvc.perform(get("/api/v1/series/findAll")
                         .param("title", "series")
                         .param("page", "0")
@@ -82,7 +87,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Find All Series - No Content (204)")
     void findAllSeries_thenReturnNoContent() throws Exception {
-        when(seriesService.findAll("test", 0, 10)).thenThrow(
+        when(seriesService.findAll("test", null, null, 0, 10)).thenThrow(
                 new ErrorException(EMPTY.getId(), EMPTY.getMessage(), EMPTY.getHttpStatus()));
         mockMvc.perform(get("/api/v1/series/findAll")
                         .param("title", "test")
@@ -92,6 +97,47 @@ class SeriesControllerTest {
                 .andExpect(status().isNoContent()).andDo(print());
     }
 
+    @Test
+    @DisplayName("Find All Series By Cursor - OK (200)")
+    void findAllSeriesByCursor_thenReturnOk() throws Exception {
+        when(seriesService.findAllByCursor(null, null, null, "", 10)).thenReturn(Map.of("series", seriesRes.get("series"), "nextCursor", "next"));
+        mockMvc.perform(get("/api/v1/series/findAll")
+                        .param("after", "")
+                        .param("size", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor - Bad Request (400)")
+    void findAllSeriesByCursor_thenReturnBadRequest() throws Exception {
+        when(seriesService.findAllByCursor(null, null, null, "not-a-cursor", 10))
+                .thenThrow(new ErrorException(CANNOT_PARSE_CURSOR.getId(), CANNOT_PARSE_CURSOR.getMessage(), CANNOT_PARSE_CURSOR.getHttpStatus()));
+        mockMvc.perform(get("/api/v1/series/findAll")
+                        .param("after", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest()).andDo(print());
+    }
+
+    @Test
+    @DisplayName("Find All Series By Year - Bad Request (400)")
+    void findAllSeriesByYear_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/series/findAll")
+                        .param("year", "199x")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.id").value(INVALID_YEAR.getId()))
+                .andDo(print());
+        mockMvc.perform(get("/api/v1/series/findAll")
+                        .param("year", "9999")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.id").value(INVALID_YEAR.getId()))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Find Series By Id - OK (200)")
     void findSeriesById_thenReturnOk() throws Exception {
@@ -178,7 +224,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Update Series By Id - OK (200)")
     void updateSeriesById_thenReturnOk() throws Exception {
-        when(seriesService.update(series.getId(), seriesDTO)).thenReturn(series);
+        when(seriesService.update(series.getId(), seriesDTO, null)).thenReturn(series);
         mockMvc.perform(put("/api/v1/series/update/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(seriesDTO)))
@@ -188,7 +234,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Update Series By Id - Not Found (404)")
     void updateSeriesById_thenReturnNotFound() throws Exception {
-        when(seriesService.update(series.getId(), seriesDTO)).thenThrow(
+        when(seriesService.update(series.getId(), seriesDTO, null)).thenThrow(
                 new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(put("/api/v1/series/update/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -199,7 +245,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Update Series By Id - Bad Request (400)")
     void updateSeriesById_thenReturnBadRequest() throws Exception {
-        when(seriesService.update(series.getId(), seriesDTO)).thenThrow(
+        when(seriesService.update(series.getId(), seriesDTO, null)).thenThrow(
                 new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus()));
         mockMvc.perform(put("/api/v1/series/update/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -210,7 +256,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Patch Series By Id - OK (200)")
     void patchSeriesById_thenReturnOk() throws Exception {
-        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class))).thenReturn(series);
+        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class), isNull())).thenReturn(series);
         mockMvc.perform(patch("/api/v1/series/patch/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(jsonPatchMap)))
@@ -222,7 +268,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Patch Series By Id - Not Found (404)")
     void patchSeriesById_thenReturnNotFound() throws Exception {
-        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class))).thenThrow(
+        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class), isNull())).thenThrow(
                 new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus()));
         mockMvc.perform(patch("/api/v1/series/patch/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -233,7 +279,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Patch Series By Id - Bad Request [ID cannot change] (400)")
     void patchSeriesById_thenReturnBadRequestId() throws Exception {
-        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class))).thenThrow(
+        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class), isNull())).thenThrow(
                 new ErrorException(ID_CANNOT_CHANGE.getId(), ID_CANNOT_CHANGE.getMessage(), ID_CANNOT_CHANGE.getHttpStatus()));
         MvcResult result = mockMvc.perform(patch("/api/v1/series/patch/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -245,7 +291,7 @@ class SeriesControllerTest {
     @Test
     @DisplayName("Patch Series By Id - Bad Request [ImdbId already in use] (400)")
     void patchSeriesById_thenReturnBadRequestImdbId() throws Exception {
-        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class))).thenThrow(
+        when(seriesService.patch(eq(series.getId()), any(JsonPatch.class), isNull())).thenThrow(
                 new ErrorException(IMDB_ID_ALREADY_IN_USE.getId(), IMDB_ID_ALREADY_IN_USE.getMessage(), IMDB_ID_ALREADY_IN_USE.getHttpStatus()));
         MvcResult result = mockMvc.perform(patch("/api/v1/series/patch/{id}", series.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -253,4 +299,48 @@ class SeriesControllerTest {
                 .andExpect(status().isBadRequest()).andDo(print()).andReturn();
         assertEquals(IMDB_ID_ALREADY_IN_USE.getMessage(), Objects.requireNonNull(result.getResolvedException()).getMessage());
     }
+
+    @Test
+    @DisplayName("Find Series By Id - Not Modified (304)")
+    void findSeriesById_whenETagMatches_thenReturnNotModified() throws Exception {
+        when(seriesService.findById(series.getId())).thenReturn(Optional.of(series));
+        mockMvc.perform(get("/api/v1/series/findById/{id}", series.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + series.getId() + "-3\""))
+                .andDo(print());
+        mockMvc.perform(get("/api/v1/series/findById/{id}", series.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + series.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified()).andDo(print());
+    }
+
+    @Test
+    @DisplayName("Update Series By Id - OK (200, If-Match)")
+    void updateSeriesById_whenIfMatch_thenPassesVersion() throws Exception {
+        when(seriesService.update(series.getId(), seriesDTO, 3L)).thenReturn(series);
+        mockMvc.perform(put("/api/v1/series/update/{id}", series.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + series.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(seriesDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + series.getId() + "-3\""))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Update Series By Id - Precondition Failed (412)")
+    void updateSeriesById_thenReturnPreconditionFailed() throws Exception {
+        when(seriesService.update(series.getId(), seriesDTO, 3L)).thenThrow(new OptimisticLockingFailureException("version changed"));
+        mockMvc.perform(put("/api/v1/series/update/{id}", series.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + series.getId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(seriesDTO)))
+                .andExpect(status().isPreconditionFailed()).andDo(print());
+        mockMvc.perform(patch("/api/v1/series/patch/{id}", series.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + new ObjectId() + "-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jsonPatchMap)))
+                .andExpect(status().isPreconditionFailed()).andDo(print());
+    }
 }
\ No newline at end of file
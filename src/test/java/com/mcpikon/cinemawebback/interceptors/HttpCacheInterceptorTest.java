@@ -0,0 +1,93 @@
+package com.mcpikon.cinemawebback.interceptors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCacheInterceptorTest {
+    private static final String PATH = "/api/v1/movies/findById/6650b4f1c2a4e83d5e2b1a01";
+    private static final String ETAG = "\"6650b4f1c2a4e83d5e2b1a01-3\"";
+    private static final String CACHE_CONTROL = "public, max-age=60";
+
+    private Cache eTags;
+    private HttpCacheInterceptor interceptor;
+
+    @BeforeEach
+    void init() {
+        eTags = new ConcurrentMapCache("etags");
+        interceptor = new HttpCacheInterceptor(eTags, CACHE_CONTROL);
+    }
+
+    @Test
+    @DisplayName("Pre Handle - Not Modified From Cached ETag")
+    void preHandle_whenCachedETagMatches_thenReturnsNotModified() {
+        eTags.put(PATH, ETAG);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+        assertEquals(304, response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(CACHE_CONTROL, response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Pre Handle - Continues When Not Cached Or Changed")
+    void preHandle_whenNotCachedOrChanged_thenContinues() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+        assertEquals(CACHE_CONTROL, request.getAttribute(HttpCacheInterceptor.CACHE_CONTROL_ATTRIBUTE));
+
+        eTags.put(PATH, "\"6650b4f1c2a4e83d5e2b1a01-4\"");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        MockHttpServletRequest write = new MockHttpServletRequest("PUT", PATH);
+        write.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+        assertTrue(interceptor.preHandle(write, new MockHttpServletResponse(), new Object()));
+        assertNull(write.getAttribute(HttpCacheInterceptor.CACHE_CONTROL_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("Post Handle - Records Successful ETags Only")
+    void postHandle_thenRecordsSuccessfulETags() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        MockHttpServletResponse notFound = new MockHttpServletResponse();
+        notFound.setStatus(404);
+        notFound.setHeader(HttpHeaders.ETAG, ETAG);
+        interceptor.postHandle(request, notFound, new Object(), null);
+        assertNull(eTags.get(PATH));
+
+        MockHttpServletResponse ok = new MockHttpServletResponse();
+        ok.setHeader(HttpHeaders.ETAG, ETAG);
+        interceptor.postHandle(request, ok, new Object(), null);
+        assertEquals(ETAG, eTags.get(PATH, String.class));
+    }
+
+    @Test
+    @DisplayName("Post Handle - Keeps A Newer ETag Of The Same Document")
+    void postHandle_whenOlderVersion_thenKeepsNewerETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        String newer = "\"6650b4f1c2a4e83d5e2b1a01-4\"";
+        eTags.put(PATH, newer);
+
+        MockHttpServletResponse stale = new MockHttpServletResponse();
+        stale.setHeader(HttpHeaders.ETAG, ETAG);
+        interceptor.postHandle(request, stale, new Object(), null);
+        assertEquals(newer, eTags.get(PATH, String.class));
+
+        String recreated = "\"6650b4f1c2a4e83d5e2b1a02-0\"";
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        other.setHeader(HttpHeaders.ETAG, recreated);
+        interceptor.postHandle(request, other, new Object(), null);
+        assertEquals(recreated, eTags.get(PATH, String.class));
+    }
+}
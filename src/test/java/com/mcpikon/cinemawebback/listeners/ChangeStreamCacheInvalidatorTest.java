@@ -0,0 +1,135 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.MOVIES_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.SERIES_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeStreamCacheInvalidatorTest {
+    private static final ObjectId FIRST_ID = new ObjectId();
+    private static final ObjectId SECOND_ID = new ObjectId();
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @InjectMocks
+    private ChangeStreamCacheInvalidator invalidator;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(MOVIES_CACHE, SERIES_CACHE, ETAGS_CACHE);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        cacheManager.getCache(MOVIES_CACHE).put("tt1", Movie.builder().id(FIRST_ID).imdbId("tt1").build());
+        cacheManager.getCache(MOVIES_CACHE).put("tt2", Movie.builder().id(SECOND_ID).imdbId("tt2").build());
+        cacheManager.getCache(SERIES_CACHE).put("tt1", Series.builder().id(FIRST_ID).imdbId("tt1").build());
+        cacheManager.getCache(SERIES_CACHE).put("tt2", Series.builder().id(SECOND_ID).imdbId("tt2").build());
+        cacheManager.getCache(ETAGS_CACHE).put("/api/v1/movies/findByImdbId/tt1", "\"etag\"");
+    }
+
+    @Test
+    @DisplayName("Movie Inserted - Evicts Only Its ImdbId")
+    void invalidate_whenMovieInserted_thenEvictsKey() {
+        invalidator.invalidate("movies", OperationType.INSERT, Set.of("tt1"), null);
+        assertNull(cacheManager.getCache(MOVIES_CACHE).get("tt1"));
+        assertNotNull(cacheManager.getCache(MOVIES_CACHE).get("tt2"));
+        assertNotNull(cacheManager.getCache(SERIES_CACHE).get("tt1"));
+        assertNull(cacheManager.getCache(ETAGS_CACHE).get("/api/v1/movies/findByImdbId/tt1"));
+    }
+
+    @Test
+    @DisplayName("Series Updated - Evicts Only Its ImdbId")
+    void invalidate_whenSeriesUpdated_thenEvictsKey() {
+        invalidator.invalidate("series", OperationType.UPDATE, Set.of("tt2"), null);
+        assertNull(cacheManager.getCache(SERIES_CACHE).get("tt2"));
+        assertNotNull(cacheManager.getCache(SERIES_CACHE).get("tt1"));
+        assertNotNull(cacheManager.getCache(MOVIES_CACHE).get("tt2"));
+    }
+
+    @Test
+    @DisplayName("Movie Replaced Or Deleted - Evicts The Entries Of Its Id")
+    void invalidate_whenMovieReplaced_thenEvictsById() {
+        invalidator.invalidate("movies", OperationType.REPLACE, Set.of("tt3"), FIRST_ID);
+        assertNull(cacheManager.getCache(MOVIES_CACHE).get("tt1"));
+        assertNotNull(cacheManager.getCache(MOVIES_CACHE).get("tt2"));
+
+        invalidator.invalidate("movies", OperationType.DELETE, Set.of(), SECOND_ID);
+        assertNull(cacheManager.getCache(MOVIES_CACHE).get("tt2"));
+        assertNotNull(cacheManager.getCache(SERIES_CACHE).get("tt2"));
+    }
+
+    @Test
+    @DisplayName("Review Deleted - Clears Only ETags")
+    void invalidate_whenReviewDeleted_thenClearsETags() {
+        invalidator.invalidate("reviews", OperationType.DELETE, Set.of(), new ObjectId());
+        assertNotNull(cacheManager.getCache(MOVIES_CACHE).get("tt1"));
+        assertNotNull(cacheManager.getCache(SERIES_CACHE).get("tt1"));
+        assertNull(cacheManager.getCache(ETAGS_CACHE).get("/api/v1/movies/findByImdbId/tt1"));
+    }
+
+    @Test
+    @DisplayName("Database Dropped - Clears Every Cache")
+    void invalidate_whenDatabaseDropped_thenClearsCaches() {
+        invalidator.invalidate(null, OperationType.DROP_DATABASE, Set.of(), null);
+        assertNull(cacheManager.getCache(MOVIES_CACHE).get("tt1"));
+        assertNull(cacheManager.getCache(SERIES_CACHE).get("tt2"));
+        assertNull(cacheManager.getCache(ETAGS_CACHE).get("/api/v1/movies/findByImdbId/tt1"));
+    }
+
+    @Test
+    @DisplayName("Other Collection - Keeps Caches")
+    void invalidate_whenOtherCollection_thenKeepsCaches() {
+        invalidator.invalidate("imdb_ids", OperationType.INSERT, Set.of("tt1"), null);
+        assertNotNull(cacheManager.getCache(MOVIES_CACHE).get("tt1"));
+        assertNotNull(cacheManager.getCache(ETAGS_CACHE).get("/api/v1/movies/findByImdbId/tt1"));
+    }
+
+    @Test
+    @DisplayName("Change Keys - Id Only When The ImdbId May Have Changed")
+    void idOf_thenOnlyWhenImdbIdMayChange() {
+        ChangeStreamDocument<Document> ratingUpdated = change("update", new Document("imdbId", "tt1"),
+                new UpdateDescription(List.of(), BsonDocument.parse("{'ratingStats.count': 2}")));
+        assertEquals(Set.of("tt1"), ChangeStreamCacheInvalidator.imdbIdsOf(ratingUpdated));
+        assertNull(ChangeStreamCacheInvalidator.idOf(ratingUpdated));
+
+        ChangeStreamDocument<Document> imdbIdUpdated = change("update", new Document("imdbId", "tt9"),
+                new UpdateDescription(List.of(), BsonDocument.parse("{imdbId: 'tt9'}")));
+        assertEquals(Set.of("tt9"), ChangeStreamCacheInvalidator.imdbIdsOf(imdbIdUpdated));
+        assertEquals(FIRST_ID, ChangeStreamCacheInvalidator.idOf(imdbIdUpdated));
+
+        ChangeStreamDocument<Document> deleted = change("delete", null, null);
+        assertEquals(Set.of(), ChangeStreamCacheInvalidator.imdbIdsOf(deleted));
+        assertEquals(FIRST_ID, ChangeStreamCacheInvalidator.idOf(deleted));
+        assertNull(ChangeStreamCacheInvalidator.idOf(change("insert", new Document("imdbId", "tt1"), null)));
+    }
+
+    private static ChangeStreamDocument<Document> change(String operationType, Document fullDocument, UpdateDescription updateDescription) {
+        return new ChangeStreamDocument<>(operationType, null, BsonDocument.parse("{db: 'cinema', coll: 'movies'}"), null, fullDocument, null,
+                new BsonDocument("_id", new BsonObjectId(FIRST_ID)), null, updateDescription, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.function.BooleanSupplier;
+
+import static com.mcpikon.cinemawebback.config.CacheConfig.MOVIES_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The MongoDB container runs a single node replica set, the writes made here stand for the ones of another node
+@SpringBootTest(properties = "com.mcpikon.cinemawebback.cache-invalidation.token-save-interval-seconds=0")
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeStreamReplicaSetTest {
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:latest").withExposedPorts(27017);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    @DisplayName("Write Of Another Node - Evicts Local Cache And Saves Token")
+    void externalWrite_thenEvictsAndSavesToken() throws InterruptedException {
+        Cache movies = cacheManager.getCache(MOVIES_CACHE);
+        // Let the stream open before writing, events older than it are not delivered
+        Thread.sleep(2000);
+        movies.put("tt0000001", "stale");
+        mongoTemplate.getCollection("movies").insertOne(new Document("imdbId", "tt0000001").append("title", "Title").append("version", 0L));
+
+        assertTrue(await(() -> movies.get("tt0000001") == null), "Cache entry was not evicted");
+        assertTrue(await(() -> mongoTemplate.getCollection(ChangeStreamCacheInvalidator.TOKENS_COLLECTION).countDocuments() == 1),
+                "Resume token was not saved");
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(100);
+        }
+        return false;
+    }
+}
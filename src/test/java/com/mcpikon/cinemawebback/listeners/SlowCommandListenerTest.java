@@ -0,0 +1,82 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowCommandListenerTest {
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Slow Commands - Sampled With Shape And Origin")
+    void commandSucceeded_whenSlow_thenSamples() {
+        SlowCommandListener listener = new SlowCommandListener(meterRegistry, Duration.ofMillis(100), 2);
+        run(listener, 1, "{find: 'movies', filter: {imdbId: 'tt12345'}}", 150);
+        run(listener, 2, "{find: 'movies', filter: {imdbId: 'tt54321'}}", 20);
+
+        List<SlowCommandListener.SlowCommand> samples = listener.samples();
+        assertEquals(1, samples.size());
+        assertEquals("find", samples.get(0).command());
+        assertEquals("movies", samples.get(0).collection());
+        assertEquals("{\"imdbId\": \"?\"}", samples.get(0).filter());
+        assertEquals(150, samples.get(0).durationMs());
+        assertEquals("SlowCommandListenerTest.run", samples.get(0).origin());
+        assertEquals(1, meterRegistry.counter(SlowCommandListener.SLOW_COMMANDS_METRIC, "command", "find", "collection", "movies").count());
+    }
+
+    @Test
+    @DisplayName("Slow Commands - Keeps Only Latest Samples")
+    void commandSucceeded_whenOverSamplesSize_thenDropsOldest() {
+        SlowCommandListener listener = new SlowCommandListener(meterRegistry, Duration.ofMillis(100), 2);
+        run(listener, 1, "{find: 'movies', filter: {}}", 101);
+        run(listener, 2, "{find: 'series', filter: {}}", 102);
+        run(listener, 3, "{find: 'reviews', filter: {}}", 103);
+
+        assertEquals(List.of("reviews", "series"), listener.samples().stream().map(SlowCommandListener.SlowCommand::collection).toList());
+    }
+
+    @Test
+    @DisplayName("Slow Commands - Zero Threshold Disables Sampling")
+    void commandSucceeded_whenZeroThreshold_thenIgnores() {
+        SlowCommandListener listener = new SlowCommandListener(meterRegistry, Duration.ZERO, 2);
+        run(listener, 1, "{find: 'movies', filter: {}}", 500);
+
+        assertTrue(listener.samples().isEmpty());
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Slow Commands - Filter Read After The Started Callback")
+    void commandSucceeded_whenCommandReleased_thenKeepsFilterCopy() {
+        SlowCommandListener listener = new SlowCommandListener(meterRegistry, Duration.ofMillis(100), 2);
+        BsonDocument document = BsonDocument.parse("{find: 'reviews', filter: {imdbId: 'tt12345'}}");
+        listener.commandStarted(new CommandStartedEvent(null, 1L, 1, CONNECTION, "cinema", "find", document));
+        // The driver releases the command buffer once the callback returns
+        document.clear();
+        listener.commandSucceeded(new CommandSucceededEvent(null, 1L, 1, CONNECTION, "cinema", "find", new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(150)));
+
+        assertEquals("{\"imdbId\": \"?\"}", listener.samples().get(0).filter());
+    }
+
+    private static void run(SlowCommandListener listener, int requestId, String command, long elapsedMs) {
+        BsonDocument document = BsonDocument.parse(command);
+        String commandName = document.getFirstKey();
+        listener.commandStarted(new CommandStartedEvent(null, 1L, requestId, CONNECTION, "cinema", commandName, document));
+        listener.commandSucceeded(new CommandSucceededEvent(null, 1L, requestId, CONNECTION, "cinema", commandName, new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(elapsedMs)));
+    }
+}
@@ -0,0 +1,28 @@
+package com.mcpikon.cinemawebback.listeners;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleSuffixesListenerTest {
+    private final TitleSuffixesListener listener = new TitleSuffixesListener();
+
+    @Test
+    @DisplayName("Before Convert - Movies And Series Store Their Title Suffixes")
+    void onBeforeConvert_thenSetsTitleSuffixes() {
+        Movie movie = Movie.builder().title("Up").titleSuffixes(List.of("stale")).build();
+        Series series = Series.builder().build();
+        listener.onBeforeConvert(new BeforeConvertEvent<>(movie, "movies"));
+        listener.onBeforeConvert(new BeforeConvertEvent<>(series, "series"));
+        listener.onBeforeConvert(new BeforeConvertEvent<>(Review.builder().title("Up").build(), "reviews"));
+        assertEquals(List.of("up", "p"), movie.getTitleSuffixes());
+        assertNull(series.getTitleSuffixes());
+    }
+}
@@ -0,0 +1,66 @@
+package com.mcpikon.cinemawebback.migrations;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MigrationRunnerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private Migration completed;
+
+    @Mock
+    private Migration pending;
+
+    @InjectMocks
+    private MigrationRunner migrationRunner;
+
+    @Test
+    @DisplayName("Run Migrations - Pending Ones Run Once And Are Recorded")
+    void afterSingletonsInstantiated_thenRunsPendingMigrations() {
+        when(completed.name()).thenReturn("CompletedMigration");
+        when(pending.name()).thenReturn("PendingMigration");
+        when(mongoTemplate.exists(Query.query(Criteria.where("_id").is("CompletedMigration")), "migrations")).thenReturn(true);
+        when(mongoTemplate.exists(Query.query(Criteria.where("_id").is("PendingMigration")), "migrations")).thenReturn(false);
+        ReflectionTestUtils.setField(migrationRunner, "migrations", List.of(completed, pending));
+
+        migrationRunner.afterSingletonsInstantiated();
+
+        verify(completed, never()).migrate();
+        InOrder inOrder = inOrder(pending, mongoTemplate);
+        inOrder.verify(pending, times(1)).migrate();
+        inOrder.verify(mongoTemplate, times(1)).save(any(Document.class), eq("migrations"));
+    }
+
+    @Test
+    @DisplayName("Run Migrations - A Failed Migration Is Not Recorded")
+    void afterSingletonsInstantiated_whenMigrationFails_thenNotRecorded() {
+        when(pending.name()).thenReturn("PendingMigration");
+        doThrow(new IllegalStateException("migration failed")).when(pending).migrate();
+        ReflectionTestUtils.setField(migrationRunner, "migrations", List.of(pending));
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> migrationRunner.afterSingletonsInstantiated());
+        assertEquals("migration failed", thrown.getMessage());
+        verify(mongoTemplate, never()).save(any(Document.class), any(String.class));
+    }
+}
@@ -1,12 +1,18 @@
 package com.mcpikon.cinemawebback.repositories;
 
+import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
 import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -26,6 +32,9 @@ class MovieRepositoryTest {
     @Autowired
     private MovieRepository movieRepo;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Test
     @Order(0)
     @DisplayName("Find All Movies - Empty List")
@@ -49,14 +58,14 @@ class MovieRepositoryTest {
     @Order(2)
     @DisplayName("Find All Movies By Title - Empty List")
     void findAllByTitle_shouldGetEmpty() {
-        assertEquals(0, movieRepo.findAllByTitle("search test", PageRequest.of(0, 10)).getContent().size());
+        assertEquals(0, movieRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf("search test"), PageRequest.of(0, 10)).getContent().size());
     }
 
     @Test
     @Order(3)
     @DisplayName("Find All Movies By Title")
     void findAllByTitle_shouldNotEmpty_and_getTwoMovies() {
-        List<Movie> movieList = movieRepo.findAllByTitle("movie", PageRequest.of(0, 10)).getContent();
+        List<MovieResponseDTO> movieList = movieRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf("OVIE"), PageRequest.of(0, 10)).getContent();
         assertFalse(movieList.isEmpty());
         assertEquals(2, movieList.size());
     }
@@ -76,7 +85,7 @@ class MovieRepositoryTest {
     void findById_shouldNotEmpty() {
         Movie movieSaved = movieRepo.insert(Movie.builder()
                 .title("movie to find")
-                .reviewIds(new ArrayList<>()).build());
+                .latestReviews(new ArrayList<>()).build());
         Movie movieFounded = movieRepo.findById(movieSaved.getId()).orElseThrow();
         assertEquals(movieSaved, movieFounded);
     }
@@ -96,7 +105,7 @@ class MovieRepositoryTest {
         Movie movieSaved = movieRepo.insert(Movie.builder()
                 .title("movie to find")
                 .imdbId("movie_imdbId_test")
-                .reviewIds(new ArrayList<>()).build());
+                .latestReviews(new ArrayList<>()).build());
         Movie movieFounded = movieRepo.findByImdbId(movieSaved.getImdbId()).orElseThrow();
         assertEquals(movieSaved, movieFounded);
     }
@@ -148,4 +157,31 @@ class MovieRepositoryTest {
     void existsByImdbId_shouldGetFalse() {
         assertFalse(movieRepo.existsByImdbId("tt54321"));
     }
+
+    @Test
+    @Order(14)
+    @DisplayName("Find All Movie By Title - Uses title suffixes index")
+    void findAllByTitle_shouldNotScanCollection() {
+        Document plan = mongoTemplate.getCollection("movies")
+                .find(FilterUtils.queryOf("OVIE", null, null).getQueryObject())
+                .explain();
+        assertFalse(plan.toJson().contains("COLLSCAN"));
+        assertTrue(plan.toJson().contains("titleSuffixes"));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Find All Movie By Id Greater Than - Keyset pages")
+    void findAllByIdGreaterThan_shouldWalkAllPages() {
+        int total = movieRepo.findAll().size();
+        ObjectId after = new ObjectId("000000000000000000000000");
+        int read = 0;
+        Slice<MovieResponseDTO> slice;
+        do {
+            slice = movieRepo.findAllProjectedByIdGreaterThan(after, PageRequest.of(0, 2, Sort.by("id")));
+            read += slice.getNumberOfElements();
+            after = slice.getContent().get(slice.getNumberOfElements() - 1).id();
+        } while (slice.hasNext());
+        assertEquals(total, read);
+    }
 }
\ No newline at end of file
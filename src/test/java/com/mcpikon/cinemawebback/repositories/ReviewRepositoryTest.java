@@ -6,11 +6,15 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,4 +99,29 @@ class ReviewRepositoryTest {
     void existsById_shouldGetFalse() {
         assertFalse(reviewRepo.existsById(new ObjectId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(8)
+    @DisplayName("Find All By Id Greater Than - Keyset walk")
+    void findAllByIdGreaterThan_shouldWalkEveryReview() {
+        long total = reviewRepo.count();
+        ObjectId after = new ObjectId("000000000000000000000000");
+        long walked = 0;
+        Slice<Review> slice;
+        do {
+            slice = reviewRepo.findAllByIdGreaterThan(after, PageRequest.of(0, 2, Sort.by("id")));
+            walked += slice.getNumberOfElements();
+            if (slice.hasContent()) after = slice.getContent().get(slice.getNumberOfElements() - 1).getId();
+        } while (slice.hasNext());
+        assertEquals(total, walked);
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Stream All Reviews")
+    void streamAllBy_shouldStreamEveryReview() {
+        try (Stream<Review> reviews = reviewRepo.streamAllBy()) {
+            assertEquals(reviewRepo.count(), reviews.count());
+        }
+    }
+}
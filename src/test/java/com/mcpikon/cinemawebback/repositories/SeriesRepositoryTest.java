@@ -1,12 +1,18 @@
 package com.mcpikon.cinemawebback.repositories;
 
+import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
 import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -26,6 +32,9 @@ class SeriesRepositoryTest {
     @Autowired
     private SeriesRepository seriesRepo;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Test
     @Order(0)
     @DisplayName("Find All Series - Empty List")
@@ -49,14 +58,14 @@ class SeriesRepositoryTest {
     @Order(2)
     @DisplayName("Find All Series By Title - Empty List")
     void findAllByTitle_shouldGetEmpty() {
-        assertEquals(0, seriesRepo.findAllByTitle("search test", PageRequest.of(0, 10)).getContent().size());
+        assertEquals(0, seriesRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf("search test"), PageRequest.of(0, 10)).getContent().size());
     }
 
     @Test
     @Order(3)
     @DisplayName("Find All Series By Title")
     void findAllByTitle_shouldNotEmpty_and_getTwoSeries() {
-        List<Series> seriesList = seriesRepo.findAllByTitle("series", PageRequest.of(0, 10)).getContent();
+        List<SeriesResponseDTO> seriesList = seriesRepo.findAllProjectedByTitleSuffixesRegex(FilterUtils.titleRegexOf("ERIES"), PageRequest.of(0, 10)).getContent();
         assertFalse(seriesList.isEmpty());
         assertEquals(2, seriesList.size());
     }
@@ -76,7 +85,7 @@ class SeriesRepositoryTest {
     void findById_shouldNotEmpty() {
         Series seriesSaved = seriesRepo.insert(Series.builder()
                 .title("series to find")
-                .reviewIds(new ArrayList<>()).build());
+                .latestReviews(new ArrayList<>()).build());
         Series seriesFounded = seriesRepo.findById(seriesSaved.getId()).orElseThrow();
         assertEquals(seriesSaved, seriesFounded);
     }
@@ -96,7 +105,7 @@ class SeriesRepositoryTest {
         Series seriesSaved = seriesRepo.insert(Series.builder()
                 .title("series to find")
                 .imdbId("series_imdbId_test")
-                .reviewIds(new ArrayList<>()).build());
+                .latestReviews(new ArrayList<>()).build());
         Series seriesFounded = seriesRepo.findByImdbId(seriesSaved.getImdbId()).orElseThrow();
         assertEquals(seriesSaved, seriesFounded);
     }
@@ -148,4 +157,31 @@ class SeriesRepositoryTest {
     void existsByImdbId_shouldGetFalse() {
         assertFalse(seriesRepo.existsByImdbId("tt09876"));
     }
+
+    @Test
+    @Order(14)
+    @DisplayName("Find All Series By Title - Uses title suffixes index")
+    void findAllByTitle_shouldNotScanCollection() {
+        Document plan = mongoTemplate.getCollection("series")
+                .find(FilterUtils.queryOf("ERIES", null, null).getQueryObject())
+                .explain();
+        assertFalse(plan.toJson().contains("COLLSCAN"));
+        assertTrue(plan.toJson().contains("titleSuffixes"));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Find All Series By Id Greater Than - Keyset pages")
+    void findAllByIdGreaterThan_shouldWalkAllPages() {
+        int total = seriesRepo.findAll().size();
+        ObjectId after = new ObjectId("000000000000000000000000");
+        int read = 0;
+        Slice<SeriesResponseDTO> slice;
+        do {
+            slice = seriesRepo.findAllProjectedByIdGreaterThan(after, PageRequest.of(0, 2, Sort.by("id")));
+            read += slice.getNumberOfElements();
+            after = slice.getContent().get(slice.getNumberOfElements() - 1).id();
+        } while (slice.hasNext());
+        assertEquals(total, read);
+    }
 }
\ No newline at end of file
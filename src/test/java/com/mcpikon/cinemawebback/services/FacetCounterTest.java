@@ -0,0 +1,99 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.services.impl.FacetCounterImpl;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FacetCounterTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private FacetCounterImpl facetCounter;
+
+    private Document result;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(facetCounter, "refreshSeconds", 60L);
+        result = new Document("genres", List.of(new Document("_id", "Drama").append("count", 2), new Document("_id", "Action").append("count", 2),
+                new Document("_id", "Comedy").append("count", 1)))
+                .append("decades", List.of(new Document("_id", 2000.0).append("count", 3), new Document("_id", 1990.0).append("count", 2)));
+        lenient().when(mongoTemplate.aggregate(any(Aggregation.class), eq(Movie.class), eq(Document.class))).thenReturn(new AggregationResults<>(List.of(result), new Document()));
+    }
+
+    @Test
+    @DisplayName("Facets Of - Sorted Counts Of One Aggregation")
+    void facetsOf_thenAggregatesOnce() {
+        Map<String, Object> facets = facetCounter.facetsOf(Movie.class);
+        assertEquals(List.of(Map.of("genre", "Action", "count", 2L), Map.of("genre", "Drama", "count", 2L), Map.of("genre", "Comedy", "count", 1L)), facets.get("genres"));
+        assertEquals(List.of(Map.of("decade", 1990, "count", 2L), Map.of("decade", 2000, "count", 3L)), facets.get("decades"));
+        facetCounter.facetsOf(Movie.class);
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Movie.class), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("Count - Writes Update Cached Facets")
+    void count_thenUpdatesWithoutAggregating() {
+        facetCounter.facetsOf(Movie.class);
+        facetCounter.count(Movie.class, List.of("Comedy"), "1995-01-01", -1);
+        facetCounter.count(Movie.class, List.of("Drama", "Horror"), "2021-05-05", 1);
+
+        Map<String, Object> facets = facetCounter.facetsOf(Movie.class);
+        assertEquals(List.of(Map.of("genre", "Drama", "count", 3L), Map.of("genre", "Action", "count", 2L), Map.of("genre", "Horror", "count", 1L)), facets.get("genres"));
+        assertEquals(List.of(Map.of("decade", 1990, "count", 1L), Map.of("decade", 2000, "count", 3L), Map.of("decade", 2020, "count", 1L)), facets.get("decades"));
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Movie.class), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("Invalidate And Refresh - Aggregates Again")
+    void invalidateOrExpired_thenAggregatesAgain() {
+        facetCounter.facetsOf(Movie.class);
+        facetCounter.invalidate(Movie.class);
+        facetCounter.facetsOf(Movie.class);
+        ReflectionTestUtils.setField(facetCounter, "refreshSeconds", 0L);
+        facetCounter.facetsOf(Movie.class);
+        verify(mongoTemplate, times(3)).aggregate(any(Aggregation.class), eq(Movie.class), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("Count While Aggregating - Only Same Collection Discards")
+    void countWhileAggregating_thenDiscardsOnlySameCollection() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Movie.class), eq(Document.class))).thenAnswer(invocation -> {
+            facetCounter.count(Series.class, List.of("Drama"), "2001-01-01", 1);
+            return new AggregationResults<>(List.of(result), new Document());
+        });
+        facetCounter.facetsOf(Movie.class);
+        facetCounter.facetsOf(Movie.class);
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Movie.class), eq(Document.class));
+
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Series.class), eq(Document.class))).thenAnswer(invocation -> {
+            facetCounter.count(Series.class, List.of("Drama"), "2001-01-01", 1);
+            return new AggregationResults<>(List.of(result), new Document());
+        });
+        facetCounter.facetsOf(Series.class);
+        facetCounter.facetsOf(Series.class);
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(Series.class), eq(Document.class));
+    }
+}
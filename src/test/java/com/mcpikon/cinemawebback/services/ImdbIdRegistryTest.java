@@ -0,0 +1,118 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.repositories.ImdbIdRepository;
+import com.mcpikon.cinemawebback.services.impl.ImdbIdRegistryImpl;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.MOVIE;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.SERIES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImdbIdRegistryTest {
+    @Mock
+    private ImdbIdRepository imdbIdRepo;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ImdbIdRegistryImpl imdbIdRegistry;
+
+    @Test
+    @DisplayName("Find Type By ImdbId - Series")
+    void findTypeByImdbId_thenReturnsType() {
+        when(imdbIdRepo.findById("tt12345")).thenReturn(Optional.of(new ImdbIdEntry("tt12345", SERIES)));
+        assertEquals(Optional.of(SERIES), imdbIdRegistry.findTypeByImdbId("tt12345"));
+    }
+
+    @Test
+    @DisplayName("Find Type By ImdbId - Not registered")
+    void findTypeByImdbId_thenReturnsEmpty() {
+        assertTrue(imdbIdRegistry.findTypeByImdbId("tt12345").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Find Type By ImdbId - Tombstone of a deleted title")
+    void findTypeByImdbId_whenTombstone_thenReturnsEmpty() {
+        when(imdbIdRepo.findById("tt12345")).thenReturn(Optional.of(new ImdbIdEntry("tt12345", ImdbIdEntry.Type.DELETED)));
+        assertTrue(imdbIdRegistry.findTypeByImdbId("tt12345").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Register - OK")
+    void register_thenReturnsTrue() {
+        assertTrue(imdbIdRegistry.register("tt12345", MOVIE));
+        verify(imdbIdRepo, times(1)).insert(new ImdbIdEntry("tt12345", MOVIE));
+    }
+
+    @Test
+    @DisplayName("Register - Already in use")
+    void register_whenDuplicateKey_thenReturnsFalse() {
+        when(imdbIdRepo.insert(any(ImdbIdEntry.class))).thenThrow(new DuplicateKeyException("duplicate key"));
+        assertFalse(imdbIdRegistry.register("tt12345", MOVIE));
+    }
+
+    @Test
+    @DisplayName("Register All - Returns only the claimed imdbIds")
+    void registerAll_thenReturnsClaimedImdbIds() {
+        ReflectionTestUtils.setField(imdbIdRegistry, "bulkChunkSize", 1000);
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        MongoBulkWriteException writeException = new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null, new ServerAddress(), Set.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ImdbIdEntry.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenThrow(new BulkOperationException("duplicate key", writeException));
+
+        assertEquals(Set.of("tt1"), imdbIdRegistry.registerAll(List.of("tt1", "tt2"), MOVIE));
+    }
+
+    @Test
+    @DisplayName("Register All - Failed chunk releases the earlier claims")
+    void registerAll_whenChunkFails_thenReleasesClaims() {
+        ReflectionTestUtils.setField(imdbIdRegistry, "bulkChunkSize", 1);
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ImdbIdEntry.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(null).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("imdbId"), eq(Movie.class), eq(String.class))).thenReturn(List.of());
+        when(mongoTemplate.findDistinct(any(Query.class), eq("imdbId"), eq(Series.class), eq(String.class))).thenReturn(List.of());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> imdbIdRegistry.registerAll(List.of("tt1", "tt2", "tt3"), MOVIE));
+        verify(imdbIdRepo, times(1)).deleteAllById(Set.of("tt1", "tt2"));
+        verify(bulkOps, times(2)).execute();
+    }
+
+    @Test
+    @DisplayName("Unregister All - Empty input skips the delete")
+    void unregisterAll_whenEmpty_thenDoesNotDelete() {
+        imdbIdRegistry.unregisterAll(List.of());
+        verifyNoInteractions(imdbIdRepo);
+    }
+}
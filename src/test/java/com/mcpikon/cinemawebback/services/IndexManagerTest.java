@@ -0,0 +1,156 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import com.mcpikon.cinemawebback.services.impl.IndexManagerImpl;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexManagerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations movieIndexOps;
+
+    @Mock
+    private IndexOperations seriesIndexOps;
+
+    @Mock
+    private IndexOperations reviewIndexOps;
+
+    @InjectMocks
+    private IndexManagerImpl indexManager;
+
+    private final MongoConverter mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext());
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(indexManager, "createMissing", true);
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.getCollectionName(Movie.class)).thenReturn("movies");
+        when(mongoTemplate.getCollectionName(Series.class)).thenReturn("series");
+        when(mongoTemplate.getCollectionName(Review.class)).thenReturn("reviews");
+        when(mongoTemplate.indexOps(Movie.class)).thenReturn(movieIndexOps);
+        when(mongoTemplate.indexOps(Series.class)).thenReturn(seriesIndexOps);
+        when(mongoTemplate.indexOps(Review.class)).thenReturn(reviewIndexOps);
+    }
+
+    @Test
+    @DisplayName("Ensure Indexes - Creates only missing indexes")
+    void ensureIndexes_thenCreatesMissing() {
+        ArgumentCaptor<IndexDefinition> created = ArgumentCaptor.forClass(IndexDefinition.class);
+        when(movieIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_unique", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(seriesIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(reviewIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_"));
+
+        assertTrue(indexManager.ensureIndexes().isEmpty());
+        verify(movieIndexOps, never()).ensureIndex(any(IndexDefinition.class));
+        verify(seriesIndexOps, times(1)).ensureIndex(created.capture());
+        verify(reviewIndexOps, times(1)).ensureIndex(created.capture());
+        assertEquals(new Document("imdbId", 1), created.getAllValues().get(0).getIndexKeys());
+        assertEquals(true, created.getAllValues().get(0).getIndexOptions().get("unique"));
+        assertEquals(new Document("imdbId", 1).append("createdAt", -1), created.getAllValues().get(1).getIndexKeys());
+    }
+
+    @Test
+    @DisplayName("Ensure Indexes - Reports indexes not created")
+    void ensureIndexes_whenNotCreated_thenReturnsMissing() {
+        ReflectionTestUtils.setField(indexManager, "createMissing", false);
+        when(movieIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(seriesIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_unique", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(reviewIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_createdAt"));
+
+        assertEquals(List.of("movies.imdbId_unique"), indexManager.ensureIndexes());
+        verify(movieIndexOps, never()).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    @DisplayName("Ensure Indexes - Failed creations are missing")
+    void ensureIndexes_whenCreationFails_thenReturnsMissing() {
+        when(movieIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(movieIndexOps.ensureIndex(any(IndexDefinition.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+        when(seriesIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_unique", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(reviewIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_createdAt"));
+
+        assertEquals(List.of("movies.imdbId_unique"), indexManager.ensureIndexes());
+    }
+
+    @Test
+    @DisplayName("Verify On Startup - Fails when required indexes are missing")
+    void verifyOnStartup_whenRequired_thenThrows() {
+        ReflectionTestUtils.setField(indexManager, "createMissing", false);
+        ReflectionTestUtils.setField(indexManager, "failOnMissing", true);
+        when(movieIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_unique", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(seriesIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_unique", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(reviewIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_"));
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(indexManager, "verifyOnStartup"));
+        assertEquals("Required indexes are missing [reviews.imdbId_createdAt]", thrown.getMessage());
+    }
+
+    @Test
+    @DisplayName("Report - Missing, undeclared and unused indexes")
+    @SuppressWarnings("unchecked")
+    void report_thenComparesDeclaredWithExisting() {
+        when(movieIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_unique", "titleSuffixes", "genres_releaseDate", "releaseDate", "director_1"));
+        when(seriesIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "titleSuffixes", "genres_releaseDate", "releaseDate"));
+        when(reviewIndexOps.getIndexInfo()).thenReturn(indexesNamed("_id_", "imdbId_createdAt"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class))).thenReturn(new AggregationResults<>(List.of(), new Document()));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("movies"), eq(Document.class))).thenReturn(new AggregationResults<>(List.of(
+                indexStats("_id_", 0), indexStats("imdbId_unique", 12), indexStats("titleSuffixes", 3), indexStats("director_1", 0)), new Document()));
+
+        Map<String, Object> report = indexManager.report();
+        Map<String, Object> movies = (Map<String, Object>) report.get("movies");
+        assertEquals(List.of("genres_releaseDate", "imdbId_unique", "releaseDate", "titleSuffixes"), movies.get("declared"));
+        assertEquals(List.of(), movies.get("missing"));
+        assertEquals(List.of("director_1"), movies.get("undeclared"));
+        assertEquals(List.of("director_1"), movies.get("unused"));
+        assertEquals(List.of("imdbId_unique"), ((Map<String, Object>) report.get("series")).get("missing"));
+        assertEquals(List.of(), ((Map<String, Object>) report.get("reviews")).get("missing"));
+    }
+
+    private static List<IndexInfo> indexesNamed(String... names) {
+        return List.of(names).stream().map(name -> new IndexInfo(List.of(IndexField.create(name, Sort.Direction.ASC)), name, false, false, null)).toList();
+    }
+
+    private static Document indexStats(String name, long ops) {
+        return new Document("name", name).append("accesses", new Document("ops", ops));
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
+    }
+}
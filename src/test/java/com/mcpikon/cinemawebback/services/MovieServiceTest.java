@@ -1,33 +1,60 @@
 package com.mcpikon.cinemawebback.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
 import com.mcpikon.cinemawebback.dtos.MovieDTO;
 import com.mcpikon.cinemawebback.dtos.MovieResponseDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.ReviewPreview;
 import com.mcpikon.cinemawebback.repositories.MovieRepository;
-import com.mcpikon.cinemawebback.repositories.ReviewRepository;
-import com.mcpikon.cinemawebback.repositories.SeriesRepository;
 import com.mcpikon.cinemawebback.services.impl.MovieServiceImpl;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ExecutableFindOperation;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
 import java.util.*;
 
+import static com.mcpikon.cinemawebback.exceptions.Errors.PRECONDITION_FAILED;
+import static com.mcpikon.cinemawebback.exceptions.Errors.READ_ONLY_FIELD;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.MOVIE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -38,19 +65,24 @@ class MovieServiceTest {
     private MovieRepository movieRepo;
 
     @Mock
-    private SeriesRepository seriesRepo;
+    private ReviewCascade reviewCascade;
 
-    @Mock
-    private ReviewRepository reviewRepo;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     @Mock
-    private ObjectMapper objectMapper;
+    private MongoTemplate mongoTemplate;
 
     @Mock
-    private JsonPatch jsonPatch;
+    private ImdbIdRegistry imdbIdRegistry;
 
     @Mock
-    private JsonNode jsonNode;
+    private FacetCounter facetCounter;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final MongoConverter mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext());
 
     @InjectMocks
     private MovieServiceImpl movieService;
@@ -61,13 +93,10 @@ class MovieServiceTest {
         List<MovieResponseDTO> movieResDTOList = Arrays.asList(
                 MovieResponseDTO.builder().title("movie 1").build(),
                 MovieResponseDTO.builder().title("movie 2").build());
-        List<Movie> movieList = Arrays.asList(
-                Movie.builder().title("movie 1").build(),
-                Movie.builder().title("movie 2").build());
         Pageable paging = PageRequest.of(0, 10);
-        Page<Movie> moviePage = new PageImpl<>(movieList, paging, movieList.size());
-        when(movieRepo.findAll(paging)).thenReturn(moviePage);
-        Map<String, Object> moviesResMap = movieService.findAll(null, 0, 10);
+        Page<MovieResponseDTO> moviePage = new PageImpl<>(movieResDTOList, paging, movieResDTOList.size());
+        when(movieRepo.findAllProjectedBy(paging)).thenReturn(moviePage);
+        Map<String, Object> moviesResMap = movieService.findAll(null, null, null, 0, 10);
         assertNotNull(moviesResMap);
         assertEquals(movieResDTOList, moviesResMap.get("movies"));
     }
@@ -78,13 +107,10 @@ class MovieServiceTest {
         List<MovieResponseDTO> movieResDTOList = Arrays.asList(
                 MovieResponseDTO.builder().title("movie 1").build(),
                 MovieResponseDTO.builder().title("movie 2").build());
-        List<Movie> movieList = Arrays.asList(
-                Movie.builder().title("movie 1").build(),
-                Movie.builder().title("movie 2").build());
         Pageable paging = PageRequest.of(0, 10);
-        Page<Movie> moviePage = new PageImpl<>(movieList, paging, movieList.size());
-        when(movieRepo.findAllByTitle("movie", paging)).thenReturn(moviePage);
-        Map<String, Object> moviesResMap = movieService.findAll("movie", 0, 10);
+        Page<MovieResponseDTO> moviePage = new PageImpl<>(movieResDTOList, paging, movieResDTOList.size());
+        when(movieRepo.findAllProjectedByTitleSuffixesRegex("^ovi", PageRequest.of(0, 10))).thenReturn(moviePage);
+        Map<String, Object> moviesResMap = movieService.findAll("Ovi", null, null, 0, 10);
         assertNotNull(moviesResMap);
         assertEquals(movieResDTOList, moviesResMap.get("movies"));
     }
@@ -93,11 +119,67 @@ class MovieServiceTest {
     @DisplayName("Find All Movies - Throws Empty List")
     void findAllMovies_thenThrowsEmptyList() {
         Pageable paging = PageRequest.of(0, 1);
-        when(movieRepo.findAll(paging)).thenReturn(new PageImpl<>(new ArrayList<>(), paging, 0));
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.findAll(null, -1, -1), "ErrorException was expected");
+        when(movieRepo.findAllProjectedBy(paging)).thenReturn(new PageImpl<>(new ArrayList<>(), paging, 0));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.findAll(null, null, null, -1, -1), "ErrorException was expected");
+        assertEquals("Empty List", thrown.getMessage());
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor - OK")
+    void findAllMoviesByCursor_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
+        List<MovieResponseDTO> movieList = Arrays.asList(
+                MovieResponseDTO.builder().id(new ObjectId()).title("movie 1").build(),
+                MovieResponseDTO.builder().id(lastId).title("movie 2").build());
+        Pageable paging = PageRequest.of(0, 2, Sort.by("id"));
+        when(movieRepo.findAllProjectedByIdGreaterThan(any(ObjectId.class), eq(paging))).thenReturn(new SliceImpl<>(movieList, paging, true));
+        Map<String, Object> resMap = movieService.findAllByCursor(null, null, null, "", 2);
+        assertEquals(2, ((List<?>) resMap.get("movies")).size());
+        assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor And Title - OK (Last Page)")
+    void findAllMoviesByCursorAndTitle_thenReturnListWithoutNextCursor() {
+        ObjectId afterId = new ObjectId();
+        List<MovieResponseDTO> movieList = List.of(MovieResponseDTO.builder().id(new ObjectId()).title("movie 1").build());
+        Pageable paging = PageRequest.of(0, 10, Sort.by("id"));
+        when(movieRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(afterId, "^ovi", paging)).thenReturn(new SliceImpl<>(movieList, paging, false));
+        Map<String, Object> resMap = movieService.findAllByCursor("Ovi", null, null, CursorUtils.encode(afterId), 10);
+        assertEquals(1, ((List<?>) resMap.get("movies")).size());
+        assertNull(resMap.get("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("Find All Movies By Cursor - Throws Empty List")
+    void findAllMoviesByCursor_thenThrowsEmptyList() {
+        Pageable paging = PageRequest.of(0, 1, Sort.by("id"));
+        when(movieRepo.findAllProjectedByIdGreaterThan(any(ObjectId.class), eq(paging))).thenReturn(new SliceImpl<>(new ArrayList<>(), paging, false));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.findAllByCursor(null, null, null, null, -1), "ErrorException was expected");
         assertEquals("Empty List", thrown.getMessage());
     }
 
+    @Test
+    @DisplayName("Find All Movies By Genre And Year - OK")
+    @SuppressWarnings("unchecked")
+    void findAllMoviesByGenreAndYear_thenReturnList() {
+        List<MovieResponseDTO> movieResDTOList = List.of(MovieResponseDTO.builder().title("movie 1").releaseDate("2010-07-16").build());
+        ExecutableFindOperation.ExecutableFind<Movie> find = mock(ExecutableFindOperation.ExecutableFind.class);
+        ExecutableFindOperation.FindWithProjection<MovieResponseDTO> findProjected = mock(ExecutableFindOperation.FindWithProjection.class);
+        ExecutableFindOperation.TerminatingFind<MovieResponseDTO> terminatingFind = mock(ExecutableFindOperation.TerminatingFind.class);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.query(Movie.class)).thenReturn(find);
+        when(find.as(MovieResponseDTO.class)).thenReturn(findProjected);
+        when(findProjected.matching(query.capture())).thenReturn(terminatingFind);
+        when(terminatingFind.all()).thenReturn(movieResDTOList);
+
+        Map<String, Object> moviesResMap = movieService.findAll(null, "Drama", 2010, 0, 10);
+        assertEquals(movieResDTOList, moviesResMap.get("movies"));
+        assertEquals(1L, moviesResMap.get("totalItems"));
+        assertEquals(new Document("genres", "Drama").append("releaseDate", new Document("$gte", "2010").append("$lt", "2011")), query.getValue().getQueryObject());
+        verifyNoInteractions(movieRepo);
+    }
+
     @Test
     @DisplayName("Find Movie By Id - OK")
     void findMovieById_thenReturnsMovie() {
@@ -140,47 +222,87 @@ class MovieServiceTest {
     @DisplayName("Save Movie - OK")
     void saveMovie_thenReturnsMovie() {
         MovieDTO movieDTO = MovieDTO.builder().title("Movie Test").imdbId("12345").overview("A movie to test").build();
-        Movie movie = Movie.builder().title("Movie Test").imdbId("12345").overview("A movie to test").build();
+        Movie movie = Movie.builder().title("Movie Test").imdbId("12345").overview("A movie to test").genres(List.of("Drama")).releaseDate("2010-07-16").build();
 
-        when(movieRepo.existsByImdbId(any(String.class))).thenReturn(false);
-        when(seriesRepo.existsByImdbId(any(String.class))).thenReturn(false);
+        when(imdbIdRegistry.register(movieDTO.imdbId(), MOVIE)).thenReturn(true);
         when(movieRepo.insert(any(Movie.class))).thenReturn(movie);
 
         Movie movieSaved = movieService.save(movieDTO);
         assertNotNull(movieSaved);
+        verify(facetCounter, times(1)).count(Movie.class, List.of("Drama"), "2010-07-16", 1);
     }
 
     @Test
-    @DisplayName("Save Movie - Throws Movie Already Exists")
-    void saveMovie_thenThrowsMovieAlreadyExists() {
-        when(movieRepo.existsByImdbId(any(String.class))).thenReturn(true);
+    @DisplayName("Save Movie - Throws Already Exists")
+    void saveMovie_thenThrowsAlreadyExists() {
         MovieDTO movieDTO = MovieDTO.builder().imdbId("12345").build();
+        when(imdbIdRegistry.register(movieDTO.imdbId(), MOVIE)).thenReturn(false);
         ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.save(movieDTO), "ErrorException was expected");
         assertEquals("Entity already exists", thrown.getMessage());
     }
 
     @Test
-    @DisplayName("Save Movie - Throws Series Already Exists")
-    void saveMovie_thenThrowsSeriesAlreadyExists() {
-        when(seriesRepo.existsByImdbId(any(String.class))).thenReturn(true);
-        MovieDTO movieDTO = MovieDTO.builder().imdbId("12345").build();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.save(movieDTO), "ErrorException was expected");
-        assertEquals("Entity already exists", thrown.getMessage());
+    @DisplayName("Save All Movie - Per item results")
+    void saveAllMovie_thenReturnsPerItemResults() {
+        List<MovieDTO> movieDTOs = List.of(MovieDTO.builder().imdbId("tt1").title("movie 1").director("director").build(),
+                MovieDTO.builder().imdbId("tt2").title("movie 2").director("director").build(),
+                MovieDTO.builder().imdbId("tt1").title("movie 1 again").director("director").build(),
+                MovieDTO.builder().imdbId("tt3").director("director").build());
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(imdbIdRegistry.registerAll(List.of("tt1", "tt2"), MOVIE)).thenReturn(Set.of("tt1"));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+
+        Map<String, Object> response = movieService.saveAll(movieDTOs);
+        List<?> results = (List<?>) response.get("results");
+        assertEquals(1L, response.get("inserted"));
+        assertEquals(3L, response.get("failed"));
+        assertEquals(new BulkResultDTO(0, "tt1", true, "Created"), results.get(0));
+        assertEquals(new BulkResultDTO(1, "tt2", false, "Entity already exists"), results.get(1));
+        assertEquals(new BulkResultDTO(2, "tt1", false, "The imdbId passed is already in use"), results.get(2));
+        assertEquals(new BulkResultDTO(3, "tt3", false, "movie title cannot be empty"), results.get(3));
+        verify(bulkOps, times(1)).execute();
+        verify(imdbIdRegistry, times(1)).unregisterAll(List.of());
+    }
+
+    @Test
+    @DisplayName("Save All Movie - Failed chunk releases the unwritten imdbIds")
+    void saveAllMovie_whenChunkFails_thenReleasesUnwritten() {
+        ReflectionTestUtils.setField(movieService, "bulkChunkSize", 1);
+        List<MovieDTO> movieDTOs = List.of(MovieDTO.builder().imdbId("tt1").title("movie 1").director("director").build(),
+                MovieDTO.builder().imdbId("tt2").title("movie 2").director("director").build());
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(imdbIdRegistry.registerAll(List.of("tt1", "tt2"), MOVIE)).thenReturn(Set.of("tt1", "tt2"));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(null).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("imdbId"), eq(Movie.class), eq(String.class))).thenReturn(List.of("tt1"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> movieService.saveAll(movieDTOs));
+        verify(imdbIdRegistry, times(1)).unregisterAll(List.of("tt2"));
+        verify(facetCounter, times(1)).count(eq(Movie.class), any(), any(), eq(1));
+    }
+
+    @Test
+    @DisplayName("Save All Movie - Throws Empty List")
+    void saveAllMovie_thenThrowsEmptyList() {
+        List<MovieDTO> movieDTOs = List.of();
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.saveAll(movieDTOs), "ErrorException was expected");
+        assertEquals("Empty List", thrown.getMessage());
     }
 
     @Test
     @DisplayName("Delete Movie By Id - OK")
     void deleteMovieById_thenReturnsOk() {
         ObjectId id = new ObjectId();
-        List<Review> reviewList = List.of(
-                Review.builder().title("review 1").build(),
-                Review.builder().title("review 2").build());
-        Movie movieGiven = Movie.builder().id(id).title("movie to delete").reviewIds(reviewList).build();
+        Movie movieGiven = Movie.builder().id(id).imdbId("tt12345").title("movie to delete").ratingStats(RatingStats.builder().count(2).build()).build();
         when(movieRepo.findById(id)).thenReturn(Optional.of(movieGiven));
         Map<String, String> expectedRes = Map.of("message", String.format("Movie with id: '%s' was successfully deleted", id));
         Map<String, String> response = movieService.delete(id);
         assertNotNull(response);
         assertEquals(expectedRes.get("message"), response.get("message"));
+        verify(reviewCascade, times(1)).deleteReviews("tt12345", 2);
+        verify(facetCounter, times(1)).count(Movie.class, null, null, -1);
     }
 
     @Test
@@ -192,19 +314,38 @@ class MovieServiceTest {
     }
 
     @Test
-    @DisplayName("Update Movie By Id - OK (Exists By ImdbId)")
-    void updateMovieById_whenExistsByImdbId_thenReturnsMovie() {
+    @DisplayName("Update Movie By Id - OK (ImdbId changed)")
+    void updateMovieById_whenImdbIdChanged_thenReturnsMovie() {
         ObjectId id = new ObjectId();
         Movie movieGiven = Movie.builder().id(id).imdbId("tt12345").title("movie to update").build();
         MovieDTO movieDTO = MovieDTO.builder().imdbId("tt54321").title("movie updated").build();
         Movie movieUpdated = Movie.builder().id(id).imdbId("tt54321").title("movie updated").build();
 
         when(movieRepo.findById(id)).thenReturn(Optional.of(movieGiven));
-        when(movieRepo.existsByImdbId(movieDTO.imdbId())).thenReturn(false);
+        when(imdbIdRegistry.register(movieDTO.imdbId(), MOVIE)).thenReturn(true);
         when(movieRepo.save(movieUpdated)).thenReturn(movieUpdated);
 
-        Movie movie = movieService.update(id, movieDTO);
+        Movie movie = movieService.update(id, movieDTO, null);
         assertNotNull(movie);
+        verify(imdbIdRegistry, times(1)).unregister("tt12345");
+        verify(reviewCascade, times(1)).moveReviews("tt12345", "tt54321");
+    }
+
+    @Test
+    @DisplayName("Update Movie By Id - Failed Save Releases Claimed ImdbId")
+    void updateMovieById_whenSaveFails_thenUnregistersNewImdbId() {
+        ObjectId id = new ObjectId();
+        Movie movieGiven = Movie.builder().id(id).imdbId("tt12345").title("movie to update").build();
+        MovieDTO movieDTO = MovieDTO.builder().imdbId("tt54321").title("movie updated").build();
+
+        when(movieRepo.findById(id)).thenReturn(Optional.of(movieGiven));
+        when(imdbIdRegistry.register(movieDTO.imdbId(), MOVIE)).thenReturn(true);
+        when(movieRepo.save(any(Movie.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        assertThrows(DuplicateKeyException.class, () -> movieService.update(id, movieDTO, null));
+        verify(imdbIdRegistry, times(1)).unregister("tt54321");
+        verify(imdbIdRegistry, never()).unregister("tt12345");
+        verifyNoInteractions(reviewCascade);
     }
 
     @Test
@@ -216,12 +357,11 @@ class MovieServiceTest {
         MovieDTO movieDTO = MovieDTO.builder().imdbId("tt12345").title("movie updated").build();
 
         when(movieRepo.findById(id)).thenReturn(Optional.of(movieGiven));
-        when(movieRepo.existsByImdbId(movieDTO.imdbId())).thenReturn(true);
-
         when(movieRepo.save(movieUpdated)).thenReturn(movieUpdated);
 
-        Movie movie = movieService.update(id, movieDTO);
+        Movie movie = movieService.update(id, movieDTO, null);
         assertNotNull(movie);
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
@@ -229,153 +369,129 @@ class MovieServiceTest {
     void updateMovieById_thenThrowsNotExists() {
         ObjectId id = new ObjectId();
         MovieDTO movieDTO = MovieDTO.builder().title("movieDTO test").build();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.update(id, movieDTO), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.update(id, movieDTO, null), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
     @Test
-    @DisplayName("Update Movie by Id - Throws ImdbId in use by Movie")
-    void updateMovieById_thenThrowsImdbIdInUseByMovie() {
+    @DisplayName("Update Movie by Id - Throws Precondition Failed")
+    void updateMovieById_whenVersionChanged_thenThrowsPreconditionFailed() {
         ObjectId id = new ObjectId();
-        Movie movieGiven = Movie.builder().id(id).imdbId("tt12345").title("movie to update").build();
-        MovieDTO movieDTO = MovieDTO.builder().imdbId("tt54321").title("movie updated").build();
+        Movie movieGiven = Movie.builder().id(id).version(4L).imdbId("tt12345").title("movie to update").build();
+        MovieDTO movieDTO = MovieDTO.builder().imdbId("tt12345").title("movie updated").build();
 
         when(movieRepo.findById(id)).thenReturn(Optional.of(movieGiven));
-        when(movieRepo.existsByImdbId(movieDTO.imdbId())).thenReturn(true);
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.update(id, movieDTO), "ErrorException was expected");
-        assertEquals("The imdbId passed is already in use", thrown.getMessage());
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.update(id, movieDTO, 3L), "ErrorException was expected");
+        assertEquals(PRECONDITION_FAILED.getMessage(), thrown.getMessage());
+        verify(movieRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Patch Movie by Id - Throws Precondition Failed")
+    void patchMovieById_whenVersionChanged_thenThrowsPreconditionFailed() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(movieRepo.findById(id)).thenReturn(Optional.of(Movie.builder().id(id).version(4L).imdbId("tt12345").title("movie to patch").build()));
+
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"movie patched\"}]"), 3L), "ErrorException was expected");
+        assertEquals(PRECONDITION_FAILED.getMessage(), thrown.getMessage());
+        verify(mongoTemplate, times(1)).findAndModify(eq(Query.query(Criteria.where("id").is(id)).addCriteria(Criteria.where("version").is(3L)).addCriteria(Criteria.where("title").ne(null))), any(Update.class), any(FindAndModifyOptions.class), eq(Movie.class));
+        verify(movieRepo, never()).save(any());
     }
 
     @Test
-    @DisplayName("Update Movie by Id - Throws ImdbId in use by Series")
-    void updateMovieById_thenThrowsImdbIdInUseBySeries() {
+    @DisplayName("Patch Movie By Id - Throws Cannot Parse JSON (Replaced field missing)")
+    void patchMovieById_whenReplacedFieldMissing_thenThrowsJsonPatchException() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(movieRepo.findById(id)).thenReturn(Optional.of(Movie.builder().id(id).imdbId("tt12345").title("movie to patch").build()));
+
+        assertThrows(JsonPatchException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/overview\", \"value\": \"overview\"}]"), null), "JsonPatchException was expected");
+        verify(mongoTemplate, times(1)).findAndModify(eq(Query.query(Criteria.where("id").is(id)).addCriteria(Criteria.where("overview").ne(null))), any(Update.class), any(FindAndModifyOptions.class), eq(Movie.class));
+        verify(movieRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Update Movie by Id - Throws ImdbId in use")
+    void updateMovieById_thenThrowsImdbIdInUse() {
         ObjectId id = new ObjectId();
         Movie movieGiven = Movie.builder().id(id).imdbId("tt12345").title("movie to update").build();
         MovieDTO movieDTO = MovieDTO.builder().imdbId("tt54321").title("movie updated").build();
 
         when(movieRepo.findById(id)).thenReturn(Optional.of(movieGiven));
-        when(seriesRepo.existsByImdbId(movieDTO.imdbId())).thenReturn(true);
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.update(id, movieDTO), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.update(id, movieDTO, null), "ErrorException was expected");
         assertEquals("The imdbId passed is already in use", thrown.getMessage());
     }
 
     @Test
     @DisplayName("Patch Movie by Id - OK")
-    void patchMovieById_thenReturnsMovie() throws JsonProcessingException, JsonPatchException {
+    void patchMovieById_thenReturnsMovie() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Movie movie = Movie.builder().id(id).title("movie to patch").build();
-        when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
-
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(jsonNode);
-        when(jsonNode.asText()).thenReturn("/title");
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("value")).thenReturn(jsonNode);
-        when(jsonNode.asText()).thenReturn("movie patched");
-
-        when(objectMapper.treeToValue(null, Movie.class)).thenReturn(movie);
-        when(movieRepo.save(movie)).thenReturn(movie);
-
-        Movie moviePatched = movieService.patch(id, jsonPatch);
-        assertNotNull(moviePatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Movie.class);
+        Movie moviePatched = Movie.builder().id(id).title("movie patched").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Movie.class))).thenReturn(moviePatched);
+
+        Movie result = movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"movie patched\"}, {\"op\": \"add\", \"path\": \"/genres/-\", \"value\": \"Drama\"}]"), null);
+        assertEquals(moviePatched, result);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), eq(new Update().set("title", "movie patched").push("genres", "Drama").set("titleSuffixes", FilterUtils.titleSuffixesOf("movie patched")).inc("version", 1)), any(FindAndModifyOptions.class), eq(Movie.class));
+        verify(movieRepo, never()).findById(any());
+        verify(movieRepo, never()).save(any());
     }
 
     @Test
-    @DisplayName("Patch Movie by Id - OK (Not Exists by Movie ImdbId)")
-    void patchMovieById_whenNotExistsByMovieImdbId_thenReturnsMovie() throws JsonProcessingException, JsonPatchException {
+    @DisplayName("Patch Movie by Id - OK (Not translatable)")
+    void patchMovieById_whenNotTranslatable_thenPatchesDocument() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Movie movie = Movie.builder().id(id).title("movie to patch").imdbId("tt12345").build();
+        Movie movie = Movie.builder().id(id).imdbId("tt12345").title("movie to patch").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
+        when(movieRepo.save(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(movieRepo.existsByImdbId("tt54321")).thenReturn(false);
-        when(objectMapper.treeToValue(null, Movie.class)).thenReturn(movie);
-        when(movieRepo.save(movie)).thenReturn(movie);
-
-        Movie moviePatched = movieService.patch(id, jsonPatch);
-        assertNotNull(moviePatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Movie.class);
+        Movie moviePatched = movieService.patch(id, jsonPatchOf("[{\"op\": \"copy\", \"from\": \"/title\", \"path\": \"/overview\"}]"), null);
+        assertEquals("movie to patch", moviePatched.getOverview());
+        assertEquals(id, moviePatched.getId());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Movie.class));
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
-    @DisplayName("Patch Movie by Id - OK (Not Exists by Series ImdbId)")
-    void patchMovieById_whenNotExistsBySeriesImdbId_thenReturnsMovie() throws JsonProcessingException, JsonPatchException {
+    @DisplayName("Patch Movie by Id - OK (ImdbId changed)")
+    void patchMovieById_whenImdbIdChanged_thenReturnsMovie() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
         Movie movie = Movie.builder().id(id).title("movie to patch").imdbId("tt12345").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
+        when(imdbIdRegistry.register("tt54321", MOVIE)).thenReturn(true);
+        when(movieRepo.save(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(seriesRepo.existsByImdbId("tt54321")).thenReturn(false);
-        when(objectMapper.treeToValue(null, Movie.class)).thenReturn(movie);
-        when(movieRepo.save(movie)).thenReturn(movie);
-
-        Movie moviePatched = movieService.patch(id, jsonPatch);
-        assertNotNull(moviePatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Movie.class);
+        Movie moviePatched = movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null);
+        assertEquals("tt54321", moviePatched.getImdbId());
+        verify(imdbIdRegistry, times(1)).unregister("tt12345");
+        verify(reviewCascade, times(1)).moveReviews("tt12345", "tt54321");
     }
 
     @Test
     @DisplayName("Patch Movie by Id - OK (Equal ImdbId)")
-    void patchMovieById_whenEqualImdbId_thenReturnsMovie() throws JsonProcessingException, JsonPatchException {
+    void patchMovieById_whenEqualImdbId_thenReturnsMovie() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
         Movie movie = Movie.builder().id(id).title("movie to patch").imdbId("tt54321").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
+        when(movieRepo.save(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(movieRepo.existsByImdbId("tt54321")).thenReturn(true);
-        when(objectMapper.treeToValue(null, Movie.class)).thenReturn(movie);
-        when(movieRepo.save(movie)).thenReturn(movie);
-
-        Movie moviePatched = movieService.patch(id, jsonPatch);
+        Movie moviePatched = movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null);
         assertNotNull(moviePatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Movie.class);
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
     @DisplayName("Patch Movie by Id - Throws Not Exists")
     void patchMovieById_thenThrowsNotExists() {
         ObjectId id = new ObjectId();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatch), "ErrorException was expected");
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"remove\", \"path\": \"/overview\"}]"), null), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
@@ -383,69 +499,70 @@ class MovieServiceTest {
     @DisplayName("Patch Movie by Id - Throws Id Cannot Change")
     void patchMovieById_thenThrowsIdCannotChange() {
         ObjectId id = new ObjectId();
-        Movie movie = Movie.builder().id(id).title("movie to patch").build();
-        when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
-
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/id");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("new id");
-
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatch), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"movie patched\"}, {\"op\": \"copy\", \"from\": \"/title\", \"path\": \"/id\"}]"), null), "ErrorException was expected");
         assertEquals("ID key cannot be changed", thrown.getMessage());
+        verifyNoInteractions(movieRepo, mongoTemplate);
     }
 
     @Test
-    @DisplayName("Patch Movie by Id - Throws ImdbId in use by Movie")
-    void patchMovieById_thenThrowsImdbIdInUseByMovie() {
+    @DisplayName("Patch Movie by Id - OK (Keeps stored review aggregates)")
+    void patchMovieById_whenDocumentReplaced_thenKeepsReviewAggregates() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Movie movie = Movie.builder().id(id).title("movie to patch").imdbId("tt12345").build();
+        RatingStats ratingStats = RatingStats.builder().count(1).sum(4).histogram(Map.of("4", 1L)).build();
+        List<ReviewPreview> latestReviews = List.of(ReviewPreview.builder().id(new ObjectId()).title("review").rating(4).build());
+        Movie movie = Movie.builder().id(id).imdbId("tt12345").title("movie to patch").ratingStats(ratingStats).latestReviews(latestReviews).build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
+        when(movieRepo.save(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
+        Movie moviePatched = movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"\", \"value\": {\"id\": \"" + id + "\", \"imdbId\": \"tt12345\", \"title\": \"movie patched\"}}]"), null);
+        assertEquals("movie patched", moviePatched.getTitle());
+        assertEquals(ratingStats, moviePatched.getRatingStats());
+        assertEquals(latestReviews, moviePatched.getLatestReviews());
+    }
 
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
+    @Test
+    @DisplayName("Patch Movie by Id - Throws Read Only Field")
+    void patchMovieById_whenServerFieldTouched_thenThrowsReadOnlyField() {
+        ObjectId id = new ObjectId();
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/ratingStats/count\", \"value\": 100}]"), null), "ErrorException was expected");
+        assertEquals(READ_ONLY_FIELD.getMessage(), thrown.getMessage());
+        verifyNoInteractions(movieRepo, mongoTemplate);
+    }
 
-        when(movieRepo.existsByImdbId("tt54321")).thenReturn(true);
+    @Test
+    @DisplayName("Patch Movie by Id - Throws ImdbId in use")
+    void patchMovieById_thenThrowsImdbIdInUse() {
+        ObjectId id = new ObjectId();
+        Movie movie = Movie.builder().id(id).title("movie to patch").imdbId("tt12345").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatch), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null), "ErrorException was expected");
         assertEquals("The imdbId passed is already in use", thrown.getMessage());
+        verify(movieRepo, never()).save(any());
     }
 
     @Test
-    @DisplayName("Patch Movie by Id - Throws ImdbId in use by Series")
-    void patchMovieById_thenThrowsImdbIdInUseBySeries() {
+    @DisplayName("Patch Movie by Id - Throws Validation Failed (ImdbId removed)")
+    void patchMovieById_whenImdbIdRemoved_thenThrowsValidationFailed() {
         ObjectId id = new ObjectId();
         Movie movie = Movie.builder().id(id).title("movie to patch").imdbId("tt12345").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatchOf("[{\"op\": \"remove\", \"path\": \"/imdbId\"}]"), null), "ErrorException was expected");
+        assertEquals("Validation failed, check that the fields are not empty or null", thrown.getMessage());
+        verify(movieRepo, never()).save(any());
+    }
 
-        when(seriesRepo.existsByImdbId("tt54321")).thenReturn(true);
+    private JsonPatch jsonPatchOf(String json) throws IOException {
+        return JsonPatch.fromJson(objectMapper.readTree(json));
+    }
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> movieService.patch(id, jsonPatch), "ErrorException was expected");
-        assertEquals("The imdbId passed is already in use", thrown.getMessage());
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
     }
 }
\ No newline at end of file
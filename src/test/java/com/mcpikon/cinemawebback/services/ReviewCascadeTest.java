@@ -0,0 +1,100 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.services.impl.ReviewCascadeImpl;
+import com.mongodb.client.result.DeleteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewCascadeTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    @Mock
+    private ImdbIdRegistry imdbIdRegistry;
+
+    @InjectMocks
+    private ReviewCascadeImpl reviewCascade;
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(reviewCascade, "asyncThreshold", 3);
+    }
+
+    @Test
+    @DisplayName("Delete Reviews - Single deleteMany by imdbId behind a tombstone")
+    void deleteReviews_thenDeletesByImdbId() {
+        when(mongoTemplate.remove(any(Query.class), eq(Review.class))).thenReturn(DeleteResult.acknowledged(3));
+        reviewCascade.deleteReviews("tt12345", 3);
+        InOrder inOrder = inOrder(imdbIdRegistry, mongoTemplate);
+        inOrder.verify(imdbIdRegistry).tombstone("tt12345");
+        inOrder.verify(mongoTemplate).remove(Query.query(Criteria.where("imdbId").is("tt12345")), Review.class);
+        inOrder.verify(imdbIdRegistry).unregister("tt12345");
+        verifyNoInteractions(taskExecutor);
+    }
+
+    @Test
+    @DisplayName("Delete Reviews - Large titles are deleted asynchronously")
+    void deleteReviews_whenOverThreshold_thenRunsOnExecutor() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(mongoTemplate.remove(any(Query.class), eq(Review.class))).thenReturn(DeleteResult.acknowledged(4));
+        reviewCascade.deleteReviews("tt12345", 4);
+        verify(taskExecutor, times(1)).execute(task.capture());
+        verify(imdbIdRegistry, times(1)).tombstone("tt12345");
+        verifyNoInteractions(mongoTemplate);
+
+        task.getValue().run();
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(Review.class));
+        verify(imdbIdRegistry, times(1)).unregister("tt12345");
+    }
+
+    @Test
+    @DisplayName("Delete Reviews - Failed cascade keeps the tombstone")
+    void deleteReviews_whenRemoveFails_thenKeepsTombstone() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(mongoTemplate.remove(any(Query.class), eq(Review.class))).thenThrow(new DataAccessResourceFailureException("timeout"));
+        reviewCascade.deleteReviews("tt12345", 4);
+        verify(taskExecutor, times(1)).execute(task.capture());
+
+        task.getValue().run();
+        verify(imdbIdRegistry, never()).unregister("tt12345");
+    }
+
+    @Test
+    @DisplayName("After Startup - Interrupted cascades are taken up again")
+    void afterSingletonsInstantiated_thenResumesTombstones() {
+        when(imdbIdRegistry.findTombstones()).thenReturn(List.of("tt1", "tt2"));
+        reviewCascade.afterSingletonsInstantiated();
+        verify(taskExecutor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Move Reviews - Single updateMany by imdbId")
+    void moveReviews_thenUpdatesParentImdbId() {
+        reviewCascade.moveReviews("tt12345", "tt54321");
+        verify(mongoTemplate, times(1)).updateMulti(Query.query(Criteria.where("imdbId").is("tt12345")), new Update().set("imdbId", "tt54321"), Review.class);
+    }
+}
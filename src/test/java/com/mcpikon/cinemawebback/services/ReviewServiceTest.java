@@ -1,7 +1,5 @@
 package com.mcpikon.cinemawebback.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
@@ -9,31 +7,57 @@ import com.mcpikon.cinemawebback.dtos.ReviewDTO;
 import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Review;
 import com.mcpikon.cinemawebback.models.Series;
 import com.mcpikon.cinemawebback.repositories.MovieRepository;
 import com.mcpikon.cinemawebback.repositories.ReviewRepository;
 import com.mcpikon.cinemawebback.repositories.SeriesRepository;
 import com.mcpikon.cinemawebback.services.impl.ReviewServiceImpl;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import com.mcpikon.cinemawebback.utils.DTOMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.exceptions.Errors.PRECONDITION_FAILED;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.MOVIE;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.SERIES;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
-import static org.springframework.data.mongodb.core.ExecutableUpdateOperation.*;
 
 @ExtendWith(MockitoExtension.class)
 class ReviewServiceTest {
@@ -50,76 +74,111 @@ class ReviewServiceTest {
     private MongoTemplate mongoTemplate;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private ImdbIdRegistry imdbIdRegistry;
 
     @Mock
-    private JsonPatch jsonPatch;
+    private ObjectProvider<CacheManager> cacheManager;
 
-    @Mock
-    private JsonNode jsonNode;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final MongoConverter mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext());
 
     @InjectMocks
     private ReviewServiceImpl reviewService;
 
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(reviewService, "latestReviewsSize", 5);
+    }
+
     @Test
     @DisplayName("Find All Reviews - OK")
     void findAllReviews_thenReturnsList() {
         List<Review> reviewList = List.of(
                 Review.builder().title("review 1").build(),
                 Review.builder().title("review 2").build());
-        when(reviewRepo.findAll()).thenReturn(reviewList);
-        List<Review> reviewsFoundedList = reviewService.findAll();
-        assertNotNull(reviewsFoundedList);
-        assertEquals(reviewList.size(), reviewsFoundedList.size());
+        Pageable paging = PageRequest.of(0, 10);
+        when(reviewRepo.findAll(paging)).thenReturn(new PageImpl<>(reviewList, paging, reviewList.size()));
+        Map<String, Object> reviewsResMap = reviewService.findAll(0, 10);
+        assertNotNull(reviewsResMap);
+        assertEquals(reviewList, reviewsResMap.get("reviews"));
+        assertEquals(2L, reviewsResMap.get("totalItems"));
     }
 
     @Test
     @DisplayName("Find All Reviews - Throws Empty List")
     void findAllReviews_thenThrowsEmptyList() {
-        when(reviewRepo.findAll()).thenReturn(new ArrayList<>());
-        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAll(), "ErrorException was expected");
+        Pageable paging = PageRequest.of(0, 1);
+        when(reviewRepo.findAll(paging)).thenReturn(new PageImpl<>(new ArrayList<>(), paging, 0));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAll(-1, -1), "ErrorException was expected");
         assertEquals("Empty List", thrown.getMessage());
     }
 
     @Test
-    @DisplayName("Find All Reviews By ImdbId - OK (Exists By Movie ImdbId)")
-    void findAllReviewsByImdbId_whenExistsByMovieImdbId_thenReturnList() {
-        String imdbId = "tt12345";
+    @DisplayName("Find All Reviews By Cursor - OK")
+    void findAllReviewsByCursor_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
         List<Review> reviewList = List.of(
-                Review.builder().title("review 1").build(),
-                Review.builder().title("review 2").build());
-        Movie movie = Movie.builder().imdbId(imdbId).reviewIds(reviewList).build();
-        when(movieRepo.existsByImdbId(imdbId)).thenReturn(true);
-        when(movieRepo.findByImdbId(imdbId)).thenReturn(Optional.of(movie));
+                Review.builder().id(new ObjectId()).title("review 1").build(),
+                Review.builder().id(lastId).title("review 2").build());
+        Pageable paging = PageRequest.of(0, 2, Sort.by("id"));
+        when(reviewRepo.findAllByIdGreaterThan(any(ObjectId.class), eq(paging))).thenReturn(new SliceImpl<>(reviewList, paging, true));
+        Map<String, Object> resMap = reviewService.findAllByCursor("", 2);
+        assertEquals(2, ((List<?>) resMap.get("reviews")).size());
+        assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("Find All Reviews By Cursor - Throws Empty List")
+    void findAllReviewsByCursor_thenThrowsEmptyList() {
+        Pageable paging = PageRequest.of(0, 1, Sort.by("id"));
+        when(reviewRepo.findAllByIdGreaterThan(any(ObjectId.class), eq(paging))).thenReturn(new SliceImpl<>(new ArrayList<>(), paging, false));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAllByCursor(null, -1), "ErrorException was expected");
+        assertEquals("Empty List", thrown.getMessage());
+    }
 
-        List<Review> reviewsFoundedList = reviewService.findAllByImdbId(imdbId);
-        assertNotNull(reviewsFoundedList);
-        assertEquals(reviewList.size(), reviewsFoundedList.size());
+    @Test
+    @DisplayName("Stream All Reviews - Writes NDJSON")
+    void streamAllReviews_thenWritesOneLinePerReview() throws IOException {
+        Review review1 = Review.builder().title("review 1").build();
+        Review review2 = Review.builder().title("review 2").build();
+        when(reviewRepo.streamAllBy()).thenReturn(Stream.of(review1, review2));
+        when(objectMapper.writeValueAsBytes(review1)).thenReturn("{\"title\":\"review 1\"}".getBytes());
+        when(objectMapper.writeValueAsBytes(review2)).thenReturn("{\"title\":\"review 2\"}".getBytes());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        reviewService.streamAll(outputStream);
+        assertEquals("{\"title\":\"review 1\"}\n{\"title\":\"review 2\"}\n", outputStream.toString());
     }
 
     @Test
-    @DisplayName("Find All Reviews By ImdbId - OK (Exists By Series ImdbId)")
-    void findAllReviewsByImdbId_whenExistsBySeriesImdbId_thenReturnList() {
+    @DisplayName("Find All Reviews By ImdbId - OK")
+    void findAllReviewsByImdbId_thenReturnPage() {
         String imdbId = "tt12345";
         List<Review> reviewList = List.of(
-                Review.builder().title("review 1").build(),
-                Review.builder().title("review 2").build());
-        Series series = Series.builder().imdbId(imdbId).reviewIds(reviewList).build();
-        when(seriesRepo.existsByImdbId(imdbId)).thenReturn(true);
-        when(seriesRepo.findByImdbId(imdbId)).thenReturn(Optional.of(series));
-
-        List<Review> reviewsFoundedList = reviewService.findAllByImdbId(imdbId);
-        assertNotNull(reviewsFoundedList);
-        assertEquals(reviewList.size(), reviewsFoundedList.size());
+                Review.builder().id(new ObjectId()).imdbId(imdbId).title("review 1").build(),
+                Review.builder().id(new ObjectId()).imdbId(imdbId).title("review 2").build());
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt"));
+        when(reviewRepo.findAllByImdbId(imdbId, pageRequest)).thenReturn(new PageImpl<>(reviewList, pageRequest, 3));
+
+        Map<String, Object> response = reviewService.findAllByImdbId(imdbId, 0, 2);
+        assertEquals(reviewList, response.get("reviews"));
+        assertEquals(3L, response.get("totalItems"));
+        assertEquals(2, response.get("totalPages"));
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
     @DisplayName("Find All Reviews By ImdbId - Throws Not Exists")
     void findAllReviewsByImdbId_thenThrowNotExists() {
         String imdbId = "tt54321";
-        when(movieRepo.existsByImdbId(imdbId)).thenReturn(false);
-        when(seriesRepo.existsByImdbId(imdbId)).thenReturn(false);
-        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAllByImdbId(imdbId), "ErrorException was expected");
+        when(reviewRepo.findAllByImdbId(eq(imdbId), any(Pageable.class))).thenReturn(Page.empty());
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.empty());
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAllByImdbId(imdbId, 0, 10), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
@@ -127,14 +186,43 @@ class ReviewServiceTest {
     @DisplayName("Find All Reviews By ImdbId - Throws Empty List")
     void findAllReviewsByImdbId_thenThrowsEmptyList() {
         String imdbId = "tt12345";
-        Movie movie = Movie.builder().imdbId(imdbId).reviewIds(new ArrayList<>()).build();
-        when(movieRepo.existsByImdbId(imdbId)).thenReturn(true);
-        when(movieRepo.findByImdbId(imdbId)).thenReturn(Optional.of(movie));
+        when(reviewRepo.findAllByImdbId(eq(imdbId), any(Pageable.class))).thenReturn(Page.empty());
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.of(MOVIE));
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAllByImdbId(imdbId), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findAllByImdbId(imdbId, 0, 10), "ErrorException was expected");
         assertEquals("Empty List", thrown.getMessage());
     }
 
+    @Test
+    @DisplayName("Find Rating Stats By ImdbId (Movie) - OK")
+    void findStatsByImdbId_whenExistsByMovieImdbId_thenReturnStats() {
+        String imdbId = "tt12345";
+        RatingStats stats = RatingStats.builder().count(2).sum(7).histogram(Map.of("3", 1L, "4", 1L)).build();
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.of(MOVIE));
+        when(mongoTemplate.findOne(any(Query.class), eq(Movie.class))).thenReturn(Movie.builder().ratingStats(stats).build());
+        RatingStats statsFounded = reviewService.findStatsByImdbId(imdbId);
+        assertEquals(3.5, statsFounded.getAverage());
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Series.class));
+    }
+
+    @Test
+    @DisplayName("Find Rating Stats By ImdbId (Series without stats) - Empty")
+    void findStatsByImdbId_whenSeriesHasNoStats_thenReturnEmpty() {
+        String imdbId = "tt12345";
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.of(SERIES));
+        when(mongoTemplate.findOne(any(Query.class), eq(Series.class))).thenReturn(Series.builder().build());
+        RatingStats statsFounded = reviewService.findStatsByImdbId(imdbId);
+        assertEquals(0, statsFounded.getCount());
+        assertEquals(0.0, statsFounded.getAverage());
+    }
+
+    @Test
+    @DisplayName("Find Rating Stats By ImdbId - Throws Not Exists")
+    void findStatsByImdbId_thenThrowsNotExists() {
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.findStatsByImdbId("tt12345"), "ErrorException was expected");
+        assertEquals("Entity doesn't exists", thrown.getMessage());
+    }
+
     @Test
     @DisplayName("Find Review By Id - OK")
     void findReviewById_thenReturnReview() {
@@ -161,14 +249,9 @@ class ReviewServiceTest {
         Review reviewGiven = Review.builder().title("review to save").build();
         ReviewSaveDTO reviewSaveDTO = ReviewSaveDTO.builder().title("review to save").imdbId(imdbId).build();
 
-        when(movieRepo.existsByImdbId(imdbId)).thenReturn(true);
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.of(MOVIE));
         when(reviewRepo.insert(any(Review.class))).thenReturn(reviewGiven);
-        var ex = mock(ExecutableUpdate.class);
-        var up = mock(UpdateWithUpdate.class);
-        var tup = mock(TerminatingUpdate.class);
-        when(mongoTemplate.update(Movie.class)).thenReturn(ex);
-        when(ex.matching(Criteria.where("imdbId").is(reviewSaveDTO.imdbId()))).thenReturn(up);
-        when(up.apply(any(Update.class))).thenReturn(tup);
+        when(mongoTemplate.findAndModify(eq(parentQueryOf(imdbId)), any(Update.class), eq(Movie.class))).thenReturn(Movie.builder().id(new ObjectId()).build());
 
         Review reviewSaved = reviewService.save(reviewSaveDTO);
         assertNotNull(reviewSaved);
@@ -181,17 +264,13 @@ class ReviewServiceTest {
         Review reviewGiven = Review.builder().title("review to save").build();
         ReviewSaveDTO reviewSaveDTO = ReviewSaveDTO.builder().title("review to save").imdbId(imdbId).build();
 
-        when(seriesRepo.existsByImdbId(imdbId)).thenReturn(true);
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.of(SERIES));
         when(reviewRepo.insert(any(Review.class))).thenReturn(reviewGiven);
-        var ex = mock(ExecutableUpdate.class);
-        var up = mock(UpdateWithUpdate.class);
-        var tup = mock(TerminatingUpdate.class);
-        when(mongoTemplate.update(Series.class)).thenReturn(ex);
-        when(ex.matching(Criteria.where("imdbId").is(reviewSaveDTO.imdbId()))).thenReturn(up);
-        when(up.apply(any(Update.class))).thenReturn(tup);
+        when(mongoTemplate.findAndModify(eq(parentQueryOf(imdbId)), any(Update.class), eq(Series.class))).thenReturn(Series.builder().id(new ObjectId()).build());
 
         Review reviewSaved = reviewService.save(reviewSaveDTO);
         assertNotNull(reviewSaved);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), argThat(update -> update.getUpdateObject().get("$push", org.bson.Document.class).containsKey("latestReviews")), eq(Series.class));
     }
 
     @Test
@@ -199,8 +278,7 @@ class ReviewServiceTest {
     void saveReview_thenThrowsNotExists() {
         String imdbId = "tt12345";
         ReviewSaveDTO reviewSaveDTO = ReviewSaveDTO.builder().imdbId(imdbId).title("review to save").build();
-        when(movieRepo.existsByImdbId(imdbId)).thenReturn(false);
-        when(seriesRepo.existsByImdbId(imdbId)).thenReturn(false);
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.empty());
         ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.save(reviewSaveDTO), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
@@ -209,12 +287,40 @@ class ReviewServiceTest {
     @DisplayName("Delete Review By Id - OK")
     void deleteReviewById_thenReturnsOk() {
         ObjectId id = new ObjectId();
-        Review reviewGiven = Review.builder().id(id).title("review to delete").build();
+        Review reviewGiven = Review.builder().id(id).imdbId("tt12345").title("review to delete").build();
+        Review reviewLeft = Review.builder().id(new ObjectId()).imdbId("tt12345").title("review left").build();
         when(reviewRepo.findById(id)).thenReturn(Optional.of(reviewGiven));
+        when(reviewRepo.findLatestByImdbId("tt12345", PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "createdAt")))).thenReturn(List.of(reviewLeft));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Movie.class))).thenReturn(Movie.builder().id(new ObjectId()).build());
         Map<String, String> expectedRes = Map.of("message", String.format("Review with id: '%s' was successfully deleted", id));
         Map<String, String> response = reviewService.delete(id);
         assertNotNull(response);
         assertEquals(expectedRes.get("message"), response.get("message"));
+        verify(mongoTemplate, times(1)).findAndModify(parentQueryOf("tt12345"),
+                new Update().set("latestReviews", List.of(DTOMapper.reviewToPreview(reviewLeft))).inc("ratingStats.count", -1).inc("ratingStats.sum", 0)
+                        .inc("ratingStats.histogram.0", -1).inc("version", 1), Movie.class);
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), eq(Series.class));
+    }
+
+    @Test
+    @DisplayName("Delete Review By Id - OK (Series parent)")
+    void deleteReviewById_whenSeriesParent_thenUpdatesSeries() {
+        ObjectId id = new ObjectId();
+        Review reviewGiven = Review.builder().id(id).imdbId("tt12345").rating(4).title("review to delete").build();
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(reviewGiven));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Movie.class))).thenReturn(null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Series.class))).thenReturn(Series.builder().id(new ObjectId()).build());
+        reviewService.delete(id);
+        verify(mongoTemplate, times(1)).findAndModify(eq(parentQueryOf("tt12345")), any(Update.class), eq(Series.class));
+    }
+
+    @Test
+    @DisplayName("Delete Review By Id - OK (Without parent)")
+    void deleteReviewById_whenWithoutParent_thenSkipsParentUpdate() {
+        ObjectId id = new ObjectId();
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(Review.builder().id(id).title("review to delete").build()));
+        reviewService.delete(id);
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(Class.class));
     }
 
     @Test
@@ -236,63 +342,227 @@ class ReviewServiceTest {
         when(reviewRepo.findById(id)).thenReturn(Optional.of(reviewGiven));
         when(reviewRepo.save(any(Review.class))).thenReturn(reviewSaved);
 
-        Review review = reviewService.update(id, reviewDTO);
+        Review review = reviewService.update(id, reviewDTO, null);
         assertNotNull(review);
     }
 
+    @Test
+    @DisplayName("Update Review By Id - Rating changed updates parent stats")
+    void updateReviewById_whenRatingChanges_thenUpdatesRatingStats() {
+        ObjectId id = new ObjectId();
+        Review reviewGiven = Review.builder().id(id).title("review to update").rating(2).build();
+        ReviewDTO reviewDTO = ReviewDTO.builder().title("review updated").rating(5).build();
+        Review reviewSaved = Review.builder().id(id).imdbId("tt12345").title("review updated").rating(5).build();
+
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(reviewGiven));
+        when(reviewRepo.save(any(Review.class))).thenReturn(reviewSaved);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Movie.class))).thenReturn(null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Series.class))).thenReturn(Series.builder().id(new ObjectId()).build());
+
+        reviewService.update(id, reviewDTO, null);
+        verify(mongoTemplate, times(1)).findAndModify(eq(parentQueryOf("tt12345")), eq(new Update()
+                .set("latestReviews.$[preview]", DTOMapper.reviewToPreview(reviewSaved)).filterArray(Criteria.where("preview._id").is(id))
+                .inc("ratingStats.sum", 3).inc("ratingStats.histogram.2", -1).inc("ratingStats.histogram.5", 1).inc("version", 1)), eq(Series.class));
+    }
+
+    @Test
+    @DisplayName("Update Review By Id - Same rating only refreshes the preview")
+    void updateReviewById_whenRatingUnchanged_thenRefreshesPreview() {
+        ObjectId id = new ObjectId();
+        Review reviewGiven = Review.builder().id(id).imdbId("tt12345").title("review to update").rating(2).build();
+        ReviewDTO reviewDTO = ReviewDTO.builder().title("review updated").rating(2).build();
+
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(reviewGiven));
+        when(reviewRepo.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Movie.class))).thenReturn(Movie.builder().id(new ObjectId()).build());
+
+        Review reviewUpdated = reviewService.update(id, reviewDTO, null);
+        verify(mongoTemplate, times(1)).findAndModify(parentQueryOf("tt12345").addCriteria(Criteria.where("latestReviews.id").is(id)),
+                new Update().set("latestReviews.$[preview]", DTOMapper.reviewToPreview(reviewUpdated)).filterArray(Criteria.where("preview._id").is(id)).inc("version", 1), Movie.class);
+    }
+
+    @Test
+    @DisplayName("Update Review By Id - Throws Precondition Failed")
+    void updateReviewById_whenVersionChanged_thenThrowsPreconditionFailed() {
+        ObjectId id = new ObjectId();
+        Review reviewGiven = Review.builder().id(id).version(4L).title("review to update").rating(2).build();
+        ReviewDTO reviewDTO = ReviewDTO.builder().title("review updated").rating(5).build();
+
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(reviewGiven));
+
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.update(id, reviewDTO, 3L), "ErrorException was expected");
+        assertEquals(PRECONDITION_FAILED.getMessage(), thrown.getMessage());
+        verify(reviewRepo, never()).save(any());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(Class.class));
+    }
+
     @Test
     @DisplayName("Update Review By Id - Throws Not Exists")
     void updateReviewById_thenThrowsNotExists() {
         ObjectId id = new ObjectId();
         ReviewDTO reviewDTO = ReviewDTO.builder().title("review to update").build();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.update(id, reviewDTO), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.update(id, reviewDTO, null), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
     @Test
     @DisplayName("Patch Review By Id - OK")
-    void patchReviewById_thenReturnsReview() throws JsonProcessingException, JsonPatchException {
+    void patchReviewById_thenReturnsReview() throws IOException, JsonPatchException {
+        ObjectId id = new ObjectId();
+        Review reviewPatched = Review.builder().id(id).title("review patched").rating(3).build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class))).thenReturn(reviewPatched);
+
+        Review result = reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"review patched\"}]"), null);
+        assertEquals(reviewPatched, result);
+        verify(mongoTemplate, times(1)).findAndModify(eq(Query.query(Criteria.where("id").is(id)).addCriteria(Criteria.where("title").ne(null))), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(Class.class));
+        verify(reviewRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Patch Review By Id - OK (Rating changed, guarded by the old rating)")
+    void patchReviewById_whenRatingChanged_thenUpdatesRatingStats() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Review review = Review.builder().id(id).title("review to patch").build();
+        Review reviewPatched = Review.builder().id(id).imdbId("tt12345").title("review").rating(5).build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.findOne(any(Query.class), eq(Review.class))).thenReturn(Review.builder().id(id).rating(2).build());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class))).thenReturn(reviewPatched);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Movie.class))).thenReturn(Movie.builder().id(new ObjectId()).build());
+
+        reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/rating\", \"value\": 5}]"), null);
+        verify(mongoTemplate, times(1)).findAndModify(eq(Query.query(Criteria.where("id").is(id)).addCriteria(Criteria.where("rating").is(2))), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class));
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), eq(new Update()
+                .set("latestReviews.$[preview]", DTOMapper.reviewToPreview(reviewPatched)).filterArray(Criteria.where("preview._id").is(id))
+                .inc("ratingStats.sum", 3).inc("ratingStats.histogram.2", -1).inc("ratingStats.histogram.5", 1).inc("version", 1)), eq(Movie.class));
+    }
+
+    @Test
+    @DisplayName("Patch Review By Id - OK (Not translatable)")
+    void patchReviewById_whenNotTranslatable_thenPatchesDocument() throws IOException, JsonPatchException {
+        ObjectId id = new ObjectId();
+        Review review = Review.builder().id(id).title("review to patch").rating(1).build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(review));
+        when(reviewRepo.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Review reviewPatched = reviewService.patch(id, jsonPatchOf("[{\"op\": \"copy\", \"from\": \"/title\", \"path\": \"/body\"}]"), null);
+        assertEquals("review to patch", reviewPatched.getBody());
+        assertNotNull(reviewPatched.getUpdatedAt());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class));
+    }
+
+    @Test
+    @DisplayName("Patch Review By Id - OK (ImdbId kept)")
+    void patchReviewById_whenImdbIdPatched_thenKeepsStoredImdbId() throws IOException, JsonPatchException {
+        ObjectId id = new ObjectId();
+        Review review = Review.builder().id(id).imdbId("tt12345").title("review to patch").rating(1).body("review body").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(Class.class))).thenReturn(null);
         when(reviewRepo.findById(id)).thenReturn(Optional.of(review));
+        when(reviewRepo.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Review reviewPatched = reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null);
+        assertEquals("tt12345", reviewPatched.getImdbId());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class));
+    }
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
+    @Test
+    @DisplayName("Patch Review By Id - Throws Validation Failed (Rating out of range)")
+    void patchReviewById_whenRatingOutOfRange_thenThrowsValidationFailed() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
 
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(jsonNode);
-        when(jsonNode.asText()).thenReturn("/title");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/rating\", \"value\": 9}]"), null), "ErrorException was expected");
+        assertEquals("review rating cannot be greater than five", thrown.getMessage());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Review.class));
+        verifyNoInteractions(reviewRepo);
+    }
 
-        when(objectMapper.treeToValue(null, Review.class)).thenReturn(review);
-        when(reviewRepo.save(review)).thenReturn(review);
+    @Test
+    @DisplayName("Patch Review By Id - Throws Validation Failed (Title removed)")
+    void patchReviewById_whenTitleRemoved_thenThrowsValidationFailed() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
 
-        Review reviewPatched = reviewService.patch(id, jsonPatch);
-        assertNotNull(reviewPatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Review.class);
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatchOf("[{\"op\": \"remove\", \"path\": \"/title\"}]"), null), "ErrorException was expected");
+        assertEquals("review title cannot be empty", thrown.getMessage());
+        verifyNoInteractions(reviewRepo);
+    }
+
+    @Test
+    @DisplayName("Patch Review By Id - Throws Validation Failed (Not translatable)")
+    void patchReviewById_whenDocumentPatchInvalid_thenThrowsValidationFailed() {
+        ObjectId id = new ObjectId();
+        Review review = Review.builder().id(id).imdbId("tt12345").title("review to patch").rating(1).body("review body").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(review));
+
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatchOf("[{\"op\": \"test\", \"path\": \"/rating\", \"value\": 1}, {\"op\": \"replace\", \"path\": \"/rating\", \"value\": -1}]"), null), "ErrorException was expected");
+        assertEquals("review rating cannot be less than zero", thrown.getMessage());
+        verify(reviewRepo, never()).save(any());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(Class.class));
     }
 
     @Test
     @DisplayName("Patch Review By Id - Throws Not Exists")
     void patchReviewById_thenThrowsNotExists() {
         ObjectId id = new ObjectId();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatch), "ErrorException was expected");
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"review patched\"}]"), null), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
+    @Test
+    @DisplayName("Patch Review By Id - Throws Cannot Parse JSON")
+    void patchReviewById_whenValueHasWrongType_thenThrowsCannotParseJson() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/rating\", \"value\": \"five\"}]"), null), "ErrorException was expected");
+        assertEquals("Cannot parse JSON Patch, change JSON object", thrown.getMessage());
+    }
+
     @Test
     @DisplayName("Patch Review By Id - Throws Id Cannot Change")
     void patchReviewById_thenThrowsIdCannotChange() {
         ObjectId id = new ObjectId();
-        Review review = Review.builder().id(id).title("review to patch").build();
-        when(reviewRepo.findById(id)).thenReturn(Optional.of(review));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"review\"}, {\"op\": \"remove\", \"path\": \"/id\"}]"), null), "ErrorException was expected");
+        assertEquals("ID key cannot be changed", thrown.getMessage());
+        verifyNoInteractions(reviewRepo, mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Delete Review By Id - Evicts only the ETags of the review and its parent")
+    void deleteReviewById_thenEvictsETagsByKey() {
+        ObjectId id = new ObjectId();
+        ObjectId parentId = new ObjectId();
+        ConcurrentMapCacheManager manager = new ConcurrentMapCacheManager(ETAGS_CACHE);
+        Cache eTags = manager.getCache(ETAGS_CACHE);
+        String otherPath = "/api/v1/movies/findByImdbId/tt54321";
+        List.of("/api/v1/reviews/findById/" + id.toHexString(), "/api/v1/movies/findById/" + parentId.toHexString(),
+                "/api/v1/movies/findByImdbId/tt12345", otherPath).forEach(path -> eTags.put(path, "\"tag\""));
+        when(cacheManager.getIfAvailable()).thenReturn(manager);
+        when(reviewRepo.findById(id)).thenReturn(Optional.of(Review.builder().id(id).imdbId("tt12345").rating(3).title("review to delete").build()));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Movie.class))).thenReturn(Movie.builder().id(parentId).build());
+
+        reviewService.delete(id);
+        assertEquals(1, ((Map<?, ?>) eTags.getNativeCache()).size());
+        assertNotNull(eTags.get(otherPath));
+    }
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
+    private static Query parentQueryOf(String imdbId) {
+        Query query = Query.query(Criteria.where("imdbId").is(imdbId));
+        query.fields().include("id");
+        return query;
+    }
 
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(jsonNode);
-        when(jsonNode.asText()).thenReturn("/id");
+    private JsonPatch jsonPatchOf(String json) throws IOException {
+        return JsonPatch.fromJson(objectMapper.readTree(json));
+    }
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> reviewService.patch(id, jsonPatch), "ErrorException was expected");
-        assertEquals("ID key cannot be changed", thrown.getMessage());
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
     }
 }
\ No newline at end of file
@@ -1,33 +1,55 @@
 package com.mcpikon.cinemawebback.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.mcpikon.cinemawebback.dtos.BulkResultDTO;
 import com.mcpikon.cinemawebback.dtos.SeriesDTO;
 import com.mcpikon.cinemawebback.dtos.SeriesResponseDTO;
 import com.mcpikon.cinemawebback.exceptions.ErrorException;
 import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.RatingStats;
 import com.mcpikon.cinemawebback.models.Series;
-import com.mcpikon.cinemawebback.repositories.MovieRepository;
-import com.mcpikon.cinemawebback.repositories.ReviewRepository;
 import com.mcpikon.cinemawebback.repositories.SeriesRepository;
 import com.mcpikon.cinemawebback.services.impl.SeriesServiceImpl;
+import com.mcpikon.cinemawebback.utils.CursorUtils;
+import com.mcpikon.cinemawebback.utils.FilterUtils;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ExecutableFindOperation;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
 import java.util.*;
 
+import static com.mcpikon.cinemawebback.exceptions.Errors.PRECONDITION_FAILED;
+import static com.mcpikon.cinemawebback.models.ImdbIdEntry.Type.SERIES;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -39,19 +61,24 @@ class SeriesServiceTest {
     private SeriesRepository seriesRepo;
 
     @Mock
-    private MovieRepository movieRepo;
+    private ReviewCascade reviewCascade;
 
-    @Mock
-    private ReviewRepository reviewRepo;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     @Mock
-    private ObjectMapper objectMapper;
+    private MongoTemplate mongoTemplate;
 
     @Mock
-    private JsonPatch jsonPatch;
+    private ImdbIdRegistry imdbIdRegistry;
 
     @Mock
-    private JsonNode jsonNode;
+    private FacetCounter facetCounter;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final MongoConverter mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext());
 
     @InjectMocks
     private SeriesServiceImpl seriesService;
@@ -62,13 +89,10 @@ class SeriesServiceTest {
         List<SeriesResponseDTO> seriesResDTOList = Arrays.asList(
                 SeriesResponseDTO.builder().title("series 1").build(),
                 SeriesResponseDTO.builder().title("series 2").build());
-        List<Series> seriesList = Arrays.asList(
-                Series.builder().title("series 1").build(),
-                Series.builder().title("series 2").build());
         Pageable paging = PageRequest.of(0, 10);
-        Page<Series> seriesPage = new PageImpl<>(seriesList, paging, seriesList.size());
-        when(seriesRepo.findAll(paging)).thenReturn(seriesPage);
-        Map<String, Object> seriesResMap = seriesService.findAll(null, 0, 10);
+        Page<SeriesResponseDTO> seriesPage = new PageImpl<>(seriesResDTOList, paging, seriesResDTOList.size());
+        when(seriesRepo.findAllProjectedBy(paging)).thenReturn(seriesPage);
+        Map<String, Object> seriesResMap = seriesService.findAll(null, null, null, 0, 10);
         assertNotNull(seriesResMap);
         assertEquals(seriesResDTOList, seriesResMap.get("series"));
     }
@@ -79,13 +103,10 @@ class SeriesServiceTest {
         List<SeriesResponseDTO> seriesResDTOList = Arrays.asList(
                 SeriesResponseDTO.builder().title("series 1").build(),
                 SeriesResponseDTO.builder().title("series 2").build());
-        List<Series> seriesList = Arrays.asList(
-                Series.builder().title("series 1").build(),
-                Series.builder().title("series 2").build());
         Pageable paging = PageRequest.of(0, 10);
-        Page<Series> seriesPage = new PageImpl<>(seriesList, paging, seriesList.size());
-        when(seriesRepo.findAllByTitle("series", paging)).thenReturn(seriesPage);
-        Map<String, Object> seriesResMap = seriesService.findAll("series", 0, 10);
+        Page<SeriesResponseDTO> seriesPage = new PageImpl<>(seriesResDTOList, paging, seriesResDTOList.size());
+        when(seriesRepo.findAllProjectedByTitleSuffixesRegex("^erie", PageRequest.of(0, 10))).thenReturn(seriesPage);
+        Map<String, Object> seriesResMap = seriesService.findAll("Erie", null, null, 0, 10);
         assertNotNull(seriesResMap);
         assertEquals(seriesResDTOList, seriesResMap.get("series"));
     }
@@ -94,11 +115,75 @@ class SeriesServiceTest {
     @DisplayName("Find All Series - Throws Empty List")
     void findAllSeries_thenThrowsEmptyList() {
         Pageable paging = PageRequest.of(0, 1);
-        when(seriesRepo.findAll(paging)).thenReturn(new PageImpl<>(new ArrayList<>(), paging, 0));
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.findAll(null, -1, -1), "ErrorException was expected");
+        when(seriesRepo.findAllProjectedBy(paging)).thenReturn(new PageImpl<>(new ArrayList<>(), paging, 0));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.findAll(null, null, null, -1, -1), "ErrorException was expected");
         assertEquals("Empty List", thrown.getMessage());
     }
 
+    @Test
+    @DisplayName("Find All Series By Cursor - OK")
+    void findAllSeriesByCursor_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
+        List<SeriesResponseDTO> seriesList = Arrays.asList(
+                SeriesResponseDTO.builder().id(new ObjectId()).title("series 1").build(),
+                SeriesResponseDTO.builder().id(lastId).title("series 2").build());
+        Pageable paging = PageRequest.of(0, 2, Sort.by("id"));
+        when(seriesRepo.findAllProjectedByIdGreaterThan(any(ObjectId.class), eq(paging))).thenReturn(new SliceImpl<>(seriesList, paging, true));
+        Map<String, Object> resMap = seriesService.findAllByCursor(null, null, null, "", 2);
+        assertEquals(2, ((List<?>) resMap.get("series")).size());
+        assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor And Title - OK (Last Page)")
+    void findAllSeriesByCursorAndTitle_thenReturnListWithoutNextCursor() {
+        ObjectId afterId = new ObjectId();
+        List<SeriesResponseDTO> seriesList = List.of(SeriesResponseDTO.builder().id(new ObjectId()).title("series 1").build());
+        Pageable paging = PageRequest.of(0, 10, Sort.by("id"));
+        when(seriesRepo.findAllProjectedByIdGreaterThanAndTitleSuffixesRegex(afterId, "^erie", paging)).thenReturn(new SliceImpl<>(seriesList, paging, false));
+        Map<String, Object> resMap = seriesService.findAllByCursor("Erie", null, null, CursorUtils.encode(afterId), 10);
+        assertEquals(1, ((List<?>) resMap.get("series")).size());
+        assertNull(resMap.get("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor - Throws Empty List")
+    void findAllSeriesByCursor_thenThrowsEmptyList() {
+        Pageable paging = PageRequest.of(0, 1, Sort.by("id"));
+        when(seriesRepo.findAllProjectedByIdGreaterThan(any(ObjectId.class), eq(paging))).thenReturn(new SliceImpl<>(new ArrayList<>(), paging, false));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.findAllByCursor(null, null, null, null, -1), "ErrorException was expected");
+        assertEquals("Empty List", thrown.getMessage());
+    }
+
+    @Test
+    @DisplayName("Find All Series By Cursor And Genre - OK")
+    @SuppressWarnings("unchecked")
+    void findAllSeriesByCursorAndGenre_thenReturnListAndNextCursor() {
+        ObjectId lastId = new ObjectId();
+        List<SeriesResponseDTO> seriesList = List.of(SeriesResponseDTO.builder().id(new ObjectId()).title("series 1").build(),
+                SeriesResponseDTO.builder().id(lastId).title("series 2").build(), SeriesResponseDTO.builder().id(new ObjectId()).title("series 3").build());
+        ExecutableFindOperation.ExecutableFind<Series> find = mock(ExecutableFindOperation.ExecutableFind.class);
+        ExecutableFindOperation.FindWithProjection<SeriesResponseDTO> findProjected = mock(ExecutableFindOperation.FindWithProjection.class);
+        ExecutableFindOperation.TerminatingFind<SeriesResponseDTO> terminatingFind = mock(ExecutableFindOperation.TerminatingFind.class);
+        when(mongoTemplate.query(Series.class)).thenReturn(find);
+        when(find.as(SeriesResponseDTO.class)).thenReturn(findProjected);
+        when(findProjected.matching(any(Query.class))).thenReturn(terminatingFind);
+        when(terminatingFind.all()).thenReturn(seriesList);
+
+        Map<String, Object> resMap = seriesService.findAllByCursor(null, "Drama", null, "", 2);
+        assertEquals(seriesList.subList(0, 2), resMap.get("series"));
+        assertEquals(CursorUtils.encode(lastId), resMap.get("nextCursor"));
+        verifyNoInteractions(seriesRepo);
+    }
+
+    @Test
+    @DisplayName("Find Series Facets - OK")
+    void findSeriesFacets_thenReturnCounts() {
+        Map<String, Object> facets = Map.of("genres", List.of(Map.of("genre", "Drama", "count", 2L)), "decades", List.of());
+        when(facetCounter.facetsOf(Series.class)).thenReturn(facets);
+        assertEquals(facets, seriesService.findFacets());
+    }
+
     @Test
     @DisplayName("Find Series By Id - OK")
     void findSeriesById_thenReturnsSeries() {
@@ -143,8 +228,7 @@ class SeriesServiceTest {
         SeriesDTO seriesDTO = SeriesDTO.builder().title("Series Test").imdbId("tt12345").overview("A Series to save").build();
         Series series = Series.builder().title("Series Test").imdbId("tt12345").overview("A Series to save").build();
 
-        when(seriesRepo.existsByImdbId(any(String.class))).thenReturn(false);
-        when(movieRepo.existsByImdbId(any(String.class))).thenReturn(false);
+        when(imdbIdRegistry.register(seriesDTO.imdbId(), SERIES)).thenReturn(true);
         when(seriesRepo.insert(any(Series.class))).thenReturn(series);
 
         Series seriesSaved = seriesService.save(seriesDTO);
@@ -152,36 +236,75 @@ class SeriesServiceTest {
     }
 
     @Test
-    @DisplayName("Save Series - Throws Series Already Exists")
+    @DisplayName("Save Series - Throws Already Exists")
     void saveSeries_thenThrowsSeriesNotExists() {
-        when(seriesRepo.existsByImdbId(any(String.class))).thenReturn(true);
         SeriesDTO seriesDTO = SeriesDTO.builder().imdbId("tt12345").build();
+        when(imdbIdRegistry.register(seriesDTO.imdbId(), SERIES)).thenReturn(false);
         ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.save(seriesDTO), "ErrorException was expected");
         assertEquals("Entity already exists", thrown.getMessage());
     }
 
     @Test
-    @DisplayName("Save Series - Throws Movie Already Exists")
-    void saveSeries_thenThrowsMovieNotExists() {
-        when(movieRepo.existsByImdbId(any(String.class))).thenReturn(true);
-        SeriesDTO seriesDTO = SeriesDTO.builder().imdbId("tt12345").build();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.save(seriesDTO), "ErrorException was expected");
-        assertEquals("Entity already exists", thrown.getMessage());
+    @DisplayName("Save All Series - Per item results")
+    void saveAllSeries_thenReturnsPerItemResults() {
+        List<SeriesDTO> seriesDTOs = List.of(SeriesDTO.builder().imdbId("tt1").title("series 1").creator("creator").numberOfSeasons(1).seasonList(List.of(new Series.Season())).build(),
+                SeriesDTO.builder().imdbId("tt2").title("series 2").creator("creator").numberOfSeasons(1).seasonList(List.of(new Series.Season())).build(),
+                SeriesDTO.builder().imdbId("tt1").title("series 1 again").creator("creator").numberOfSeasons(1).seasonList(List.of(new Series.Season())).build(),
+                SeriesDTO.builder().imdbId("tt3").title("series 3").creator("creator").numberOfSeasons(1).build());
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(imdbIdRegistry.registerAll(List.of("tt1", "tt2"), SERIES)).thenReturn(Set.of("tt1"));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Series.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+
+        Map<String, Object> response = seriesService.saveAll(seriesDTOs);
+        List<?> results = (List<?>) response.get("results");
+        assertEquals(1L, response.get("inserted"));
+        assertEquals(3L, response.get("failed"));
+        assertEquals(new BulkResultDTO(0, "tt1", true, "Created"), results.get(0));
+        assertEquals(new BulkResultDTO(1, "tt2", false, "Entity already exists"), results.get(1));
+        assertEquals(new BulkResultDTO(2, "tt1", false, "The imdbId passed is already in use"), results.get(2));
+        assertEquals(new BulkResultDTO(3, "tt3", false, "season list cannot be empty"), results.get(3));
+        verify(bulkOps, times(1)).execute();
+        verify(imdbIdRegistry, times(1)).unregisterAll(List.of());
+    }
+
+    @Test
+    @DisplayName("Save All Series - Failed chunk releases the unwritten imdbIds")
+    void saveAllSeries_whenChunkFails_thenReleasesUnwritten() {
+        ReflectionTestUtils.setField(seriesService, "bulkChunkSize", 1);
+        List<SeriesDTO> seriesDTOs = List.of(SeriesDTO.builder().imdbId("tt1").title("series 1").creator("creator").numberOfSeasons(1).seasonList(List.of(new Series.Season())).build(),
+                SeriesDTO.builder().imdbId("tt2").title("series 2").creator("creator").numberOfSeasons(1).seasonList(List.of(new Series.Season())).build());
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(imdbIdRegistry.registerAll(List.of("tt1", "tt2"), SERIES)).thenReturn(Set.of("tt1", "tt2"));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Series.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(null).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("imdbId"), eq(Series.class), eq(String.class))).thenReturn(List.of("tt1"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> seriesService.saveAll(seriesDTOs));
+        verify(imdbIdRegistry, times(1)).unregisterAll(List.of("tt2"));
+        verify(facetCounter, times(1)).count(eq(Series.class), any(), any(), eq(1));
+    }
+
+    @Test
+    @DisplayName("Save All Series - Throws Empty List")
+    void saveAllSeries_thenThrowsEmptyList() {
+        List<SeriesDTO> seriesDTOs = List.of();
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.saveAll(seriesDTOs), "ErrorException was expected");
+        assertEquals("Empty List", thrown.getMessage());
     }
 
     @Test
     @DisplayName("Delete Series By Id - OK")
     void deleteSeriesById_thenReturnsOk() {
         ObjectId id = new ObjectId();
-        List<Review> reviewList = List.of(
-                Review.builder().title("review 1").build(),
-                Review.builder().title("review 2").build());
-        Series seriesGiven = Series.builder().id(id).title("series to delete").reviewIds(reviewList).build();
+        Series seriesGiven = Series.builder().id(id).imdbId("tt12345").title("series to delete").ratingStats(RatingStats.builder().count(2).build()).build();
         when(seriesRepo.findById(id)).thenReturn(Optional.of(seriesGiven));
         Map<String, String> expectedRes = Map.of("message", String.format("Series with id: '%s' was successfully deleted", id));
         Map<String, String> response = seriesService.delete(id);
         assertNotNull(response);
         assertEquals(expectedRes.get("message"), response.get("message"));
+        verify(reviewCascade, times(1)).deleteReviews("tt12345", 2);
     }
 
     @Test
@@ -193,19 +316,21 @@ class SeriesServiceTest {
     }
 
     @Test
-    @DisplayName("Update Series By Id - OK (Exists By ImdbId)")
-    void updateSeriesById_whenExistsByImdbId_thenReturnsSeries() {
+    @DisplayName("Update Series By Id - OK (ImdbId changed)")
+    void updateSeriesById_whenImdbIdChanged_thenReturnsSeries() {
         ObjectId id = new ObjectId();
         Series seriesGiven = Series.builder().id(id).imdbId("tt12345").title("series to update").build();
         SeriesDTO seriesDTO = SeriesDTO.builder().imdbId("tt54321").title("series updated").build();
         Series seriesUpdated = Series.builder().id(id).imdbId("tt54321").title("series updated").build();
 
         when(seriesRepo.findById(id)).thenReturn(Optional.of(seriesGiven));
-        when(movieRepo.existsByImdbId(seriesDTO.imdbId())).thenReturn(false);
+        when(imdbIdRegistry.register(seriesDTO.imdbId(), SERIES)).thenReturn(true);
         when(seriesRepo.save(seriesUpdated)).thenReturn(seriesUpdated);
 
-        Series series = seriesService.update(id, seriesDTO);
+        Series series = seriesService.update(id, seriesDTO, null);
         assertNotNull(series);
+        verify(imdbIdRegistry, times(1)).unregister("tt12345");
+        verify(reviewCascade, times(1)).moveReviews("tt12345", "tt54321");
     }
 
     @Test
@@ -217,11 +342,11 @@ class SeriesServiceTest {
         Series seriesUpdated = Series.builder().id(id).imdbId("tt12345").title("series updated").build();
 
         when(seriesRepo.findById(id)).thenReturn(Optional.of(seriesGiven));
-        when(movieRepo.existsByImdbId(seriesDTO.imdbId())).thenReturn(true);
         when(seriesRepo.save(seriesUpdated)).thenReturn(seriesUpdated);
 
-        Series series = seriesService.update(id, seriesDTO);
+        Series series = seriesService.update(id, seriesDTO, null);
         assertNotNull(series);
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
@@ -229,153 +354,129 @@ class SeriesServiceTest {
     void updateSeriesById_thenThrowsNotExists() {
         ObjectId id = new ObjectId();
         SeriesDTO seriesDTO = SeriesDTO.builder().title("seriesDTO test").build();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.update(id, seriesDTO));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.update(id, seriesDTO, null));
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
     @Test
-    @DisplayName("Update Series By Id - Throws ImdbId in use by Series")
-    void updateSeriesById_thenThrowsImdbIdInUseBySeries() {
+    @DisplayName("Update Series By Id - Throws Precondition Failed")
+    void updateSeriesById_whenVersionChanged_thenThrowsPreconditionFailed() {
         ObjectId id = new ObjectId();
-        Series seriesGiven = Series.builder().id(id).imdbId("tt12345").title("series to update").build();
-        SeriesDTO seriesDTO = SeriesDTO.builder().imdbId("tt54321").title("series updated").build();
+        Series seriesGiven = Series.builder().id(id).version(4L).imdbId("tt12345").title("series to update").build();
+        SeriesDTO seriesDTO = SeriesDTO.builder().imdbId("tt12345").title("series updated").build();
 
         when(seriesRepo.findById(id)).thenReturn(Optional.of(seriesGiven));
-        when(seriesRepo.existsByImdbId(seriesDTO.imdbId())).thenReturn(true);
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.update(id, seriesDTO));
-        assertEquals("The imdbId passed is already in use", thrown.getMessage());
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.update(id, seriesDTO, 3L), "ErrorException was expected");
+        assertEquals(PRECONDITION_FAILED.getMessage(), thrown.getMessage());
+        verify(seriesRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Patch Series By Id - Throws Precondition Failed")
+    void patchSeriesById_whenVersionChanged_thenThrowsPreconditionFailed() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(seriesRepo.findById(id)).thenReturn(Optional.of(Series.builder().id(id).version(4L).imdbId("tt12345").title("series to patch").build()));
+
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"series patched\"}]"), 3L), "ErrorException was expected");
+        assertEquals(PRECONDITION_FAILED.getMessage(), thrown.getMessage());
+        verify(mongoTemplate, times(1)).findAndModify(eq(Query.query(Criteria.where("id").is(id)).addCriteria(Criteria.where("version").is(3L)).addCriteria(Criteria.where("title").ne(null))), any(Update.class), any(FindAndModifyOptions.class), eq(Series.class));
+        verify(seriesRepo, never()).save(any());
     }
 
     @Test
-    @DisplayName("Update Series By Id - Throws ImdbId in use by Movie")
-    void updateSeriesById_thenThrowsImdbIdInUseByMovie() {
+    @DisplayName("Patch Series By Id - Throws Cannot Parse JSON (Replaced field missing)")
+    void patchSeriesById_whenReplacedFieldMissing_thenThrowsJsonPatchException() {
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(seriesRepo.findById(id)).thenReturn(Optional.of(Series.builder().id(id).imdbId("tt12345").title("series to patch").build()));
+
+        assertThrows(JsonPatchException.class, () -> seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/overview\", \"value\": \"overview\"}]"), null), "JsonPatchException was expected");
+        verify(mongoTemplate, times(1)).findAndModify(eq(Query.query(Criteria.where("id").is(id)).addCriteria(Criteria.where("overview").ne(null))), any(Update.class), any(FindAndModifyOptions.class), eq(Series.class));
+        verify(seriesRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Update Series By Id - Throws ImdbId in use")
+    void updateSeriesById_thenThrowsImdbIdInUse() {
         ObjectId id = new ObjectId();
         Series seriesGiven = Series.builder().id(id).imdbId("tt12345").title("series to update").build();
         SeriesDTO seriesDTO = SeriesDTO.builder().imdbId("tt54321").title("series updated").build();
 
         when(seriesRepo.findById(id)).thenReturn(Optional.of(seriesGiven));
-        when(movieRepo.existsByImdbId(seriesDTO.imdbId())).thenReturn(true);
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.update(id, seriesDTO));
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.update(id, seriesDTO, null));
         assertEquals("The imdbId passed is already in use", thrown.getMessage());
     }
 
     @Test
     @DisplayName("Patch Series By Id - OK")
-    void patchSeriesById_thenReturnsSeries() throws JsonProcessingException, JsonPatchException {
+    void patchSeriesById_thenReturnsSeries() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Series series = Series.builder().id(id).title("series to patch").build();
-        when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
-
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(jsonNode);
-        when(jsonNode.asText()).thenReturn("/title");
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("value")).thenReturn(jsonNode);
-        when(jsonNode.asText()).thenReturn("series patched");
-
-        when(objectMapper.treeToValue(null, Series.class)).thenReturn(series);
-        when(seriesRepo.save(series)).thenReturn(series);
-
-        Series seriesPatched = seriesService.patch(id, jsonPatch);
-        assertNotNull(seriesPatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Series.class);
+        Series seriesPatched = Series.builder().id(id).title("series patched").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Series.class))).thenReturn(seriesPatched);
+
+        Series result = seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"series patched\"}, {\"op\": \"add\", \"path\": \"/genres/-\", \"value\": \"Drama\"}]"), null);
+        assertEquals(seriesPatched, result);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), eq(new Update().set("title", "series patched").push("genres", "Drama").set("titleSuffixes", FilterUtils.titleSuffixesOf("series patched")).inc("version", 1)), any(FindAndModifyOptions.class), eq(Series.class));
+        verify(seriesRepo, never()).findById(any());
+        verify(seriesRepo, never()).save(any());
     }
 
     @Test
-    @DisplayName("Patch Series By Id - OK (Not Exists by Series ImdbId)")
-    void patchSeriesById_whenNotExistsBySeriesImdbId_thenReturnsSeries() throws JsonProcessingException, JsonPatchException {
+    @DisplayName("Patch Series By Id - OK (Not translatable)")
+    void patchSeriesById_whenNotTranslatable_thenPatchesDocument() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
         Series series = Series.builder().id(id).imdbId("tt12345").title("series to patch").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
+        when(seriesRepo.save(any(Series.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(seriesRepo.existsByImdbId("tt54321")).thenReturn(false);
-        when(objectMapper.treeToValue(null, Series.class)).thenReturn(series);
-        when(seriesRepo.save(series)).thenReturn(series);
-
-        Series seriesPatched = seriesService.patch(id, jsonPatch);
-        assertNotNull(seriesPatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Series.class);
+        Series seriesPatched = seriesService.patch(id, jsonPatchOf("[{\"op\": \"copy\", \"from\": \"/title\", \"path\": \"/overview\"}]"), null);
+        assertEquals("series to patch", seriesPatched.getOverview());
+        assertEquals(id, seriesPatched.getId());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Series.class));
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
-    @DisplayName("Patch Series By Id - OK (Not Exists by Movie ImdbId)")
-    void patchSeriesById_whenNotExistsByMovieImdbId_thenReturnsSeries() throws JsonProcessingException, JsonPatchException {
+    @DisplayName("Patch Series By Id - OK (ImdbId changed)")
+    void patchSeriesById_whenImdbIdChanged_thenReturnsSeries() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Series series = Series.builder().id(id).imdbId("tt12345").title("series to patch").build();
+        Series series = Series.builder().id(id).title("series to patch").imdbId("tt12345").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
+        when(imdbIdRegistry.register("tt54321", SERIES)).thenReturn(true);
+        when(seriesRepo.save(any(Series.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(movieRepo.existsByImdbId("tt54321")).thenReturn(false);
-        when(objectMapper.treeToValue(null, Series.class)).thenReturn(series);
-        when(seriesRepo.save(series)).thenReturn(series);
-
-        Series seriesPatched = seriesService.patch(id, jsonPatch);
-        assertNotNull(seriesPatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Series.class);
+        Series seriesPatched = seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null);
+        assertEquals("tt54321", seriesPatched.getImdbId());
+        verify(imdbIdRegistry, times(1)).unregister("tt12345");
+        verify(reviewCascade, times(1)).moveReviews("tt12345", "tt54321");
     }
 
     @Test
     @DisplayName("Patch Series By Id - OK (Equal ImdbId)")
-    void patchSeriesById_whenEqualImdbId_thenReturnsSeries() throws JsonProcessingException, JsonPatchException {
+    void patchSeriesById_whenEqualImdbId_thenReturnsSeries() throws IOException, JsonPatchException {
         ObjectId id = new ObjectId();
-        Series series = Series.builder().id(id).imdbId("tt54321").title("series to patch").build();
+        Series series = Series.builder().id(id).title("series to patch").imdbId("tt54321").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
+        when(seriesRepo.save(any(Series.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(seriesRepo.existsByImdbId("tt54321")).thenReturn(true);
-        when(objectMapper.treeToValue(null, Series.class)).thenReturn(series);
-        when(seriesRepo.save(series)).thenReturn(series);
-
-        Series seriesPatched = seriesService.patch(id, jsonPatch);
+        Series seriesPatched = seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null);
         assertNotNull(seriesPatched);
-        verify(objectMapper, times(2)).convertValue(any(), eq(JsonNode.class));
-        verify(objectMapper, times(1)).treeToValue(null, Series.class);
+        verifyNoInteractions(imdbIdRegistry);
     }
 
     @Test
     @DisplayName("Patch Series By Id - Throws Not Exists")
     void patchSeriesById_thenThrowsNotExists() {
         ObjectId id = new ObjectId();
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatch));
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatchOf("[{\"op\": \"remove\", \"path\": \"/overview\"}]"), null), "ErrorException was expected");
         assertEquals("Entity doesn't exists", thrown.getMessage());
     }
 
@@ -383,69 +484,44 @@ class SeriesServiceTest {
     @DisplayName("Patch Series by Id - Throws Id Cannot Change")
     void patchSeriesById_thenThrowsIdCannotChange() {
         ObjectId id = new ObjectId();
-        Series series = Series.builder().id(id).title("series to patch").build();
-        when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
-
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/id");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("new id");
-
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatch), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"series patched\"}, {\"op\": \"copy\", \"from\": \"/title\", \"path\": \"/id\"}]"), null), "ErrorException was expected");
         assertEquals("ID key cannot be changed", thrown.getMessage());
+        verifyNoInteractions(seriesRepo, mongoTemplate);
     }
 
     @Test
-    @DisplayName("Patch Series by Id - Throws ImdbId in use by Series")
-    void patchSeriesById_thenThrowsImdbIdInUseBySeries() {
+    @DisplayName("Patch Series by Id - Throws ImdbId in use")
+    void patchSeriesById_thenThrowsImdbIdInUse() {
         ObjectId id = new ObjectId();
         Series series = Series.builder().id(id).title("series to patch").imdbId("tt12345").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
-
-        when(seriesRepo.existsByImdbId("tt54321")).thenReturn(true);
-
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatch), "ErrorException was expected");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatchOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt54321\"}]"), null), "ErrorException was expected");
         assertEquals("The imdbId passed is already in use", thrown.getMessage());
+        verify(seriesRepo, never()).save(any());
     }
 
     @Test
-    @DisplayName("Patch Series by Id - Throws ImdbId in use by Movie")
-    void patchSeriesById_thenThrowsImdbIdInUseByMovie() {
+    @DisplayName("Patch Series by Id - Throws Validation Failed (ImdbId removed)")
+    void patchSeriesById_whenImdbIdRemoved_thenThrowsValidationFailed() {
         ObjectId id = new ObjectId();
         Series series = Series.builder().id(id).title("series to patch").imdbId("tt12345").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
         when(seriesRepo.findById(id)).thenReturn(Optional.of(series));
 
-        when(objectMapper.convertValue(jsonPatch, JsonNode.class)).thenReturn(jsonNode);
-
-        JsonNode innerJnPath = mock(JsonNode.class);
-        JsonNode innerJnValue = mock(JsonNode.class);
-
-        when(jsonNode.get(0)).thenReturn(jsonNode);
-        when(jsonNode.get("path")).thenReturn(innerJnPath);
-        when(innerJnPath.asText()).thenReturn("/imdbId");
-        when(jsonNode.get("value")).thenReturn(innerJnValue);
-        when(innerJnValue.asText()).thenReturn("tt54321");
+        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatchOf("[{\"op\": \"remove\", \"path\": \"/imdbId\"}]"), null), "ErrorException was expected");
+        assertEquals("Validation failed, check that the fields are not empty or null", thrown.getMessage());
+        verify(seriesRepo, never()).save(any());
+    }
 
-        when(movieRepo.existsByImdbId("tt54321")).thenReturn(true);
+    private JsonPatch jsonPatchOf(String json) throws IOException {
+        return JsonPatch.fromJson(objectMapper.readTree(json));
+    }
 
-        ErrorException thrown = assertThrows(ErrorException.class, () -> seriesService.patch(id, jsonPatch), "ErrorException was expected");
-        assertEquals("The imdbId passed is already in use", thrown.getMessage());
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.mcpikon.cinemawebback.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcpikon.cinemawebback.config.CacheConfig;
+import com.mcpikon.cinemawebback.dtos.ReviewSaveDTO;
+import com.mcpikon.cinemawebback.models.ImdbIdEntry;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.repositories.MovieRepository;
+import com.mcpikon.cinemawebback.repositories.ReviewRepository;
+import com.mcpikon.cinemawebback.repositories.SeriesRepository;
+import com.mcpikon.cinemawebback.services.impl.MovieServiceImpl;
+import com.mcpikon.cinemawebback.services.impl.ReviewServiceImpl;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static com.mcpikon.cinemawebback.config.CacheConfig.ETAGS_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.MOVIES_CACHE;
+import static com.mcpikon.cinemawebback.config.CacheConfig.SERIES_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.ExecutableUpdateOperation.ExecutableUpdate;
+
+@SpringJUnitConfig(ServiceCacheTest.TestConfig.class)
+class ServiceCacheTest {
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private MovieRepository movieRepo;
+
+    @MockBean
+    private SeriesRepository seriesRepo;
+
+    @MockBean
+    private ReviewRepository reviewRepo;
+
+    @MockBean
+    private MongoTemplate mongoTemplate;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private Validator validator;
+
+    @MockBean
+    private ImdbIdRegistry imdbIdRegistry;
+
+    @MockBean
+    private FacetCounter facetCounter;
+
+    @MockBean
+    private ReviewCascade reviewCascade;
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Find Movie By ImdbId - Cached after first call")
+    void findMovieByImdbId_whenCalledTwice_thenHitsRepositoryOnce() {
+        String imdbId = "tt12345";
+        when(movieRepo.findByImdbId(imdbId)).thenReturn(Optional.of(Movie.builder().imdbId(imdbId).build()));
+        movieService.findByImdbId(imdbId);
+        movieService.findByImdbId(imdbId);
+        verify(movieRepo, times(1)).findByImdbId(imdbId);
+        assertNotNull(cacheManager.getCache(MOVIES_CACHE).get(imdbId));
+    }
+
+    @Test
+    @DisplayName("Delete Movie - Evicts cached entries")
+    void deleteMovie_thenEvictsCache() {
+        String imdbId = "tt12345";
+        ObjectId id = new ObjectId();
+        Movie movie = Movie.builder().id(id).imdbId(imdbId).latestReviews(new ArrayList<>()).build();
+        when(movieRepo.findByImdbId(imdbId)).thenReturn(Optional.of(movie));
+        when(movieRepo.findById(id)).thenReturn(Optional.of(movie));
+        movieService.findByImdbId(imdbId);
+        movieService.delete(id);
+        assertNull(cacheManager.getCache(MOVIES_CACHE).get(imdbId));
+    }
+
+    @Test
+    @DisplayName("Save Review - Evicts cached parent")
+    void saveReview_thenEvictsParentCache() {
+        String imdbId = "tt12345";
+        cacheManager.getCache(MOVIES_CACHE).put(imdbId, Movie.builder().imdbId(imdbId).build());
+        when(imdbIdRegistry.findTypeByImdbId(imdbId)).thenReturn(Optional.of(ImdbIdEntry.Type.MOVIE));
+        when(reviewRepo.insert(any(Review.class))).thenReturn(Review.builder().title("review").build());
+        when(mongoTemplate.update(Movie.class)).thenReturn(mock(ExecutableUpdate.class, RETURNS_DEEP_STUBS));
+        reviewService.save(ReviewSaveDTO.builder().title("review").imdbId(imdbId).build());
+        assertNull(cacheManager.getCache(MOVIES_CACHE).get(imdbId));
+        assertNull(cacheManager.getCache(SERIES_CACHE).get(imdbId));
+    }
+
+    @Import(CacheConfig.class)
+    static class TestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(MOVIES_CACHE, SERIES_CACHE, ETAGS_CACHE);
+        }
+
+        @Bean
+        MovieService movieService() {
+            return new MovieServiceImpl();
+        }
+
+        @Bean
+        ReviewService reviewService() {
+            return new ReviewServiceImpl();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mcpikon.cinemawebback.dtos.MovieDTO;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class BulkUtilsTest {
+
+    @Test
+    @DisplayName("Insert Unordered - Chunks and maps write errors to list positions")
+    void insertUnordered_thenChunksAndReturnsFailuresByPosition() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        List<Movie> movies = List.of(new Movie(), new Movie(), new Movie(), new Movie(), new Movie());
+        MongoBulkWriteException writeException = new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null, new ServerAddress(), Set.of());
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(null).thenThrow(new BulkOperationException("duplicate key", writeException)).thenReturn(null);
+
+        Map<Integer, String> failures = BulkUtils.insertUnordered(mongoTemplate, Movie.class, movies, 2);
+        assertEquals(Map.of(3, "duplicate key"), failures);
+        verify(bulkOps, times(3)).execute();
+    }
+
+    @Test
+    @DisplayName("Read Items - JSON Array And NDJSON")
+    void readItems_thenReadsEveryValue() throws IOException {
+        ObjectReader reader = new ObjectMapper().readerFor(MovieDTO.class);
+        List<MovieDTO> fromArray = BulkUtils.readItems(reader, body("[{\"imdbId\": \"tt1\"}, {\"imdbId\": \"tt2\"}]"), 2, 1024);
+        List<MovieDTO> fromNdjson = BulkUtils.readItems(reader, body("{\"imdbId\": \"tt1\"}\n{\"imdbId\": \"tt2\"}\n"), 2, 1024);
+        assertEquals(List.of("tt1", "tt2"), fromArray.stream().map(MovieDTO::imdbId).toList());
+        assertEquals(fromArray, fromNdjson);
+    }
+
+    @Test
+    @DisplayName("Read Items - Throws Payload Too Large")
+    void readItems_whenOverLimits_thenThrowsTooLarge() {
+        ObjectReader reader = new ObjectMapper().readerFor(MovieDTO.class);
+        String ndjson = "{\"imdbId\": \"tt1\"}\n{\"imdbId\": \"tt2\"}\n{\"imdbId\": \"tt3\"}\n";
+        ErrorException tooManyItems = assertThrows(ErrorException.class, () -> BulkUtils.readItems(reader, body(ndjson), 2, 1024));
+        ErrorException tooManyBytes = assertThrows(ErrorException.class, () -> BulkUtils.readItems(reader, body(ndjson), 10, 20));
+        assertEquals(413, tooManyItems.getHttpStatus().value());
+        assertEquals("Bulk request is too large, split it in smaller requests", tooManyBytes.getMessage());
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
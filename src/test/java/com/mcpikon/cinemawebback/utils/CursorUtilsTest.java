@@ -0,0 +1,34 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorUtilsTest {
+
+    @Test
+    @DisplayName("Encode and Decode Cursor")
+    void encodeAndDecode_thenReturnsSameId() {
+        ObjectId id = new ObjectId();
+        String cursor = CursorUtils.encode(id);
+        assertNotEquals(id.toHexString(), cursor);
+        assertEquals(id, CursorUtils.decode(cursor));
+    }
+
+    @Test
+    @DisplayName("Decode Empty Cursor - Returns First Id")
+    void decodeEmpty_thenReturnsFirstId() {
+        assertEquals(new ObjectId("000000000000000000000000"), CursorUtils.decode(""));
+        assertEquals(new ObjectId("000000000000000000000000"), CursorUtils.decode(null));
+    }
+
+    @Test
+    @DisplayName("Decode Cursor - Throws Cannot Parse Cursor")
+    void decodeInvalid_thenThrowsCannotParseCursor() {
+        ErrorException thrown = assertThrows(ErrorException.class, () -> CursorUtils.decode("not-a-cursor"), "ErrorException was expected");
+        assertEquals("Error parsing pagination cursor (cursor not valid)", thrown.getMessage());
+    }
+}
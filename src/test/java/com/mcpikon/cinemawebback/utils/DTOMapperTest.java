@@ -3,6 +3,7 @@ package com.mcpikon.cinemawebback.utils;
 import com.mcpikon.cinemawebback.dtos.*;
 import com.mcpikon.cinemawebback.models.Movie;
 import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.ReviewPreview;
 import com.mcpikon.cinemawebback.models.Series;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,6 +39,7 @@ class DTOMapperTest {
         Movie movie = DTOMapper.dtoToMovie(movieDTOMock);
         assertNotNull(movie);
         assertEquals(movieDTOMock.imdbId(), movie.getImdbId());
+        assertEquals(0, movie.getRatingStats().getCount());
     }
 
     @Test
@@ -63,6 +65,7 @@ class DTOMapperTest {
         Series series = DTOMapper.dtoToSeries(seriesDTOMock);
         assertNotNull(series);
         assertEquals(seriesDTOMock.imdbId(), series.getImdbId());
+        assertEquals(0, series.getRatingStats().getCount());
     }
 
     @Test
@@ -98,4 +101,13 @@ class DTOMapperTest {
         assertEquals(reviewMock.getId(), review.getId());
         assertEquals(reviewDTOMock.title(), review.getTitle());
     }
+
+    @Test
+    @DisplayName("Review to Preview")
+    void reviewToPreview_thenReturnsPreview() {
+        ReviewPreview preview = DTOMapper.reviewToPreview(reviewMock);
+        assertEquals(reviewMock.getId(), preview.getId());
+        assertEquals(reviewMock.getTitle(), preview.getTitle());
+        assertEquals(reviewMock.getRating(), preview.getRating());
+    }
 }
\ No newline at end of file
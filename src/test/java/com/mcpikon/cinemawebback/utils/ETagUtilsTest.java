@@ -0,0 +1,80 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagUtilsTest {
+
+    @Test
+    @DisplayName("ETag Of and Version Of - Returns Same Version")
+    void ofAndVersionOf_thenReturnsSameVersion() {
+        ObjectId id = new ObjectId();
+        String eTag = ETagUtils.of(id, 7L);
+        assertEquals("\"" + id.toHexString() + "-7\"", eTag);
+        assertEquals(7L, ETagUtils.versionOf(eTag, id));
+        assertEquals(7L, ETagUtils.versionOf("\"other\", " + eTag, id));
+    }
+
+    @Test
+    @DisplayName("Version Of - Returns Null Without Condition")
+    void versionOfMissingOrAny_thenReturnsNull() {
+        ObjectId id = new ObjectId();
+        assertNull(ETagUtils.versionOf(null, id));
+        assertNull(ETagUtils.versionOf(" ", id));
+        assertNull(ETagUtils.versionOf("*", id));
+    }
+
+    @Test
+    @DisplayName("Version Of - Throws Precondition Failed")
+    void versionOfNotMatching_thenThrowsPreconditionFailed() {
+        ObjectId id = new ObjectId();
+        for (String ifMatch : new String[]{ETagUtils.of(new ObjectId(), 1L), "W/" + ETagUtils.of(id, 1L), "\"" + id.toHexString() + "-\"", "not-a-tag"}) {
+            ErrorException thrown = assertThrows(ErrorException.class, () -> ETagUtils.versionOf(ifMatch, id), ifMatch);
+            assertEquals("Entity was modified by another request, fetch it again to get its current ETag", thrown.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Any Matches - Weak Comparison Of If-None-Match")
+    void anyMatches_thenComparesOpaqueTags() {
+        String eTag = ETagUtils.of(new ObjectId(), 2L);
+        assertTrue(ETagUtils.anyMatches(eTag, eTag));
+        assertTrue(ETagUtils.anyMatches("\"other\", W/" + eTag, eTag));
+        assertTrue(ETagUtils.anyMatches("*", eTag));
+        assertFalse(ETagUtils.anyMatches("\"other\"", eTag));
+    }
+
+    @Test
+    @DisplayName("Matches - Only Checks Expected Versions")
+    void matches_thenComparesVersions() {
+        assertTrue(ETagUtils.matches(3L, null));
+        assertTrue(ETagUtils.matches(3L, 3L));
+        assertFalse(ETagUtils.matches(4L, 3L));
+        assertFalse(ETagUtils.matches(null, 3L));
+    }
+
+    @Test
+    @DisplayName("Is Not Older - Compares Versions Of The Same Document Only")
+    void isNotOlder_thenComparesSameDocumentVersions() {
+        ObjectId id = new ObjectId();
+        assertTrue(ETagUtils.isNotOlder(ETagUtils.of(id, 3L), ETagUtils.of(id, 2L)));
+        assertTrue(ETagUtils.isNotOlder(ETagUtils.of(id, 3L), "W/" + ETagUtils.of(id, 3L)));
+        assertFalse(ETagUtils.isNotOlder(ETagUtils.of(id, 2L), ETagUtils.of(id, 3L)));
+        assertTrue(ETagUtils.isNotOlder(ETagUtils.of(new ObjectId(), 0L), ETagUtils.of(id, 3L)));
+        assertTrue(ETagUtils.isNotOlder("\"not-a-tag\"", ETagUtils.of(id, 3L)));
+    }
+
+    @Test
+    @DisplayName("Paths Of - Returns The Cached GET Paths")
+    void pathsOf_thenReturnsCachedPaths() {
+        ObjectId id = new ObjectId();
+        assertEquals(List.of("/api/v1/movies/findById/" + id.toHexString(), "/api/v1/movies/findByImdbId/tt12345"), ETagUtils.pathsOf("movies", id, "tt12345"));
+        assertEquals(List.of("/api/v1/reviews/findById/" + id.toHexString()), ETagUtils.pathsOf("reviews", id, null));
+    }
+}
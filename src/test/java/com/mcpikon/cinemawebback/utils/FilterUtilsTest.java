@@ -0,0 +1,58 @@
+package com.mcpikon.cinemawebback.utils;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterUtilsTest {
+
+    @Test
+    @DisplayName("Query Of - Genre And Year Range")
+    void queryOf_thenFiltersGenreAndYear() {
+        Query query = FilterUtils.queryOf(null, "Drama", 1999);
+        assertEquals(new Document("genres", "Drama").append("releaseDate", new Document("$gte", "1999").append("$lt", "2000")), query.getQueryObject());
+        assertTrue(query.getSortObject().isEmpty());
+        assertEquals(new Document("releaseDate", new Document("$gte", "0999").append("$lt", "1000")), FilterUtils.queryOf(null, null, 999).getQueryObject());
+    }
+
+    @Test
+    @DisplayName("Query Of - Title As Anchored Suffix Prefix")
+    void queryOf_whenTitle_thenSearchesSuffixes() {
+        Document query = FilterUtils.queryOf("Incep", "Action", null).getQueryObject();
+        assertEquals("^incep", ((Pattern) query.get("titleSuffixes")).pattern());
+        assertEquals("Action", query.get("genres"));
+        assertEquals("^a\\.b\\*", FilterUtils.titleRegexOf("A.b*"));
+    }
+
+    @Test
+    @DisplayName("Title Suffixes Of - Every Lower-Cased Suffix")
+    void titleSuffixesOf_thenReturnsSuffixes() {
+        assertEquals(List.of("the ark", "he ark", "e ark", " ark", "ark", "rk", "k"), FilterUtils.titleSuffixesOf("The Ark"));
+        assertNull(FilterUtils.titleSuffixesOf(null));
+    }
+
+    @Test
+    @DisplayName("With Title Suffixes - Follows A Title Set Or Unset")
+    void withTitleSuffixes_thenFollowsTitle() {
+        assertEquals(List.of("ab", "b"), FilterUtils.withTitleSuffixes(new Update().set("title", "Ab")).getUpdateObject().get("$set", Document.class).get("titleSuffixes"));
+        assertTrue(FilterUtils.withTitleSuffixes(new Update().unset("title")).getUpdateObject().get("$unset", Document.class).containsKey("titleSuffixes"));
+        assertFalse(FilterUtils.withTitleSuffixes(new Update().set("director", "d")).getUpdateObject().get("$set", Document.class).containsKey("titleSuffixes"));
+    }
+
+    @Test
+    @DisplayName("Decade Of - Year Prefix Of Release Date")
+    void decadeOf_thenReturnsDecadeOrNull() {
+        assertEquals(2010, FilterUtils.decadeOf("2019-12-31"));
+        assertEquals(1990, FilterUtils.decadeOf("1990"));
+        assertNull(FilterUtils.decadeOf(null));
+        assertNull(FilterUtils.decadeOf("199"));
+        assertNull(FilterUtils.decadeOf("July 1999"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.mcpikon.cinemawebback.utils;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoCommandUtilsTest {
+
+    @Test
+    @DisplayName("Collection Of - Command Value Or Collection Field")
+    void collectionOf_thenReturnsCollection() {
+        assertEquals("movies", MongoCommandUtils.collectionOf("find", BsonDocument.parse("{find: 'movies', filter: {}}")));
+        assertEquals("reviews", MongoCommandUtils.collectionOf("getMore", BsonDocument.parse("{getMore: {$numberLong: '12'}, collection: 'reviews'}")));
+        assertEquals("unknown", MongoCommandUtils.collectionOf("ping", BsonDocument.parse("{ping: 1}")));
+    }
+
+    @Test
+    @DisplayName("Filter Shape Of - Values Are Replaced")
+    void filterShapeOf_thenHidesValues() {
+        assertEquals("{\"imdbId\": \"?\", \"version\": \"?\"}",
+                MongoCommandUtils.filterShapeOf(BsonDocument.parse("{find: 'movies', filter: {imdbId: 'tt12345', version: 3}}")));
+        assertEquals("{\"_id\": {\"$in\": [\"?\"]}}",
+                MongoCommandUtils.filterShapeOf(BsonDocument.parse("{find: 'reviews', filter: {_id: {$in: [1, 2, 3]}}}")));
+    }
+
+    @Test
+    @DisplayName("Filter Shape Of - Statements And Pipelines")
+    void filterShapeOf_whenStatementsOrPipeline_thenReturnsShape() {
+        assertEquals("{\"imdbId\": \"?\"}",
+                MongoCommandUtils.filterShapeOf(BsonDocument.parse("{update: 'movies', updates: [{q: {imdbId: 'tt12345'}, u: {$inc: {version: 1}}}]}")));
+        assertEquals("{\"pipeline\": [{\"$match\": {\"imdbId\": \"?\"}}, {\"$group\": {\"_id\": \"?\", \"count\": {\"$sum\": \"?\"}}}]}",
+                MongoCommandUtils.filterShapeOf(BsonDocument.parse("{aggregate: 'reviews', pipeline: [{$match: {imdbId: 'tt12345'}}, {$group: {_id: null, count: {$sum: 1}}}]}")));
+        assertNull(MongoCommandUtils.filterShapeOf(BsonDocument.parse("{insert: 'reviews', documents: [{title: 'review'}]}")));
+    }
+
+    @Test
+    @DisplayName("Filter Of - Keeps Only The Filter")
+    void filterOf_thenKeepsFilterPart() {
+        assertEquals(BsonDocument.parse("{filter: {imdbId: 'tt12345'}}"),
+                MongoCommandUtils.filterOf(BsonDocument.parse("{find: 'movies', filter: {imdbId: 'tt12345'}, limit: 1}")));
+        assertEquals(BsonDocument.parse("{deletes: [{q: {imdbId: 'tt1'}, limit: 0}]}"),
+                MongoCommandUtils.filterOf(BsonDocument.parse("{delete: 'reviews', deletes: [{q: {imdbId: 'tt1'}, limit: 0}, {q: {imdbId: 'tt2'}, limit: 0}]}")));
+        assertNull(MongoCommandUtils.filterOf(BsonDocument.parse("{insert: 'reviews', documents: [{title: 'review'}]}")));
+        assertEquals("{\"imdbId\": \"?\"}", MongoCommandUtils.filterShapeOf(MongoCommandUtils.filterOf(BsonDocument.parse("{find: 'movies', filter: {imdbId: 'tt12345'}}"))));
+        assertNull(MongoCommandUtils.filterShapeOf(null));
+    }
+}
@@ -0,0 +1,131 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import com.mcpikon.cinemawebback.models.Movie;
+import com.mcpikon.cinemawebback.models.Review;
+import com.mcpikon.cinemawebback.models.Series;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchUtilsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MongoMappingContext mappingContext = mappingContext();
+
+    @Test
+    @DisplayName("To Update - Translates Set, Unset and Push")
+    void toUpdate_thenReturnsFieldLevelUpdate() throws JsonProcessingException {
+        Optional<Update> update = PatchUtils.toUpdate(operationsOf("""
+                [{"op": "replace", "path": "/title", "value": "movie patched"},
+                 {"op": "remove", "path": "/overview"},
+                 {"op": "add", "path": "/genres/-", "value": "Drama"}]"""), entityOf(Movie.class), objectMapper);
+        assertTrue(update.isPresent());
+        assertEquals(new Update().set("title", "movie patched").unset("overview").push("genres", "Drama"), update.get());
+    }
+
+    @Test
+    @DisplayName("To Update - Converts Values To The Field Type")
+    void toUpdate_thenConvertsValues() throws JsonProcessingException {
+        Optional<Update> update = PatchUtils.toUpdate(operationsOf("""
+                [{"op": "replace", "path": "/rating", "value": "4"}]"""), entityOf(Review.class), objectMapper);
+        assertEquals(4, update.orElseThrow().getUpdateObject().get("$set", Document.class).get("rating"));
+
+        Optional<Update> seasonUpdate = PatchUtils.toUpdate(operationsOf("""
+                [{"op": "add", "path": "/seasonList/-", "value": {"overview": "season 2", "episodeList": []}}]"""), entityOf(Series.class), objectMapper);
+        Object season = seasonUpdate.orElseThrow().getUpdateObject().get("$push", Document.class).get("seasonList");
+        assertEquals("season 2", assertInstanceOf(Series.Season.class, season).getOverview());
+    }
+
+    @Test
+    @DisplayName("To Update - Not Translatable Operations Return Empty")
+    void toUpdate_whenNotTranslatable_thenReturnsEmpty() throws JsonProcessingException {
+        List<String> notTranslatable = List.of(
+                "[{\"op\": \"copy\", \"from\": \"/title\", \"path\": \"/overview\"}]",
+                "[{\"op\": \"test\", \"path\": \"/title\", \"value\": \"movie\"}]",
+                "[{\"op\": \"replace\", \"path\": \"/genres/0\", \"value\": \"Drama\"}]",
+                "[{\"op\": \"replace\", \"path\": \"/ratingStats/count\", \"value\": 1}]",
+                "[{\"op\": \"replace\", \"path\": \"/ratingStats\", \"value\": {}}]",
+                "[{\"op\": \"remove\", \"path\": \"/latestReviews\"}]",
+                "[{\"op\": \"replace\", \"path\": \"/unknown\", \"value\": \"value\"}]",
+                "[{\"op\": \"replace\", \"path\": \"\", \"value\": {}}]",
+                "[{\"op\": \"remove\", \"path\": \"/title\"}, {\"op\": \"add\", \"path\": \"/title\", \"value\": \"movie\"}]",
+                "[]");
+        for (String operations : notTranslatable) {
+            assertTrue(PatchUtils.toUpdate(operationsOf(operations), entityOf(Movie.class), objectMapper).isEmpty(), operations);
+        }
+    }
+
+    @Test
+    @DisplayName("To Update - Throws Cannot Parse JSON")
+    void toUpdate_whenValueHasWrongType_thenThrowsCannotParseJson() {
+        ErrorException thrown = assertThrows(ErrorException.class, () -> PatchUtils.toUpdate(operationsOf("""
+                [{"op": "replace", "path": "/rating", "value": "five"}]"""), entityOf(Review.class), objectMapper), "ErrorException was expected");
+        assertEquals("Cannot parse JSON Patch, change JSON object", thrown.getMessage());
+    }
+
+    @Test
+    @DisplayName("Touches Path - Checks Every Operation Path And From")
+    void touchesPath_thenChecksEveryOperation() throws JsonProcessingException {
+        assertTrue(PatchUtils.touchesPath(operationsOf("""
+                [{"op": "replace", "path": "/title", "value": "movie"}, {"op": "move", "from": "/id", "path": "/overview"}]"""), "/id"));
+        assertTrue(PatchUtils.touchesPath(operationsOf("[{\"op\": \"remove\", \"path\": \"/ID\"}]"), "/id"));
+        assertFalse(PatchUtils.touchesPath(operationsOf("[{\"op\": \"replace\", \"path\": \"/imdbId\", \"value\": \"tt1\"}]"), "/id"));
+    }
+
+    @Test
+    @DisplayName("Touches Server Fields - Checks Rating Stats And Latest Reviews")
+    void touchesServerFields_thenChecksAggregates() throws JsonProcessingException {
+        assertTrue(PatchUtils.touchesServerFields(operationsOf("[{\"op\": \"replace\", \"path\": \"/ratingStats/sum\", \"value\": 5}]")));
+        assertTrue(PatchUtils.touchesServerFields(operationsOf("[{\"op\": \"copy\", \"from\": \"/latestReviews\", \"path\": \"/genres\"}]")));
+        assertFalse(PatchUtils.touchesServerFields(operationsOf("[{\"op\": \"replace\", \"path\": \"/title\", \"value\": \"movie\"}]")));
+    }
+
+    @Test
+    @DisplayName("Require Targets - Replaced And Removed Fields Must Be Stored")
+    void requireTargets_thenAddsCriteriaForReplacedAndRemovedFields() throws JsonProcessingException {
+        Query query = PatchUtils.requireTargets(Query.query(Criteria.where("rating").is(3)), operationsOf("""
+                [{"op": "replace", "path": "/title", "value": "review"},
+                 {"op": "remove", "path": "/body"},
+                 {"op": "replace", "path": "/rating", "value": 4}]"""), entityOf(Review.class));
+        assertEquals(Query.query(Criteria.where("rating").is(3)).addCriteria(Criteria.where("title").ne(null)).addCriteria(Criteria.where("body").ne(null)), query);
+
+        Query addQuery = PatchUtils.requireTargets(new Query(), operationsOf("[{\"op\": \"add\", \"path\": \"/genres/-\", \"value\": \"Drama\"}]"), entityOf(Movie.class));
+        assertEquals(new Query(), addQuery);
+    }
+
+    @Test
+    @DisplayName("Without Null Fields - Removes Fields Never Stored")
+    void withoutNullFields_thenRemovesNullFields() throws JsonProcessingException {
+        JsonNode document = PatchUtils.withoutNullFields(objectMapper.readTree("{\"title\": \"movie\", \"overview\": null}"));
+        assertTrue(document.has("title"));
+        assertFalse(document.has("overview"));
+    }
+
+    private JsonNode operationsOf(String json) throws JsonProcessingException {
+        return objectMapper.readTree(json);
+    }
+
+    private MongoPersistentEntity<?> entityOf(Class<?> entityClass) {
+        return mappingContext.getRequiredPersistentEntity(entityClass);
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
+    }
+}
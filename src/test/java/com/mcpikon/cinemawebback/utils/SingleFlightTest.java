@@ -0,0 +1,82 @@
+package com.mcpikon.cinemawebback.utils;
+
+import com.mcpikon.cinemawebback.exceptions.ErrorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mcpikon.cinemawebback.exceptions.Errors.NOT_EXISTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Execute - Concurrent Callers Share One Query")
+    void execute_whenConcurrent_thenRunsQueryOnce() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) results.add(callers.submit(() -> singleFlight.execute(SingleFlight.key("findByImdbId", "tt12345"), () -> {
+                queries.incrementAndGet();
+                await(release);
+                return "movie";
+            })));
+            while (queries.get() == 0) Thread.onSpinWait();
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) assertEquals("movie", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, queries.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    @DisplayName("Execute - Waiting Callers Get The Same Exception")
+    void execute_whenQueryFails_thenEveryCallerThrows() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> leader = callers.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                throw new ErrorException(NOT_EXISTS.getId(), NOT_EXISTS.getMessage(), NOT_EXISTS.getHttpStatus());
+            }));
+            started.await();
+            Future<Object> follower = callers.submit(() -> singleFlight.execute("key", () -> fail("Follower must not run its own query")));
+            Thread.sleep(100);
+            release.countDown();
+            assertInstanceOf(ErrorException.class, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertInstanceOf(ErrorException.class, assertThrows(ExecutionException.class, follower::get).getCause());
+        }
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    @DisplayName("Execute - Sequential Calls And Different Keys Run Their Own Query")
+    void execute_whenNotConcurrent_thenRunsEveryQuery() {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger queries = new AtomicInteger();
+        singleFlight.execute(SingleFlight.key("findAll", null, 0, 10), queries::incrementAndGet);
+        singleFlight.execute(SingleFlight.key("findAll", null, 0, 10), queries::incrementAndGet);
+        singleFlight.execute(SingleFlight.key("findAll", "title", 0, 10), queries::incrementAndGet);
+        assertEquals(3, queries.get());
+        assertEquals(SingleFlight.key("findAll", null, 0, 10), SingleFlight.key("findAll", null, 0, 10));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}